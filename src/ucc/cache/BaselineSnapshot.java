@@ -0,0 +1,297 @@
+package ucc.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+import ucc.datatypes.UCCFile;
+import ucc.main.RuntimeParameters;
+
+/**
+ * BaselineSnapshot class saves the counting results of a whole baseline to a
+ * file, and reads them back so that the baseline can be differenced again
+ * without counting it.
+ *
+ * <p>
+ * A snapshot starts with a header holding a magic number, the format version
+ * and the options the baseline was counted with. The records of the files
+ * follow, each holding the fields that place the file in its baseline, its
+ * counting results and the LSLOC lines saved for the differencer. The snapshot
+ * ends with a table of the offsets of the records and the offset of that table.
+ * Snapshots are not compressed, so they are read through a memory mapping and
+ * any record can be reached directly through the offset table.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class BaselineSnapshot
+{
+   /** Instantiate the Log4j2 logger for this class */
+   private static final Logger logger = LogManager.getLogger(BaselineSnapshot.class);
+
+   /** Identifies the start of a snapshot file */
+   private static final int SNAPSHOT_MAGIC = 0x55434342;
+
+   /**
+    * Private constructor, all methods of this class are static
+    */
+   private BaselineSnapshot()
+   {
+   }
+
+   /**
+    * Saves the counting results of a baseline. The snapshot is written to a
+    * temporary file that replaces the given file once complete.
+    *
+    * @param cntrResults
+    *           Counting results of the baseline, including embedded code files
+    * @param fileName
+    *           Name of the snapshot file
+    * @return True if the snapshot was saved, false otherwise
+    */
+   public static boolean Save(ArrayList<UCCFile> cntrResults, String fileName)
+   {
+      Path snapshotPath = Paths.get(fileName).toAbsolutePath();
+      Path tempPath = null;
+      try
+      {
+         tempPath = Files.createTempFile(snapshotPath.getParent(), "snapshot", ".tmp");
+         try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath))))
+         {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(Constants.BASELINE_SNAPSHOT_FORMAT_VERSION);
+            UCCFileSerializer.WriteString(out, GetSnapshotOptions());
+
+            long[] offsets = new long[cntrResults.size()];
+            for (int i = 0; i < cntrResults.size(); i++)
+            {
+               offsets[i] = out.size();
+               WriteFile(out, cntrResults.get(i));
+               if (out.size() == Integer.MAX_VALUE)
+               {
+                  throw new IOException("Snapshot exceeds the maximum size of " + Integer.MAX_VALUE + " bytes");
+               }
+            }
+
+            long tableOffset = out.size();
+            out.writeInt(offsets.length);
+            for (long offset : offsets)
+            {
+               out.writeLong(offset);
+            }
+            out.writeLong(tableOffset);
+         }
+
+         Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         return true;
+      }
+      catch (IOException e)
+      {
+         System.err.println("Could not save baseline snapshot " + fileName + ": " + e.getMessage());
+         logger.error("Could not save baseline snapshot " + fileName + ": " + e.getMessage());
+         logger.debug(e);
+         if (tempPath != null)
+         {
+            try
+            {
+               Files.deleteIfExists(tempPath);
+            }
+            catch (IOException deleteException)
+            {
+               logger.debug(deleteException);
+            }
+         }
+         return false;
+      }
+   }
+
+   /**
+    * Loads the counting results of a baseline saved by Save. The snapshot must
+    * have been saved with the same counting options as this run.
+    *
+    * @param fileName
+    *           Name of the snapshot file
+    * @param baseline
+    *           The baseline (A or B) the results are loaded as
+    * @param cntrResults
+    *           Receives the counting results of the baseline
+    * @return True if the snapshot was loaded, false otherwise
+    */
+   public static boolean Load(String fileName, String baseline, ArrayList<UCCFile> cntrResults)
+   {
+      try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+      {
+         if (channel.size() > Integer.MAX_VALUE)
+         {
+            throw new IOException("Snapshot exceeds the maximum size of " + Integer.MAX_VALUE + " bytes");
+         }
+
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+
+         if (buffer.remaining() < Integer.BYTES * 2 || in.readInt() != SNAPSHOT_MAGIC)
+         {
+            throw new IOException("Not a baseline snapshot");
+         }
+         if (in.readInt() != Constants.BASELINE_SNAPSHOT_FORMAT_VERSION)
+         {
+            throw new IOException("Snapshot was saved in another format version");
+         }
+         if (!GetSnapshotOptions().equals(UCCFileSerializer.ReadString(in)))
+         {
+            throw new IOException("Snapshot was saved by another version of UCC or with other counting options");
+         }
+
+         buffer.position(buffer.limit() - Long.BYTES);
+         buffer.position((int) in.readLong());
+         long[] offsets = new long[in.readInt()];
+         for (int i = 0; i < offsets.length; i++)
+         {
+            offsets[i] = in.readLong();
+         }
+
+         for (int i = 0; i < offsets.length; i++)
+         {
+            buffer.position((int) offsets[i]);
+            UCCFile cntrResult = new UCCFile();
+            ReadFile(in, cntrResult, baseline);
+            cntrResults.add(cntrResult);
+         }
+         return true;
+      }
+      catch (IOException | RuntimeException e)
+      {
+         System.err.println("Could not load baseline snapshot " + fileName + ": " + e.getMessage());
+         logger.error("Could not load baseline snapshot " + fileName + ": " + e.getMessage());
+         logger.debug(e);
+         return false;
+      }
+   }
+
+   /**
+    * Writes the record of a file
+    *
+    * @param out
+    *           Stream to write to
+    * @param file
+    *           The counted file
+    * @throws IOException
+    *            If the stream could not be written
+    */
+   private static void WriteFile(DataOutputStream out, UCCFile file) throws IOException
+   {
+      UCCFileSerializer.WriteString(out, file.FileName);
+      out.writeInt(file.Idx);
+      out.writeInt(file.EmbOfIdx);
+      out.writeBoolean(file.IsDup);
+      out.writeInt(file.DupOfIdx);
+      out.writeDouble(file.DupCodePercent);
+      out.writeLong(file.FileChecksum);
+      out.writeBoolean(file.UniqueFileName);
+
+      UCCFileSerializer.WriteCounts(out, file);
+      UCCFileSerializer.WriteLslocLines(out, file);
+   }
+
+   /**
+    * Reads the record of a file written by WriteFile
+    *
+    * @param in
+    *           Stream to read from
+    * @param file
+    *           The file that receives the record
+    * @param baseline
+    *           The baseline (A or B) the file is loaded as, which names the
+    *           spill file of its LSLOC lines
+    * @throws IOException
+    *            If the stream could not be read or is not valid
+    */
+   private static void ReadFile(DataInputStream in, UCCFile file, String baseline) throws IOException
+   {
+      file.FileName = UCCFileSerializer.ReadString(in);
+      file.Baseline = baseline;
+      file.Idx = in.readInt();
+      file.EmbOfIdx = in.readInt();
+      file.IsDup = in.readBoolean();
+      file.DupOfIdx = in.readInt();
+      file.DupCodePercent = in.readDouble();
+      file.FileChecksum = in.readLong();
+      file.UniqueFileName = in.readBoolean();
+
+      UCCFileSerializer.ReadCounts(in, file);
+      UCCFileSerializer.ReadLslocLines(in, file);
+   }
+
+   /**
+    * Returns the options of this run that a snapshot must have been saved with
+    * to be loaded. Besides the counting options, the duplicate file options
+    * decide which files of the baseline are duplicates.
+    *
+    * @return The options, as a string
+    */
+   private static String GetSnapshotOptions()
+   {
+      RuntimeParameters rtParams = RuntimeParameters.GetInstance();
+
+      return UCCFileSerializer.GetCountOptions() + "|" + rtParams.SearchForDups + "|" + rtParams.DupThreshold;
+   }
+
+   /**
+    * ByteBufferInputStream class reads a byte buffer as an input stream, from
+    * the current position of the buffer
+    */
+   private static class ByteBufferInputStream extends InputStream
+   {
+      /** The buffer read from */
+      private ByteBuffer Buffer;
+
+      /**
+       * Constructor
+       *
+       * @param buffer
+       *           The buffer read from
+       */
+      ByteBufferInputStream(ByteBuffer buffer)
+      {
+         Buffer = buffer;
+      }
+
+      @Override
+      public int read()
+      {
+         return Buffer.hasRemaining() ? (Buffer.get() & 0xFF) : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int off, int len)
+      {
+         if (len == 0)
+         {
+            return 0;
+         }
+         if (!Buffer.hasRemaining())
+         {
+            return -1;
+         }
+
+         int numRead = Math.min(len, Buffer.remaining());
+         Buffer.get(bytes, off, numRead);
+         return numRead;
+      }
+   }
+}
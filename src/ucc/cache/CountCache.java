@@ -0,0 +1,339 @@
+package ucc.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+import ucc.datatypes.UCCFile;
+import ucc.main.RuntimeParameters;
+import ucc.utils.ChecksumUtils;
+import ucc.utils.FileUtils;
+
+/**
+ * CountCache class keeps the counting results of files on disk so that files
+ * that did not change since an earlier run are not counted again.
+ *
+ * <p>
+ * Each counted file has its own entry file in the cache directory, named after
+ * a digest of the canonical path of the file, its language and the options
+ * that affect counting. An entry also records the size, modification time and
+ * checksum of the counted file, and is only used if all of them still match.
+ * It holds the results of the file and of the embedded code files extracted
+ * from it, and the LSLOC lines saved for the differencer.
+ *
+ * <p>
+ * Entries are written to a temporary file that is then renamed, so concurrent
+ * readers, in this or another run, never see a partial entry. Entries are
+ * compressed. Reading an entry refreshes its modification time, and entries
+ * that were not used for {@link Constants#COUNT_CACHE_MAX_AGE_DAYS} days are
+ * evicted by Prune().
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class CountCache
+{
+   /** Instantiate the Log4j2 logger for this class */
+   private static final Logger logger = LogManager.getLogger(CountCache.class);
+
+   /** Identifies the start of an entry file */
+   private static final int ENTRY_MAGIC = 0x55434343;
+
+   /** File name suffix of entry files */
+   private static final String ENTRY_SUFFIX = ".ucc";
+
+   /** A handle to the RuntimeParameters class's single instance */
+   private static RuntimeParameters RtParams = RuntimeParameters.GetInstance();
+
+   /** The cache directory */
+   private File CacheDir;
+
+   /** Options of this run that affect the counting results */
+   private String CountOptions;
+
+   /** Number of files whose results were read from the cache */
+   private AtomicInteger NumHits;
+
+   /** Number of files whose results were not in the cache */
+   private AtomicInteger NumMisses;
+
+   /**
+    * Constructor to open a cache directory, which is created if needed
+    *
+    * @param cacheDirPath
+    *           Path of the cache directory
+    */
+   public CountCache(String cacheDirPath)
+   {
+      CacheDir = new File(cacheDirPath);
+      if (!CacheDir.isDirectory() && !CacheDir.mkdirs())
+      {
+         logger.error("Could not create count cache directory " + cacheDirPath);
+      }
+
+      CountOptions = Constants.COUNT_CACHE_FORMAT_VERSION + "|" + UCCFileSerializer.GetCountOptions();
+      NumHits = new AtomicInteger(0);
+      NumMisses = new AtomicInteger(0);
+   }
+
+   /**
+    * Reads the counting results of a file from the cache
+    *
+    * @param cntrResult
+    *           The file, which receives the results on a hit
+    * @param fileChecksum
+    *           Checksum of the file, as returned by GetFileChecksum
+    * @return The embedded code files extracted from the file, with EmbOfIdx set
+    *         to 0, or null if the file is not in the cache
+    */
+   public ArrayList<UCCFile> Load(UCCFile cntrResult, long fileChecksum)
+   {
+      File sourceFile = new File(cntrResult.FileName);
+      File entryFile = GetEntryFile(cntrResult);
+      if (entryFile == null || !entryFile.isFile())
+      {
+         NumMisses.incrementAndGet();
+         return null;
+      }
+
+      UCCFile cachedResult = null;
+      try (DataInputStream in = new DataInputStream(
+               new BufferedInputStream(new InflaterInputStream(Files.newInputStream(entryFile.toPath())))))
+      {
+         if (in.readInt() != ENTRY_MAGIC || !GetEntryKey(cntrResult).equals(UCCFileSerializer.ReadString(in))
+                  || in.readLong() != FileUtils.GetFileSize(cntrResult.FileName)
+                  || in.readLong() != sourceFile.lastModified() || in.readLong() != fileChecksum)
+         {
+            NumMisses.incrementAndGet();
+            return null;
+         }
+
+         // The entry is read into a scratch file, so that the file keeps no
+         // results of an entry that could not be read whole
+         cachedResult = new UCCFile();
+         cachedResult.FileName = cntrResult.FileName;
+         cachedResult.Baseline = cntrResult.Baseline;
+         cachedResult.Idx = cntrResult.Idx;
+         UCCFileSerializer.ReadCounts(in, cachedResult);
+         UCCFileSerializer.ReadLslocLines(in, cachedResult);
+
+         ArrayList<UCCFile> embResults = new ArrayList<UCCFile>();
+         int numEmbResults = in.readInt();
+         for (int i = 0; i < numEmbResults; i++)
+         {
+            UCCFile embResult = new UCCFile();
+            embResult.FileName = FileUtils.BuildTempOutFileName_embeddedCodeFile(RtParams, cntrResult,
+                     UCCFileSerializer.ReadString(in));
+            embResult.EmbOfIdx = 0;
+            UCCFileSerializer.ReadCounts(in, embResult);
+            embResults.add(embResult);
+         }
+
+         UCCFileSerializer.MoveCounts(cachedResult, cntrResult);
+
+         // Refresh the entry so that it is evicted last
+         entryFile.setLastModified(System.currentTimeMillis());
+         NumHits.incrementAndGet();
+
+         return embResults;
+      }
+      catch (IOException e)
+      {
+         logger.error("Could not read count cache entry " + entryFile.getPath() + ", counting the file again");
+         logger.debug(e);
+         if (cachedResult != null && cachedResult.LslocLines != null)
+         {
+            cachedResult.LslocLines.Delete();
+         }
+         NumMisses.incrementAndGet();
+         return null;
+      }
+   }
+
+   /**
+    * Writes the counting results of a file to the cache
+    *
+    * @param cntrResult
+    *           The counted file
+    * @param embResults
+    *           The embedded code files extracted from the file
+    * @param fileChecksum
+    *           Checksum of the file, as returned by GetFileChecksum
+    */
+   public void Store(UCCFile cntrResult, List<UCCFile> embResults, long fileChecksum)
+   {
+      File sourceFile = new File(cntrResult.FileName);
+      File entryFile = GetEntryFile(cntrResult);
+      if (entryFile == null)
+      {
+         return;
+      }
+
+      Path tempPath = null;
+      try
+      {
+         tempPath = Files.createTempFile(CacheDir.toPath(), "entry", ".tmp");
+         try (DataOutputStream out = new DataOutputStream(
+                  new BufferedOutputStream(new DeflaterOutputStream(Files.newOutputStream(tempPath)))))
+         {
+            out.writeInt(ENTRY_MAGIC);
+            UCCFileSerializer.WriteString(out, GetEntryKey(cntrResult));
+            out.writeLong(FileUtils.GetFileSize(cntrResult.FileName));
+            out.writeLong(sourceFile.lastModified());
+            out.writeLong(fileChecksum);
+
+            UCCFileSerializer.WriteCounts(out, cntrResult);
+            UCCFileSerializer.WriteLslocLines(out, cntrResult);
+
+            // Embedded code file names are rebuilt from the parent file
+            String embPrefix = FileUtils.BuildTempOutFileName_embeddedCodeFile(RtParams, cntrResult, "");
+            out.writeInt(embResults.size());
+            for (UCCFile embResult : embResults)
+            {
+               UCCFileSerializer.WriteString(out, embResult.FileName.substring(embPrefix.length()));
+               UCCFileSerializer.WriteCounts(out, embResult);
+            }
+         }
+
+         Files.move(tempPath, entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                  StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (IOException e)
+      {
+         logger.error("Could not write count cache entry " + entryFile.getPath());
+         logger.debug(e);
+         if (tempPath != null)
+         {
+            FileUtils.DeleteFile(tempPath.toString());
+         }
+      }
+   }
+
+   /**
+    * Deletes the entries, and any leftover temporary files, that were not
+    * used for the maximum age of an entry
+    */
+   public void Prune()
+   {
+      File[] files = CacheDir.listFiles();
+      if (files == null)
+      {
+         return;
+      }
+
+      long minLastModified = System.currentTimeMillis() - Constants.COUNT_CACHE_MAX_AGE_DAYS * 24L * 60 * 60 * 1000;
+      int numEvicted = 0;
+      for (File file : files)
+      {
+         if (file.isFile() && file.lastModified() < minLastModified && file.delete())
+         {
+            numEvicted++;
+         }
+      }
+
+      if (numEvicted > 0)
+      {
+         logger.info("Evicted " + numEvicted + " count cache entries");
+      }
+   }
+
+   /**
+    * Returns the number of files whose results were read from the cache
+    *
+    * @return Number of cache hits
+    */
+   public int GetNumHits()
+   {
+      return NumHits.get();
+   }
+
+   /**
+    * Returns the number of files whose results were not in the cache
+    *
+    * @return Number of cache misses
+    */
+   public int GetNumMisses()
+   {
+      return NumMisses.get();
+   }
+
+   /**
+    * Returns the key of the entry of a file, which identifies the file and
+    * everything its counting results depend on besides its contents
+    *
+    * @param cntrResult
+    *           The file
+    * @return The entry key
+    * @throws IOException
+    *            If the canonical path of the file could not be found
+    */
+   private String GetEntryKey(UCCFile cntrResult) throws IOException
+   {
+      return new File(cntrResult.FileName).getCanonicalPath() + "|" + cntrResult.LangProperty.name() + "|"
+               + cntrResult.UniqueFileName + "|" + CountOptions;
+   }
+
+   /**
+    * Returns the entry file of a file, named after a digest of its entry key
+    *
+    * @param cntrResult
+    *           The file
+    * @return The entry file, or null if no entry can be kept for the file
+    */
+   private File GetEntryFile(UCCFile cntrResult)
+   {
+      try
+      {
+         MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         byte[] hash = digest.digest(GetEntryKey(cntrResult).getBytes(StandardCharsets.UTF_8));
+
+         StringBuilder name = new StringBuilder();
+         for (int i = 0; i < 16; i++)
+         {
+            name.append(String.format("%02x", hash[i]));
+         }
+         return new File(CacheDir, name.append(ENTRY_SUFFIX).toString());
+      }
+      catch (IOException | NoSuchAlgorithmException e)
+      {
+         logger.error("Could not name the count cache entry of " + cntrResult.FileName);
+         logger.debug(e);
+         return null;
+      }
+   }
+
+   /**
+    * Returns the checksum of a file that entries are validated with,
+    * calculating it if the duplicate file check did not
+    *
+    * @param cntrResult
+    *           The file
+    * @return The checksum of the file
+    */
+   public static long GetFileChecksum(UCCFile cntrResult)
+   {
+      if (cntrResult.FileChecksum == 0)
+      {
+         return ChecksumUtils.GetFileChecksum(cntrResult.FileName);
+      }
+      return cntrResult.FileChecksum;
+   }
+}
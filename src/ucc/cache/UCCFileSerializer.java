@@ -0,0 +1,405 @@
+package ucc.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ucc.counters.CodeCounter;
+import ucc.datatypes.CmplxDataType;
+import ucc.datatypes.Constants;
+import ucc.datatypes.DataTypes.LanguagePropertiesType;
+import ucc.datatypes.DataTypes.SourceFileType;
+import ucc.datatypes.UCCFile;
+import ucc.main.ReleaseInfo;
+import ucc.main.RuntimeParameters;
+
+/**
+ * UCCFileSerializer class writes the counting results of a UCCFile to a binary
+ * stream and reads them back. Only the results produced by the code counters
+ * are written, not the fields describing where the file is in a baseline. The
+ * LSLOC lines saved for the differencer are written separately, with
+ * WriteLslocLines.
+ *
+ * <p>
+ * Strings are written as UTF-8 bytes preceded by their length, so that they
+ * are not limited in size. Enumerated values are written by name.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class UCCFileSerializer
+{
+   /**
+    * Private constructor, all methods of this class are static
+    */
+   private UCCFileSerializer()
+   {
+   }
+
+   /**
+    * Writes the counting results of a file
+    *
+    * @param out
+    *           Stream to write to
+    * @param file
+    *           The counted file
+    * @throws IOException
+    *            If the stream could not be written
+    */
+   public static void WriteCounts(DataOutputStream out, UCCFile file) throws IOException
+   {
+      WriteString(out, file.FileType.name());
+      WriteString(out, file.LangProperty == null ? null : file.LangProperty.name());
+      WriteString(out, file.LangVersion);
+      out.writeBoolean(file.IsCounted);
+      out.writeBoolean(file.HasEmbCode);
+
+      out.writeInt(file.NumTotalLines);
+      out.writeInt(file.NumBlankLines);
+      out.writeInt(file.NumWholeComments);
+      out.writeInt(file.NumEmbeddedComments);
+      out.writeInt(file.NumCompilerDirectives);
+      out.writeInt(file.NumDataDeclPhys);
+      out.writeInt(file.NumExecInstrPhys);
+      out.writeInt(file.NumDataDeclLog);
+      out.writeInt(file.NumExecInstrLog);
+      out.writeInt(file.NumPSLOC);
+      out.writeInt(file.NumLSLOC);
+
+      for (ArrayList<CmplxDataType> cnts : GetCmplxLists(file))
+      {
+         out.writeInt(cnts.size());
+         for (CmplxDataType cnt : cnts)
+         {
+            WriteString(out, cnt.Keyword);
+            out.writeInt(cnt.Count);
+         }
+      }
+      out.writeInt(file.CyclCmplxTotal);
+      out.writeDouble(file.CyclCmplxAvg);
+
+      out.writeInt(file.FileLineChecksum.size());
+      for (int checksum : file.FileLineChecksum)
+      {
+         out.writeInt(checksum);
+      }
+
+      WriteMap(out, file.charMap);
+      WriteMap(out, file.digitMap);
+      WriteMap(out, file.wordMap);
+      out.writeDouble(file.V);
+      out.writeDouble(file.maintainabilityIndexNC);
+      out.writeDouble(file.maintainabilityIndex);
+   }
+
+   /**
+    * Reads the counting results of a file written by WriteCounts
+    *
+    * @param in
+    *           Stream to read from
+    * @param file
+    *           The file that receives the results
+    * @throws IOException
+    *            If the stream could not be read or is not valid
+    */
+   public static void ReadCounts(DataInputStream in, UCCFile file) throws IOException
+   {
+      try
+      {
+         file.FileType = SourceFileType.valueOf(ReadString(in));
+         String langName = ReadString(in);
+         file.LangProperty = (langName == null) ? null : LanguagePropertiesType.valueOf(langName);
+      }
+      catch (IllegalArgumentException e)
+      {
+         throw new IOException("Unknown file type or language", e);
+      }
+      file.LangVersion = ReadString(in);
+      file.IsCounted = in.readBoolean();
+      file.HasEmbCode = in.readBoolean();
+
+      file.NumTotalLines = in.readInt();
+      file.NumBlankLines = in.readInt();
+      file.NumWholeComments = in.readInt();
+      file.NumEmbeddedComments = in.readInt();
+      file.NumCompilerDirectives = in.readInt();
+      file.NumDataDeclPhys = in.readInt();
+      file.NumExecInstrPhys = in.readInt();
+      file.NumDataDeclLog = in.readInt();
+      file.NumExecInstrLog = in.readInt();
+      file.NumPSLOC = in.readInt();
+      file.NumLSLOC = in.readInt();
+
+      for (ArrayList<CmplxDataType> cnts : GetCmplxLists(file))
+      {
+         cnts.clear();
+         int size = in.readInt();
+         for (int i = 0; i < size; i++)
+         {
+            CmplxDataType cnt = new CmplxDataType(ReadString(in));
+            cnt.Count = in.readInt();
+            cnts.add(cnt);
+         }
+      }
+      file.CyclCmplxTotal = in.readInt();
+      file.CyclCmplxAvg = in.readDouble();
+
+      file.FileLineChecksum.clear();
+      int numChecksums = in.readInt();
+      for (int i = 0; i < numChecksums; i++)
+      {
+         file.FileLineChecksum.add(in.readInt());
+      }
+
+      ReadMap(in, file.charMap);
+      ReadMap(in, file.digitMap);
+      ReadMap(in, file.wordMap);
+      file.V = in.readDouble();
+      file.maintainabilityIndexNC = in.readDouble();
+      file.maintainabilityIndex = in.readDouble();
+   }
+
+   /**
+    * Writes the LSLOC lines saved for the differencer of a file
+    *
+    * @param out
+    *           Stream to write to
+    * @param file
+    *           The counted file
+    * @throws IOException
+    *            If the lines could not be read or the stream written
+    */
+   public static void WriteLslocLines(DataOutputStream out, UCCFile file) throws IOException
+   {
+      if (file.LslocLines == null)
+      {
+         WriteString(out, null);
+         return;
+      }
+
+      StringBuilder lines = new StringBuilder();
+      char[] buffer = new char[Constants.CHECKSUM_BUFFER_SIZE];
+      try (Reader reader = file.LslocLines.OpenReader())
+      {
+         int numRead;
+         while ((numRead = reader.read(buffer)) > 0)
+         {
+            lines.append(buffer, 0, numRead);
+         }
+      }
+      WriteString(out, lines.toString());
+   }
+
+   /**
+    * Reads the LSLOC lines written by WriteLslocLines into a new LSLOC buffer
+    * of a file
+    *
+    * @param in
+    *           Stream to read from
+    * @param file
+    *           The file that receives the lines
+    * @throws IOException
+    *            If the stream could not be read or the buffer written
+    */
+   public static void ReadLslocLines(DataInputStream in, UCCFile file) throws IOException
+   {
+      String lines = ReadString(in);
+      if (lines != null)
+      {
+         file.LslocLines = CodeCounter.NewLslocBuffer(file);
+         file.LslocLines.write(lines);
+         file.LslocLines.close();
+      }
+   }
+
+   /**
+    * Copies the counting results and the LSLOC lines of a file to another
+    * file with the same contents, as if the other file had been counted
+    *
+    * @param from
+    *           The counted file
+    * @param to
+    *           The file that receives the results
+    * @throws IOException
+    *            If the LSLOC lines could not be copied
+    */
+   public static void CopyCounts(UCCFile from, UCCFile to) throws IOException
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes))
+      {
+         WriteCounts(out, from);
+         WriteLslocLines(out, from);
+      }
+
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+      {
+         ReadCounts(in, to);
+         ReadLslocLines(in, to);
+      }
+   }
+
+   /**
+    * Moves the counting results and the LSLOC lines of a file to another file,
+    * such as from a scratch file the results were read into. The LSLOC buffer
+    * is handed over, not copied.
+    *
+    * @param from
+    *           The file holding the results, left without LSLOC lines
+    * @param to
+    *           The file that receives the results
+    * @throws IOException
+    *            If the results could not be copied
+    */
+   public static void MoveCounts(UCCFile from, UCCFile to) throws IOException
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes))
+      {
+         WriteCounts(out, from);
+      }
+
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+      {
+         ReadCounts(in, to);
+      }
+      to.LslocLines = from.LslocLines;
+      from.LslocLines = null;
+   }
+
+   /**
+    * Returns the options of this run that affect the counting results, so that
+    * results saved by an earlier run are only reused with the same options
+    *
+    * @return The options, as a string
+    */
+   public static String GetCountOptions()
+   {
+      RuntimeParameters rtParams = RuntimeParameters.GetInstance();
+
+      return ReleaseInfo.GetVersionInfo() + "|" + rtParams.DiffCode + "|" + rtParams.CountCmplxMetrics + "|"
+               + rtParams.TruncThreshold + "|" + rtParams.SearchForDupsAnyName;
+   }
+
+   /**
+    * Writes a string, which may be null
+    *
+    * @param out
+    *           Stream to write to
+    * @param str
+    *           The string
+    * @throws IOException
+    *            If the stream could not be written
+    */
+   public static void WriteString(DataOutputStream out, String str) throws IOException
+   {
+      if (str == null)
+      {
+         out.writeInt(-1);
+      }
+      else
+      {
+         byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      }
+   }
+
+   /**
+    * Reads a string written by WriteString
+    *
+    * @param in
+    *           Stream to read from
+    * @return The string, which may be null
+    * @throws IOException
+    *            If the stream could not be read
+    */
+   public static String ReadString(DataInputStream in) throws IOException
+   {
+      int length = in.readInt();
+      if (length < 0)
+      {
+         return null;
+      }
+
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Writes an operand map
+    *
+    * @param out
+    *           Stream to write to
+    * @param map
+    *           The map
+    * @throws IOException
+    *            If the stream could not be written
+    */
+   private static void WriteMap(DataOutputStream out, TreeMap<String, Integer> map) throws IOException
+   {
+      out.writeInt(map.size());
+      for (Map.Entry<String, Integer> entry : map.entrySet())
+      {
+         WriteString(out, entry.getKey());
+         out.writeInt(entry.getValue());
+      }
+   }
+
+   /**
+    * Reads an operand map written by WriteMap
+    *
+    * @param in
+    *           Stream to read from
+    * @param map
+    *           The map that receives the entries
+    * @throws IOException
+    *            If the stream could not be read
+    */
+   private static void ReadMap(DataInputStream in, TreeMap<String, Integer> map) throws IOException
+   {
+      map.clear();
+      int size = in.readInt();
+      for (int i = 0; i < size; i++)
+      {
+         String key = ReadString(in);
+         map.put(key, in.readInt());
+      }
+   }
+
+   /**
+    * Returns the complexity count lists of a file, always in the same order
+    *
+    * @param file
+    *           The file
+    * @return The complexity count lists
+    */
+   private static ArrayList<ArrayList<CmplxDataType>> GetCmplxLists(UCCFile file)
+   {
+      ArrayList<ArrayList<CmplxDataType>> lists = new ArrayList<ArrayList<CmplxDataType>>();
+      lists.add(file.CmplxMathCnts);
+      lists.add(file.CmplxTrigCnts);
+      lists.add(file.CmplxLogCnts);
+      lists.add(file.CmplxCalcCnts);
+      lists.add(file.CmplxCondCnts);
+      lists.add(file.CmplxLoopCnts);
+      lists.add(file.CmplxLogicCnts);
+      lists.add(file.CmplxPreprocCnts);
+      lists.add(file.CmplxAssignCnts);
+      lists.add(file.CmplxPntrCnts);
+      lists.add(file.DataKeywordCnts);
+      lists.add(file.ExecKeywordCnts);
+      lists.add(file.BoolOperandCnts);
+      lists.add(file.CmplxLoopLvlCnts);
+      lists.add(file.CyclCmplxCnts);
+      return lists;
+   }
+}
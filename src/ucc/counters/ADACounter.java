@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -90,12 +87,11 @@ public class ADACounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -171,7 +167,7 @@ public class ADACounter extends CodeCounter
                for (int fk = 0; fk < FunctionKeywords.size(); fk++)
                {
                   regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-                  pattern = Pattern.compile(regEx);
+                  pattern = Patterns.GetPattern(regEx);
                   matcher = pattern.matcher(line);
                   while (matcher.find())
                   {
@@ -187,8 +183,8 @@ public class ADACounter extends CodeCounter
                            multiLineFlag = false;
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -222,7 +218,8 @@ public class ADACounter extends CodeCounter
                // Replace all line terminators with new lines
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Replace all double newlines with single newlines
@@ -366,43 +363,39 @@ public class ADACounter extends CodeCounter
       Matcher matcher;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Add base CC level for the cyclomatic complexity counts
       cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
       // Set the base CC level's function name to blank since Matlab can contain
       // scripts with no functions
-      cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
+      cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
 
       // Buffered writer for _LSLOC file saving
       BufferedWriter bw = null;
-      File file = null;
 
       try
       {
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -481,7 +474,7 @@ public class ADACounter extends CodeCounter
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
                   regEx = LineTerminator.get(lt);
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (matcher.find())
                   {
                      logger.debug("line " + reader.getLineNumber() + " out: " + line);
@@ -502,7 +495,7 @@ public class ADACounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -555,7 +548,7 @@ public class ADACounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -582,10 +575,13 @@ public class ADACounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -593,10 +589,13 @@ public class ADACounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
+      boolean functionFlag;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -615,7 +614,7 @@ public class ADACounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length())
@@ -623,28 +622,28 @@ public class ADACounter extends CodeCounter
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Increment the loop level if we don't have a one-liner loop
             for (int lt = 0; lt < LineTerminator.size() && !line.isEmpty(); lt++)
             {
                if (!line.trim().endsWith(LineTerminator.get(lt)))
                {
-                  ComplexityObj.loopLevel++;
+                  CmplxState.loopLevel++;
 
                   // If the loop level counter arrayList size is less than or
                   // equal to the loop level integer
-                  if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+                  if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
                   {
                      // Add another level to the level counter arrayList
-                     ComplexityObj.loopLevelCount.add(0);
+                     CmplxState.loopLevelCount.add(0);
                   }
                }
             }
@@ -656,10 +655,10 @@ public class ADACounter extends CodeCounter
                                         // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -686,7 +685,7 @@ public class ADACounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find())
          {
             // Take substring to derive function name
@@ -712,13 +711,13 @@ public class ADACounter extends CodeCounter
             if (newFunction == true)
             {
                // Increment the number of functions
-               CyclomaticComplexityObj.functionLevel++;
+               CycCmplxState.functionLevel++;
 
                // Add a new element to the cyclomatic complexity count arrayList
                cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
                // Save function name
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = line;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = line;
             }
          }
       }
@@ -742,7 +741,7 @@ public class ADACounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // While the line isn't empty, the line is longer than keyword, and we
          // find the pattern...
@@ -752,7 +751,7 @@ public class ADACounter extends CodeCounter
             line = "";
 
             // Increment the function level's CC count
-            cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Count++;
+            cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Count++;
          }
       }
    }
@@ -769,16 +768,16 @@ public class ADACounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -833,7 +832,7 @@ public class ADACounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = ":\\s+\\b" + DataKeyword.get(dk) + "\\b";
-         pattern = Pattern.compile(regEx);
+         pattern = Patterns.GetPattern(regEx);
          matcher = pattern.matcher(line);
 
          // If we find the pattern "VariableName : DataType := Value;"
@@ -866,7 +865,7 @@ public class ADACounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "end" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -892,7 +891,7 @@ public class ADACounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "when" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -920,7 +919,7 @@ public class ADACounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // While we find LSLOC keywords on the line...
          if (matcher.find() && !line.isEmpty() && line.length() >= LslocKeywords.get(lk).length())
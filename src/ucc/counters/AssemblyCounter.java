@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -79,12 +75,11 @@ public class AssemblyCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -287,18 +282,17 @@ public class AssemblyCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out data keyword counts and lsloc
       DataKeywrdCnts = 0;
       lsloc = 0;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -311,14 +305,11 @@ public class AssemblyCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -399,7 +390,7 @@ public class AssemblyCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -449,7 +440,7 @@ public class AssemblyCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -476,10 +467,13 @@ public class AssemblyCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -498,46 +492,46 @@ public class AssemblyCounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length()
                   && !line.contains("end"))
          {
             // Increment the loop level
-            ComplexityObj.loopLevel++;
+            CmplxState.loopLevel++;
 
             // If the loop level counter arrayList size is less than or equal to
             // the loop level integer
-            if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+            if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
             {
                // Add another level to the level counter arrayList
-               ComplexityObj.loopLevelCount.add(0);
+               CmplxState.loopLevelCount.add(0);
             }
 
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Delete the pattern we found
-            line = line.replaceFirst(regEx, "");
+            line = matcher.replaceFirst("");
          }
          else if (line.contains("end")) // If the line contains the loop end
                                         // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -558,7 +552,7 @@ public class AssemblyCounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = "\\Q" + DataKeyword.get(dk) + "\\E";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (!line.isEmpty() && line.length() >= DataKeyword.get(dk).length() && matcher.find())
          {
@@ -582,16 +576,16 @@ public class AssemblyCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -88,12 +85,11 @@ public class CSSCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -165,7 +161,7 @@ public class CSSCounter extends CodeCounter
                   // Add a newline after all line terminators
                   for (int lt = 0; lt < LineTerminator.size(); lt++)
                   {
-                     line = line.replaceAll(LineTerminator.get(lt), "\n");
+                     line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line).replaceAll("\n");
                   }
 
                   // Add a newline after all open curly braces
@@ -322,7 +318,6 @@ public class CSSCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -337,31 +332,17 @@ public class CSSCounter extends CodeCounter
          {
             if (cntrResult.EmbOfIdx == -1)
             {
-               // Create file for LSLOC storage
-               file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-               bw = new BufferedWriter(new FileWriter(file));
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResult);
             }
             else
             {
-               // Create file for LSLOC storage
-               file = new File(
-                        FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-               // If LSLOC file doesn't already exist, then create it
-               if (!file.exists())
-               {
-                  file.createNewFile();
-               }
-
-               // true = append file
-               FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-               bw = new BufferedWriter(fileWritter);
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
             }
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -431,14 +412,14 @@ public class CSSCounter extends CodeCounter
                   // If we're in a pure CSS file
                   if (cntrResult.EmbOfIdx == -1)
                   {
-                     if (!cntrResult.UniqueFileName)
+                     if (NeedsLineChecksums(cntrResult))
                      {
                         cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                      }
                   }
                   else // If we're in an embedded CSS file
                   {
-                     if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                     if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                      {
                         cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                      }
@@ -482,7 +463,7 @@ public class CSSCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
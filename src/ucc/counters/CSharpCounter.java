@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -103,12 +100,11 @@ public class CSharpCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -220,7 +216,7 @@ public class CSharpCounter extends CodeCounter
                {
                   closePos = 0;
                   regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (closePos >= 0 && matcher.find(closePos))
                   {
                      openPos = line.indexOf("(", matcher.end());
@@ -234,8 +230,8 @@ public class CSharpCounter extends CodeCounter
                         {
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -261,7 +257,8 @@ public class CSharpCounter extends CodeCounter
                   // Add a newline after all line terminators
                   for (int lt = 0; lt < LineTerminator.size(); lt++)
                   {
-                     line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                     line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                              .replaceAll(LineTerminator.get(lt) + "\n");
                   }
 
                   // Add a newline after all open curly braces
@@ -303,7 +300,7 @@ public class CSharpCounter extends CodeCounter
                   for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
                   {
                      regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                     matcher = Pattern.compile(regEx).matcher(line);
+                     matcher = Patterns.GetPattern(regEx).matcher(line);
                      isCompilerDirective = false;
 
                      if (matcher.find())
@@ -330,7 +327,7 @@ public class CSharpCounter extends CodeCounter
 
                         if (!isCompilerDirective)
                         {
-                           line = line.replaceAll(regEx, "\n" + LslocKeywords.get(lk));
+                           line = matcher.replaceAll("\n" + LslocKeywords.get(lk));
                            break;
                         }
                      }
@@ -338,10 +335,10 @@ public class CSharpCounter extends CodeCounter
 
                   // Special case for "do"
                   regEx = "\\b" + "do" + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   if (matcher.find())
                   {
-                     line = line.replaceAll(regEx, "\n" + "do ");
+                     line = matcher.replaceAll("\n" + "do ");
                   }
 
                   // Delete all lines that are just a newline
@@ -358,7 +355,8 @@ public class CSharpCounter extends CodeCounter
                      // Add a newline after all line terminators
                      for (int lt = 0; lt < LineTerminator.size(); lt++)
                      {
-                        line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                        line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                                 .replaceAll(LineTerminator.get(lt) + "\n");
                      }
                   }
 
@@ -498,23 +496,22 @@ public class CSharpCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out temporary loop level variables (catches all conditionals, not
       // just loop keyword info)
-      TempLoopObj.loopLevel.clear();
-      TempLoopObj.loopKeyword.clear();
+      TempLoopState.loopLevel.clear();
+      TempLoopState.loopKeyword.clear();
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -527,14 +524,11 @@ public class CSharpCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -569,7 +563,7 @@ public class CSharpCounter extends CodeCounter
                // ends up being ;)
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+                  tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
                }
             }
 
@@ -600,7 +594,7 @@ public class CSharpCounter extends CodeCounter
             }
 
             // Assume we are not dealing with a function
-            CyclomaticComplexityObj.functionFlag = false;
+            CycCmplxState.functionFlag = false;
 
             // Count loop level complexity, determine function names, and
             // calculate cyclomatic complexity
@@ -664,7 +658,7 @@ public class CSharpCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -740,7 +734,7 @@ public class CSharpCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -767,10 +761,13 @@ public class CSharpCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -778,20 +775,26 @@ public class CSharpCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
+      boolean functionFlag;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Class for storing temporary loop level variables which we will adjust to
     * get true loop level complexity
     */
    static class TempLoopObj
    {
-      static ArrayList<Integer> loopLevel = new ArrayList<Integer>();
-      static ArrayList<String> loopKeyword = new ArrayList<String>();
+      ArrayList<Integer> loopLevel = new ArrayList<Integer>();
+      ArrayList<String> loopKeyword = new ArrayList<String>();
    }
 
+   /** Temporary loop level variables of the file being counted */
+   private TempLoopObj TempLoopState = new TempLoopObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -805,7 +808,7 @@ public class CSharpCounter extends CodeCounter
       Matcher matcher;
 
       regEx = "\\}";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find }, decrement the level. We do this first so that it handles
       // "do { ... } while (...);" loops
@@ -819,17 +822,17 @@ public class CSharpCounter extends CodeCounter
       for (int ck = 0; ck < CondKeywords.size(); ck++)
       {
          regEx = "\\b" + CondKeywords.get(ck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the condition keywords on the given line...
          if (matcher.find())
          {
             regEx = "\\{";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // Add the loop level and loop keyword to our arraylists
-            TempLoopObj.loopLevel.add(level);
-            TempLoopObj.loopKeyword.add(CondKeywords.get(ck));
+            TempLoopState.loopLevel.add(level);
+            TempLoopState.loopKeyword.add(CondKeywords.get(ck));
 
             // If the line ends with a {...
             if (matcher.find() && matcher.end() == line.trim().length())
@@ -863,7 +866,7 @@ public class CSharpCounter extends CodeCounter
 
       if (line.endsWith("{"))
       {
-         CyclomaticComplexityObj.functionFlag = true;
+         CycCmplxState.functionFlag = true;
       }
 
       // Lines which match conditional keywords (but same pattern as a function)
@@ -871,10 +874,10 @@ public class CSharpCounter extends CodeCounter
       for (int ck = 0; ck < CondKeywords.size() && !line.isEmpty(); ck++)
       {
          regEx = "\\b" + CondKeywords.get(ck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find() && matcher.start() == 0)
          {
-            CyclomaticComplexityObj.functionFlag = false;
+            CycCmplxState.functionFlag = false;
             break;
          }
       }
@@ -884,10 +887,10 @@ public class CSharpCounter extends CodeCounter
       for (int udk = 0; udk < UniqueDataKeywords.size() && !line.isEmpty(); udk++)
       {
          regEx = "\\b" + UniqueDataKeywords.get(udk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find() && matcher.start() == 0)
          {
-            CyclomaticComplexityObj.functionFlag = false;
+            CycCmplxState.functionFlag = false;
             break;
          }
       }
@@ -897,10 +900,10 @@ public class CSharpCounter extends CodeCounter
       for (int ck = 0; ck < CyclCmplexKeywords.size() && !line.isEmpty(); ck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(ck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find() && matcher.start() == 0)
          {
-            CyclomaticComplexityObj.functionFlag = false;
+            CycCmplxState.functionFlag = false;
             break;
          }
       }
@@ -908,25 +911,25 @@ public class CSharpCounter extends CodeCounter
       // Lines which contain the following specific characters are not functions
       if (line.equals("{") || line.contains("=") || line.equals("({"))
       {
-         CyclomaticComplexityObj.functionFlag = false;
+         CycCmplxState.functionFlag = false;
       }
 
       // If the function flag is still true, line contains a (, and the loop
       // level is less than or equal to the defined
       // function level, we have a function
-      if (CyclomaticComplexityObj.functionFlag == true && line.indexOf("(") >= 0
-               && ComplexityObj.loopLevel <= CyclomaticComplexityObj.functionLevel)
+      if (CycCmplxState.functionFlag == true && line.indexOf("(") >= 0
+               && CmplxState.loopLevel <= CycCmplxState.functionLevel)
       {
          // Increment the number of functions (if we're past the first function)
-         CyclomaticComplexityObj.functionLevel++;
+         CycCmplxState.functionLevel++;
 
          // Add a new element to the cyclomatic complexity count arrayList
          cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
          // Extract the function name
-         if (CyclomaticComplexityObj.functionLevel > 0)
+         if (CycCmplxState.functionLevel > 0)
          {
-            cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword =
+            cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword =
                      line.substring(0, line.indexOf("("));
          }
       }
@@ -949,16 +952,16 @@ public class CSharpCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // Count multiple LSLOC keywords on one line
          while (matcher.find() && !line.isEmpty() && line.length() >= CyclCmplexKeywords.get(cck).length())
          {
             matcher.appendReplacement(sbLine, " ");
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
             }
          }
          matcher.appendTail(sbLine);
@@ -970,9 +973,9 @@ public class CSharpCounter extends CodeCounter
       {
          if (line.indexOf("?") < line.indexOf(":"))
          {
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
             }
          }
       }
@@ -995,7 +998,7 @@ public class CSharpCounter extends CodeCounter
 
       // Delete line terminators after while loops
       regEx = "\\bwhile\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find a while loop...
       if (matcher.find())
@@ -1017,7 +1020,7 @@ public class CSharpCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // While we find LSLOC keywords on the line...
@@ -1069,7 +1072,7 @@ public class CSharpCounter extends CodeCounter
       int loopCounter = 0;
 
       // Loop through all the conditional keyword instances we found...
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Assume the keyword we found was not a loop keyword
          isLoopKeyword = false;
@@ -1078,7 +1081,7 @@ public class CSharpCounter extends CodeCounter
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Turn this boolean to true
                isLoopKeyword = true;
@@ -1091,7 +1094,7 @@ public class CSharpCounter extends CodeCounter
             // Save the index in the list
             index = i;
 
-            if (i < TempLoopObj.loopLevel.size() - 1)
+            if (i < TempLoopState.loopLevel.size() - 1)
             {
                // Move to the next entry in the list
                i++;
@@ -1099,21 +1102,21 @@ public class CSharpCounter extends CodeCounter
                // Scale all the loop levels back 1 until we hit the level of the
                // conditional keyword we're dealing with.
                // This will "un-nest" iterative loops from conditional loops
-               if (!TempLoopObj.loopKeyword.get(index).equals("do"))
+               if (!TempLoopState.loopKeyword.get(index).equals("do"))
                {
-                  while (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index)
-                           && i < TempLoopObj.loopLevel.size() - 1)
+                  while (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index)
+                           && i < TempLoopState.loopLevel.size() - 1)
                   {
-                     newLevel = TempLoopObj.loopLevel.get(i) - 1;
-                     TempLoopObj.loopLevel.set(i, newLevel);
+                     newLevel = TempLoopState.loopLevel.get(i) - 1;
+                     TempLoopState.loopLevel.set(i, newLevel);
                      i++;
                   }
 
                   // Handle last entry if it meets the criteria
-                  if (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index))
+                  if (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index))
                   {
-                     newLevel = TempLoopObj.loopLevel.get(i) - 1;
-                     TempLoopObj.loopLevel.set(i, newLevel);
+                     newLevel = TempLoopState.loopLevel.get(i) - 1;
+                     TempLoopState.loopLevel.set(i, newLevel);
                   }
                }
             }
@@ -1124,17 +1127,17 @@ public class CSharpCounter extends CodeCounter
       }
 
       // Loop through all of the patterns we found for loop levels
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Get the max loop level of loop keywords
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Get the maximum loop level we found for allocation of the loop
                // level count
-               maxLoopLevel = Math.max(maxLoopLevel, TempLoopObj.loopLevel.get(i));
+               maxLoopLevel = Math.max(maxLoopLevel, TempLoopState.loopLevel.get(i));
             }
          }
       }
@@ -1143,29 +1146,29 @@ public class CSharpCounter extends CodeCounter
       for (int i = 0; i < maxLoopLevel; i++)
       {
          // Add another level to the level counter arrayList
-         ComplexityObj.loopLevelCount.add(0);
+         CmplxState.loopLevelCount.add(0);
       }
 
       // Loop through all of the patterns we found for loop levels
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Tally up the number of loops found at each level
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Set the loop counter to the integer value of the current loop
                // level counter array list This gets the
                // current loop count per the level we're on
-               loopCounter = ComplexityObj.loopLevelCount.get(TempLoopObj.loopLevel.get(i)).intValue();
+               loopCounter = CmplxState.loopLevelCount.get(TempLoopState.loopLevel.get(i)).intValue();
 
                // Increment the loop counter
                loopCounter++;
 
                // Set the loop level counter arrayList level <loopLevel> to the
                // count <loopCounter>
-               ComplexityObj.loopLevelCount.set(TempLoopObj.loopLevel.get(i), loopCounter);
+               CmplxState.loopLevelCount.set(TempLoopState.loopLevel.get(i), loopCounter);
             }
          }
       }
@@ -1183,16 +1186,16 @@ public class CSharpCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
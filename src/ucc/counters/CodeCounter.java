@@ -1,9 +1,7 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -16,15 +14,19 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import ucc.counters.handlers.CommentHandler;
+import ucc.counters.handlers.ComplexityKeywordScanner;
 import ucc.counters.handlers.MultiLanguageHandler;
 import ucc.counters.handlers.QuoteHandler;
 import ucc.datatypes.CmplxDataType;
 import ucc.datatypes.Constants;
 import ucc.datatypes.UCCFile;
 import ucc.langprops.CCPPLanguageProperties;
+import ucc.langprops.KeywordPatternRegistry;
 import ucc.langprops.LanguageProperties;
 import ucc.main.RuntimeParameters;
 import ucc.utils.FileUtils;
+import ucc.utils.MemoryBudget;
+import ucc.utils.SpillableTextBuffer;
 import ucc.utils.StringUtils.StringLengthListSort;
 
 /**
@@ -34,6 +36,11 @@ import ucc.utils.StringUtils.StringLengthListSort;
  * algorithms/methods to be used when no language specific algorithm/method is
  * specified.
  *
+ * <p>
+ * A counter keeps the state of the file it is counting in instance fields, so
+ * one counter object must only be used by one thread at a time. Files can be
+ * counted in parallel by giving each thread its own set of counters.
+ *
  * @author Integrity Applications Incorporated
  *
  */
@@ -50,7 +57,10 @@ public class CodeCounter
    /**
     * A handle to the RuntimeParameters class's single instance
     */
-   protected static RuntimeParameters RtParams;
+   protected RuntimeParameters RtParams;
+
+   /** Compiled keyword patterns shared by all counters of the language */
+   protected KeywordPatternRegistry Patterns;
 
    /** Array list containing keyword(s) for compiler directives */
    protected ArrayList<String> CompilerDir;
@@ -163,12 +173,28 @@ public class CodeCounter
    /** Instantiated multi-language handler */
    protected MultiLanguageHandler MultiLanguageHandler;
 
+   /** Scanner counting all complexity keyword categories of a line at once */
+   protected ComplexityKeywordScanner CmplxScanner;
+
+   /** PSLOC lines of the file being counted, passed from PSLOC to LSLOC */
+   private SpillableTextBuffer PslocBuffer;
+
+   /** File whose PSLOC lines are held in PslocBuffer */
+   private UCCFile PslocFile;
+
+   /**
+    * Budget shared by the LSLOC lines saved for the differencer. Java strings
+    * take up to two bytes per character.
+    */
+   private static final MemoryBudget LslocBudget = new MemoryBudget(
+            (long) (Runtime.getRuntime().maxMemory() * Constants.LSLOC_MEMORY_BUDGET_FRACTION / 2));
+
    /**
     * Maintains whether a line in run-time processing should be written as LSLOC
     * for the Differencer
     */
    protected int lslocLineValue;
-   protected static String lslocLineValueDelim = "|*||*|";
+   protected static final String lslocLineValueDelim = "|*||*|";
    protected int truncateLinesCount = 0; // counter for truncated lines
 
    public static String getLslocLineValueDelim()
@@ -237,6 +263,8 @@ public class CodeCounter
     */
    protected void LoadLangProperties()
    {
+      Patterns = LangProps.GetPatternRegistry();
+
       CompilerDir = LangProps.GetCompilerDirKeywords();
       LineTerminator = LangProps.GetExecLineTermChars();
       ExecKeywords = LangProps.GetOtherExecKeywords();
@@ -301,6 +329,10 @@ public class CodeCounter
       Collections.sort(ExcludeKeyword, ss);
       Collections.sort(ExcludeCharacter, ss);
       Collections.sort(FunctionKeywords, ss);
+
+      // Build the complexity keyword scanner from the sorted lists
+      CmplxScanner = new ComplexityKeywordScanner(PntrKeywords, TrigKeywords, LogKeywords, MathKeywords,
+               CondKeywords, LogicKeywords, CalcKeywords, AssignKeywords);
    }
 
    /**
@@ -447,7 +479,7 @@ public class CodeCounter
          {
             regEx = "\\b" + arr.get(kw).Keyword + "\\b";
             if (regEx.contains("[")) regEx = regEx.replace("[", "\\[");
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
             StringBuffer sbLine = new StringBuffer();
             while (matcher.find() && !line.isEmpty() && line.length() >= arr.get(kw).Keyword.length())
             {
@@ -480,7 +512,7 @@ public class CodeCounter
 
       for (int qc = 0; qc < QuoteChar.size() && !line.isEmpty(); qc++)
       {
-         pattern = Pattern.compile(QuoteChar.get(qc) + "([^" + QuoteChar.get(qc) + "]*)" + QuoteChar.get(qc));
+         pattern = Patterns.GetPattern(QuoteChar.get(qc) + "([^" + QuoteChar.get(qc) + "]*)" + QuoteChar.get(qc));
          matcher = pattern.matcher(line);
 
          while (matcher.find())
@@ -630,7 +662,7 @@ public class CodeCounter
       {
           //If the quotes are matched, we don't need to delete them.
           int count = 0;
-          Pattern p = Pattern.compile(QuoteChar.get(qc));
+          Pattern p = Patterns.GetPattern(QuoteChar.get(qc));
           Matcher m = p.matcher(line);
           while(m.find()) {
               count++;
@@ -690,12 +722,9 @@ public class CodeCounter
     */
    protected String DeleteExcludeKeywords(String line)
    {
-      String regEx;
-
       for (int ek = 0; ek < ExcludeKeyword.size() && !line.trim().isEmpty(); ek++)
       {
-         regEx = "\\b" + ExcludeKeyword.get(ek) + "\\b";
-         line = line.replaceAll(regEx, " ");
+         line = Patterns.GetWordPattern(ExcludeKeyword.get(ek)).matcher(line).replaceAll(" ");
       }
 
       return line;
@@ -736,7 +765,7 @@ public class CodeCounter
             for (int cd = 0; cd < CompilerDir.size() && !line.trim().isEmpty(); cd++)
             {
                regEx = CompilerDir.get(cd);
-               matcher = Pattern.compile(regEx).matcher(line.trim());
+               matcher = Patterns.GetPattern(regEx).matcher(line.trim());
 
                // This ensures that we find whole word only and that it starts
                // at the beginning of the line
@@ -766,7 +795,6 @@ public class CodeCounter
     */
    protected String DeleteCompilerDirectivesFromPsloc(UCCFile cntrResult, String line)
    {
-      String regEx = "";
       Matcher matcher;
 
       if (!line.trim().isEmpty())
@@ -777,7 +805,7 @@ public class CodeCounter
             {
                if (line.startsWith(CompilerChar.get(cc)))
                {
-                  line = line.replaceAll(CompilerChar.get(cc), "");
+                  line = Patterns.GetPattern(CompilerChar.get(cc)).matcher(line).replaceAll("");
                }
             }
          }
@@ -785,14 +813,13 @@ public class CodeCounter
          {
             for (int cd = 0; cd < CompilerDir.size() && !line.trim().isEmpty(); cd++)
             {
-               regEx = "\\b" + CompilerDir.get(cd) + "\\b";
-               matcher = Pattern.compile(regEx).matcher(line.trim());
+               matcher = Patterns.GetWordPattern(CompilerDir.get(cd)).matcher(line.trim());
 
                // This ensures that we find whole word only and that it starts
                // at the beginning of the line
                if (matcher.find())
                {
-                  line = line.replaceAll(CompilerChar.get(cd), "");
+                  line = Patterns.GetPattern(CompilerChar.get(cd)).matcher(line).replaceAll("");
                }
             }
          }
@@ -813,16 +840,16 @@ public class CodeCounter
    {
       for (int qc = 0; qc < QuoteChar.size() && !line.isEmpty(); qc++)
       {
+         String quote = QuoteChar.get(qc);
+
          // Delete special cases of """..."""
-         line = line.replaceAll(QuoteChar.get(qc) + QuoteChar.get(qc) + QuoteChar.get(qc) + ".*?" + QuoteChar.get(qc)
-                  + QuoteChar.get(qc) + QuoteChar.get(qc), "");
+         line = Patterns.GetPattern(quote + quote + quote + ".*?" + quote + quote + quote).matcher(line).replaceAll("");
 
          // Delete special cases of ""...""
-         line = line.replaceAll(QuoteChar.get(qc) + QuoteChar.get(qc) + ".*?" + QuoteChar.get(qc) + QuoteChar.get(qc),
-                  "");
+         line = Patterns.GetPattern(quote + quote + ".*?" + quote + quote).matcher(line).replaceAll("");
 
          // Delete standard cases of "..."
-         line = line.replaceAll(QuoteChar.get(qc) + ".*?" + QuoteChar.get(qc), QuoteChar.get(qc) + QuoteChar.get(qc));
+         line = Patterns.GetPattern(quote + ".*?" + quote).matcher(line).replaceAll(quote + quote);
       }
 
       return line;
@@ -840,15 +867,11 @@ public class CodeCounter
     */
    protected String DeleteLoopContents(String line, String keyword)
    {
-      String regEx;
-      Pattern pattern;
       Matcher matcher;
       int openPos = 0;
       int closePos = 0;
 
-      regEx = "\\b" + keyword + "\\b";
-      pattern = Pattern.compile(regEx);
-      matcher = pattern.matcher(line);
+      matcher = Patterns.GetWordPattern(keyword).matcher(line);
       if (matcher.find())
       {
          openPos = line.indexOf("(", matcher.start());
@@ -874,8 +897,6 @@ public class CodeCounter
     */
    protected String DeleteCaseStatements(String line)
    {
-      String regEx;
-      Pattern pattern;
       Matcher matcher;
 
       if (line.equals("case:"))
@@ -884,9 +905,7 @@ public class CodeCounter
       }
       else
       {
-         regEx = "\\b" + "case" + "\\b";
-         pattern = Pattern.compile(regEx);
-         matcher = pattern.matcher(line);
+         matcher = Patterns.GetWordPattern("case").matcher(line);
          if (matcher.find())
          {
             int caseIndex = matcher.start();
@@ -932,7 +951,7 @@ public class CodeCounter
    {
       for (int ec = 0; ec < ExcludeCharacter.size() && !line.isEmpty(); ec++)
       {
-         line = line.replaceAll(ExcludeCharacter.get(ec), " ");
+         line = Patterns.GetPattern(ExcludeCharacter.get(ec)).matcher(line).replaceAll(" ");
       }
 
       return line;
@@ -949,15 +968,11 @@ public class CodeCounter
     */
    protected String CountDataDeclarations(UCCFile cntrResult, String line)
    {
-      String regEx;
-      Pattern pattern;
       Matcher matcher;
 
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
-         regEx = "\\b" + DataKeyword.get(dk) + "\\b";
-         pattern = Pattern.compile(regEx);
-         matcher = pattern.matcher(line.trim());
+         matcher = Patterns.GetWordPattern(DataKeyword.get(dk)).matcher(line.trim());
          if (matcher.find() && matcher.start() == 0)
          {
             line = "";
@@ -1014,6 +1029,130 @@ public class CodeCounter
       return line;
    }
 
+   /**
+    * Checks whether the LSLOC lines of a file have to be checksummed for the
+    * duplicate code check. Only files sharing their name with another file are
+    * compared, unless files of any name are compared (-dupanyname).
+    *
+    * @param cntrResult
+    *           The UCCFile object of the file whose lines are checksummed
+    * @return True if the lines have to be checksummed
+    */
+   protected boolean NeedsLineChecksums(UCCFile cntrResult)
+   {
+      return !cntrResult.UniqueFileName || RtParams.SearchForDupsAnyName;
+   }
+
+   /**
+    * Opens the writer receiving the PSLOC lines of a file. The lines are kept
+    * in memory for the LSLOC step and only written to a _PSLOC file if they grow
+    * too large or the user asked to keep the intermediate files.
+    *
+    * @param cntrResult
+    *           The UCCFile object of the file being counted
+    * @return A buffered writer for the PSLOC lines
+    * @throws IOException
+    *            If the _PSLOC file could not be created
+    */
+   protected BufferedWriter OpenPslocWriter(UCCFile cntrResult) throws IOException
+   {
+      int maxInMemoryChars = RtParams.KeepTempFiles ? 0 : Constants.MAX_IN_MEMORY_PSLOC_CHARS;
+
+      PslocBuffer = new SpillableTextBuffer(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult),
+               maxInMemoryChars);
+      PslocFile = cntrResult;
+
+      return new BufferedWriter(PslocBuffer);
+   }
+
+   /**
+    * Opens a reader over the PSLOC lines of a file written by OpenPslocWriter
+    *
+    * @param cntrResult
+    *           The UCCFile object of the file being counted
+    * @return A line number reader for the PSLOC lines
+    * @throws IOException
+    *            If the PSLOC lines of the file are not available
+    */
+   protected LineNumberReader OpenPslocReader(UCCFile cntrResult) throws IOException
+   {
+      if (PslocBuffer == null || PslocFile != cntrResult)
+      {
+         return new LineNumberReader(new InputStreamReader(
+                  new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
+                  Constants.CHARSET_NAME));
+      }
+
+      return new LineNumberReader(PslocBuffer.OpenReader());
+   }
+
+   /**
+    * Releases the PSLOC lines of a file once the LSLOC step is done with them.
+    * The _PSLOC file is kept if the user asked to keep the intermediate files.
+    *
+    * @param cntrResult
+    *           The UCCFile object of the file being counted
+    */
+   protected void DeletePsloc(UCCFile cntrResult)
+   {
+      if (!RtParams.KeepTempFiles)
+      {
+         if (PslocBuffer != null && PslocFile == cntrResult)
+         {
+            PslocBuffer.Delete();
+         }
+         else
+         {
+            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+         }
+      }
+
+      PslocBuffer = null;
+      PslocFile = null;
+   }
+
+   /**
+    * Opens the writer receiving the LSLOC lines the differencer compares. The
+    * lines are attached to the given file and kept in memory while the shared
+    * budget allows it, otherwise they are written to its _LSLOC file. Embedded
+    * code passes the file it is embedded in, so its lines are appended to
+    * those of that file.
+    *
+    * @param lslocOwner
+    *           The UCCFile object the LSLOC lines belong to
+    * @return A buffered writer for the LSLOC lines
+    * @throws IOException
+    *            If the _LSLOC file could not be created
+    */
+   protected BufferedWriter OpenLslocWriter(UCCFile lslocOwner) throws IOException
+   {
+      if (lslocOwner.LslocLines == null)
+      {
+         lslocOwner.LslocLines = NewLslocBuffer(lslocOwner);
+      }
+
+      return new BufferedWriter(lslocOwner.LslocLines);
+   }
+
+   /**
+    * Creates an empty buffer for the LSLOC lines of a file. The buffer shares
+    * the memory budget of all LSLOC buffers.
+    * 
+    * @param lslocOwner
+    *           The file the LSLOC lines are saved for
+    * @return The LSLOC buffer
+    * @throws IOException
+    *            If the buffer could not be created
+    */
+   public static SpillableTextBuffer NewLslocBuffer(UCCFile lslocOwner) throws IOException
+   {
+      RuntimeParameters rtParams = RuntimeParameters.GetInstance();
+      int maxInMemoryChars = rtParams.KeepTempFiles ? 0 : Constants.MAX_IN_MEMORY_LSLOC_CHARS;
+
+      return new SpillableTextBuffer(FileUtils.BuildTempOutFileName_LSLOC(rtParams, lslocOwner), maxInMemoryChars,
+               LslocBudget);
+   }
+
    /**
     * Counts Physical SLOC. Current algorithm:
     * 
@@ -1049,7 +1188,6 @@ public class CodeCounter
       String tempLine = "";
       boolean multiLineFlag = false;
       String multiLine = "";
-      String regEx;
       Matcher matcher;
 
       boolean undoNewlines = false;
@@ -1062,12 +1200,11 @@ public class CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -1159,8 +1296,7 @@ public class CodeCounter
                for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
                {
                   closePos = 0;
-                  regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetWordPattern(LslocKeywords.get(lk)).matcher(line);
                   while (closePos >= 0 && matcher.find(closePos))
                   {
                      openPos = line.indexOf("(", matcher.end());
@@ -1174,8 +1310,8 @@ public class CodeCounter
                         {
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -1194,7 +1330,8 @@ public class CodeCounter
                // Add a newline after all line terminators
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Add a newline after all open curly braces
@@ -1224,8 +1361,7 @@ public class CodeCounter
                // Put all LSLOC keywords to start on their own line
                for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
                {
-                  regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetWordPattern(LslocKeywords.get(lk)).matcher(line);
                   isCompilerDirective = false;
 
                   if (matcher.find())
@@ -1252,17 +1388,16 @@ public class CodeCounter
 
                      if (!isCompilerDirective)
                      {
-                        line = line.replaceAll(regEx, "\n" + LslocKeywords.get(lk));
+                        line = matcher.replaceAll("\n" + LslocKeywords.get(lk));
                      }
                   }
                }
 
                // Special case for "do"
-               regEx = "\\b" + "do" + "\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetWordPattern("do").matcher(line);
                if (matcher.find())
                {
-                  line = line.replaceAll(regEx, "\n" + "do ");
+                  line = matcher.replaceAll("\n" + "do ");
                }
 
                // Delete all lines that are just a newline
@@ -1279,7 +1414,8 @@ public class CodeCounter
                   // Add a newline after all line terminators
                   for (int lt = 0; lt < LineTerminator.size(); lt++)
                   {
-                     line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                     line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                              .replaceAll(LineTerminator.get(lt) + "\n");
                   }
                }
 
@@ -1410,12 +1546,10 @@ public class CodeCounter
       int lslocKeywordsCount = 0;
       lslocLineValue = 0;
 
-      String regEx;
       Pattern pattern;
       Matcher matcher;
       String tempLine = "";
       int lineIndex = 0;
-      File file = null;
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -1428,14 +1562,11 @@ public class CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -1465,7 +1596,7 @@ public class CodeCounter
                // ends up being ;)
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+                  tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
                }
             }
 
@@ -1520,8 +1651,7 @@ public class CodeCounter
                }
                else
                {
-                  regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  pattern = Pattern.compile(regEx);
+                  pattern = Patterns.GetWordPattern(LslocKeywords.get(lk));
                   matcher = pattern.matcher(line);
 
                   // Count multiple LSLOC keywords on one line
@@ -1582,7 +1712,7 @@ public class CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -1625,7 +1755,7 @@ public class CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -1693,7 +1823,7 @@ public class CodeCounter
          // with pointer declaration to not count
          // them as logical or multiplication operations, respectively
          regEx = "<\\s*" + dataCnts.get(i).Keyword + "\\s*>|\\b" + dataCnts.get(i).Keyword + "\\s*\\*";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find())
          {
@@ -1718,15 +1848,13 @@ public class CodeCounter
    protected String CountCmplxPntr(ArrayList<CmplxDataType> pntrCnts, String line)
    {
       Matcher matcher;
-      String regEx;
 
       for (int i = 0; !line.isEmpty() && i < pntrCnts.size(); i++)
       {
          // This tells the regEx engine that the string between \Q and \E must
          // be interpreted verbatim,
          // ignoring any metacharacters that it may contain
-         regEx = "\\Q" + pntrCnts.get(i).Keyword + "\\E";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetLiteralPattern(pntrCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find())
          {
@@ -1752,13 +1880,11 @@ public class CodeCounter
    protected String CountCmplxTrig(ArrayList<CmplxDataType> trigCnts, String line)
    {
       Matcher matcher;
-      String regEx;
 
       for (int i = 0; !line.isEmpty() && i < trigCnts.size(); i++)
       {
          // Whole word only regular expression
-         regEx = "\\b" + trigCnts.get(i).Keyword + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetWordPattern(trigCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= trigCnts.get(i).Keyword.length())
          {
@@ -1784,13 +1910,11 @@ public class CodeCounter
    protected String CountCmplxLog(ArrayList<CmplxDataType> logCnts, String line)
    {
       Matcher matcher;
-      String regEx;
 
       for (int i = 0; !line.isEmpty() && i < logCnts.size(); i++)
       {
          // Whole word only regular expression
-         regEx = "\\b" + logCnts.get(i).Keyword + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetWordPattern(logCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= logCnts.get(i).Keyword.length())
          {
@@ -1816,13 +1940,11 @@ public class CodeCounter
    protected String CountCmplxMath(ArrayList<CmplxDataType> mathCnts, String line)
    {
       Matcher matcher;
-      String regEx;
 
       for (int i = 0; !line.isEmpty() && i < mathCnts.size(); i++)
       {
          // Whole word only regular expression
-         regEx = "\\b" + mathCnts.get(i).Keyword + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetWordPattern(mathCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= mathCnts.get(i).Keyword.length())
          {
@@ -1848,13 +1970,11 @@ public class CodeCounter
    protected String CountCmplxCond(ArrayList<CmplxDataType> condCnts, String line)
    {
       Matcher matcher;
-      String regEx;
 
       for (int i = 0; !line.isEmpty() && i < condCnts.size(); i++)
       {
          // Whole word only regular expression
-         regEx = "\\b" + condCnts.get(i).Keyword + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetWordPattern(condCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= condCnts.get(i).Keyword.length())
          {
@@ -1881,7 +2001,6 @@ public class CodeCounter
    {
       boolean isWord = false;
       String logicPattern = "";
-      String regEx;
       Matcher matcher;
 
       // Loop through all logical keywords
@@ -1903,8 +2022,7 @@ public class CodeCounter
          if (isWord == true)
          {
             // Whole word only regular expression
-            regEx = "\\b" + logicPattern + "\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetWordPattern(logicPattern).matcher(line);
             StringBuffer sbLine = new StringBuffer();
             while (matcher.find() && !line.isEmpty() && line.length() >= logicPattern.length())
             {
@@ -1920,8 +2038,7 @@ public class CodeCounter
             // This tells the regEx engine that the string between \Q and \E
             // must be interpreted verbatim,
             // ignoring any metacharacters that it may contain
-            regEx = "\\Q" + logicPattern + "\\E";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetLiteralPattern(logicPattern).matcher(line);
             StringBuffer sbLine = new StringBuffer();
             while (matcher.find() && !line.isEmpty() && line.length() >= logicPattern.length())
             {
@@ -1948,15 +2065,13 @@ public class CodeCounter
    protected String CountCmplxCalc(ArrayList<CmplxDataType> calcCnts, String line)
    {
       Matcher matcher;
-      String regEx = "";
 
       for (int i = 0; !line.isEmpty() && i < calcCnts.size(); i++)
       {
          // This tells the regEx engine that the string between \Q and \E must
          // be interpreted verbatim,
          // ignoring any metacharacters that it may contain
-         regEx = "\\Q" + calcCnts.get(i).Keyword + "\\E";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetLiteralPattern(calcCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= calcCnts.get(i).Keyword.length())
          {
@@ -1982,15 +2097,13 @@ public class CodeCounter
    protected String CountCmplxAssign(ArrayList<CmplxDataType> assignCnts, String line)
    {
       Matcher matcher;
-      String regEx = "";
 
       for (int i = 0; !line.isEmpty() && i < assignCnts.size(); i++)
       {
          // This tells the regEx engine that the string between \Q and \E must
          // be interpreted verbatim,
          // ignoring any metacharacters that it may contain
-         regEx = "\\Q" + assignCnts.get(i).Keyword + "\\E";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetLiteralPattern(assignCnts.get(i).Keyword).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && !line.isEmpty() && line.length() >= assignCnts.get(i).Keyword.length())
          {
@@ -2022,6 +2135,13 @@ public class CodeCounter
 
       // Count number of loops - Done as part of LSLOC counting
 
+      // Count all remaining categories in one scan of the line when possible,
+      // this gives the same counts as the calls below
+      if (!line.isEmpty() && CmplxScanner.CountKeywords(cntrResult, line))
+      {
+         return;
+      }
+
       // Count pointer operations
       line = CountCmplxPntr(cntrResult.CmplxPntrCnts, line);
 
@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -110,30 +106,18 @@ public class ColdFusionCounter extends CodeCounter
 
       lslocLineValue = 0;
       String tempLine = "";
-      File file = null;
 
       try
       {
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(
-                     FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-            // If LSLOC file doesn't already exist, then create it
-            if (!file.exists())
-            {
-               file.createNewFile();
-            }
-
-            // true = append file
-            FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-            bw = new BufferedWriter(fileWritter);
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
          }
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -201,14 +185,14 @@ public class ColdFusionCounter extends CodeCounter
                      // If we're in a pure ColdFusion file
                      if (cntrResult.EmbOfIdx == -1)
                      {
-                        if (!cntrResult.UniqueFileName)
+                        if (NeedsLineChecksums(cntrResult))
                         {
                            cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                         }
                      }
                      else // If we're in an embedded ColdFusion file
                      {
-                        if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                        if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                         {
                            cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                         }
@@ -246,7 +230,7 @@ public class ColdFusionCounter extends CodeCounter
                logger.debug("line " + reader.getLineNumber() + " out: " + line);
 
                regEx = "<cf";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
 
                // Count all open tags as LSLOC
                while (matcher.find())
@@ -340,7 +324,7 @@ public class ColdFusionCounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = "\\<" + DataKeyword.get(dk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find() && line.length() >= DataKeyword.get(dk).length())
          {
@@ -372,7 +356,7 @@ public class ColdFusionCounter extends CodeCounter
          for (int kw = 0; kw < arr.size(); kw++)
          {
             regEx = "\\<" + arr.get(kw).Keyword + "\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
             StringBuffer sbLine = new StringBuffer();
             while (matcher.find() && !line.isEmpty() && line.length() >= arr.get(kw).Keyword.length())
             {
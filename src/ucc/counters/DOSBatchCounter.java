@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -82,12 +78,11 @@ public class DOSBatchCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -169,16 +164,16 @@ public class DOSBatchCounter extends CodeCounter
 
                // If we're not in a echo line
                regEx = "\\becho\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
                if (!(matcher.find() && matcher.start() == 0))
                {
                   // Put a newline after each "do"
                   regEx = "\\bfor\\b(.*)\\bdo\\b\\s+\\(";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   if (!matcher.find())
                   {
                      regEx = "\\bfor\\b(.*)\\bdo";
-                     matcher = Pattern.compile(regEx).matcher(line);
+                     matcher = Patterns.GetPattern(regEx).matcher(line);
                      if (matcher.find())
                      {
                         line = line.substring(0, matcher.end()) + "\n" + line.substring(matcher.end());
@@ -187,18 +182,18 @@ public class DOSBatchCounter extends CodeCounter
 
                   // Put a newline before each "if"
                   regEx = "\\bif\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   if (matcher.find())
                   {
-                     line = line.replaceAll(regEx, "\nif");
+                     line = matcher.replaceAll("\nif");
                   }
 
                   // Put a newline before and after each "else"
                   regEx = "\\belse\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   if (matcher.find())
                   {
-                     line = line.replaceAll(regEx, "\nelse\n");
+                     line = matcher.replaceAll("\nelse\n");
                   }
                }
             }
@@ -342,20 +337,19 @@ public class DOSBatchCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Add base CC level for the cyclomatic complexity counts
       cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
       // Set the base CC level's function name to blank since Matlab can contain
       // scripts with no functions
-      cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
+      cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -368,14 +362,11 @@ public class DOSBatchCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -468,7 +459,7 @@ public class DOSBatchCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -520,7 +511,7 @@ public class DOSBatchCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -540,9 +531,9 @@ public class DOSBatchCounter extends CodeCounter
          }
 
          // Reset objects
-         ComplexityObj.loopLevelCount.clear();
-         ComplexityObj.loopLevel = 0;
-         CyclomaticComplexityObj.functionLevel = 0;
+         CmplxState.loopLevelCount.clear();
+         CmplxState.loopLevel = 0;
+         CycCmplxState.functionLevel = 0;
       }
    }
 
@@ -552,10 +543,13 @@ public class DOSBatchCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -563,9 +557,12 @@ public class DOSBatchCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static int functionLevel;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -582,14 +579,14 @@ public class DOSBatchCounter extends CodeCounter
       int currentLevel = 0;
 
       regEx = "\\becho\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       if (!(matcher.find() && matcher.start() == 0))
       {
          regEx1 = "\\bfor\\b(.*)\\bdo\\b\\s+\\(";
-         matcher1 = Pattern.compile(regEx1).matcher(line);
+         matcher1 = Patterns.GetPattern(regEx1).matcher(line);
 
          regEx2 = "\\bfor\\b(.*)\\bdo\\b";
-         matcher2 = Pattern.compile(regEx2).matcher(line);
+         matcher2 = Patterns.GetPattern(regEx2).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher1.find())
@@ -597,24 +594,24 @@ public class DOSBatchCounter extends CodeCounter
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Increment the loop level
-            ComplexityObj.loopLevel++;
+            CmplxState.loopLevel++;
 
             // If the loop level counter arrayList size is less than or equal to
             // the loop level integer
-            if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+            if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
             {
                // Add another level to the level counter arrayList
-               ComplexityObj.loopLevelCount.add(0);
+               CmplxState.loopLevelCount.add(0);
             }
          }
          else if (matcher2.find())
@@ -622,48 +619,48 @@ public class DOSBatchCounter extends CodeCounter
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Get current level (so we know where to jump back to if we go up
             // multiple levels on one line
-            currentLevel = ComplexityObj.loopLevel;
+            currentLevel = CmplxState.loopLevel;
 
             regEx = "\\bfor\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
             while (matcher.find())
             {
-               loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+               loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
                // Increment the loop counter
                loopCounter++;
 
                // Set the loop level counter arrayList level <loopLevel> to the
                // count <loopCounter>
-               ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+               CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
                // Increment the loop level
-               ComplexityObj.loopLevel++;
+               CmplxState.loopLevel++;
 
                // If the loop level counter arrayList size is less than or equal
                // to the loop level integer
-               if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+               if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
                {
                   // Add another level to the level counter arrayList
-                  ComplexityObj.loopLevelCount.add(0);
+                  CmplxState.loopLevelCount.add(0);
                }
             }
 
-            ComplexityObj.loopLevel = currentLevel;
+            CmplxState.loopLevel = currentLevel;
          }
          else
          {
             if (line.contains(")"))
             {
                // If the loop level is greater than 0
-               if (ComplexityObj.loopLevel > 0)
+               if (CmplxState.loopLevel > 0)
                {
                   // Decrement the loop level
-                  ComplexityObj.loopLevel--;
+                  CmplxState.loopLevel--;
                }
             }
          }
@@ -685,10 +682,10 @@ public class DOSBatchCounter extends CodeCounter
 
       if (line.startsWith(":"))
       {
-         cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = line;
+         cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = line;
 
          // Increment the number of functions
-         CyclomaticComplexityObj.functionLevel++;
+         CycCmplxState.functionLevel++;
 
          // Add a new element to the cyclomatic complexity count arrayList
          cntrResult.CyclCmplxCnts.add(new CmplxDataType());
@@ -713,7 +710,7 @@ public class DOSBatchCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // While the line isn't empty, the line is longer than keyword, and we
@@ -723,7 +720,7 @@ public class DOSBatchCounter extends CodeCounter
             matcher.appendReplacement(sbLine, " ");
 
             // Increment the function level's CC count
-            cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Count++;
+            cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Count++;
          }
 
          // Update the line
@@ -744,16 +741,16 @@ public class DOSBatchCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -799,7 +796,7 @@ public class DOSBatchCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\:";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       if (matcher.find() && matcher.start() == 0)
       {
          line = "";
@@ -823,11 +820,11 @@ public class DOSBatchCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\(";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       if (!matcher.find())
       {
          regEx = "\\b" + "if" + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          while (matcher.find())
          {
             lsloc++;
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -103,13 +100,11 @@ public class FortranCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -240,7 +235,7 @@ public class FortranCounter extends CodeCounter
                {
                   closePos = 0;
                   regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (closePos >= 0 && matcher.find(closePos))
                   {
                      openPos = line.indexOf("(", matcher.end());
@@ -268,12 +263,12 @@ public class FortranCounter extends CodeCounter
 
                // Change "if () <statement>" patterns to "if () \n <statement>"
                regEx = "\\b" + "if" + "\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
                if (matcher.find())
                {
                   openPos = line.indexOf("(", matcher.end());
                   regEx = "\\b" + "then" + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   if (line.contains("(") && line.contains(")") && !matcher.find())
                   {
                      closePos = FindClose(line, openPos, '(', ')');
@@ -304,7 +299,7 @@ public class FortranCounter extends CodeCounter
 
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line).replaceAll("\n");
                }
             }
 
@@ -452,18 +447,17 @@ public class FortranCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -476,15 +470,11 @@ public class FortranCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -576,7 +566,7 @@ public class FortranCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -627,7 +617,7 @@ public class FortranCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -654,10 +644,13 @@ public class FortranCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -665,10 +658,13 @@ public class FortranCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
+      boolean functionFlag;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -687,37 +683,37 @@ public class FortranCounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length()
                   && !(line.contains("end") || line.contains("continue")))
          {
             // Increment the loop level
-            ComplexityObj.loopLevel++;
+            CmplxState.loopLevel++;
 
             // If the loop level counter arrayList size is less than or equal to
             // the loop level integer
-            if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+            if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
             {
                // Add another level to the level counter arrayList
-               ComplexityObj.loopLevelCount.add(0);
+               CmplxState.loopLevelCount.add(0);
             }
 
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Delete the pattern we found
-            line = line.replaceFirst(regEx, "");
+            line = matcher.replaceFirst("");
          }
          else if (line.contains("end") || line.contains("continue")) // If the
                                                                      // line
@@ -727,10 +723,10 @@ public class FortranCounter extends CodeCounter
                                                                      // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -754,7 +750,7 @@ public class FortranCounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find a function keyword, the line doesn't contain "end", the
          // line isn't a data declaration using ::,
@@ -762,12 +758,12 @@ public class FortranCounter extends CodeCounter
          if (matcher.find() && !line.contains("end") && !line.contains("::") && (matcher.end() < line.length()))
          {
             // Increment the number of functions
-            CyclomaticComplexityObj.functionLevel++;
+            CycCmplxState.functionLevel++;
 
             // Add a new element to the cyclomatic complexity count arrayList
             cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
                // If function has arguments, take substring to derive function
                // name
@@ -779,14 +775,14 @@ public class FortranCounter extends CodeCounter
                   {
                      // Need to grab the next parenthesis AFTER the function
                      // keyword
-                     cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword = line.substring(
+                     cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword = line.substring(
                               line.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length() + 1,
                               line.indexOf("(", line.indexOf(FunctionKeywords.get(fk))));
                   }
                }
                else // The function doesn't have arguments
                {
-                  cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword = line.substring(
+                  cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword = line.substring(
                            line.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length() + 1,
                            line.length());
                }
@@ -812,7 +808,7 @@ public class FortranCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // Count multiple LSLOC keywords on one line
@@ -820,9 +816,9 @@ public class FortranCounter extends CodeCounter
                   && !(line.contains("end") || line.contains("continue")))
          {
             matcher.appendReplacement(sbLine, " ");
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
             }
          }
          matcher.appendTail(sbLine);
@@ -842,16 +838,16 @@ public class FortranCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -899,7 +895,7 @@ public class FortranCounter extends CodeCounter
       for (int ek = 0; ek < ExcludeKeyword.size() && !line.isEmpty(); ek++)
       {
          regEx = "\\b" + ExcludeKeyword.get(ek) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find an exclude keyword
          if (matcher.find())
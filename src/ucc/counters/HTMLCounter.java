@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -100,7 +96,6 @@ public class HTMLCounter extends CodeCounter
       int lineIndex = 0; // Index of the line used for checksumming lines in
                          // sequence
       lslocLineValue = 0;
-      File file = null;
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -113,23 +108,12 @@ public class HTMLCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(
-                     FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-            // If LSLOC file doesn't already exist, then create it
-            if (!file.exists())
-            {
-               file.createNewFile();
-            }
-
-            // true = append file
-            FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-            bw = new BufferedWriter(fileWritter);
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
          }
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -180,7 +164,7 @@ public class HTMLCounter extends CodeCounter
                line = line.replaceAll("</", " ");
 
                regEx = "\\<";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
 
                // Count all open tags as LSLOC
                while (matcher.find())
@@ -208,14 +192,14 @@ public class HTMLCounter extends CodeCounter
                      // If we're in a pure HTML file
                      if (cntrResult.EmbOfIdx == -1)
                      {
-                        if (!cntrResult.UniqueFileName)
+                        if (NeedsLineChecksums(cntrResult))
                         {
                            cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                         }
                      }
                      else // If we're in an embedded HTML file
                      {
-                        if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                        if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                         {
                            cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                         }
@@ -322,7 +306,7 @@ public class HTMLCounter extends CodeCounter
          for (int kw = 0; kw < arr.size(); kw++)
          {
             regEx = "\\<" + arr.get(kw).Keyword + "\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
             StringBuffer sbLine = new StringBuffer();
             while (matcher.find() && !line.isEmpty() && line.length() >= arr.get(kw).Keyword.length())
             {
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -79,12 +76,11 @@ public class IDLCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -166,7 +162,7 @@ public class IDLCounter extends CodeCounter
 
                // Put a newline after end* statements
                regEx = "\\b" + "end";
-               pattern = Pattern.compile(regEx);
+               pattern = Patterns.GetPattern(regEx);
                matcher = pattern.matcher(line);
                if (matcher.find() && matcher.start() == 0)
                {
@@ -308,28 +304,27 @@ public class IDLCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out data keyword counts and lsloc
       lsloc = 0;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Add base CC level for the cyclomatic complexity counts
       cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
       // Set the base CC level's function name to blank since Matlab can contain
       // scripts with no functions
-      cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
+      cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -342,14 +337,11 @@ public class IDLCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -435,7 +427,7 @@ public class IDLCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -487,7 +479,7 @@ public class IDLCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -514,10 +506,13 @@ public class IDLCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -525,10 +520,13 @@ public class IDLCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
+      boolean functionFlag;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -551,11 +549,11 @@ public class IDLCounter extends CodeCounter
          foundLoop = false;
 
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // Get current level (so we know where to jump back to if we go up
          // multiple levels on one line
-         currentLevel = ComplexityObj.loopLevel;
+         currentLevel = CmplxState.loopLevel;
 
          // If we find any of the loop keywords on the given line
          while (matcher.find() && line.length() >= LoopKeywords.get(lk).length())
@@ -563,43 +561,43 @@ public class IDLCounter extends CodeCounter
             foundLoop = true;
 
             // Increment the loop level
-            ComplexityObj.loopLevel++;
+            CmplxState.loopLevel++;
 
             // If the loop level counter arrayList size is less than or equal to
             // the loop level integer
-            if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+            if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
             {
                // Add another level to the level counter arrayList
-               ComplexityObj.loopLevelCount.add(0);
+               CmplxState.loopLevelCount.add(0);
             }
 
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Delete the pattern we found
-            line = line.replaceFirst(regEx, "");
+            line = Patterns.GetPattern(regEx).matcher(line).replaceFirst("");
          }
 
          regEx = "\\bend" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find the end loop keyword...
          if (matcher.find())
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel - currentLevel >= 0)
+            if (CmplxState.loopLevel - currentLevel >= 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel -= currentLevel;
+               CmplxState.loopLevel -= currentLevel;
             }
          }
 
@@ -607,16 +605,16 @@ public class IDLCounter extends CodeCounter
          if (foundLoop == true)
          {
             regEx = "\\bbegin\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // If the line didn't contain 'begin', it was a single line loop
             if (!matcher.find())
             {
                // If the loop level is greater than 0
-               if (ComplexityObj.loopLevel > 0)
+               if (CmplxState.loopLevel > 0)
                {
                   // Decrement the loop level
-                  ComplexityObj.loopLevel--;
+                  CmplxState.loopLevel--;
                }
             }
          }
@@ -642,18 +640,18 @@ public class IDLCounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find a function keyword and the line doesn't contain "end"...
          if (matcher.find())
          {
             // Increment the number of functions
-            CyclomaticComplexityObj.functionLevel++;
+            CycCmplxState.functionLevel++;
 
             // Add a new element to the cyclomatic complexity count arrayList
             cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
                // If function has arguments, take substring to derive function
                // name
@@ -664,14 +662,14 @@ public class IDLCounter extends CodeCounter
                   if ((line.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length() + 1) < line
                            .indexOf(","))
                   {
-                     cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword = line.substring(
+                     cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword = line.substring(
                               line.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length() + 1,
                               line.indexOf(","));
                   }
                }
                else // The function doesn't have arguments
                {
-                  cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword = line.substring(
+                  cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword = line.substring(
                            line.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length() + 1,
                            line.length());
                }
@@ -697,16 +695,16 @@ public class IDLCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // Count multiple LSLOC keywords on one line
          while (matcher.find() && !line.isEmpty() && line.length() >= CyclCmplexKeywords.get(cck).length())
          {
             matcher.appendReplacement(sbLine, " ");
-            if (CyclomaticComplexityObj.functionLevel > 0)
+            if (CycCmplxState.functionLevel > 0)
             {
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
             }
          }
          matcher.appendTail(sbLine);
@@ -726,16 +724,16 @@ public class IDLCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -141,12 +138,11 @@ public class JSPCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -249,7 +245,7 @@ public class JSPCounter extends CodeCounter
                {
                   closePos = 0;
                   regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (closePos >= 0 && matcher.find(closePos))
                   {
                      openPos = line.indexOf("(", matcher.end());
@@ -263,8 +259,8 @@ public class JSPCounter extends CodeCounter
                         {
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -283,7 +279,8 @@ public class JSPCounter extends CodeCounter
                // Add a newline after all line terminators
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Add a newline after all open curly braces
@@ -320,7 +317,7 @@ public class JSPCounter extends CodeCounter
                for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
                {
                   regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   isCompilerDirective = false;
 
                   if (matcher.find())
@@ -347,17 +344,17 @@ public class JSPCounter extends CodeCounter
 
                      if (!isCompilerDirective)
                      {
-                        line = line.replaceAll(regEx, "\n" + LslocKeywords.get(lk));
+                        line = matcher.replaceAll("\n" + LslocKeywords.get(lk));
                      }
                   }
                }
 
                // Special case for "do"
                regEx = "\\b" + "do" + "\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
                if (matcher.find())
                {
-                  line = line.replaceAll(regEx, "\n" + "do ");
+                  line = matcher.replaceAll("\n" + "do ");
                }
 
                // Delete all lines that are just a newline
@@ -374,7 +371,8 @@ public class JSPCounter extends CodeCounter
                   // Add a newline after all line terminators
                   for (int lt = 0; lt < LineTerminator.size(); lt++)
                   {
-                     line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                     line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                              .replaceAll(LineTerminator.get(lt) + "\n");
                   }
                }
 
@@ -508,7 +506,6 @@ public class JSPCounter extends CodeCounter
       level = 0; // Complexity loop level counter
 
       lslocLineValue = 0;
-      File file = null;
 
       String tempLine = ""; // String for storing a temporary version of the
                             // line
@@ -516,16 +513,16 @@ public class JSPCounter extends CodeCounter
                          // sequence
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out temporary loop level variables (catches all conditionals, not
       // just loop keyword info)
-      TempLoopObj.loopLevel.clear();
-      TempLoopObj.loopKeyword.clear();
+      TempLoopState.loopLevel.clear();
+      TempLoopState.loopKeyword.clear();
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -538,24 +535,11 @@ public class JSPCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(
-                     FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-            // If LSLOC file doesn't already exist, then create it
-            if (!file.exists())
-            {
-               file.createNewFile();
-            }
-
-            // true = append file
-            FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-            bw = new BufferedWriter(fileWritter);
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -590,7 +574,7 @@ public class JSPCounter extends CodeCounter
                // ends up being ;)
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+                  tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
                }
             }
 
@@ -681,7 +665,7 @@ public class JSPCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -737,7 +721,7 @@ public class JSPCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -764,20 +748,26 @@ public class JSPCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing temporary loop level variables which we will adjust to
     * get true loop level complexity
     */
    static class TempLoopObj
    {
-      static ArrayList<Integer> loopLevel = new ArrayList<Integer>();
-      static ArrayList<String> loopKeyword = new ArrayList<String>();
+      ArrayList<Integer> loopLevel = new ArrayList<Integer>();
+      ArrayList<String> loopKeyword = new ArrayList<String>();
    }
 
+   /** Temporary loop level variables of the file being counted */
+   private TempLoopObj TempLoopState = new TempLoopObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -791,7 +781,7 @@ public class JSPCounter extends CodeCounter
       Matcher matcher;
 
       regEx = "\\}";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find }, decrement the level. We do this first so that it handles
       // "do { ... } while (...);" loops
@@ -805,17 +795,17 @@ public class JSPCounter extends CodeCounter
       for (int ck = 0; ck < CondKeywords.size(); ck++)
       {
          regEx = "\\b" + CondKeywords.get(ck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the condition keywords on the given line...
          if (matcher.find())
          {
             regEx = "\\{";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // Add the loop level and loop keyword to our arraylists
-            TempLoopObj.loopLevel.add(level);
-            TempLoopObj.loopKeyword.add(CondKeywords.get(ck));
+            TempLoopState.loopLevel.add(level);
+            TempLoopState.loopKeyword.add(CondKeywords.get(ck));
 
             // If the line ends with a {...
             if (matcher.find() && matcher.end() == line.trim().length())
@@ -848,7 +838,7 @@ public class JSPCounter extends CodeCounter
 
       // Delete line terminators after while loops
       regEx = "\\bwhile\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find a while loop...
       if (matcher.find())
@@ -870,7 +860,7 @@ public class JSPCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // While we find LSLOC keywords on the line...
@@ -922,7 +912,7 @@ public class JSPCounter extends CodeCounter
       int loopCounter = 0;
 
       // Loop through all the conditional keyword instances we found...
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Assume the keyword we found was not a loop keyword
          isLoopKeyword = false;
@@ -931,7 +921,7 @@ public class JSPCounter extends CodeCounter
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Turn this boolean to true
                isLoopKeyword = true;
@@ -944,7 +934,7 @@ public class JSPCounter extends CodeCounter
             // Save the index in the list
             index = i;
 
-            if (i < TempLoopObj.loopLevel.size() - 1)
+            if (i < TempLoopState.loopLevel.size() - 1)
             {
                // Move to the next entry in the list
                i++;
@@ -952,21 +942,21 @@ public class JSPCounter extends CodeCounter
                // Scale all the loop levels back 1 until we hit the level of the
                // conditional keyword we're dealing with.
                // This will "un-nest" iterative loops from conditional loops
-               if (!TempLoopObj.loopKeyword.get(index).equals("do"))
+               if (!TempLoopState.loopKeyword.get(index).equals("do"))
                {
-                  while (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index)
-                           && i < TempLoopObj.loopLevel.size() - 1)
+                  while (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index)
+                           && i < TempLoopState.loopLevel.size() - 1)
                   {
-                     newLevel = TempLoopObj.loopLevel.get(i) - 1;
-                     TempLoopObj.loopLevel.set(i, newLevel);
+                     newLevel = TempLoopState.loopLevel.get(i) - 1;
+                     TempLoopState.loopLevel.set(i, newLevel);
                      i++;
                   }
 
                   // Handle last entry if it meets the criteria
-                  if (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index))
+                  if (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index))
                   {
-                     newLevel = TempLoopObj.loopLevel.get(i) - 1;
-                     TempLoopObj.loopLevel.set(i, newLevel);
+                     newLevel = TempLoopState.loopLevel.get(i) - 1;
+                     TempLoopState.loopLevel.set(i, newLevel);
                   }
                }
             }
@@ -977,17 +967,17 @@ public class JSPCounter extends CodeCounter
       }
 
       // Loop through all of the patterns we found for loop levels
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Get the max loop level of loop keywords
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Get the maximum loop level we found for allocation of the loop
                // level count
-               maxLoopLevel = Math.max(maxLoopLevel, TempLoopObj.loopLevel.get(i));
+               maxLoopLevel = Math.max(maxLoopLevel, TempLoopState.loopLevel.get(i));
             }
          }
       }
@@ -996,29 +986,29 @@ public class JSPCounter extends CodeCounter
       for (int i = 0; i < maxLoopLevel; i++)
       {
          // Add another level to the level counter arrayList
-         ComplexityObj.loopLevelCount.add(0);
+         CmplxState.loopLevelCount.add(0);
       }
 
       // Loop through all of the patterns we found for loop levels
-      for (int i = 0; i < TempLoopObj.loopLevel.size(); i++)
+      for (int i = 0; i < TempLoopState.loopLevel.size(); i++)
       {
          // Tally up the number of loops found at each level
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Set the loop counter to the integer value of the current loop
                // level counter array list. This gets the
                // current loop count per the level we're on
-               loopCounter = ComplexityObj.loopLevelCount.get(TempLoopObj.loopLevel.get(i)).intValue();
+               loopCounter = CmplxState.loopLevelCount.get(TempLoopState.loopLevel.get(i)).intValue();
 
                // Increment the loop counter
                loopCounter++;
 
                // Set the loop level counter arrayList level <loopLevel> to the
                // count <loopCounter>
-               ComplexityObj.loopLevelCount.set(TempLoopObj.loopLevel.get(i), loopCounter);
+               CmplxState.loopLevelCount.set(TempLoopState.loopLevel.get(i), loopCounter);
             }
          }
       }
@@ -1036,16 +1026,16 @@ public class JSPCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
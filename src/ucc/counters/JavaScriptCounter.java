@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -104,12 +101,11 @@ public class JavaScriptCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -201,7 +197,7 @@ public class JavaScriptCounter extends CodeCounter
                // Delete the contents of for loops
                closePos = 0;
                regEx = "\\bfor\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
                while (closePos >= 0 && matcher.find(closePos))
                {
                   openPos = line.indexOf("(", matcher.end());
@@ -220,15 +216,16 @@ public class JavaScriptCounter extends CodeCounter
                }
 
                regEx = "\\bvar\\b";
-               matcher = Pattern.compile(regEx).matcher(line);
+               matcher = Patterns.GetPattern(regEx).matcher(line);
                if (matcher.find())
                {
-                  line = line.replaceAll(regEx, "\nvar");
+                  line = matcher.replaceAll("\nvar");
                }
 
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Add a new line after all compiler directives
@@ -371,7 +368,6 @@ public class JavaScriptCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       String regEx;
       Matcher matcher;
@@ -389,31 +385,17 @@ public class JavaScriptCounter extends CodeCounter
          {
             if (cntrResult.EmbOfIdx == -1)
             {
-               // Create file for LSLOC storage
-               file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-               bw = new BufferedWriter(new FileWriter(file));
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResult);
             }
             else
             {
-               // Create file for LSLOC storage
-               file = new File(
-                        FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-               // If LSLOC file doesn't already exist, then create it
-               if (!file.exists())
-               {
-                  file.createNewFile();
-               }
-
-               // true = append file
-               FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-               bw = new BufferedWriter(fileWritter);
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
             }
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -445,7 +427,7 @@ public class JavaScriptCounter extends CodeCounter
                // ends up being ;)
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+                  tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
                }
             }
 
@@ -488,7 +470,7 @@ public class JavaScriptCounter extends CodeCounter
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
                   regEx = LineTerminator.get(lt);
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (matcher.find())
                   {
                      logger.debug("line " + reader.getLineNumber() + " out: " + line);
@@ -514,14 +496,14 @@ public class JavaScriptCounter extends CodeCounter
                   // If we're in a pure JavaScript file
                   if (cntrResult.EmbOfIdx == -1)
                   {
-                     if (!cntrResult.UniqueFileName)
+                     if (NeedsLineChecksums(cntrResult))
                      {
                         cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                      }
                   }
                   else // If we're in an embedded JavaScript file
                   {
-                     if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                     if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                      {
                         cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                      }
@@ -566,7 +548,7 @@ public class JavaScriptCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -606,7 +588,7 @@ public class JavaScriptCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          sbLine.setLength(0);
 
          // While we find LSLOC keywords on the line...
@@ -644,7 +626,7 @@ public class JavaScriptCounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          sbLine.setLength(0);
 
          // While we find LSLOC keywords on the line...
@@ -679,7 +661,7 @@ public class JavaScriptCounter extends CodeCounter
       Matcher matcher;
 
       regEx = "\\bvar\\b";
-      pattern = Pattern.compile(regEx);
+      pattern = Patterns.GetPattern(regEx);
       matcher = pattern.matcher(line.trim());
       if (matcher.find() && matcher.start() == 0)
       {
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -97,12 +94,11 @@ public class PascalCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -180,7 +176,7 @@ public class PascalCounter extends CodeCounter
                for (int fk = 0; fk < FunctionKeywords.size(); fk++)
                {
                   regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-                  pattern = Pattern.compile(regEx);
+                  pattern = Patterns.GetPattern(regEx);
                   matcher = pattern.matcher(line);
                   while (matcher.find())
                   {
@@ -196,8 +192,8 @@ public class PascalCounter extends CodeCounter
                            multiLineFlag = false;
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -231,7 +227,8 @@ public class PascalCounter extends CodeCounter
                // Replace all line terminators with new lines
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Replace all double newlines with single newlines
@@ -378,25 +375,24 @@ public class PascalCounter extends CodeCounter
       Matcher matcher;
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Add base CC level for the cyclomatic complexity counts
       cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
       // Set the base CC level's function name to blank since Matlab can contain
       // scripts with no functions
-      cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
+      cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -409,14 +405,11 @@ public class PascalCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -495,7 +488,7 @@ public class PascalCounter extends CodeCounter
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
                   regEx = LineTerminator.get(lt);
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (matcher.find())
                   {
                      logger.debug("line " + reader.getLineNumber() + " out: " + line);
@@ -516,7 +509,7 @@ public class PascalCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -569,7 +562,7 @@ public class PascalCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -596,10 +589,13 @@ public class PascalCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -607,10 +603,13 @@ public class PascalCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
+      boolean functionFlag;
+      int functionLevel;
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -629,7 +628,7 @@ public class PascalCounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length())
@@ -637,28 +636,28 @@ public class PascalCounter extends CodeCounter
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Increment the loop level if we don't have a one-liner loop
             for (int lt = 0; lt < LineTerminator.size() && !line.isEmpty(); lt++)
             {
                if (!line.trim().endsWith(LineTerminator.get(lt)))
                {
-                  ComplexityObj.loopLevel++;
+                  CmplxState.loopLevel++;
 
                   // If the loop level counter arrayList size is less than or
                   // equal to the loop level integer
-                  if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+                  if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
                   {
                      // Add another level to the level counter arrayList
-                     ComplexityObj.loopLevelCount.add(0);
+                     CmplxState.loopLevelCount.add(0);
                   }
                }
             }
@@ -670,10 +669,10 @@ public class PascalCounter extends CodeCounter
                                         // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -700,7 +699,7 @@ public class PascalCounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find() && matcher.start() == 0)
          {
             // Take substring to derive function name
@@ -726,13 +725,13 @@ public class PascalCounter extends CodeCounter
             if (newFunction == true)
             {
                // Increment the number of functions
-               CyclomaticComplexityObj.functionLevel++;
+               CycCmplxState.functionLevel++;
 
                // Add a new element to the cyclomatic complexity count arrayList
                cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
                // Save function name
-               cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = line;
+               cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = line;
             }
          }
       }
@@ -756,7 +755,7 @@ public class PascalCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
 
          // While the line isn't empty, the line is longer than keyword, and we
@@ -766,7 +765,7 @@ public class PascalCounter extends CodeCounter
             matcher.appendReplacement(sbLine, " ");
 
             // Increment the function level's CC count
-            cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Count++;
+            cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Count++;
          }
 
          // Update the line
@@ -787,16 +786,16 @@ public class PascalCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -851,7 +850,7 @@ public class PascalCounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = ":\\s+\\b" + DataKeyword.get(dk) + "\\b";
-         pattern = Pattern.compile(regEx);
+         pattern = Patterns.GetPattern(regEx);
          matcher = pattern.matcher(line);
 
          // If we find the pattern "VariableName : DataType := Value;"
@@ -901,7 +900,7 @@ public class PascalCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "end" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -927,7 +926,7 @@ public class PascalCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // While we find LSLOC keywords on the line...
          if (matcher.find() && !line.isEmpty() && line.length() >= LslocKeywords.get(lk).length())
@@ -1009,7 +1008,7 @@ public class PascalCounter extends CodeCounter
 
       // Check for (*$ ... *) compiler directives
       regEx = "\\(\\*\\$(.*?)\\*\\)";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       sbLine = new StringBuffer();
       while (matcher.find())
       {
@@ -1022,7 +1021,7 @@ public class PascalCounter extends CodeCounter
 
       // Check for {$ ... } compiler directives
       regEx = "\\{\\$(.*?)\\}";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       sbLine = new StringBuffer();
       while (matcher.find())
       {
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -96,15 +93,12 @@ public class PythonCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-
-         // Initialize BufferedWriter
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          // Initialize reader
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -287,7 +281,7 @@ public class PythonCounter extends CodeCounter
             for (int lk = 0; lk < LslocKeywords.size(); lk++)
             {
                regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-               matcher = Pattern.compile(regEx).matcher(line.trim());
+               matcher = Patterns.GetPattern(regEx).matcher(line.trim());
 
                if (matcher.find() && matcher.start() == 0)
                {
@@ -430,27 +424,26 @@ public class PythonCounter extends CodeCounter
       String tempLine = "";
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
+      CmplxState.loopLevelCount.clear();
 
       // Zero out loop level variables for complx metrics
-      TempLoopObj.indentationSize.clear();
-      TempLoopObj.loopKeyword.clear();
+      TempLoopState.indentationSize.clear();
+      TempLoopState.loopKeyword.clear();
 
       // Zero out function variables for cyclomatic complexity metrics
-      CyclomaticComplexityObj.functionFlag = false;
-      CyclomaticComplexityObj.functionLevel = 0;
-      CyclomaticComplexityObj.indentation.clear();
-      CyclomaticComplexityObj.keyword.clear();
+      CycCmplxState.functionFlag = false;
+      CycCmplxState.functionLevel = 0;
+      CycCmplxState.indentation.clear();
+      CycCmplxState.keyword.clear();
 
       // Add base CC level for the cyclomatic complexity counts
       cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
       // Set the base CC level's function name to blank since Python can contain
       // scripts with no functions
-      cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
+      cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -463,14 +456,11 @@ public class PythonCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -501,7 +491,7 @@ public class PythonCounter extends CodeCounter
                // Delete all line terminators
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+                  tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
                }
             }
 
@@ -569,7 +559,7 @@ public class PythonCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -628,7 +618,7 @@ public class PythonCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -655,9 +645,12 @@ public class PythonCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Class for storing cyclomatic complexity variables needed for cyclomatic
     * complexity metrics
@@ -665,22 +658,28 @@ public class PythonCounter extends CodeCounter
    static class CyclomaticComplexityObj
    {
       // Function variables used with cyclomatic complexity
-      static boolean functionFlag;
-      static int functionLevel;
-      static ArrayList<Integer> indentation = new ArrayList<Integer>();
-      static ArrayList<String> keyword = new ArrayList<String>();
+      boolean functionFlag;
+      int functionLevel;
+      ArrayList<Integer> indentation = new ArrayList<Integer>();
+      ArrayList<String> keyword = new ArrayList<String>();
    }
 
+   /** Cyclomatic complexity variables of the file being counted */
+   private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
    /**
     * Class for storing temporary loop level variables which we will adjust to
     * get true loop level complexity
     */
    static class TempLoopObj
    {
-      static ArrayList<Integer> indentationSize = new ArrayList<Integer>();
-      static ArrayList<String> loopKeyword = new ArrayList<String>();
+      ArrayList<Integer> indentationSize = new ArrayList<Integer>();
+      ArrayList<String> loopKeyword = new ArrayList<String>();
    }
 
+   /** Temporary loop level variables of the file being counted */
+   private TempLoopObj TempLoopState = new TempLoopObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -696,13 +695,13 @@ public class PythonCounter extends CodeCounter
 
       // Add special case for 'class'
       regEx = "\\bclass\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find any of the condition keywords on the given line...
       if (matcher.find())
       {
          regEx = ":";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If the line ends with a :...
          if (matcher.find() && matcher.end() == line.replaceFirst("\\s+$", "").length())
@@ -710,20 +709,20 @@ public class PythonCounter extends CodeCounter
             ind = line.length() - line.replaceAll("^\\s+", "").length();
 
             // Add the loop level and loop keyword to our arraylists
-            TempLoopObj.indentationSize.add(ind);
-            TempLoopObj.loopKeyword.add("class");
+            TempLoopState.indentationSize.add(ind);
+            TempLoopState.loopKeyword.add("class");
          }
       }
 
       // Add special case for 'def'
       regEx = "\\bdef\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find any of the condition keywords on the given line...
       if (matcher.find())
       {
          regEx = ":";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If the line ends with a :...
          if (matcher.find() && matcher.end() == line.replaceFirst("\\s+$", "").length())
@@ -731,8 +730,8 @@ public class PythonCounter extends CodeCounter
             ind = line.length() - line.replaceAll("^\\s+", "").length();
 
             // Add the loop level and loop keyword to our arraylists
-            TempLoopObj.indentationSize.add(ind);
-            TempLoopObj.loopKeyword.add("def");
+            TempLoopState.indentationSize.add(ind);
+            TempLoopState.loopKeyword.add("def");
          }
       }
 
@@ -740,13 +739,13 @@ public class PythonCounter extends CodeCounter
       for (int ck = 0; ck < CondKeywords.size(); ck++)
       {
          regEx = "\\b" + CondKeywords.get(ck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the condition keywords on the given line...
          if (matcher.find())
          {
             regEx = ":";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // If the line ends with a :...
             if (matcher.find() && matcher.end() == line.replaceFirst("\\s+$", "").length())
@@ -754,8 +753,8 @@ public class PythonCounter extends CodeCounter
                ind = line.length() - line.replaceAll("^\\s+", "").length();
 
                // Add the loop level and loop keyword to our arraylists
-               TempLoopObj.indentationSize.add(ind);
-               TempLoopObj.loopKeyword.add(CondKeywords.get(ck));
+               TempLoopState.indentationSize.add(ind);
+               TempLoopState.loopKeyword.add(CondKeywords.get(ck));
             }
          }
       }
@@ -781,11 +780,11 @@ public class PythonCounter extends CodeCounter
       for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++)
       {
          regEx = ".*\\b" + FunctionKeywords.get(fk) + "\\b.*";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          if (matcher.find() && matcher.start() == 0)
          {
             // Increment the number of functions
-            CyclomaticComplexityObj.functionLevel++;
+            CycCmplxState.functionLevel++;
 
             // Add a new element to the cyclomatic complexity count arrayList
             cntrResult.CyclCmplxCnts.add(new CmplxDataType());
@@ -801,7 +800,7 @@ public class PythonCounter extends CodeCounter
             }
 
             // Save function name
-            cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = line;
+            cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = line;
          }
       }
    }
@@ -823,13 +822,13 @@ public class PythonCounter extends CodeCounter
 
       // Add special case for 'def'
       regEx = "\\bdef\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find any of the condition keywords on the given line...
       if (matcher.find())
       {
          regEx = ":";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If the line ends with a :...
          if (matcher.find() && matcher.end() == line.replaceFirst("\\s+$", "").length())
@@ -837,8 +836,8 @@ public class PythonCounter extends CodeCounter
             ind = line.length() - line.replaceAll("^\\s+", "").length();
 
             // Add the loop level and loop keyword to our arraylists
-            CyclomaticComplexityObj.indentation.add(ind);
-            CyclomaticComplexityObj.keyword.add(line);
+            CycCmplxState.indentation.add(ind);
+            CycCmplxState.keyword.add(line);
          }
       }
 
@@ -846,13 +845,13 @@ public class PythonCounter extends CodeCounter
       for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.trim().isEmpty(); cck++)
       {
          regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the condition keywords on the given line...
          if (matcher.find())
          {
             regEx = ":";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // If the line ends with a :...
             if (matcher.find() && matcher.end() == line.replaceFirst("\\s+$", "").length())
@@ -860,8 +859,8 @@ public class PythonCounter extends CodeCounter
                ind = line.length() - line.replaceAll("^\\s+", "").length();
 
                // Add the loop level and loop keyword to our arraylists
-               CyclomaticComplexityObj.indentation.add(ind);
-               CyclomaticComplexityObj.keyword.add(CyclCmplexKeywords.get(cck));
+               CycCmplxState.indentation.add(ind);
+               CycCmplxState.keyword.add(CyclCmplexKeywords.get(cck));
             }
          }
       }
@@ -879,16 +878,16 @@ public class PythonCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -945,7 +944,7 @@ public class PythonCounter extends CodeCounter
       ArrayList<Integer> uniqueIndSizes = new ArrayList<Integer>();
 
       // Loop through all the conditional keyword instances we found...
-      for (int i = 0; i < TempLoopObj.loopKeyword.size(); i++)
+      for (int i = 0; i < TempLoopState.loopKeyword.size(); i++)
       {
          // Assume the keyword we found was not a loop keyword
          isLoopKeyword = false;
@@ -954,7 +953,7 @@ public class PythonCounter extends CodeCounter
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword...
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Turn this boolean to true
                isLoopKeyword = true;
@@ -967,32 +966,32 @@ public class PythonCounter extends CodeCounter
             // Save the index in the list
             index = i;
 
-            if (i < TempLoopObj.loopKeyword.size() - 1)
+            if (i < TempLoopState.loopKeyword.size() - 1)
             {
                // Move to the next entry in the list
                i++;
 
                // Save what we may need to scale back by (difference in
                // indentation between two keywords)
-               indentSizeDiff = TempLoopObj.indentationSize.get(i) - TempLoopObj.indentationSize.get(index);
+               indentSizeDiff = TempLoopState.indentationSize.get(i) - TempLoopState.indentationSize.get(index);
 
                // Scale all the indentation sizes back until we hit the
                // indentation size of the conditional keyword
                // we're dealing with.
                // This will "un-nest" iterative loops from conditional loops
-               while (TempLoopObj.indentationSize.get(i) > TempLoopObj.indentationSize.get(index)
-                        && i < TempLoopObj.indentationSize.size() - 1)
+               while (TempLoopState.indentationSize.get(i) > TempLoopState.indentationSize.get(index)
+                        && i < TempLoopState.indentationSize.size() - 1)
                {
-                  newIndentSize = TempLoopObj.indentationSize.get(i) - indentSizeDiff;
-                  TempLoopObj.indentationSize.set(i, newIndentSize);
+                  newIndentSize = TempLoopState.indentationSize.get(i) - indentSizeDiff;
+                  TempLoopState.indentationSize.set(i, newIndentSize);
                   i++;
                }
 
                // Handle last entry if it meets the criteria
-               if (TempLoopObj.indentationSize.get(i) > TempLoopObj.indentationSize.get(index))
+               if (TempLoopState.indentationSize.get(i) > TempLoopState.indentationSize.get(index))
                {
-                  newIndentSize = TempLoopObj.indentationSize.get(i) - indentSizeDiff;
-                  TempLoopObj.indentationSize.set(i, newIndentSize);
+                  newIndentSize = TempLoopState.indentationSize.get(i) - indentSizeDiff;
+                  TempLoopState.indentationSize.set(i, newIndentSize);
                }
             }
 
@@ -1002,7 +1001,7 @@ public class PythonCounter extends CodeCounter
       }
 
       // Loop through all the conditional keyword instances we found... AGAIN
-      for (int i = 0; i < TempLoopObj.loopKeyword.size(); i++)
+      for (int i = 0; i < TempLoopState.loopKeyword.size(); i++)
       {
          // Assume the keyword we found was not a loop keyword AGAIN
          isLoopKeyword = false;
@@ -1011,15 +1010,15 @@ public class PythonCounter extends CodeCounter
          for (int lk = 0; lk < LoopKeywords.size(); lk++)
          {
             // If the conditional keyword we found is a loop keyword... AGAIN
-            if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
+            if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk)))
             {
                // Add to list of ONLY loop keywords
-               loopKeyword2.add(TempLoopObj.loopKeyword.get(i));
+               loopKeyword2.add(TempLoopState.loopKeyword.get(i));
 
                // Add to list of indentation sizes of ONLY loop keywords
-               // System.out.println(TempLoopObj.loopKeyword.get(i) +
-               // TempLoopObj.indentationSize.get(i));
-               indentationSize2.add(TempLoopObj.indentationSize.get(i));
+               // System.out.println(TempLoopState.loopKeyword.get(i) +
+               // TempLoopState.indentationSize.get(i));
+               indentationSize2.add(TempLoopState.indentationSize.get(i));
             }
          }
       }
@@ -1041,7 +1040,7 @@ public class PythonCounter extends CodeCounter
       for (int i = 0; i < uniqueIndSizes.size(); i++)
       {
          // Add another level to the level counter arrayList
-         ComplexityObj.loopLevelCount.add(0);
+         CmplxState.loopLevelCount.add(0);
       }
 
       // Loop through all of the patterns we found for loop levels
@@ -1057,14 +1056,14 @@ public class PythonCounter extends CodeCounter
                // Set the loop counter to the integer value of the current loop
                // level counter array list. This gets the
                // current loop count per the level we're on
-               loopCounter = ComplexityObj.loopLevelCount.get(j).intValue();
+               loopCounter = CmplxState.loopLevelCount.get(j).intValue();
 
                // Increment the loop counter
                loopCounter++;
 
                // Set the loop level counter arrayList level <loopLevel> to the
                // count <loopCounter>
-               ComplexityObj.loopLevelCount.set(j, loopCounter);
+               CmplxState.loopLevelCount.set(j, loopCounter);
             }
          }
       }
@@ -1100,14 +1099,14 @@ public class PythonCounter extends CodeCounter
       int tempCount = 0;
       String defName = "";
 
-      for (int k = 0; k < CyclomaticComplexityObj.keyword.size(); k++)
+      for (int k = 0; k < CycCmplxState.keyword.size(); k++)
       {
-         if (CyclomaticComplexityObj.keyword.get(k).trim().startsWith("def"))
+         if (CycCmplxState.keyword.get(k).trim().startsWith("def"))
          {
             // Save the def index
             kndx = k;
 
-            if (k < CyclomaticComplexityObj.keyword.size() - 1)
+            if (k < CycCmplxState.keyword.size() - 1)
             {
                // Go to the next item in the list
                k++;
@@ -1116,45 +1115,45 @@ public class PythonCounter extends CodeCounter
                // tempCount++;
 
                // While the indentation is greater than that of the def
-               while (CyclomaticComplexityObj.indentation.get(kndx) < CyclomaticComplexityObj.indentation.get(k)
-                        && k < CyclomaticComplexityObj.indentation.size() - 1)
+               while (CycCmplxState.indentation.get(kndx) < CycCmplxState.indentation.get(k)
+                        && k < CycCmplxState.indentation.size() - 1)
                {
                   // Increment the count for the def
                   tempCount++;
 
                   // Set the indentation to -999 as we go so we know which ones
                   // we've counted
-                  CyclomaticComplexityObj.indentation.set(k, -999);
+                  CycCmplxState.indentation.set(k, -999);
 
                   // Go to the next item in the list
                   k++;
                }
 
                // Handle last entry if it meets the criteria
-               if (CyclomaticComplexityObj.indentation.get(kndx) < CyclomaticComplexityObj.indentation.get(k))
+               if (CycCmplxState.indentation.get(kndx) < CycCmplxState.indentation.get(k))
                {
                   // Increment the count for the def
                   tempCount++;
 
                   // Set the indentation to -999 as we go so we know which ones
                   // we've counted
-                  CyclomaticComplexityObj.indentation.set(k, -999);
+                  CycCmplxState.indentation.set(k, -999);
                }
             }
-            else if (CyclomaticComplexityObj.keyword.size() == 1)
+            else if (CycCmplxState.keyword.size() == 1)
             {
                // Increment the count for the def
                tempCount++;
 
                // Set the indentation to -999 as we go so we know which ones
                // we've counted
-               CyclomaticComplexityObj.indentation.set(kndx, -999);
+               CycCmplxState.indentation.set(kndx, -999);
             }
 
             // Get the defName the same way we got the function name
             for (int fk = 0; fk < FunctionKeywords.size(); fk++)
             {
-               defName = CyclomaticComplexityObj.keyword.get(kndx);
+               defName = CycCmplxState.keyword.get(kndx);
                defName = defName.substring(
                         defName.indexOf(FunctionKeywords.get(fk)) + FunctionKeywords.get(fk).length(),
                         defName.length());
@@ -1185,7 +1184,7 @@ public class PythonCounter extends CodeCounter
 
             // Set the indentation to -999 as we go so we know which ones we've
             // counted
-            CyclomaticComplexityObj.indentation.set(k, -999);
+            CycCmplxState.indentation.set(k, -999);
          }
       }
 
@@ -1193,9 +1192,9 @@ public class PythonCounter extends CodeCounter
       tempCount = 0;
 
       // Count all of our "level 0" instances (i.e. CC outside a function)
-      for (int k = 0; k < CyclomaticComplexityObj.keyword.size(); k++)
+      for (int k = 0; k < CycCmplxState.keyword.size(); k++)
       {
-         if (CyclomaticComplexityObj.indentation.get(k) != -999)
+         if (CycCmplxState.indentation.get(k) != -999)
          {
             tempCount++;
          }
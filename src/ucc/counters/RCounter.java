@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -99,13 +96,12 @@ public class RCounter extends CodeCounter {
 		boolean cdNewLine = false;
 
 		try {
-			// Create file for PSLOC storage
-			File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-			bw = new BufferedWriter(new FileWriter(file));
+			// Open PSLOC storage
+			bw = OpenPslocWriter(cntrResult);
 			// bw.write("Rscript(){\n");
 
 			reader = new LineNumberReader(
-					new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+					new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
 			// Read first line
 			String line = reader.readLine();
@@ -208,7 +204,7 @@ public class RCounter extends CodeCounter {
 					for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++) {
 						closePos = 0;
 						regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-						matcher = Pattern.compile(regEx).matcher(line);
+						matcher = Patterns.GetPattern(regEx).matcher(line);
 						while (closePos >= 0 && matcher.find(closePos)) {
 							openPos = line.indexOf("(", matcher.end());
 							closePos = FindClose(line, openPos, '(', ')');
@@ -219,8 +215,8 @@ public class RCounter extends CodeCounter {
 								// @'s
 								if (LslocKeywords.get(lk).equals("for")) {
 									for (int lt = 0; lt < LineTerminator.size(); lt++) {
-										tempLine = line.substring(openPos + "(".length(), closePos).trim()
-												.replaceAll(LineTerminator.get(lt), "@");
+										tempLine = line.substring(openPos + "(".length(), closePos).trim();
+										tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
 									}
 									line = line.substring(0, openPos + "(".length()) + tempLine
 											+ line.substring(closePos, line.length()).trim();
@@ -236,7 +232,8 @@ public class RCounter extends CodeCounter {
 
 					// Add a newline after all line terminators
 					for (int lt = 0; lt < LineTerminator.size(); lt++) {
-						line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+						line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+									.replaceAll(LineTerminator.get(lt) + "\n");
 					}
 
 					// Add a newline after all open curly braces
@@ -273,7 +270,7 @@ public class RCounter extends CodeCounter {
 					// Put all LSLOC keywords to start on their own line
 					for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++) {
 						regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-						matcher = Pattern.compile(regEx).matcher(line);
+						matcher = Patterns.GetPattern(regEx).matcher(line);
 						isCompilerDirective = false;
 
 						if (matcher.find()) {
@@ -295,16 +292,16 @@ public class RCounter extends CodeCounter {
 							}
 
 							if (!isCompilerDirective) {
-								line = line.replaceAll(regEx, "\n" + LslocKeywords.get(lk));
+								line = matcher.replaceAll("\n" + LslocKeywords.get(lk));
 							}
 						}
 					}
 
 					// Special case for "do"
 					regEx = "\\b" + "do" + "\\b";
-					matcher = Pattern.compile(regEx).matcher(line);
+					matcher = Patterns.GetPattern(regEx).matcher(line);
 					if (matcher.find()) {
-						line = line.replaceAll(regEx, "\n" + "do ");
+						line = matcher.replaceAll("\n" + "do ");
 					}
 
 					// Delete all lines that are just a newline
@@ -318,7 +315,8 @@ public class RCounter extends CodeCounter {
 
 						// Add a newline after all line terminators
 						for (int lt = 0; lt < LineTerminator.size(); lt++) {
-							line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+							line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+										.replaceAll(LineTerminator.get(lt) + "\n");
 						}
 					}
 
@@ -436,32 +434,31 @@ public class RCounter extends CodeCounter {
 							// sequence
 
 		lslocLineValue = 0;
-		File file = null;
 
 		// Zero out loop level variables for complexity metrics
-		ComplexityObj.loopLevelCount.clear();
-		ComplexityObj.loopLevel = 0;
+		CmplxState.loopLevelCount.clear();
+		CmplxState.loopLevel = 0;
 
 		// Zero out temporary loop level variables (catches all conditionals,
 		// not
 		// just loop keyword info)
-		TempLoopObj.loopLevel.clear();
-		TempLoopObj.loopKeyword.clear();
+		TempLoopState.loopLevel.clear();
+		TempLoopState.loopKeyword.clear();
 
 		// Zero out function variables for cyclomatic complexity metrics
-		CyclomaticComplexityObj.functionFlag = false;
-		CyclomaticComplexityObj.functionLevel = 0;
+		CycCmplxState.functionFlag = false;
+		CycCmplxState.functionLevel = 0;
 
 		// Add base loop level to get started
-		ComplexityObj.loopLevelCount.add(0);
+		CmplxState.loopLevelCount.add(0);
 
 		// Add base CC level for the cyclomatic complexity counts
 		cntrResult.CyclCmplxCnts.add(new CmplxDataType());
 
 		// Set the base CC level's function name to blank since R can
 		// contain scripts with no functions
-		cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel).Keyword = " ";
-		CyclomaticComplexityObj.functionLevel++;
+		cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel).Keyword = " ";
+		CycCmplxState.functionLevel++;
 
 		// Initialize complexity keywords/counts for this file
 		InitAllCmplxKeywords(cntrResult);
@@ -472,14 +469,11 @@ public class RCounter extends CodeCounter {
 		try {
 			// If we're differencing baselines...
 			if (RtParams.DiffCode) {
-				// Create file for LSLOC storage
-				file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-				bw = new BufferedWriter(new FileWriter(file));
+				// Open LSLOC storage
+				bw = OpenLslocWriter(cntrResult);
 			}
 
-			reader = new LineNumberReader(new InputStreamReader(
-					new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-					Constants.CHARSET_NAME));
+			reader = OpenPslocReader(cntrResult);
 
 			// Read first line
 			String line = reader.readLine();
@@ -512,7 +506,7 @@ public class RCounter extends CodeCounter {
 					// line
 					// ends up being ;)
 					for (int lt = 0; lt < LineTerminator.size(); lt++) {
-						tempLine = tempLine.replaceAll(LineTerminator.get(lt), "");
+						tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("");
 					}
 				}
 
@@ -541,7 +535,7 @@ public class RCounter extends CodeCounter {
 				}
 
 				// Assume we are not dealing with a function
-				CyclomaticComplexityObj.functionFlag = false;
+				CycCmplxState.functionFlag = false;
 
 				// Count loop level complexity, determine function names, and
 				// calculate cyclomatic complexity
@@ -603,7 +597,7 @@ public class RCounter extends CodeCounter {
 
 					// If we're searching for duplicates, checksum the LSLOC
 					// line
-					if (RtParams.SearchForDups && !cntrResult.UniqueFileName) {
+					if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult)) {
 						cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
 						lineIndex++;
 					}
@@ -653,7 +647,7 @@ public class RCounter extends CodeCounter {
 				reader = null;
 
 				// Delete PSLOC file
-				FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+				DeletePsloc(cntrResult);
 			}
 
 			// If the _LSLOC file was opened...
@@ -675,29 +669,38 @@ public class RCounter extends CodeCounter {
 	 */
 	static class ComplexityObj {
 		// Loop level counting variables for complexity metrics
-		static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-		static int loopLevel;
+		ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+		int loopLevel;
 	}
 
+	/** Loop level variables of the file being counted */
+	private ComplexityObj CmplxState = new ComplexityObj();
+
 	/**
 	 * Class for storing cyclomatic complexity variables needed for cyclomatic
 	 * complexity metrics
 	 */
 	static class CyclomaticComplexityObj {
 		// Function variables used with cyclomatic complexity
-		static boolean functionFlag;
-		static int functionLevel;
+		boolean functionFlag;
+		int functionLevel;
 	}
 
+	/** Cyclomatic complexity variables of the file being counted */
+	private CyclomaticComplexityObj CycCmplxState = new CyclomaticComplexityObj();
+
 	/**
 	 * Class for storing temporary loop level variables which we will adjust to
 	 * get true loop level complexity
 	 */
 	static class TempLoopObj {
-		static ArrayList<Integer> loopLevel = new ArrayList<Integer>();
-		static ArrayList<String> loopKeyword = new ArrayList<String>();
+		ArrayList<Integer> loopLevel = new ArrayList<Integer>();
+		ArrayList<String> loopKeyword = new ArrayList<String>();
 	}
 
+	/** Temporary loop level variables of the file being counted */
+	private TempLoopObj TempLoopState = new TempLoopObj();
+
 	/**
 	 * Function for getting the loop level for a particular line based on
 	 * occurrences of the loop keywords list.
@@ -710,7 +713,7 @@ public class RCounter extends CodeCounter {
 		Matcher matcher;
 
 		regEx = "\\}";
-		matcher = Pattern.compile(regEx).matcher(line);
+		matcher = Patterns.GetPattern(regEx).matcher(line);
 
 		// If we find }, decrement the level. We do this first so that it
 		// handles
@@ -723,16 +726,16 @@ public class RCounter extends CodeCounter {
 		// Loop through all the condition keywords
 		for (int ck = 0; ck < CondKeywords.size(); ck++) {
 			regEx = "\\b" + CondKeywords.get(ck) + "\\b";
-			matcher = Pattern.compile(regEx).matcher(line);
+			matcher = Patterns.GetPattern(regEx).matcher(line);
 
 			// If we find any of the condition keywords on the given line...
 			if (matcher.find()) {
 				regEx = "\\{";
-				matcher = Pattern.compile(regEx).matcher(line);
+				matcher = Patterns.GetPattern(regEx).matcher(line);
 
 				// Add the loop level and loop keyword to our arraylists
-				TempLoopObj.loopLevel.add(level);
-				TempLoopObj.loopKeyword.add(CondKeywords.get(ck));
+				TempLoopState.loopLevel.add(level);
+				TempLoopState.loopKeyword.add(CondKeywords.get(ck));
 
 				// If the line ends with a {...
 				if (matcher.find() && matcher.end() == line.trim().length()) {
@@ -765,10 +768,10 @@ public class RCounter extends CodeCounter {
 		// Loop through all the function keywords...
 		for (int fk = 0; fk < FunctionKeywords.size() && !line.isEmpty(); fk++) {
 			regEx = ".*\\b" + FunctionKeywords.get(fk) + "\\b.*";
-			matcher = Pattern.compile(regEx).matcher(line);
+			matcher = Patterns.GetPattern(regEx).matcher(line);
 			if (matcher.find() && matcher.start() == 0) {
 				// Increment the number of functions
-				CyclomaticComplexityObj.functionLevel++;
+				CycCmplxState.functionLevel++;
 				System.out.println("For line : " + line + " ----matched");
 				// Add a new element to the cyclomatic complexity count
 				// arrayList
@@ -780,7 +783,7 @@ public class RCounter extends CodeCounter {
 				String[] lineSplit = line.split("<-");
 				line = lineSplit[0];
 				// Save function name
-				cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Keyword = line;
+				cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Keyword = line;
 			}
 		}
 	}
@@ -815,15 +818,15 @@ public class RCounter extends CodeCounter {
 
 		for (int cck = 0; cck < CyclCmplexKeywords.size() && !line.isEmpty(); cck++) {
 			regEx = "\\b" + CyclCmplexKeywords.get(cck) + "\\b";
-			matcher = Pattern.compile(regEx).matcher(line);
+			matcher = Patterns.GetPattern(regEx).matcher(line);
 			StringBuffer sbLine = new StringBuffer();
 
 			// Count multiple LSLOC keywords on one line
 			while (matcher.find() && !line.isEmpty() && line.length() >= CyclCmplexKeywords.get(cck).length()) {
 				matcher.appendReplacement(sbLine, " ");
 				if (!cntrResult.IsOutsideFunction) {
-					if (CyclomaticComplexityObj.functionLevel > 0) {
-							cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+					if (CycCmplxState.functionLevel > 0) {
+							cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
 					}
 				} else {
 						cntrResult.CyclCmplxCnts.get(0).Count++;
@@ -836,8 +839,8 @@ public class RCounter extends CodeCounter {
 		// Handle ?: ternary if statements
 		if (line.indexOf("?") >= 0 && line.indexOf(":") >= 0) {
 			if (line.indexOf("?") < line.indexOf(":")) {
-				if (CyclomaticComplexityObj.functionLevel > 0) {
-					cntrResult.CyclCmplxCnts.get(CyclomaticComplexityObj.functionLevel - 1).Count++;
+				if (CycCmplxState.functionLevel > 0) {
+					cntrResult.CyclCmplxCnts.get(CycCmplxState.functionLevel - 1).Count++;
 				}
 			}
 		}
@@ -859,7 +862,7 @@ public class RCounter extends CodeCounter {
 
 		// Delete line terminators after while loops
 		regEx = "\\bwhile\\b";
-		matcher = Pattern.compile(regEx).matcher(line);
+		matcher = Patterns.GetPattern(regEx).matcher(line);
 
 		// If we find a while loop...
 		if (matcher.find()) {
@@ -877,7 +880,7 @@ public class RCounter extends CodeCounter {
 		// Loop through the LSLOC keywords list
 		for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++) {
 			regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-			matcher = Pattern.compile(regEx).matcher(line);
+			matcher = Patterns.GetPattern(regEx).matcher(line);
 			StringBuffer sbLine = new StringBuffer();
 
 			// While we find LSLOC keywords on the line...
@@ -925,14 +928,14 @@ public class RCounter extends CodeCounter {
 		int loopCounter = 0;
 
 		// Loop through all the conditional keyword instances we found...
-		for (int i = 0; i < TempLoopObj.loopLevel.size(); i++) {
+		for (int i = 0; i < TempLoopState.loopLevel.size(); i++) {
 			// Assume the keyword we found was not a loop keyword
 			isLoopKeyword = false;
 
 			// Loop through all the loop keywords...
 			for (int lk = 0; lk < LoopKeywords.size(); lk++) {
 				// If the conditional keyword we found is a loop keyword...
-				if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
+				if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
 					// Turn this boolean to true
 					isLoopKeyword = true;
 				}
@@ -943,7 +946,7 @@ public class RCounter extends CodeCounter {
 				// Save the index in the list
 				index = i;
 
-				if (i < TempLoopObj.loopLevel.size() - 1) {
+				if (i < TempLoopState.loopLevel.size() - 1) {
 					// Move to the next entry in the list
 					i++;
 
@@ -952,18 +955,18 @@ public class RCounter extends CodeCounter {
 					// conditional keyword we're dealing with.
 					// This will "un-nest" iterative loops from conditional
 					// loops
-					if (!TempLoopObj.loopKeyword.get(index).equals("do")) {
-						while (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index)
-								&& i < TempLoopObj.loopLevel.size() - 1) {
-							newLevel = TempLoopObj.loopLevel.get(i) - 1;
-							TempLoopObj.loopLevel.set(i, newLevel);
+					if (!TempLoopState.loopKeyword.get(index).equals("do")) {
+						while (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index)
+								&& i < TempLoopState.loopLevel.size() - 1) {
+							newLevel = TempLoopState.loopLevel.get(i) - 1;
+							TempLoopState.loopLevel.set(i, newLevel);
 							i++;
 						}
 
 						// Handle last entry if it meets the criteria
-						if (TempLoopObj.loopLevel.get(i) > TempLoopObj.loopLevel.get(index)) {
-							newLevel = TempLoopObj.loopLevel.get(i) - 1;
-							TempLoopObj.loopLevel.set(i, newLevel);
+						if (TempLoopState.loopLevel.get(i) > TempLoopState.loopLevel.get(index)) {
+							newLevel = TempLoopState.loopLevel.get(i) - 1;
+							TempLoopState.loopLevel.set(i, newLevel);
 						}
 					}
 				}
@@ -974,15 +977,15 @@ public class RCounter extends CodeCounter {
 		}
 
 		// Loop through all of the patterns we found for loop levels
-		for (int i = 0; i < TempLoopObj.loopLevel.size(); i++) {
+		for (int i = 0; i < TempLoopState.loopLevel.size(); i++) {
 			// Get the max loop level of loop keywords
 			for (int lk = 0; lk < LoopKeywords.size(); lk++) {
 				// If the conditional keyword we found is a loop keyword...
-				if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
+				if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
 					// Get the maximum loop level we found for allocation of the
 					// loop
 					// level count
-					maxLoopLevel = Math.max(maxLoopLevel, TempLoopObj.loopLevel.get(i));
+					maxLoopLevel = Math.max(maxLoopLevel, TempLoopState.loopLevel.get(i));
 				}
 			}
 		}
@@ -990,20 +993,20 @@ public class RCounter extends CodeCounter {
 		// Allocate the loop level count to the right size, discovered above
 		for (int i = 0; i < maxLoopLevel; i++) {
 			// Add another level to the level counter arrayList
-			ComplexityObj.loopLevelCount.add(0);
+			CmplxState.loopLevelCount.add(0);
 		}
 
 		// Loop through all of the patterns we found for loop levels
-		for (int i = 0; i < TempLoopObj.loopLevel.size(); i++) {
+		for (int i = 0; i < TempLoopState.loopLevel.size(); i++) {
 			// Tally up the number of loops found at each level
 			for (int lk = 0; lk < LoopKeywords.size(); lk++) {
 				// If the conditional keyword we found is a loop keyword...
-				if (TempLoopObj.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
+				if (TempLoopState.loopKeyword.get(i).equals(LoopKeywords.get(lk))) {
 					// Set the loop counter to the integer value of the current
 					// loop
 					// level counter array list. This gets the
 					// current loop count per the level we're on
-					loopCounter = ComplexityObj.loopLevelCount.get(TempLoopObj.loopLevel.get(i)).intValue();
+					loopCounter = CmplxState.loopLevelCount.get(TempLoopState.loopLevel.get(i)).intValue();
 
 					// Increment the loop counter
 					loopCounter++;
@@ -1011,7 +1014,7 @@ public class RCounter extends CodeCounter {
 					// Set the loop level counter arrayList level <loopLevel> to
 					// the
 					// count <loopCounter>
-					ComplexityObj.loopLevelCount.set(TempLoopObj.loopLevel.get(i), loopCounter);
+					CmplxState.loopLevelCount.set(TempLoopState.loopLevel.get(i), loopCounter);
 				}
 			}
 		}
@@ -1028,14 +1031,14 @@ public class RCounter extends CodeCounter {
 		int finalLoopCounter = 0;
 
 		// Loop through all the loop level counts
-		for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++) {
+		for (int i = 0; i < CmplxState.loopLevelCount.size(); i++) {
 			// If the count is non-zero
-			if (ComplexityObj.loopLevelCount.get(i) > 0) {
+			if (CmplxState.loopLevelCount.get(i) > 0) {
 				// Add the level to the loop level arraylist
 				cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
 				// Set the count to the tallied value
-				cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+				cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
 				// Increment the loop counter
 				finalLoopCounter++;
@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -99,12 +95,11 @@ public class SQLCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -208,7 +203,7 @@ public class SQLCounter extends CodeCounter
 
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line).replaceAll("\n");
                }
             }
 
@@ -361,7 +356,6 @@ public class SQLCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       int index = -1;
       int openPos = -1;
@@ -384,31 +378,17 @@ public class SQLCounter extends CodeCounter
          {
             if (cntrResult.EmbOfIdx == -1)
             {
-               // Create file for LSLOC storage
-               file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-               bw = new BufferedWriter(new FileWriter(file));
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResult);
             }
             else
             {
-               // Create file for LSLOC storage
-               file = new File(
-                        FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-               // If LSLOC file doesn't already exist, then create it
-               if (!file.exists())
-               {
-                  file.createNewFile();
-               }
-
-               // true = append file
-               FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-               bw = new BufferedWriter(fileWritter);
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
             }
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -520,14 +500,14 @@ public class SQLCounter extends CodeCounter
                   // If we're in a pure SQL file
                   if (cntrResult.EmbOfIdx == -1)
                   {
-                     if (!cntrResult.UniqueFileName)
+                     if (NeedsLineChecksums(cntrResult))
                      {
                         cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                      }
                   }
                   else // If we're in an embedded SQL file
                   {
-                     if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                     if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                      {
                         cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                      }
@@ -571,7 +551,7 @@ public class SQLCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -607,7 +587,7 @@ public class SQLCounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = "\\b" + DataKeyword.get(dk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find())
          {
@@ -637,7 +617,7 @@ public class SQLCounter extends CodeCounter
       for (int ek = 0; ek < ExecKeywords.size(); ek++)
       {
          regEx = "\\b" + ExecKeywords.get(ek) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find())
          {
@@ -667,7 +647,7 @@ public class SQLCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
          StringBuffer sbLine = new StringBuffer();
          while (matcher.find())
          {
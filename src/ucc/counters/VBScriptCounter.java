@@ -1,15 +1,11 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -91,12 +87,11 @@ public class VBScriptCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -329,14 +324,13 @@ public class VBScriptCounter extends CodeCounter
                          // sequence
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -351,31 +345,17 @@ public class VBScriptCounter extends CodeCounter
          {
             if (cntrResult.EmbOfIdx == -1)
             {
-               // Create file for LSLOC storage
-               file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-               bw = new BufferedWriter(new FileWriter(file));
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResult);
             }
             else
             {
-               // Create file for LSLOC storage
-               file = new File(
-                        FileUtils.BuildTempOutFileName_LSLOC_Embedded(RtParams, cntrResults.get(cntrResult.EmbOfIdx)));
-
-               // If LSLOC file doesn't already exist, then create it
-               if (!file.exists())
-               {
-                  file.createNewFile();
-               }
-
-               // true = append file
-               FileWriter fileWritter = new FileWriter(file.getAbsolutePath(), true);
-               bw = new BufferedWriter(fileWritter);
+               // Open LSLOC storage
+               bw = OpenLslocWriter(cntrResults.get(cntrResult.EmbOfIdx));
             }
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -466,14 +446,14 @@ public class VBScriptCounter extends CodeCounter
                   // If we're in a pure VB Script file
                   if (cntrResult.EmbOfIdx == -1)
                   {
-                     if (!cntrResult.UniqueFileName)
+                     if (NeedsLineChecksums(cntrResult))
                      {
                         cntrResult.FileLineChecksum.add(lineIndex, line.hashCode());
                      }
                   }
                   else // If we're in an embedded VB Script file
                   {
-                     if (!cntrResults.get(cntrResult.EmbOfIdx).UniqueFileName)
+                     if (NeedsLineChecksums(cntrResults.get(cntrResult.EmbOfIdx)))
                      {
                         cntrResults.get(cntrResult.EmbOfIdx).FileLineChecksum.add(lineIndex, line.hashCode());
                      }
@@ -524,7 +504,7 @@ public class VBScriptCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -551,10 +531,13 @@ public class VBScriptCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * 
     */
@@ -567,7 +550,7 @@ public class VBScriptCounter extends CodeCounter
 
       // If line starts with "Dim" and is followed by an "As"
       regEx = "\\b" + "dim" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we found "Dim" at the beginning of the line
       if (matcher.find() && matcher.start() == 0)
@@ -584,7 +567,7 @@ public class VBScriptCounter extends CodeCounter
 
       // If line starts with "Const" and is followed by an "As"
       regEx = "\\b" + "const" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line.trim());
+      matcher = Patterns.GetPattern(regEx).matcher(line.trim());
 
       // If we found "Const" at the beginning of the line
       if (matcher.find() && matcher.start() == 0)
@@ -601,7 +584,7 @@ public class VBScriptCounter extends CodeCounter
 
       // If line starts with "Static"
       regEx = "\\b" + "static" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line.trim());
+      matcher = Patterns.GetPattern(regEx).matcher(line.trim());
       if (matcher.find() && matcher.start() == 0)
       {
          // Increment data declarations
@@ -635,37 +618,37 @@ public class VBScriptCounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length()
                   && !(line.contains("End") || line.contains("Wend") || line.contains("Loop")))
          {
             // Increment the loop level
-            ComplexityObj.loopLevel++;
+            CmplxState.loopLevel++;
 
             // If the loop level counter arrayList size is less than or equal to
             // the loop level integer
-            if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+            if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
             {
                // Add another level to the level counter arrayList
-               ComplexityObj.loopLevelCount.add(0);
+               CmplxState.loopLevelCount.add(0);
             }
 
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Delete the pattern we found
-            line = line.replaceFirst(regEx, "");
+            line = matcher.replaceFirst("");
          }
          else if (line.contains("End") || line.contains("Wend") || line.contains("Loop")) // If
                                                                                           // the
@@ -677,10 +660,10 @@ public class VBScriptCounter extends CodeCounter
                                                                                           // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -696,8 +679,6 @@ public class VBScriptCounter extends CodeCounter
     */
    protected String DeleteExcludeKeywords(String line)
    {
-      String regEx;
-
       // Delete lines that start with End
       if (line.trim().startsWith("End"))
       {
@@ -706,8 +687,7 @@ public class VBScriptCounter extends CodeCounter
 
       for (int ek = 0; ek < ExcludeKeyword.size() && !line.trim().isEmpty(); ek++)
       {
-         regEx = "\\b" + ExcludeKeyword.get(ek) + "\\b";
-         line = line.replaceAll(regEx, " ");
+         line = Patterns.GetWordPattern(ExcludeKeyword.get(ek)).matcher(line).replaceAll(" ");
       }
 
       return line;
@@ -743,16 +723,16 @@ public class VBScriptCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -775,7 +755,7 @@ public class VBScriptCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "end" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -1,9 +1,6 @@
 package ucc.counters;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
@@ -97,12 +94,11 @@ public class VHDLCounter extends CodeCounter
 
       try
       {
-         // Create file for PSLOC storage
-         File file = new File(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
-         bw = new BufferedWriter(new FileWriter(file));
+         // Open PSLOC storage
+         bw = OpenPslocWriter(cntrResult);
 
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
@@ -179,7 +175,7 @@ public class VHDLCounter extends CodeCounter
                for (int fk = 0; fk < FunctionKeywords.size(); fk++)
                {
                   regEx = "\\b" + FunctionKeywords.get(fk) + "\\b";
-                  pattern = Pattern.compile(regEx);
+                  pattern = Patterns.GetPattern(regEx);
                   matcher = pattern.matcher(line);
                   while (matcher.find())
                   {
@@ -195,8 +191,8 @@ public class VHDLCounter extends CodeCounter
                            multiLineFlag = false;
                            for (int lt = 0; lt < LineTerminator.size(); lt++)
                            {
-                              tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                       .replaceAll(LineTerminator.get(lt), "@");
+                              tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                              tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                            }
                            line = line.substring(0, openPos + "(".length()) + tempLine
                                     + line.substring(closePos, line.length()).trim();
@@ -227,7 +223,7 @@ public class VHDLCounter extends CodeCounter
 
                // Replace all line terminators within generic ()'s with @'s
                regEx = "\\bgeneric\\b";
-               pattern = Pattern.compile(regEx);
+               pattern = Patterns.GetPattern(regEx);
                matcher = pattern.matcher(line);
                while (matcher.find())
                {
@@ -243,8 +239,8 @@ public class VHDLCounter extends CodeCounter
                         multiLineFlag = false;
                         for (int lt = 0; lt < LineTerminator.size(); lt++)
                         {
-                           tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                    .replaceAll(LineTerminator.get(lt), "@");
+                           tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                           tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                         }
                         line = line.substring(0, openPos + "(".length()) + tempLine
                                  + line.substring(closePos, line.length()).trim();
@@ -262,7 +258,7 @@ public class VHDLCounter extends CodeCounter
 
                // Replace all line terminators within function ()'s with @'s
                regEx = "\\bport\\b";
-               pattern = Pattern.compile(regEx);
+               pattern = Patterns.GetPattern(regEx);
                matcher = pattern.matcher(line);
                while (matcher.find())
                {
@@ -278,8 +274,8 @@ public class VHDLCounter extends CodeCounter
                         multiLineFlag = false;
                         for (int lt = 0; lt < LineTerminator.size(); lt++)
                         {
-                           tempLine = line.substring(openPos + "(".length(), closePos).trim()
-                                    .replaceAll(LineTerminator.get(lt), "@");
+                           tempLine = line.substring(openPos + "(".length(), closePos).trim();
+                           tempLine = Patterns.GetPattern(LineTerminator.get(lt)).matcher(tempLine).replaceAll("@");
                         }
                         line = line.substring(0, openPos + "(".length()) + tempLine
                                  + line.substring(closePos, line.length()).trim();
@@ -300,7 +296,8 @@ public class VHDLCounter extends CodeCounter
                // Replace all line terminators with new lines
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
-                  line = line.replaceAll(LineTerminator.get(lt), LineTerminator.get(lt) + "\n");
+                  line = Patterns.GetPattern(LineTerminator.get(lt)).matcher(line)
+                           .replaceAll(LineTerminator.get(lt) + "\n");
                }
 
                // Replace all double newlines with single newlines
@@ -447,14 +444,13 @@ public class VHDLCounter extends CodeCounter
       Matcher matcher;
 
       lslocLineValue = 0;
-      File file = null;
 
       // Zero out loop level variables for complexity metrics
-      ComplexityObj.loopLevelCount.clear();
-      ComplexityObj.loopLevel = 0;
+      CmplxState.loopLevelCount.clear();
+      CmplxState.loopLevel = 0;
 
       // Add base loop level to get started
-      ComplexityObj.loopLevelCount.add(0);
+      CmplxState.loopLevelCount.add(0);
 
       // Initialize complexity keywords/counts for this file
       InitAllCmplxKeywords(cntrResult);
@@ -467,14 +463,11 @@ public class VHDLCounter extends CodeCounter
          // If we're differencing baselines...
          if (RtParams.DiffCode)
          {
-            // Create file for LSLOC storage
-            file = new File(FileUtils.BuildTempOutFileName_LSLOC(RtParams, cntrResult));
-            bw = new BufferedWriter(new FileWriter(file));
+            // Open LSLOC storage
+            bw = OpenLslocWriter(cntrResult);
          }
 
-         reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult)),
-                           Constants.CHARSET_NAME));
+         reader = OpenPslocReader(cntrResult);
 
          // Read first line
          String line = reader.readLine();
@@ -553,7 +546,7 @@ public class VHDLCounter extends CodeCounter
                for (int lt = 0; lt < LineTerminator.size(); lt++)
                {
                   regEx = LineTerminator.get(lt);
-                  matcher = Pattern.compile(regEx).matcher(line);
+                  matcher = Patterns.GetPattern(regEx).matcher(line);
                   while (matcher.find())
                   {
                      logger.debug("line " + reader.getLineNumber() + " out: " + line);
@@ -574,7 +567,7 @@ public class VHDLCounter extends CodeCounter
                }
 
                // If we're searching for duplicates, checksum the LSLOC line
-               if (RtParams.SearchForDups && !cntrResult.UniqueFileName)
+               if (RtParams.SearchForDups && NeedsLineChecksums(cntrResult))
                {
                   cntrResult.FileLineChecksum.add(lineIndex, tempLine.hashCode());
                   lineIndex++;
@@ -624,7 +617,7 @@ public class VHDLCounter extends CodeCounter
             reader = null;
 
             // Delete PSLOC file
-            FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_PSLOC(RtParams, cntrResult));
+            DeletePsloc(cntrResult);
          }
 
          // If the _LSLOC file was opened...
@@ -651,10 +644,13 @@ public class VHDLCounter extends CodeCounter
    static class ComplexityObj
    {
       // Loop level counting variables for complexity metrics
-      static ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
-      static int loopLevel;
+      ArrayList<Integer> loopLevelCount = new ArrayList<Integer>();
+      int loopLevel;
    }
 
+   /** Loop level variables of the file being counted */
+   private ComplexityObj CmplxState = new ComplexityObj();
+
    /**
     * Function for getting the loop level for a particular line based on
     * occurrences of the loop keywords list.
@@ -673,7 +669,7 @@ public class VHDLCounter extends CodeCounter
       for (int lk = 0; lk < LoopKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LoopKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // If we find any of the loop keywords on the given line
          if (matcher.find() && !line.isEmpty() && line.length() >= LoopKeywords.get(lk).length()
@@ -682,28 +678,28 @@ public class VHDLCounter extends CodeCounter
             // Set the loop counter to the integer value of the current loop
             // level counter array list. This gets the
             // current loop count per the level we're on
-            loopCounter = ComplexityObj.loopLevelCount.get(ComplexityObj.loopLevel).intValue();
+            loopCounter = CmplxState.loopLevelCount.get(CmplxState.loopLevel).intValue();
 
             // Increment the loop counter
             loopCounter++;
 
             // Set the loop level counter arrayList level <loopLevel> to the
             // count <loopCounter>
-            ComplexityObj.loopLevelCount.set(ComplexityObj.loopLevel, loopCounter);
+            CmplxState.loopLevelCount.set(CmplxState.loopLevel, loopCounter);
 
             // Increment the loop level if we don't have a one-liner loop
             for (int lt = 0; lt < LineTerminator.size() && !line.isEmpty(); lt++)
             {
                if (!line.trim().endsWith(LineTerminator.get(lt)))
                {
-                  ComplexityObj.loopLevel++;
+                  CmplxState.loopLevel++;
 
                   // If the loop level counter arrayList size is less than or
                   // equal to the loop level integer
-                  if (ComplexityObj.loopLevelCount.size() <= ComplexityObj.loopLevel)
+                  if (CmplxState.loopLevelCount.size() <= CmplxState.loopLevel)
                   {
                      // Add another level to the level counter arrayList
-                     ComplexityObj.loopLevelCount.add(0);
+                     CmplxState.loopLevelCount.add(0);
                   }
                }
             }
@@ -715,10 +711,10 @@ public class VHDLCounter extends CodeCounter
                                          // keyword
          {
             // If the loop level is greater than 0
-            if (ComplexityObj.loopLevel > 0)
+            if (CmplxState.loopLevel > 0)
             {
                // Decrement the loop level
-               ComplexityObj.loopLevel--;
+               CmplxState.loopLevel--;
             }
          }
       }
@@ -736,16 +732,16 @@ public class VHDLCounter extends CodeCounter
       int finalLoopCounter = 0;
 
       // Loop through all the loop level counts
-      for (int i = 0; i < ComplexityObj.loopLevelCount.size(); i++)
+      for (int i = 0; i < CmplxState.loopLevelCount.size(); i++)
       {
          // If the count is non-zero
-         if (ComplexityObj.loopLevelCount.get(i) > 0)
+         if (CmplxState.loopLevelCount.get(i) > 0)
          {
             // Add the level to the loop level arraylist
             cntrResult.CmplxLoopLvlCnts.add(new CmplxDataType());
 
             // Set the count to the tallied value
-            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = ComplexityObj.loopLevelCount.get(i);
+            cntrResult.CmplxLoopLvlCnts.get(finalLoopCounter).Count = CmplxState.loopLevelCount.get(i);
 
             // Increment the loop counter
             finalLoopCounter++;
@@ -771,7 +767,7 @@ public class VHDLCounter extends CodeCounter
       for (int dk = 0; dk < DataKeyword.size(); dk++)
       {
          regEx = ":\\s+\\b" + DataKeyword.get(dk) + "\\b";
-         pattern = Pattern.compile(regEx);
+         pattern = Patterns.GetPattern(regEx);
          matcher = pattern.matcher(line);
 
          // If we find the pattern "VariableName : DataType := Value;"
@@ -805,7 +801,7 @@ public class VHDLCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "end" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -814,7 +810,7 @@ public class VHDLCounter extends CodeCounter
          for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
          {
             regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-            matcher = Pattern.compile(regEx).matcher(line);
+            matcher = Patterns.GetPattern(regEx).matcher(line);
 
             // While we find LSLOC keywords on the line...
             if (matcher.find())
@@ -842,7 +838,7 @@ public class VHDLCounter extends CodeCounter
       line = line.trim();
 
       regEx = "\\b" + "when" + "\\b";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
 
       // If we find the data keyword at the end of the line
       if (matcher.find() && matcher.start() == 0)
@@ -874,7 +870,7 @@ public class VHDLCounter extends CodeCounter
       for (int lk = 0; lk < LslocKeywords.size() && !line.isEmpty(); lk++)
       {
          regEx = "\\b" + LslocKeywords.get(lk) + "\\b";
-         matcher = Pattern.compile(regEx).matcher(line);
+         matcher = Patterns.GetPattern(regEx).matcher(line);
 
          // While we find LSLOC keywords on the line...
          if (matcher.find() && !line.isEmpty() && line.length() >= LslocKeywords.get(lk).length())
@@ -941,7 +937,7 @@ public class VHDLCounter extends CodeCounter
 
       // Check for '-- pragma ...'
       regEx = "-- pragma\\b(.*)";
-      matcher = Pattern.compile(regEx).matcher(line);
+      matcher = Patterns.GetPattern(regEx).matcher(line);
       sbLine = new StringBuffer();
       while (matcher.find())
       {
@@ -0,0 +1,810 @@
+package ucc.counters.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import ucc.datatypes.CmplxDataType;
+import ucc.datatypes.UCCFile;
+
+/**
+ * This class counts the pointer, trigonometric, logarithmic, math,
+ * conditional, logical, calculation and assignment keywords of a line in one
+ * scan. All keywords of a language are put in one Aho-Corasick automaton, and
+ * the matches it finds are resolved in the same order the CountCmplx* methods
+ * of CodeCounter process them, so the counts are the same as running those
+ * methods one after another.
+ *
+ * <p>
+ * The CountCmplx* methods replace every keyword they count with a space before
+ * the next keyword is searched. The scanner works on the original line and
+ * remembers which characters have been replaced. It only builds the modified
+ * line and scans it again when a replaced symbol could join the two halves of
+ * a later keyword holding a space or a '.' wildcard, such as "else->if"
+ * becoming "else if".
+ *
+ * <p>
+ * The scanner can not be used when a whole word keyword holds regular
+ * expression characters other than an isolated '.', or when a keyword is not
+ * plain ASCII. Lines holding non-ASCII characters are not counted either, so
+ * that word boundaries never depend on Unicode character classes. The caller
+ * must fall back to the CountCmplx* methods in those cases.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class ComplexityKeywordScanner
+{
+   /** Number of keyword categories counted by the scanner */
+   private static final int NUM_CATEGORIES = 8;
+
+   /** Number of characters handled by the automaton (ASCII) */
+   private static final int NUM_CHARS = 128;
+
+   /** Keywords in the order they are counted */
+   private String[] Keywords;
+
+   /** Category of each keyword, in UCCFile list order (see GetCategoryLists) */
+   private int[] Category;
+
+   /** Index of each keyword in its category list */
+   private int[] CategoryIdx;
+
+   /** Whether a keyword must be found as a whole word only */
+   private boolean[] WholeWord;
+
+   /** Whether a keyword holds a '.' matching any character */
+   private boolean[] HasWildcard;
+
+   /** Whether a whole word keyword holds a space or a '.' */
+   private boolean[] HasSeparator;
+
+   /**
+    * Whether a whole word keyword holding a separator is counted after a
+    * keyword
+    */
+   private boolean[] SeparatorAfter;
+
+   /** Expected keywords of every category list */
+   private ArrayList<ArrayList<String>> CategoryKeywords;
+
+   /** Whether the keywords of the language can be counted by the scanner */
+   private boolean Usable;
+
+   /** Automaton state transitions, indexed by state and character class */
+   private int[][] GoTo;
+
+   /** Character classes of the ASCII characters used by the keywords */
+   private int[] CharClass;
+
+   /** Keywords whose anchor ends when reaching each state of the automaton */
+   private int[][] Output;
+
+   /**
+    * Offset in each keyword of the part entered in the automaton (its anchor)
+    */
+   private int[] AnchorOffset;
+
+   /** Length of each keyword's anchor */
+   private int[] AnchorLength;
+
+   /** Start positions of the keyword occurrences found in the line */
+   private int[][] Occurrences;
+
+   /** Number of occurrences found for each keyword */
+   private int[] NumOccurrences;
+
+   /** Characters of the line replaced by counted keywords */
+   private boolean[] Removed;
+
+   /** Start and end positions of the counted keywords */
+   private int[] SpanStarts;
+   private int[] SpanEnds;
+   private int NumSpans;
+
+   /** Last UCCFile checked against the keyword lists */
+   private UCCFile CheckedFile;
+
+   /** Whether the keyword lists of CheckedFile match the scanner's keywords */
+   private boolean CheckedFileMatches;
+
+   /**
+    * Builds the scanner from the sorted keyword lists of a language
+    *
+    * @param pntrKeywords
+    *           Pointer keywords
+    * @param trigKeywords
+    *           Trigonometric keywords
+    * @param logKeywords
+    *           Logarithmic keywords
+    * @param mathKeywords
+    *           Other math keywords
+    * @param condKeywords
+    *           Conditional keywords
+    * @param logicKeywords
+    *           Logical keywords
+    * @param calcKeywords
+    *           Calculation keywords
+    * @param assignKeywords
+    *           Assignment keywords
+    */
+   public ComplexityKeywordScanner(ArrayList<String> pntrKeywords, ArrayList<String> trigKeywords,
+            ArrayList<String> logKeywords, ArrayList<String> mathKeywords, ArrayList<String> condKeywords,
+            ArrayList<String> logicKeywords, ArrayList<String> calcKeywords, ArrayList<String> assignKeywords)
+   {
+      // Keep the order used by CodeCounter.CountComplexity
+      CategoryKeywords = new ArrayList<ArrayList<String>>();
+      CategoryKeywords.add(new ArrayList<String>(pntrKeywords));
+      CategoryKeywords.add(new ArrayList<String>(trigKeywords));
+      CategoryKeywords.add(new ArrayList<String>(logKeywords));
+      CategoryKeywords.add(new ArrayList<String>(mathKeywords));
+      CategoryKeywords.add(new ArrayList<String>(condKeywords));
+      CategoryKeywords.add(new ArrayList<String>(logicKeywords));
+      CategoryKeywords.add(new ArrayList<String>(calcKeywords));
+      CategoryKeywords.add(new ArrayList<String>(assignKeywords));
+
+      int numKeywords = 0;
+      for (int c = 0; c < NUM_CATEGORIES; c++)
+      {
+         numKeywords += CategoryKeywords.get(c).size();
+      }
+
+      Keywords = new String[numKeywords];
+      Category = new int[numKeywords];
+      CategoryIdx = new int[numKeywords];
+      WholeWord = new boolean[numKeywords];
+      HasWildcard = new boolean[numKeywords];
+      HasSeparator = new boolean[numKeywords];
+      SeparatorAfter = new boolean[numKeywords];
+
+      Usable = true;
+      int k = 0;
+      for (int c = 0; c < NUM_CATEGORIES; c++)
+      {
+         for (int i = 0; i < CategoryKeywords.get(c).size(); i++, k++)
+         {
+            Keywords[k] = CategoryKeywords.get(c).get(i);
+            Category[k] = c;
+            CategoryIdx[k] = i;
+            WholeWord[k] = IsWholeWordCategory(c, Keywords[k]);
+            if (WholeWord[k])
+            {
+               Usable &= IsPlainWord(Keywords[k]);
+               HasWildcard[k] = Keywords[k].indexOf('.') >= 0;
+               HasSeparator[k] = HasWildcard[k] || Keywords[k].indexOf(' ') >= 0;
+            }
+            else
+            {
+               Usable &= IsPlainSymbol(Keywords[k]);
+            }
+         }
+      }
+
+      boolean separatorLater = false;
+      for (k = numKeywords - 1; k >= 0; k--)
+      {
+         SeparatorAfter[k] = separatorLater;
+         separatorLater |= HasSeparator[k];
+      }
+
+      if (Usable)
+      {
+         BuildAutomaton();
+
+         Occurrences = new int[numKeywords][4];
+         NumOccurrences = new int[numKeywords];
+         Removed = new boolean[256];
+         SpanStarts = new int[16];
+         SpanEnds = new int[16];
+      }
+   }
+
+   /**
+    * Counts the keywords of a line and adds the counts to the complexity lists
+    * of a file
+    *
+    * @param cntrResult
+    *           UCCFile whose complexity counts are updated
+    * @param line
+    *           Source line of code to perform complexity count on
+    * @return true if the line was counted, false if the caller has to count it
+    *         with the CountCmplx* methods
+    */
+   public boolean CountKeywords(UCCFile cntrResult, String line)
+   {
+      if (!Usable || !ListsMatch(cntrResult) || !Scan(line))
+      {
+         return false;
+      }
+
+      ArrayList<ArrayList<CmplxDataType>> lists = GetCategoryLists(cntrResult);
+      boolean rescan = false;
+
+      ResetRemoved(line.length());
+      for (int k = 0; k < Keywords.length; k++)
+      {
+         // A replaced symbol may join the two halves of this keyword, so
+         // continue on the line as the CountCmplx* methods would see it
+         if (rescan && HasSeparator[k])
+         {
+            line = BuildReplacedLine(line);
+            Scan(line);
+            ResetRemoved(line.length());
+            rescan = false;
+         }
+
+         int firstSpan = NumSpans;
+         int lastEnd = 0;
+         int len = Keywords[k].length();
+         for (int o = 0; o < NumOccurrences[k]; o++)
+         {
+            int start = Occurrences[k][o];
+            int end = start + len;
+            if (start < lastEnd || IsRemoved(start, end))
+            {
+               continue;
+            }
+            if (WholeWord[k] && (!IsBoundary(line, start) || !IsBoundary(line, end)))
+            {
+               continue;
+            }
+            AddSpan(start, end);
+            lastEnd = end;
+         }
+
+         if (NumSpans > firstSpan)
+         {
+            lists.get(Category[k]).get(CategoryIdx[k]).Count += NumSpans - firstSpan;
+
+            // Keywords are replaced once all their occurrences are found
+            for (int s = firstSpan; s < NumSpans; s++)
+            {
+               Arrays.fill(Removed, SpanStarts[s], SpanEnds[s], true);
+            }
+
+            if (!WholeWord[k] && SeparatorAfter[k])
+            {
+               for (int s = firstSpan; s < NumSpans && !rescan; s++)
+               {
+                  rescan = IsWordAt(line, SpanStarts[s] - 1) && IsWordAt(line, SpanEnds[s]);
+               }
+            }
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Returns the complexity lists of a file in the scanner's category order
+    *
+    * @param cntrResult
+    *           UCCFile holding the lists
+    * @return The lists of every category
+    */
+   private ArrayList<ArrayList<CmplxDataType>> GetCategoryLists(UCCFile cntrResult)
+   {
+      ArrayList<ArrayList<CmplxDataType>> lists = new ArrayList<ArrayList<CmplxDataType>>(NUM_CATEGORIES);
+      lists.add(cntrResult.CmplxPntrCnts);
+      lists.add(cntrResult.CmplxTrigCnts);
+      lists.add(cntrResult.CmplxLogCnts);
+      lists.add(cntrResult.CmplxMathCnts);
+      lists.add(cntrResult.CmplxCondCnts);
+      lists.add(cntrResult.CmplxLogicCnts);
+      lists.add(cntrResult.CmplxCalcCnts);
+      lists.add(cntrResult.CmplxAssignCnts);
+
+      return lists;
+   }
+
+   /**
+    * Checks that the complexity lists of a file hold the scanner's keywords in
+    * the same order. The result is kept until another file is counted.
+    *
+    * @param cntrResult
+    *           UCCFile holding the lists
+    * @return true if the lists match
+    */
+   private boolean ListsMatch(UCCFile cntrResult)
+   {
+      if (cntrResult != CheckedFile)
+      {
+         ArrayList<ArrayList<CmplxDataType>> lists = GetCategoryLists(cntrResult);
+
+         CheckedFile = cntrResult;
+         CheckedFileMatches = true;
+         for (int c = 0; c < NUM_CATEGORIES && CheckedFileMatches; c++)
+         {
+            ArrayList<CmplxDataType> list = lists.get(c);
+            ArrayList<String> keywords = CategoryKeywords.get(c);
+
+            CheckedFileMatches = list != null && list.size() == keywords.size();
+            for (int i = 0; i < keywords.size() && CheckedFileMatches; i++)
+            {
+               CheckedFileMatches = keywords.get(i).equals(list.get(i).Keyword);
+            }
+         }
+      }
+
+      return CheckedFileMatches;
+   }
+
+   /**
+    * Checks whether a keyword of a category is searched as a whole word, as
+    * done by the CountCmplx* methods
+    *
+    * @param category
+    *           Category of the keyword
+    * @param keyword
+    *           Keyword to check
+    * @return true if the keyword is searched as a whole word
+    */
+   private static boolean IsWholeWordCategory(int category, String keyword)
+   {
+      switch (category)
+      {
+         case 1: // Trigonometric
+         case 2: // Logarithmic
+         case 3: // Math
+         case 4: // Conditional
+            return true;
+         case 5: // Logical keywords starting with a letter are words
+            return keyword.toLowerCase().matches("^[a-z].*$");
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * Checks that a whole word keyword only holds word characters, separated by
+    * single spaces or '.' wildcards
+    *
+    * @param keyword
+    *           Keyword to check
+    * @return true if the scanner can search the keyword
+    */
+   private static boolean IsPlainWord(String keyword)
+   {
+      if (keyword.isEmpty() || !IsWordChar(keyword.charAt(0))
+               || !IsWordChar(keyword.charAt(keyword.length() - 1)))
+      {
+         return false;
+      }
+
+      for (int i = 1; i < keyword.length() - 1; i++)
+      {
+         char c = keyword.charAt(i);
+         if (!IsWordChar(c) && !((c == ' ' || c == '.') && IsWordChar(keyword.charAt(i + 1))))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Checks that a verbatim keyword is plain ASCII without white space. A
+    * keyword holding "\E" would end the verbatim part of its regular
+    * expression early.
+    *
+    * @param keyword
+    *           Keyword to check
+    * @return true if the scanner can search the keyword
+    */
+   private static boolean IsPlainSymbol(String keyword)
+   {
+      if (keyword.isEmpty() || keyword.contains("\\E"))
+      {
+         return false;
+      }
+
+      for (int i = 0; i < keyword.length(); i++)
+      {
+         char c = keyword.charAt(i);
+         if (c >= NUM_CHARS || Character.isWhitespace(c))
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Checks whether an ASCII character is a regular expression word character
+    *
+    * @param c
+    *           Character to check
+    * @return true for letters, digits and '_'
+    */
+   private static boolean IsWordChar(char c)
+   {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+   }
+
+   /**
+    * Builds the automaton. A keyword holding '.' wildcards is entered by its
+    * longest part without wildcards and checked in full when that part is
+    * found.
+    */
+   private void BuildAutomaton()
+   {
+      ArrayList<int[]> children = new ArrayList<int[]>();
+      ArrayList<int[]> outputs = new ArrayList<int[]>();
+
+      CharClass = new int[NUM_CHARS];
+      int numClasses = 1; // Class 0 is for characters not used by any keyword
+      for (String keyword : Keywords)
+      {
+         for (int i = 0; i < keyword.length(); i++)
+         {
+            char c = keyword.charAt(i);
+            if (CharClass[c] == 0)
+            {
+               CharClass[c] = numClasses++;
+            }
+         }
+      }
+
+      AnchorOffset = new int[Keywords.length];
+      AnchorLength = new int[Keywords.length];
+
+      children.add(NewState(numClasses));
+      outputs.add(new int[0]);
+      for (int k = 0; k < Keywords.length; k++)
+      {
+         int offset = 0;
+         int length = Keywords[k].length();
+         if (HasWildcard[k])
+         {
+            length = 0;
+            for (String part : Keywords[k].split("\\.", -1))
+            {
+               length = Math.max(length, part.length());
+            }
+            offset = FindPart(Keywords[k], length);
+         }
+         AnchorOffset[k] = offset;
+         AnchorLength[k] = length;
+
+         int state = 0;
+         for (int i = offset; i < offset + length; i++)
+         {
+            int cls = CharClass[Keywords[k].charAt(i)];
+            if (children.get(state)[cls] < 0)
+            {
+               children.get(state)[cls] = children.size();
+               children.add(NewState(numClasses));
+               outputs.add(new int[0]);
+            }
+            state = children.get(state)[cls];
+         }
+         outputs.set(state, Append(outputs.get(state), k));
+      }
+
+      // Breadth first pass computing failure links and the full transition
+      // table
+      int numStates = children.size();
+      int[] fail = new int[numStates];
+      int[] queue = new int[numStates];
+      int head = 0;
+      int tail = 0;
+
+      GoTo = new int[numStates][];
+      GoTo[0] = new int[numClasses];
+      for (int cls = 0; cls < numClasses; cls++)
+      {
+         int child = children.get(0)[cls];
+         GoTo[0][cls] = child < 0 ? 0 : child;
+         if (child > 0)
+         {
+            fail[child] = 0;
+            queue[tail++] = child;
+         }
+      }
+
+      while (head < tail)
+      {
+         int state = queue[head++];
+         outputs.set(state, Concat(outputs.get(state), outputs.get(fail[state])));
+         GoTo[state] = new int[numClasses];
+         for (int cls = 0; cls < numClasses; cls++)
+         {
+            int child = children.get(state)[cls];
+            if (child < 0)
+            {
+               GoTo[state][cls] = GoTo[fail[state]][cls];
+            }
+            else
+            {
+               GoTo[state][cls] = child;
+               fail[child] = GoTo[fail[state]][cls];
+               queue[tail++] = child;
+            }
+         }
+      }
+
+      Output = outputs.toArray(new int[numStates][]);
+   }
+
+   /**
+    * Finds the offset of the first longest part of a keyword between '.'
+    * wildcards
+    *
+    * @param keyword
+    *           Keyword holding wildcards
+    * @param length
+    *           Length of the longest part
+    * @return Offset of the part in the keyword
+    */
+   private static int FindPart(String keyword, int length)
+   {
+      int start = 0;
+      for (int i = 0; i <= keyword.length(); i++)
+      {
+         if (i == keyword.length() || keyword.charAt(i) == '.')
+         {
+            if (i - start == length)
+            {
+               return start;
+            }
+            start = i + 1;
+         }
+      }
+
+      return 0;
+   }
+
+   /**
+    * Creates the transitions of a new automaton state
+    *
+    * @param numClasses
+    *           Number of character classes
+    * @return Transitions, all unset
+    */
+   private static int[] NewState(int numClasses)
+   {
+      int[] state = new int[numClasses];
+      Arrays.fill(state, -1);
+      return state;
+   }
+
+   /**
+    * Appends a value to an array
+    *
+    * @param arr
+    *           Array to append to
+    * @param value
+    *           Value to append
+    * @return New array
+    */
+   private static int[] Append(int[] arr, int value)
+   {
+      int[] result = Arrays.copyOf(arr, arr.length + 1);
+      result[arr.length] = value;
+      return result;
+   }
+
+   /**
+    * Concatenates two arrays
+    *
+    * @param first
+    *           First array
+    * @param second
+    *           Second array
+    * @return New array, or the first one if the second one is empty
+    */
+   private static int[] Concat(int[] first, int[] second)
+   {
+      if (second.length == 0)
+      {
+         return first;
+      }
+      int[] result = Arrays.copyOf(first, first.length + second.length);
+      System.arraycopy(second, 0, result, first.length, second.length);
+      return result;
+   }
+
+   /**
+    * Finds the occurrences of every keyword in a line
+    *
+    * @param line
+    *           Line to scan
+    * @return false if the line holds non-ASCII characters
+    */
+   private boolean Scan(String line)
+   {
+      int len = line.length();
+      int state = 0;
+
+      Arrays.fill(NumOccurrences, 0);
+      for (int i = 0; i < len; i++)
+      {
+         char c = line.charAt(i);
+         if (c >= NUM_CHARS)
+         {
+            return false;
+         }
+
+         state = GoTo[state][CharClass[c]];
+         for (int k : Output[state])
+         {
+            int start = i + 1 - AnchorLength[k] - AnchorOffset[k];
+            if (HasWildcard[k] && !MatchesAt(line, start, Keywords[k]))
+            {
+               continue;
+            }
+            AddOccurrence(k, start);
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Checks a keyword holding '.' wildcards at a position of a line. As in a
+    * regular expression, '.' does not match line terminators.
+    *
+    * @param line
+    *           Line to check
+    * @param start
+    *           Position of the keyword in the line
+    * @param keyword
+    *           Keyword to check
+    * @return true if the keyword is found at the position
+    */
+   private static boolean MatchesAt(String line, int start, String keyword)
+   {
+      if (start < 0 || start + keyword.length() > line.length())
+      {
+         return false;
+      }
+
+      for (int i = 0; i < keyword.length(); i++)
+      {
+         char k = keyword.charAt(i);
+         char c = line.charAt(start + i);
+         if (k == '.' ? (c == '\n' || c == '\r') : k != c)
+         {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Records the occurrence of a keyword
+    *
+    * @param k
+    *           Keyword index
+    * @param start
+    *           Position of the occurrence
+    */
+   private void AddOccurrence(int k, int start)
+   {
+      if (NumOccurrences[k] == Occurrences[k].length)
+      {
+         Occurrences[k] = Arrays.copyOf(Occurrences[k], Occurrences[k].length * 2);
+      }
+      Occurrences[k][NumOccurrences[k]++] = start;
+   }
+
+   /**
+    * Records a counted keyword
+    *
+    * @param start
+    *           Start position of the keyword
+    * @param end
+    *           End position of the keyword
+    */
+   private void AddSpan(int start, int end)
+   {
+      if (NumSpans == SpanStarts.length)
+      {
+         SpanStarts = Arrays.copyOf(SpanStarts, NumSpans * 2);
+         SpanEnds = Arrays.copyOf(SpanEnds, NumSpans * 2);
+      }
+      SpanStarts[NumSpans] = start;
+      SpanEnds[NumSpans] = end;
+      NumSpans++;
+   }
+
+   /**
+    * Clears the replaced characters and counted keywords
+    *
+    * @param len
+    *           Length of the line
+    */
+   private void ResetRemoved(int len)
+   {
+      if (Removed.length < len)
+      {
+         Removed = new boolean[Math.max(len, Removed.length * 2)];
+      }
+      Arrays.fill(Removed, 0, len, false);
+      NumSpans = 0;
+   }
+
+   /**
+    * Checks whether a part of the line has already been replaced
+    *
+    * @param start
+    *           Start position of the part
+    * @param end
+    *           End position of the part
+    * @return true if any character of the part has been replaced
+    */
+   private boolean IsRemoved(int start, int end)
+   {
+      for (int i = start; i < end; i++)
+      {
+         if (Removed[i])
+         {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * Checks whether the character at a position is a word character. Replaced
+    * characters read as the space they were replaced with.
+    *
+    * @param line
+    *           Line to check
+    * @param pos
+    *           Position of the character
+    * @return true for a word character
+    */
+   private boolean IsWordAt(String line, int pos)
+   {
+      return pos >= 0 && pos < line.length() && !Removed[pos] && IsWordChar(line.charAt(pos));
+   }
+
+   /**
+    * Checks for a regular expression word boundary (\b) at a position
+    *
+    * @param line
+    *           Line to check
+    * @param pos
+    *           Position of the boundary
+    * @return true if there is a word boundary at the position
+    */
+   private boolean IsBoundary(String line, int pos)
+   {
+      return IsWordAt(line, pos - 1) != IsWordAt(line, pos);
+   }
+
+   /**
+    * Builds the line the CountCmplx* methods would see, with every counted
+    * keyword replaced by a space
+    *
+    * @param line
+    *           Original line
+    * @return The line with counted keywords replaced
+    */
+   private String BuildReplacedLine(String line)
+   {
+      StringBuilder sb = new StringBuilder(line.length());
+      int pos = 0;
+
+      // Counted keywords never overlap, so they can be replaced in order
+      Integer[] order = new Integer[NumSpans];
+      for (int s = 0; s < NumSpans; s++)
+      {
+         order[s] = s;
+      }
+      Arrays.sort(order, (a, b) -> Integer.compare(SpanStarts[a], SpanStarts[b]));
+
+      for (int s : order)
+      {
+         sb.append(line, pos, SpanStarts[s]).append(' ');
+         pos = SpanEnds[s];
+      }
+      sb.append(line, pos, line.length());
+
+      return sb.toString();
+   }
+}
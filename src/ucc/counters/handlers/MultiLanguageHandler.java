@@ -2,7 +2,6 @@ package ucc.counters.handlers;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -275,7 +274,7 @@ public class MultiLanguageHandler
       try
       {
          LineNumberReader lnr = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
          lnr.skip(Long.MAX_VALUE);
          lineNumbers = lnr.getLineNumber() + 1; // Add 1 because line index
                                                 // starts at 0
@@ -301,7 +300,7 @@ public class MultiLanguageHandler
       try
       {
          reader = new LineNumberReader(
-                  new InputStreamReader(new FileInputStream(cntrResult.FileName), Constants.CHARSET_NAME));
+                  new InputStreamReader(FileUtils.OpenSourceFile(cntrResult.FileName), Constants.CHARSET_NAME));
 
          // Read first line
          String line = reader.readLine();
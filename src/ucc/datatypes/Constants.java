@@ -41,6 +41,24 @@ public class Constants
     */
    public static final double DEFAULT_DUP_THRESHOLD = -1.0;
 
+   /**
+    * Minimum rename threshold value allowed, used for pairing renamed files
+    * between two baselines
+    */
+   public static final double MIN_RENAME_THRESHOLD = 1.0;
+
+   /**
+    * Maximum rename threshold value allowed, used for pairing renamed files
+    * between two baselines
+    */
+   public static final double MAX_RENAME_THRESHOLD = 100.0;
+
+   /**
+    * Default rename threshold, renamed files are not paired unless a threshold
+    * is given
+    */
+   public static final double DEFAULT_RENAME_THRESHOLD = -1.0;
+
    /** Minimum line truncation threshold, used for trimming lines */
    public static final int MIN_TRUNC_THRESHOLD = 0;
 
@@ -50,6 +68,46 @@ public class Constants
    /** Line truncation threshold, trim a line that exceeds below threshold */
    public static final int DEFAULT_TRUNC_THRESHOLD = 10000;
 
+   /** Minimum number of counting threads */
+   public static final int MIN_NUM_THREADS = 1;
+
+   /** Maximum number of counting threads */
+   public static final int MAX_NUM_THREADS = 256;
+
+   /** Default number of counting threads, counts files one after another */
+   public static final int DEFAULT_NUM_THREADS = 1;
+
+   /**
+    * Number of threads listing directories at once when generating the list of
+    * files under a directory. Listing directories mostly waits on the file
+    * system, so more threads than processors are used.
+    */
+   public static final int FILE_WALKER_THREADS = 8;
+
+   /**
+    * Names of the files holding patterns of files and directories to leave out
+    * of the list of files under a directory, see the -ignorefiles option
+    */
+   public static final String[] IGNORE_FILE_NAMES = { ".gitignore", ".uccignore" };
+
+   /** Name of the git metadata directory, left out along with ignored files */
+   public static final String GIT_DIR_NAME = ".git";
+
+   /**
+    * Number of bytes read from the start of a file to detect its language, see
+    * the -detectlang option
+    */
+   public static final int LANG_DETECT_HEAD_SIZE = 1024;
+
+   /** Size of the buffer used to read a file when calculating its checksum */
+   public static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+   /**
+    * Number of leading bytes checksummed to tell apart files of the same size
+    * before their full checksums are calculated
+    */
+   public static final int CHECKSUM_PREFIX_SIZE = 4 * 1024;
+
    /** New line character used by the system */
    public static final String NEW_LINE_SEPARATOR = System.lineSeparator();
 
@@ -59,9 +117,61 @@ public class Constants
    /** File name suffix for files containing PSLOC */
    public static final String PSLOC_FILE_SUFFIX = "_PSLOC";
 
+   /**
+    * Maximum number of PSLOC characters of one file kept in memory before they
+    * are spilled to a _PSLOC file
+    */
+   public static final int MAX_IN_MEMORY_PSLOC_CHARS = 4 * 1024 * 1024;
+
    /** File name suffix for files containing LSLOC */
    public static final String LSLOC_FILE_SUFFIX = "_LSLOC";
 
+   /**
+    * Maximum number of LSLOC characters of one file kept in memory for the
+    * differencer before they are spilled to a _LSLOC file
+    */
+   public static final int MAX_IN_MEMORY_LSLOC_CHARS = 4 * 1024 * 1024;
+
+   /**
+    * Format version of count cache entries, to be incremented whenever the
+    * counting results or their layout change
+    */
+   public static final int COUNT_CACHE_FORMAT_VERSION = 1;
+
+   /** Number of days after which an unused count cache entry is evicted */
+   public static final int COUNT_CACHE_MAX_AGE_DAYS = 30;
+
+   /**
+    * Separates the path of an archive from the path of a file in the archive,
+    * in the names of files counted from archives
+    */
+   public static final String ARCHIVE_ENTRY_SEPARATOR = "!/";
+
+   /**
+    * Separates the path of a git repository from the revision, in the names of
+    * git revisions given as source directories
+    */
+   public static final String GIT_REVISION_SEPARATOR = "@";
+
+   /**
+    * Format version of baseline snapshots, to be incremented whenever the
+    * layout of a snapshot changes
+    */
+   public static final int BASELINE_SNAPSHOT_FORMAT_VERSION = 1;
+
+   /**
+    * Fraction of the maximum heap size that the LSLOC characters of all files
+    * may take up before further files are spilled to _LSLOC files
+    */
+   public static final double LSLOC_MEMORY_BUDGET_FRACTION = 0.25;
+
+   /**
+    * Fraction of the maximum heap size that the contents of files read from
+    * tar archives may take up before further files are copied to temporary
+    * files
+    */
+   public static final double ARCHIVE_MEMORY_BUDGET_FRACTION = 0.125;
+
    /** The baseline being operated on (can be A or B) */
    public static final String BASELINE_A = "A";
 
@@ -5,6 +5,7 @@ import java.util.TreeMap;
 
 import ucc.datatypes.DataTypes.LanguagePropertiesType;
 import ucc.datatypes.DataTypes.SourceFileType;
+import ucc.utils.SpillableTextBuffer;
 
 /**
  * UCCFile class contains data structures to store results of code counter
@@ -46,7 +47,10 @@ public class UCCFile
    /** Indicates percentage of duplicate code found in this file */
    public double DupCodePercent;
 
-   /** Checksum of the file, used in duplicate file check */
+   /**
+    * Checksum of the file, used in duplicate file check. Zero if the file is
+    * empty or was not checksummed because no other file has its size.
+    */
    public long FileChecksum;
 
    /** Index of the file for which this file is a duplicate file */
@@ -97,6 +101,12 @@ public class UCCFile
    /** A flag to indicate whether the file has a unique file name */
    public boolean UniqueFileName;
 
+   /**
+    * Logical lines of the file (and of its embedded code) saved for the
+    * differencer, null if none were saved
+    */
+   public SpillableTextBuffer LslocLines;
+
    // Complexity keywords and counts pairs
    /** Math keywords and their respective counts */
    public ArrayList<CmplxDataType> CmplxMathCnts;
@@ -205,6 +215,7 @@ public class UCCFile
       EmbOfIdx = -1;
       HasEmbCode = false;
       UniqueFileName = true;
+      LslocLines = null;
 
       CmplxMathCnts = new ArrayList<CmplxDataType>();
       CmplxTrigCnts = new ArrayList<CmplxDataType>();
@@ -0,0 +1,209 @@
+package ucc.diff;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * BoundedEditDistance class computes the Levenshtein distance between one line
+ * and many other lines, when only distances up to a given maximum matter.
+ * Pairs that are certainly too far apart are rejected without computing their
+ * distance:
+ * <ul>
+ * <li>The distance is at least the difference of the line lengths.</li>
+ * <li>Each edit changes the q-gram profile of a line (here q = 1, the counts of
+ * its characters) by at most two, so the distance is at least half the
+ * difference of the profiles.</li>
+ * </ul>
+ * The remaining pairs are compared with the bit-parallel algorithm of Myers
+ * when the line fits in a machine word, or with a banded algorithm otherwise.
+ * Both stop as soon as the maximum distance is exceeded.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class BoundedEditDistance
+{
+   /** Number of buckets of a q-gram profile */
+   public static final int PROFILE_SIZE = 32;
+
+   /** Longest line compared with the bit-parallel algorithm */
+   private static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+
+   /** Number of characters with a precomputed match mask */
+   private static final int NUM_MASKED_CHARS = 128;
+
+   /** The line compared to the other lines */
+   private String Line;
+
+   /** The q-gram profile of the line */
+   private int[] Profile;
+
+   /**
+    * For each ASCII character, a bit mask of its positions in the line. Null if
+    * the line is too long for the bit-parallel algorithm.
+    */
+   private long[] CharMasks;
+
+   /**
+    * Constructor to prepare the comparisons of a line
+    *
+    * @param line
+    *           The line compared to the other lines
+    */
+   public BoundedEditDistance(String line)
+   {
+      Line = line;
+      Profile = ComputeProfile(line);
+
+      if (line.length() <= MAX_BIT_PARALLEL_LENGTH)
+      {
+         CharMasks = new long[NUM_MASKED_CHARS];
+         for (int i = 0; i < line.length(); i++)
+         {
+            char c = line.charAt(i);
+            if (c < NUM_MASKED_CHARS)
+            {
+               CharMasks[c] |= 1L << i;
+            }
+         }
+      }
+   }
+
+   /**
+    * Computes the q-gram profile of a line
+    *
+    * @param line
+    *           The line
+    * @return Number of characters of the line falling in each profile bucket
+    */
+   public static int[] ComputeProfile(String line)
+   {
+      int[] profile = new int[PROFILE_SIZE];
+      for (int i = 0; i < line.length(); i++)
+      {
+         profile[line.charAt(i) % PROFILE_SIZE]++;
+      }
+
+      return profile;
+   }
+
+   /**
+    * Computes the Levenshtein distance between the line and another line, if it
+    * does not exceed a maximum
+    *
+    * @param other
+    *           The other line
+    * @param otherProfile
+    *           The q-gram profile of the other line
+    * @param maxDistance
+    *           Maximum distance of interest
+    * @return The distance, or -1 if it exceeds maxDistance
+    */
+   public int GetDistance(String other, int[] otherProfile, int maxDistance)
+   {
+      if (maxDistance < 0 || Math.abs(Line.length() - other.length()) > maxDistance)
+      {
+         return -1;
+      }
+
+      // Compare the profiles, stopping once they differ by too much
+      int profileDiff = 0;
+      for (int k = 0; k < PROFILE_SIZE; k++)
+      {
+         profileDiff += Math.abs(Profile[k] - otherProfile[k]);
+         if (profileDiff > 2 * maxDistance)
+         {
+            return -1;
+         }
+      }
+
+      if (CharMasks != null)
+      {
+         return GetBitParallelDistance(other, maxDistance);
+      }
+
+      return StringUtils.getLevenshteinDistance(Line, other, maxDistance);
+   }
+
+   /**
+    * Computes the Levenshtein distance between the line and another line with
+    * the bit-parallel algorithm of Myers, as formulated by Hyyrö for the global
+    * edit distance. Each bit of the vectors holds the vertical difference of one
+    * cell of the current column of the dynamic programming matrix.
+    *
+    * @param other
+    *           The other line
+    * @param maxDistance
+    *           Maximum distance of interest
+    * @return The distance, or -1 if it exceeds maxDistance
+    */
+   private int GetBitParallelDistance(String other, int maxDistance)
+   {
+      int length = Line.length();
+      if (length == 0)
+      {
+         return other.length() <= maxDistance ? other.length() : -1;
+      }
+
+      long lastBit = 1L << (length - 1);
+      long plusVert = -1L;
+      long minusVert = 0L;
+      int distance = length;
+
+      for (int j = 0; j < other.length(); j++)
+      {
+         long eq = GetCharMask(other.charAt(j));
+         long xv = eq | minusVert;
+         long xh = (((eq & plusVert) + plusVert) ^ plusVert) | eq;
+         long plusHorz = minusVert | ~(xh | plusVert);
+         long minusHorz = plusVert & xh;
+
+         if ((plusHorz & lastBit) != 0)
+         {
+            distance++;
+         }
+         else if ((minusHorz & lastBit) != 0)
+         {
+            distance--;
+         }
+
+         // The remaining characters can lower the distance by one each at most
+         if (distance - (other.length() - j - 1) > maxDistance)
+         {
+            return -1;
+         }
+
+         plusHorz = (plusHorz << 1) | 1L;
+         minusHorz = minusHorz << 1;
+         plusVert = minusHorz | ~(xv | plusHorz);
+         minusVert = plusHorz & xv;
+      }
+
+      return distance <= maxDistance ? distance : -1;
+   }
+
+   /**
+    * Returns the bit mask of the positions of a character in the line
+    *
+    * @param c
+    *           The character
+    * @return The bit mask
+    */
+   private long GetCharMask(char c)
+   {
+      if (c < NUM_MASKED_CHARS)
+      {
+         return CharMasks[c];
+      }
+
+      long mask = 0L;
+      for (int i = 0; i < Line.length(); i++)
+      {
+         if (Line.charAt(i) == c)
+         {
+            mask |= 1L << i;
+         }
+      }
+
+      return mask;
+   }
+}
@@ -1,6 +1,7 @@
 package ucc.diff;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -8,6 +9,7 @@ import org.apache.logging.log4j.Logger;
 import ucc.datatypes.DiffResultType;
 import ucc.datatypes.UCCFile;
 import ucc.main.RuntimeParameters;
+import ucc.utils.ParallelRunner;
 
 /**
  * Top-level class for differencer that acts as a manager to compare two
@@ -114,26 +116,32 @@ public class Differencer
             FileMatcherObj.GenDupMatchedFileList(cntrResultsA, cntrResultsB, fileBIdx, dupDiffResults);
          }
 
-         // Difference each non-duplicate matched file pair
-         for (int i = 0; i < diffResults.size(); i++)
+         // Pair renamed and moved files left without a pair
+         if (RtParams.RenameThreshold > 0)
          {
-            if (!SLOCDiffObj.CompareFiles(diffResults.get(i)))
+            FileMatcherObj.PairRenamedFiles(diffResults, SLOCDiffObj, RtParams.RenameThreshold);
+            if (RtParams.SearchForDups)
             {
-               logger.error("Error comparing file " + diffResults.get(i).FileNameA + " with "
-                        + diffResults.get(i).FileNameB);
+               FileMatcherObj.PairRenamedFiles(dupDiffResults, SLOCDiffObj, RtParams.RenameThreshold);
             }
          }
 
-         // Difference duplicate file pairs
+         // Difference each matched file pair, in parallel if requested
+         ArrayList<DiffResultType> filePairs = new ArrayList<DiffResultType>(diffResults);
          if (RtParams.SearchForDups)
          {
-            for (int i = 0; i < dupDiffResults.size(); i++)
+            filePairs.addAll(dupDiffResults);
+         }
+
+         if (RtParams.NumThreads > 1 && filePairs.size() > 1)
+         {
+            DiffFilePairsParallel(filePairs);
+         }
+         else
+         {
+            for (int i = 0; i < filePairs.size(); i++)
             {
-               if (!SLOCDiffObj.CompareFiles(dupDiffResults.get(i)))
-               {
-                  logger.error("Error comparing file " + dupDiffResults.get(i).FileNameA + " with "
-                           + dupDiffResults.get(i).FileNameB);
-               }
+               DiffFilePair(SLOCDiffObj, filePairs.get(i));
             }
          }
       }
@@ -142,4 +150,64 @@ public class Differencer
          logger.error("Counter results for baseline(s) are not available, cannot proceed with differencing.");
       }
    }
+
+   /**
+    * Differences matched file pairs using {@link RuntimeParameters#NumThreads}
+    * worker threads, each with its own LSLOCDifferencer. The results are stored
+    * in the pairs themselves, so the order of the results lists is unchanged.
+    * The pairs expected to take the longest are started first so that no
+    * single large pair is left running at the end. If a pair cannot be
+    * differenced, the run fails as it would in a single threaded run.
+    * 
+    * @param filePairs
+    *           Matched file pairs to difference
+    */
+   private void DiffFilePairsParallel(ArrayList<DiffResultType> filePairs)
+   {
+      final ArrayList<DiffResultType> sortedPairs = new ArrayList<DiffResultType>(filePairs);
+      sortedPairs.sort(Comparator.comparingLong(Differencer::GetDiffCost).reversed());
+
+      final int numWorkers = Math.min(RtParams.NumThreads, sortedPairs.size());
+      final LSLOCDifferencer[] slocDiffObjs = new LSLOCDifferencer[numWorkers];
+      for (int w = 0; w < numWorkers; w++)
+      {
+         slocDiffObjs[w] = (w == 0) ? SLOCDiffObj : new LSLOCDifferencer(RtParams.ModThreshold);
+      }
+
+      ParallelRunner.Run("differencing", sortedPairs.size(), numWorkers,
+               (worker, i) -> DiffFilePair(slocDiffObjs[worker], sortedPairs.get(i)));
+   }
+
+   /**
+    * Differences a matched file pair and logs an error if it failed
+    * 
+    * @param slocDiffObj
+    *           The LSLOCDifferencer to use
+    * @param filePair
+    *           The matched file pair, which receives the results
+    */
+   private static void DiffFilePair(LSLOCDifferencer slocDiffObj, DiffResultType filePair)
+   {
+      if (!slocDiffObj.CompareFiles(filePair))
+      {
+         logger.error("Error comparing file " + filePair.FileNameA + " with " + filePair.FileNameB);
+      }
+   }
+
+   /**
+    * Estimates the work needed to difference a matched file pair from the
+    * number of LSLOC of its files. Modified lines are searched for amongst all
+    * pairs of lines, hence the product.
+    * 
+    * @param filePair
+    *           The matched file pair
+    * @return The estimated work
+    */
+   private static long GetDiffCost(DiffResultType filePair)
+   {
+      long numLinesA = (filePair.FileA != null) ? filePair.FileA.NumLSLOC : 0;
+      long numLinesB = (filePair.FileB != null) ? filePair.FileB.NumLSLOC : 0;
+
+      return numLinesA * numLinesB + numLinesA + numLinesB;
+   }
 }
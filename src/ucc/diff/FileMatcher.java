@@ -1,9 +1,12 @@
 package ucc.diff;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import ucc.datatypes.DiffResultType;
 import ucc.datatypes.UCCFile;
+import ucc.dup.MinHashIndex;
 import ucc.utils.FileUtils;
 
 /**
@@ -45,14 +48,28 @@ public class FileMatcher
       UCCFile fileA;
       UCCFile fileB;
 
-      // A boolean to indicate if two files are identical
-      boolean identical = false;
-
-      // A boolean to indicate if file A found a matching pair in baseline B
-      boolean matchFound = false;
+      // Index the non-duplicate baseline B files by name and checksum. Files
+      // that could not be counted are removed from the list.
+      FileIndex indexB = new FileIndex(fileBIdx.size());
+      boolean[] removed = new boolean[fileBIdx.size()];
+      for (int j = 0; j < fileBIdx.size(); j++)
+      {
+         fileB = cntrResultsB.get(fileBIdx.get(j).intValue());
+         if (!fileB.IsDup && fileB.EmbOfIdx == -1)
+         {
+            if (fileB.IsCounted)
+            {
+               indexB.Add(j, fileB);
+            }
+            else
+            {
+               removed[j] = true;
+            }
+         }
+      }
 
-      // Loop through duplicate baseline A files and compare them to
-      // duplicate baseline B files to find matching pairs (if any)
+      // Loop through non-duplicate baseline A files and pair them with
+      // non-duplicate baseline B files (if any)
       for (int i = 0; i < cntrResultsA.size(); i++)
       {
          fileA = cntrResultsA.get(i);
@@ -60,53 +77,17 @@ public class FileMatcher
          {
             if (fileA.IsCounted)
             {
-               matchFound = false;
-               for (int j = 0; j < fileBIdx.size(); j++)
+               int j = indexB.PairFile(fileA);
+               if (j >= 0)
                {
-                  // Retrieve the next file to check from the baseline B's index
-                  // list
                   fileB = cntrResultsB.get(fileBIdx.get(j).intValue());
+                  diffResults.add(new DiffResultType(fileA.FileName, fileB.FileName, fileA.LangProperty,
+                           IsIdentical(fileA, fileB), false, fileA, fileB));
 
-                  if (!fileB.IsDup && fileB.EmbOfIdx == -1)
-                  {
-                     if (fileB.IsCounted)
-                     {
-                        // Compare the two files
-                        if (CompareFiles(fileA, fileB, identical))
-                        {
-                           diffResults.add(new DiffResultType(fileA.FileName, fileB.FileName, fileA.LangProperty,
-                                    identical, false, fileA, fileB));
-
-                           matchFound = true;
-
-                           // Remove matched file index from the list
-                           fileBIdx.remove(j);
-
-                           // Decrement index since the current index element
-                           // was removed from the list
-                           if (j - 1 >= 0)
-                           {
-                              j--;
-                           }
-                           break;
-                        }
-                     }
-                     else // File could not be counted
-                     {
-                        // Remove file index from the list
-                        fileBIdx.remove(j);
-
-                        // Decrement index since the current index element was
-                        // removed from the list
-                        if (j - 1 >= 0)
-                        {
-                           j--;
-                        }
-                     }
-                  }
+                  // Remove matched file index from the list
+                  removed[j] = true;
                }
-
-               if (!matchFound)
+               else
                {
                   // Save file A as not having a matched pair
                   diffResults.add(
@@ -115,9 +96,10 @@ public class FileMatcher
             }
          }
       }
+      RemoveFileIndexes(fileBIdx, removed);
 
-      // Add any remaining duplicate files in baseline B to the matched pairs
-      // list as not having a match
+      // Add any remaining non-duplicate files in baseline B to the matched
+      // pairs list as not having a match
       for (int idx = 0; idx < fileBIdx.size(); idx++)
       {
          // Retrieve the next file to check from the baseline B's index list
@@ -152,14 +134,28 @@ public class FileMatcher
       UCCFile fileA;
       UCCFile fileB;
 
-      // A boolean to indicate if two files are identical
-      boolean identical = false;
-
-      // A boolean to indicate if file A found a matching pair in baseline B
-      boolean matchFound = false;
+      // Index the duplicate baseline B files by name and checksum. Files that
+      // could not be counted are removed from the list.
+      FileIndex indexB = new FileIndex(fileBIdx.size());
+      boolean[] removed = new boolean[fileBIdx.size()];
+      for (int j = 0; j < fileBIdx.size(); j++)
+      {
+         fileB = cntrResultsB.get(fileBIdx.get(j).intValue());
+         if (fileB.IsDup && fileB.EmbOfIdx == -1)
+         {
+            if (cntrResultsB.get(fileB.DupOfIdx).IsCounted)
+            {
+               indexB.Add(j, fileB);
+            }
+            else
+            {
+               removed[j] = true;
+            }
+         }
+      }
 
-      // Loop through duplicate baseline A files and compare them to
-      // duplicate baseline B files to find matching pairs (if any)
+      // Loop through duplicate baseline A files and pair them with duplicate
+      // baseline B files (if any)
       for (int i = 0; i < cntrResultsA.size(); i++)
       {
          fileA = cntrResultsA.get(i);
@@ -167,53 +163,17 @@ public class FileMatcher
          {
             if (cntrResultsA.get(fileA.DupOfIdx).IsCounted)
             {
-               matchFound = false;
-               for (int j = 0; j < fileBIdx.size(); j++)
+               int j = indexB.PairFile(fileA);
+               if (j >= 0)
                {
-                  // Retrieve the next file to check from the baseline B's index
-                  // list
                   fileB = cntrResultsB.get(fileBIdx.get(j).intValue());
+                  dupDiffResults.add(new DiffResultType(fileA.FileName, fileB.FileName, fileA.LangProperty,
+                           IsIdentical(fileA, fileB), true, fileA, fileB));
 
-                  if (fileB.IsDup && fileB.EmbOfIdx == -1)
-                  {
-                     if (cntrResultsB.get(fileB.DupOfIdx).IsCounted)
-                     {
-                        // Compare the two files
-                        if (CompareFiles(fileA, fileB, identical))
-                        {
-                           dupDiffResults.add(new DiffResultType(fileA.FileName, fileB.FileName, fileA.LangProperty,
-                                    identical, true, fileA, fileB));
-
-                           matchFound = true;
-
-                           // Remove matched file index from the list
-                           fileBIdx.remove(j);
-
-                           // Decrement index since the current index element
-                           // was removed from the list
-                           if (j - 1 >= 0)
-                           {
-                              j--;
-                           }
-                           break;
-                        }
-                     }
-                     else // File could not be counted
-                     {
-                        // Remove file index from the list
-                        fileBIdx.remove(j);
-
-                        // Decrement index since the current index element was
-                        // removed from the list
-                        if (j - 1 >= 0)
-                        {
-                           j--;
-                        }
-                     }
-                  }
+                  // Remove matched file index from the list
+                  removed[j] = true;
                }
-
-               if (!matchFound)
+               else
                {
                   // Save file A as not having a matched pair
                   dupDiffResults
@@ -222,6 +182,7 @@ public class FileMatcher
             }
          }
       }
+      RemoveFileIndexes(fileBIdx, removed);
 
       // Add any remaining duplicate files in baseline B to the matched pairs
       // list as not having a match
@@ -238,45 +199,261 @@ public class FileMatcher
    }
 
    /**
-    * Compare two files from different baselines to check if they are a match
+    * Pairs files that were renamed or moved between the two baselines. Every
+    * baseline A file left without a pair is paired with the unpaired baseline B
+    * file of the same language sharing the largest percentage of its LSLOC, if
+    * that percentage reaches the threshold. Candidates are looked up by MinHash
+    * signatures of the LSLOC, so the unpaired files are not compared all
+    * against all. Paired baseline B files are removed from the results.
     * 
+    * @param diffResults
+    *           Matched files list produced by GenMatchedFileList or
+    *           GenDupMatchedFileList
+    * @param slocDiffObj
+    *           Differencer used to read the LSLOC of the files
+    * @param renameThreshold
+    *           Minimum percentage of common LSLOC of a renamed file
+    */
+   void PairRenamedFiles(ArrayList<DiffResultType> diffResults, LSLOCDifferencer slocDiffObj, double renameThreshold)
+   {
+      // Results of the unpaired files of each baseline
+      ArrayList<Integer> unpairedA = new ArrayList<Integer>();
+      ArrayList<Integer> unpairedB = new ArrayList<Integer>();
+      for (int r = 0; r < diffResults.size(); r++)
+      {
+         if (diffResults.get(r).FileB == null)
+         {
+            unpairedA.add(r);
+         }
+         else if (diffResults.get(r).FileA == null)
+         {
+            unpairedB.add(r);
+         }
+      }
+
+      if (unpairedA.isEmpty() || unpairedB.isEmpty())
+      {
+         return;
+      }
+
+      // The threshold bounds the fraction s of the lines of the larger file
+      // that are common, repeated lines included. Lines in either file number
+      // at most 2 - s times the lines of the larger file, so the multiset
+      // Jaccard similarity is at least s / (2 - s). Set Jaccard has no such
+      // bound, hence the multiset signatures.
+      double minCommon = renameThreshold / 100.0;
+      MinHashIndex indexB = new MinHashIndex(minCommon / (2.0 - minCommon));
+
+      HashMap<Integer, ArrayList<Integer>> lineChecksumsB = new HashMap<Integer, ArrayList<Integer>>();
+      for (int r : unpairedB)
+      {
+         ArrayList<Integer> lineChecksums = slocDiffObj.GetLslocLineChecksums(diffResults.get(r).FileB);
+         if (!lineChecksums.isEmpty())
+         {
+            lineChecksumsB.put(r, lineChecksums);
+            indexB.Add(r, MinHashIndex.ComputeMultisetSignature(lineChecksums));
+         }
+      }
+
+      boolean[] removed = new boolean[diffResults.size()];
+      for (int r : unpairedA)
+      {
+         DiffResultType resultA = diffResults.get(r);
+         ArrayList<Integer> lineChecksumsA = slocDiffObj.GetLslocLineChecksums(resultA.FileA);
+         if (lineChecksumsA.isEmpty())
+         {
+            continue;
+         }
+
+         // Count the lines of file A so that each can only be paired once
+         HashMap<Integer, Integer> lineCntsA = new HashMap<Integer, Integer>();
+         for (int checksum : lineChecksumsA)
+         {
+            lineCntsA.merge(checksum, 1, Integer::sum);
+         }
+
+         int bestB = -1;
+         double bestPercent = 0.0;
+         for (int b : indexB.GetCandidates(MinHashIndex.ComputeMultisetSignature(lineChecksumsA)))
+         {
+            DiffResultType resultB = diffResults.get(b);
+            if (removed[b] || resultB.LangProperty != resultA.LangProperty)
+            {
+               continue;
+            }
+
+            HashMap<Integer, Integer> remainingCntsA = new HashMap<Integer, Integer>(lineCntsA);
+            int numCommon = 0;
+            for (int checksum : lineChecksumsB.get(b))
+            {
+               Integer cnt = remainingCntsA.get(checksum);
+               if (cnt != null && cnt > 0)
+               {
+                  remainingCntsA.put(checksum, cnt - 1);
+                  numCommon++;
+               }
+            }
+
+            double percent = numCommon * 100.0 / Math.max(lineChecksumsA.size(), lineChecksumsB.get(b).size());
+            if (percent >= renameThreshold && percent > bestPercent)
+            {
+               bestB = b;
+               bestPercent = percent;
+            }
+         }
+
+         if (bestB >= 0)
+         {
+            UCCFile fileB = diffResults.get(bestB).FileB;
+            resultA.FileNameB = fileB.FileName;
+            resultA.FileB = fileB;
+            removed[bestB] = true;
+         }
+      }
+
+      // Remove the results of the paired baseline B files
+      int kept = 0;
+      for (int r = 0; r < removed.length; r++)
+      {
+         if (!removed[r])
+         {
+            diffResults.set(kept++, diffResults.get(r));
+         }
+      }
+      diffResults.subList(kept, diffResults.size()).clear();
+   }
+
+   /**
+    * Checks whether a paired file A and file B are known to be identical, so
+    * that their LSLOC lines need not be compared. Files are identical when both
+    * checksums are known and equal and the files were counted as the same
+    * language.
+    *
     * @param fileA
-    *           A file from baseline A
+    *           File of baseline A
     * @param fileB
-    *           A file from baseline B
-    * @param identicalFiles
-    *           True if fileA and fileB are identical files
-    * @return Returns true if both input files contents are similar
+    *           File of baseline B
+    * @return True if the files are identical, false otherwise
     */
-   private boolean CompareFiles(UCCFile fileA, UCCFile fileB, boolean identicalFiles)
+   private boolean IsIdentical(UCCFile fileA, UCCFile fileB)
    {
-      // Extract only the file name from the full file path
-      String fileNameA = FileUtils.GetFileName(fileA.FileName);
-      String fileNameB = FileUtils.GetFileName(fileB.FileName);
-
-      // Indicates if files are a match
-      boolean filesMatch = false;
+      return fileA.FileChecksum != 0 && fileA.FileChecksum == fileB.FileChecksum
+               && fileA.LangProperty == fileB.LangProperty;
+   }
 
-      // Indicates if files are identical
-      identicalFiles = false;
+   /**
+    * Removes entries from a list of file indices in a single pass
+    * 
+    * @param fileIdx
+    *           The list of file indices
+    * @param removed
+    *           For each entry of the list, true if it is to be removed
+    */
+   private void RemoveFileIndexes(ArrayList<Integer> fileIdx, boolean[] removed)
+   {
+      int kept = 0;
+      for (int j = 0; j < removed.length; j++)
+      {
+         if (!removed[j])
+         {
+            fileIdx.set(kept++, fileIdx.get(j));
+         }
+      }
+      fileIdx.subList(kept, fileIdx.size()).clear();
+   }
 
-      // Check if the two files are identical - both names and contents match
-      if (fileNameA.equals(fileNameB) && fileA.FileChecksum == fileB.FileChecksum)
+   /**
+    * FileIndex class indexes the candidate files of baseline B by file name and
+    * by checksum. A baseline A file is paired with the first unpaired candidate
+    * that has the same file name or, if both checksums are known, the same
+    * contents.
+    */
+   private static class FileIndex
+   {
+      /** Positions of the candidates in the list, by file name */
+      private HashMap<String, ArrayDeque<Integer>> ByName;
+
+      /** Positions of the candidates in the list, by checksum */
+      private HashMap<Long, ArrayDeque<Integer>> ByChecksum;
+
+      /** For each position in the list, true once the file was paired */
+      private boolean[] Paired;
+
+      /**
+       * Constructor to instantiate an empty index
+       * 
+       * @param numFiles
+       *           Number of positions in the list of candidates
+       */
+      FileIndex(int numFiles)
       {
-         filesMatch = true;
-         identicalFiles = true;
+         ByName = new HashMap<String, ArrayDeque<Integer>>();
+         ByChecksum = new HashMap<Long, ArrayDeque<Integer>>();
+         Paired = new boolean[numFiles];
       }
-      // If file names match, consider the two files as a pair
-      else if (fileNameA.equals(fileNameB))
+
+      /**
+       * Adds a candidate file. Files must be added in increasing position.
+       * 
+       * @param pos
+       *           Position of the file in the list of candidates
+       * @param file
+       *           The candidate file
+       */
+      void Add(int pos, UCCFile file)
       {
-         filesMatch = true;
+         ByName.computeIfAbsent(FileUtils.GetFileName(file.FileName), name -> new ArrayDeque<Integer>()).add(pos);
+         if (file.FileChecksum > 0)
+         {
+            ByChecksum.computeIfAbsent(file.FileChecksum, checksum -> new ArrayDeque<Integer>()).add(pos);
+         }
       }
-      // If file contents match, consider the two files as a pair
-      else if (fileA.FileChecksum > 0 && fileB.FileChecksum > 0 && fileA.FileChecksum == fileB.FileChecksum)
+
+      /**
+       * Pairs a file with the first unpaired candidate matching it
+       * 
+       * @param file
+       *           The file to pair
+       * @return Position of the paired candidate, or -1 if none matches
+       */
+      int PairFile(UCCFile file)
       {
-         filesMatch = true;
+         int byName = FirstUnpaired(ByName.get(FileUtils.GetFileName(file.FileName)));
+         int byChecksum = file.FileChecksum > 0 ? FirstUnpaired(ByChecksum.get(file.FileChecksum)) : -1;
+
+         int pos = byName;
+         if (pos < 0 || (byChecksum >= 0 && byChecksum < pos))
+         {
+            pos = byChecksum;
+         }
+
+         if (pos >= 0)
+         {
+            Paired[pos] = true;
+         }
+         return pos;
       }
 
-      return filesMatch;
+      /**
+       * Returns the first unpaired position of a list of positions, dropping
+       * the paired positions before it
+       * 
+       * @param positions
+       *           Positions in increasing order, or null
+       * @return The first unpaired position, or -1 if there is none
+       */
+      private int FirstUnpaired(ArrayDeque<Integer> positions)
+      {
+         if (positions == null)
+         {
+            return -1;
+         }
+
+         while (!positions.isEmpty() && Paired[positions.peekFirst()])
+         {
+            positions.pollFirst();
+         }
+         return positions.isEmpty() ? -1 : positions.peekFirst();
+      }
    }
 }
@@ -1,14 +1,16 @@
 package ucc.diff;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-
-import org.apache.commons.lang3.StringUtils;
+import java.util.HashMap;
 
 import ucc.counters.CodeCounter;
 import ucc.datatypes.Constants;
 import ucc.datatypes.DiffResultType;
 import ucc.datatypes.DiffResultType.ModificationType;
+import ucc.datatypes.UCCFile;
 import ucc.main.RuntimeParameters;
+import ucc.main.RuntimeParameters.DiffAlgorithm;
 import ucc.utils.FileUtils;
 
 /**
@@ -94,7 +96,7 @@ public class LSLOCDifferencer
          {
             // There is no file to compare against, count file B's lines as new
             // lines
-            if (FileUtils.ReadLines(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileB), FileBLines))
+            if (ReadLslocLines(diffRes.FileB, FileBLines))
             {
                diffRes.UnmodLines = 0;
                diffRes.ModLines = 0;
@@ -110,7 +112,7 @@ public class LSLOCDifferencer
       {
          // There is no file to compare against, count file A's lines as deleted
          // lines
-         if (FileUtils.ReadLines(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileA), FileALines))
+         if (ReadLslocLines(diffRes.FileA, FileALines))
          {
             diffRes.UnmodLines = 0;
             diffRes.ModLines = 0;
@@ -121,25 +123,51 @@ public class LSLOCDifferencer
             processed = true;
          }
       }
+      else if (diffRes.ExactMatch)
+      {
+         // The files are identical, so only the lines of file A are needed
+         if (ReadLslocLines(diffRes.FileA, FileALines))
+         {
+            CountIdenticalLines(FileALines, diffRes);
+            if (diffRes.NewLines > 0)
+            {
+               diffRes.ModType = ModificationType.Mod;
+            }
+            else
+            {
+               diffRes.ModType = ModificationType.Unmod;
+            }
+
+            diffRes.IsDiffed = true;
+            processed = true;
+         }
+      }
       else
       {
-         if (FileUtils.ReadLines(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileA), FileALines)
-                  && FileUtils.ReadLines(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileB), FileBLines))
+         if (ReadLslocLines(diffRes.FileA, FileALines)
+                  && ReadLslocLines(diffRes.FileB, FileBLines))
          {
-            // Count lines that are exact match between the two files
-            diffRes.UnmodLines = CountUnmodLines(FileALines, FileBLines);
+            if (RtParams.DiffAlgo == DiffAlgorithm.LEGACY)
+            {
+               // Count lines that are exact match between the two files
+               diffRes.UnmodLines = CountUnmodLines(FileALines, FileBLines);
 
-            // Count lines that were modified between the two files
-            int[] modLineCounts = CountModLines(FileALines, FileBLines);
-            diffRes.ModLines = modLineCounts[0];
-            diffRes.NewLines = modLineCounts[1];
-            diffRes.DeletedLines = modLineCounts[2];
+               // Count lines that were modified between the two files
+               int[] modLineCounts = CountModLines(FileALines, FileBLines);
+               diffRes.ModLines = modLineCounts[0];
+               diffRes.NewLines = modLineCounts[1];
+               diffRes.DeletedLines = modLineCounts[2];
 
-            // Count new lines (leftover lines in file B)
-            diffRes.NewLines += CountNonBlankLines(FileBLines);
+               // Count new lines (leftover lines in file B)
+               diffRes.NewLines += CountNonBlankLines(FileBLines);
 
-            // Count deleted lines (leftover lines in file A)
-            diffRes.DeletedLines += CountNonBlankLines(FileALines);
+               // Count deleted lines (leftover lines in file A)
+               diffRes.DeletedLines += CountNonBlankLines(FileALines);
+            }
+            else
+            {
+               CountAlignedLines(FileALines, FileBLines, diffRes);
+            }
 
             // If any lines are modified, new, or deleted, then the file is
             // modified
@@ -162,22 +190,197 @@ public class LSLOCDifferencer
       FileALines.clear();
       FileBLines.clear();
 
-      // Delete "_LSLOC" files as they are no longer needed
+      // Release the LSLOC lines as they are no longer needed
       if (diffRes.FileNameA != "NA")
       {
-         FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileA));
+         DeleteLslocLines(diffRes.FileA);
       }
 
       if (diffRes.FileNameB != "NA")
       {
-         FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_LSLOC(RtParams, diffRes.FileB));
+         DeleteLslocLines(diffRes.FileB);
       }
 
       return processed;
    }
 
    /**
-    * Counts number of lines that were modified from file B to file A
+    * Calculates the checksums of the LSLOC lines the code counter saved for a
+    * file, ignoring the LSLOC value of each line. The lines remain available
+    * for differencing.
+    * 
+    * @param file
+    *           The file whose lines are checksummed
+    * @return Checksum of each line with contents, in line order
+    */
+   ArrayList<Integer> GetLslocLineChecksums(UCCFile file)
+   {
+      ArrayList<String> lines = new ArrayList<String>();
+      ArrayList<Integer> lineChecksums = new ArrayList<Integer>();
+
+      if (ReadLslocLines(file, lines))
+      {
+         for (String line : lines)
+         {
+            line = removeLslocLineValue(line);
+            if (!line.isEmpty())
+            {
+               lineChecksums.add(line.hashCode());
+            }
+         }
+      }
+
+      return lineChecksums;
+   }
+
+   /**
+    * Reads the LSLOC lines the code counter saved for a file
+    * 
+    * @param file
+    *           The file whose lines are read
+    * @param lineBuf
+    *           String buffer to store the non-blank lines
+    * @return True if any lines were saved for the file. False, otherwise
+    */
+   private boolean ReadLslocLines(UCCFile file, ArrayList<String> lineBuf)
+   {
+      if (file.LslocLines == null)
+      {
+         return FileUtils.ReadLines(FileUtils.BuildTempOutFileName_LSLOC(RtParams, file), lineBuf);
+      }
+
+      return FileUtils.ReadLines(file.LslocLines, lineBuf);
+   }
+
+   /**
+    * Releases the LSLOC lines the code counter saved for a file. A spilled
+    * _LSLOC file is kept if the user asked to keep the intermediate files.
+    * 
+    * @param file
+    *           The file whose lines are released
+    */
+   private void DeleteLslocLines(UCCFile file)
+   {
+      if (RtParams.KeepTempFiles)
+      {
+         file.LslocLines = null;
+      }
+      else if (file.LslocLines != null)
+      {
+         file.LslocLines.Delete();
+         file.LslocLines = null;
+      }
+      else
+      {
+         FileUtils.DeleteFile(FileUtils.BuildTempOutFileName_LSLOC(RtParams, file));
+      }
+   }
+
+   /**
+    * Counts unmodified, modified, new and deleted lines by first aligning the
+    * lines of file A and B with the selected diff algorithm. Aligned lines are
+    * unmodified. Modified lines are only searched for within each hunk of
+    * unaligned lines, and the remaining lines of a hunk are new or deleted.
+    * 
+    * @param fileALines
+    *           A string buffer that contains file A contents
+    * @param fileBLines
+    *           A string buffer that contains file B contents
+    * @param diffRes
+    *           An object to store the line counts of the file pair
+    */
+   private void CountAlignedLines(ArrayList<String> fileALines, ArrayList<String> fileBLines, DiffResultType diffRes)
+   {
+      // Identify each distinct line with an integer. Lines without contents
+      // get their own identifier so that they are never aligned.
+      HashMap<String, Integer> lineIds = new HashMap<String, Integer>();
+      int[] lineIdsA = GetLineIds(fileALines, lineIds, -1);
+      int[] lineIdsB = GetLineIds(fileBLines, lineIds, -1 - fileALines.size());
+
+      int[] matchesA = LineAligner.Align(lineIdsA, lineIdsB, RtParams.DiffAlgo);
+
+      diffRes.UnmodLines = 0;
+      diffRes.ModLines = 0;
+      diffRes.NewLines = 0;
+      diffRes.DeletedLines = 0;
+
+      int i = 0;
+      int j = 0;
+      while (i < fileALines.size() || j < fileBLines.size())
+      {
+         // Find the hunk of unaligned lines before the next aligned pair
+         int hunkStartA = i;
+         while (i < fileALines.size() && matchesA[i] < 0)
+         {
+            i++;
+         }
+         int hunkEndB = i < fileALines.size() ? matchesA[i] : fileBLines.size();
+
+         ArrayList<String> hunkALines = new ArrayList<String>(fileALines.subList(hunkStartA, i));
+         ArrayList<String> hunkBLines = new ArrayList<String>(fileBLines.subList(j, hunkEndB));
+         if (!hunkALines.isEmpty() && !hunkBLines.isEmpty())
+         {
+            int[] modLineCounts = CountModLines(hunkALines, hunkBLines);
+            diffRes.ModLines += modLineCounts[0];
+            diffRes.NewLines += modLineCounts[1];
+            diffRes.DeletedLines += modLineCounts[2];
+         }
+         diffRes.NewLines += CountNonBlankLines(hunkBLines);
+         diffRes.DeletedLines += CountNonBlankLines(hunkALines);
+
+         // Count the aligned pair as unmodified
+         if (i < fileALines.size())
+         {
+            diffRes.UnmodLines += getLslocLineValue(fileALines.get(i));
+            i++;
+         }
+         j = hunkEndB + 1;
+      }
+   }
+
+   /**
+    * Identifies the lines of a file with integers, lines with equal contents
+    * getting equal integers
+    * 
+    * @param fileLines
+    *           A string buffer that contains the file contents
+    * @param lineIds
+    *           Identifiers of the contents seen so far, updated with new ones
+    * @param firstEmptyId
+    *           Negative identifier of the first line of the file, used if that
+    *           line has no contents. The following lines count down from it.
+    * @return The identifier of each line
+    */
+   private int[] GetLineIds(ArrayList<String> fileLines, HashMap<String, Integer> lineIds, int firstEmptyId)
+   {
+      int[] ids = new int[fileLines.size()];
+      for (int i = 0; i < fileLines.size(); i++)
+      {
+         String line = removeLslocLineValue(fileLines.get(i));
+         if (line.isEmpty())
+         {
+            ids[i] = firstEmptyId - i;
+         }
+         else
+         {
+            Integer id = lineIds.get(line);
+            if (id == null)
+            {
+               id = lineIds.size();
+               lineIds.put(line, id);
+            }
+            ids[i] = id;
+         }
+      }
+
+      return ids;
+   }
+
+   /**
+    * Counts number of lines that were modified from file B to file A. Each line
+    * of file A, in order, is paired with the first unpaired line of file B whose
+    * Levenshtein distance is within the modification threshold. Paired lines
+    * are erased from both buffers.
     * 
     * @param fileALines
     *           A string buffer that contains file A contents
@@ -197,6 +400,21 @@ public class LSLOCDifferencer
       String lineA = "";
       String lineB = "";
 
+      // Parse the lines of file B once, erased lines are left empty
+      String[] linesB = new String[fileBLines.size()];
+      int[] lslocLineValuesB = new int[fileBLines.size()];
+      int[][] profilesB = new int[fileBLines.size()][];
+      for (int j = 0; j < fileBLines.size(); j++)
+      {
+         lineB = fileBLines.get(j).trim();
+         lslocLineValuesB[j] = getLslocLineValue(lineB);
+         linesB[j] = removeLslocLineValue(lineB);
+         if (!linesB[j].isEmpty())
+         {
+            profilesB[j] = BoundedEditDistance.ComputeProfile(linesB[j]);
+         }
+      }
+
       // Loop over all the lines in file A...
       for (int i = 0; i < fileALines.size(); i++)
       {
@@ -204,29 +422,33 @@ public class LSLOCDifferencer
          lslocLineValueA = getLslocLineValue(lineA);
          lineA = removeLslocLineValue(lineA);
 
+         if (lineA.isEmpty())
+         {
+            continue;
+         }
+
+         BoundedEditDistance distanceA = new BoundedEditDistance(lineA);
+         int maxDistance = GetMaxModDistance(lineA.length());
+
          // Loop over all the lines in file B...
-         for (int j = 0; j < fileBLines.size(); j++)
+         for (int j = 0; j < linesB.length; j++)
          {
-            lineB = fileBLines.get(j).trim();
-            lslocLineValueB = getLslocLineValue(lineB);
-            lineB = removeLslocLineValue(lineB);
+            lineB = linesB[j];
+            lslocLineValueB = lslocLineValuesB[j];
 
-            // Get Levenshtein algorithm score for the two lines and check that
-            // is less than the threshold
-            if (!lineA.isEmpty() && !lineB.isEmpty())
+            // Get Levenshtein algorithm score for the two lines, if it is
+            // within the threshold
+            if (!lineB.isEmpty())
             {
-               levenshteinVal = -1;
-               levenshteinVal = StringUtils.getLevenshteinDistance(lineA, lineB);
+               levenshteinVal = distanceA.GetDistance(lineB, profilesB[j], maxDistance);
 
                // If Levenshtein distance is within our threshold, erase the
                // line and increment the modCount
-               if (((double) levenshteinVal / (double) lineA.length()) * 100.0 <= (100.0 - ModThreshold))
+               if (levenshteinVal >= 0)
                {
                   fileALines.set(i, "");
                   fileBLines.set(j, "");
-
-                  lineA = "";
-                  lineB = "";
+                  linesB[j] = "";
 
                   if (lslocLineValueB < lslocLineValueA)
                   {
@@ -242,6 +464,7 @@ public class LSLOCDifferencer
                   {
                      modCount += lslocLineValueA;
                   }
+                  break;
                }
             }
          }
@@ -252,7 +475,49 @@ public class LSLOCDifferencer
    }
 
    /**
-    * Counts number of lines that are unmodified from file B to file A
+    * Returns the largest Levenshtein distance at which a line of file B is
+    * still a modification of a line of file A
+    * 
+    * @param lineALength
+    *           Length of the line of file A
+    * @return The largest distance, or -1 if no distance is within the
+    *         modification threshold
+    */
+   private int GetMaxModDistance(int lineALength)
+   {
+      // Start from the estimate and settle it with the exact threshold test
+      int maxDistance = (int) Math.floor(lineALength * (100.0 - ModThreshold) / 100.0);
+      while (maxDistance >= 0 && !IsWithinModThreshold(maxDistance, lineALength))
+      {
+         maxDistance--;
+      }
+      while (IsWithinModThreshold(maxDistance + 1, lineALength))
+      {
+         maxDistance++;
+      }
+
+      return maxDistance;
+   }
+
+   /**
+    * Checks if a Levenshtein distance is within the modification threshold
+    * 
+    * @param levenshteinVal
+    *           Levenshtein distance between a line of file A and one of file B
+    * @param lineALength
+    *           Length of the line of file A
+    * @return True if the line of file B is a modification of the line of file
+    *         A. False, otherwise
+    */
+   private boolean IsWithinModThreshold(int levenshteinVal, int lineALength)
+   {
+      return ((double) levenshteinVal / (double) lineALength) * 100.0 <= (100.0 - ModThreshold);
+   }
+
+   /**
+    * Counts number of lines that are unmodified from file B to file A. Each
+    * line of file A, in order, is paired with the first unpaired line of file B
+    * with the same contents. Paired lines are erased from both buffers.
     * 
     * @param fileALines
     *           A string buffer that contains file A contents
@@ -262,14 +527,22 @@ public class LSLOCDifferencer
     */
    private int CountUnmodLines(ArrayList<String> fileALines, ArrayList<String> fileBLines)
    {
-      int unmodCount = 0; // Number of unmodified lines (increments if
-                          // Levenstein value is 0)
-      int levenshteinVal = -1; // Levenstein algorithm value
+      int unmodCount = 0; // Number of unmodified lines
       int lslocLineValueA = 0;
-      int lslocLineValueB = 0;
       String lineA = "";
       String lineB = "";
 
+      // Indexes of the lines of file B by their contents, in line order
+      HashMap<String, ArrayDeque<Integer>> fileBLineIdxs = new HashMap<String, ArrayDeque<Integer>>();
+      for (int j = 0; j < fileBLines.size(); j++)
+      {
+         lineB = removeLslocLineValue(fileBLines.get(j));
+         if (!lineB.isEmpty())
+         {
+            fileBLineIdxs.computeIfAbsent(lineB, line -> new ArrayDeque<Integer>()).add(j);
+         }
+      }
+
       // Loop over all the lines in file A...
       for (int i = 0; i < fileALines.size(); i++)
       {
@@ -277,27 +550,16 @@ public class LSLOCDifferencer
          lslocLineValueA = getLslocLineValue(lineA);
          lineA = removeLslocLineValue(lineA);
 
-         // Loop over all the lines in file B...
-         for (int j = 0; j < fileBLines.size(); j++)
+         if (!lineA.isEmpty())
          {
-            lineB = fileBLines.get(j).trim();
-            lslocLineValueB = getLslocLineValue(lineB);
-            lineB = removeLslocLineValue(lineB);
-
-            // Get Levenshtein algorithm score for the two lines
-            if (!lineA.isEmpty() && !lineB.isEmpty())
+            // If file B has an unpaired identical line, erase both lines and
+            // increment unmodCount
+            ArrayDeque<Integer> sameLineIdxs = fileBLineIdxs.get(lineA);
+            if (sameLineIdxs != null && !sameLineIdxs.isEmpty())
             {
-               // If Levenshtein distance is 0, erase the line and increment
-               // unmodCount
-               levenshteinVal = StringUtils.getLevenshteinDistance(lineA, lineB);
-               if (levenshteinVal == 0)
-               {
-                  fileALines.set(i, "");
-                  fileBLines.set(j, "");
-                  lineA = "";
-                  lineB = "";
-                  unmodCount += lslocLineValueA;
-               }
+               fileALines.set(i, "");
+               fileBLines.set(sameLineIdxs.poll(), "");
+               unmodCount += lslocLineValueA;
             }
          }
       }
@@ -305,6 +567,38 @@ public class LSLOCDifferencer
       return unmodCount;
    }
 
+   /**
+    * Counts the lines of a file compared with an identical file, without
+    * comparing them. Lines with contents are unmodified. As when comparing,
+    * lines without contents that still carry an LSLOC value are never paired,
+    * so they are counted both as new and as deleted lines.
+    *
+    * @param fileLines
+    *           A string buffer that contains the contents of either file
+    * @param diffRes
+    *           An object to store the line counts of the file pair
+    */
+   private void CountIdenticalLines(ArrayList<String> fileLines, DiffResultType diffRes)
+   {
+      diffRes.UnmodLines = 0;
+      diffRes.ModLines = 0;
+      diffRes.NewLines = 0;
+      diffRes.DeletedLines = 0;
+
+      for (int i = 0; i < fileLines.size(); i++)
+      {
+         if (removeLslocLineValue(fileLines.get(i)).isEmpty())
+         {
+            diffRes.NewLines += getLslocLineValue(fileLines.get(i));
+         }
+         else
+         {
+            diffRes.UnmodLines += getLslocLineValue(fileLines.get(i));
+         }
+      }
+      diffRes.DeletedLines = diffRes.NewLines;
+   }
+
    /**
     * Counts number of non-blank LSLOC lines in the given string buffer
     * 
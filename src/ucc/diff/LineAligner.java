@@ -0,0 +1,361 @@
+package ucc.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import ucc.main.RuntimeParameters.DiffAlgorithm;
+
+/**
+ * LineAligner class aligns two sequences of lines, finding a longest sequence of
+ * identical lines that appear in the same order in both. Lines are given as
+ * integer identifiers, equal lines having equal identifiers.
+ * <p>
+ * Two algorithms are available:
+ * <ul>
+ * <li>Myers' O((N+M)D) algorithm in linear space, which finds a longest common
+ * subsequence of the two sequences.</li>
+ * <li>Patience diff, which first aligns the lines that appear exactly once in
+ * both sequences, then aligns the gaps between them recursively, falling back
+ * to Myers' algorithm for gaps without such lines. Its alignments follow the
+ * structure of source code more closely, at the cost of a few matches.</li>
+ * </ul>
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class LineAligner
+{
+   /** Lines of sequence A */
+   private int[] LinesA;
+
+   /** Lines of sequence B */
+   private int[] LinesB;
+
+   /** For each line of A, the index of the line of B it is aligned with or -1 */
+   private int[] MatchesA;
+
+   /** Furthest reaching forward paths, indexed by diagonal */
+   private int[] ForwardV;
+
+   /** Furthest reaching reverse paths, indexed by diagonal */
+   private int[] ReverseV;
+
+   /** Offset of diagonal 0 in ForwardV and ReverseV */
+   private int VOffset;
+
+   /**
+    * Constructor
+    *
+    * @param linesA
+    *           Lines of sequence A
+    * @param linesB
+    *           Lines of sequence B
+    */
+   private LineAligner(int[] linesA, int[] linesB)
+   {
+      LinesA = linesA;
+      LinesB = linesB;
+      MatchesA = new int[linesA.length];
+      Arrays.fill(MatchesA, -1);
+
+      VOffset = linesA.length + linesB.length + 1;
+      ForwardV = new int[2 * VOffset + 1];
+      ReverseV = new int[2 * VOffset + 1];
+   }
+
+   /**
+    * Aligns two sequences of lines
+    *
+    * @param linesA
+    *           Lines of sequence A
+    * @param linesB
+    *           Lines of sequence B
+    * @param algorithm
+    *           Algorithm to use, either MYERS or PATIENCE
+    * @return For each line of A, the index of the line of B it is aligned with,
+    *         or -1 if it is not aligned. Aligned indexes are increasing.
+    */
+   public static int[] Align(int[] linesA, int[] linesB, DiffAlgorithm algorithm)
+   {
+      LineAligner aligner = new LineAligner(linesA, linesB);
+      if (algorithm == DiffAlgorithm.PATIENCE)
+      {
+         aligner.AlignPatience(0, linesA.length, 0, linesB.length);
+      }
+      else
+      {
+         aligner.AlignMyers(0, linesA.length, 0, linesB.length);
+      }
+
+      return aligner.MatchesA;
+   }
+
+   /**
+    * Aligns two ranges of lines with Myers' algorithm. The middle snake of an
+    * optimal path is found, and the ranges before and after it are aligned
+    * recursively.
+    *
+    * @param aLo
+    *           First line of the range of A
+    * @param aHi
+    *           Line after the range of A
+    * @param bLo
+    *           First line of the range of B
+    * @param bHi
+    *           Line after the range of B
+    */
+   private void AlignMyers(int aLo, int aHi, int bLo, int bHi)
+   {
+      // Align the common prefix and suffix
+      while (aLo < aHi && bLo < bHi && LinesA[aLo] == LinesB[bLo])
+      {
+         MatchesA[aLo++] = bLo++;
+      }
+      while (aLo < aHi && bLo < bHi && LinesA[aHi - 1] == LinesB[bHi - 1])
+      {
+         MatchesA[--aHi] = --bHi;
+      }
+
+      if (aLo == aHi || bLo == bHi)
+      {
+         return;
+      }
+
+      int[] snake = FindMiddleSnake(aLo, aHi, bLo, bHi);
+      AlignMyers(aLo, snake[0], bLo, snake[1]);
+      for (int x = snake[0], y = snake[1]; x < snake[2]; x++, y++)
+      {
+         MatchesA[x] = y;
+      }
+      AlignMyers(snake[2], aHi, snake[3], bHi);
+   }
+
+   /**
+    * Finds the middle snake of an optimal path through two ranges of lines, by
+    * running the greedy algorithm forward from the start and in reverse from the
+    * end until the two paths meet
+    *
+    * @param aLo
+    *           First line of the range of A
+    * @param aHi
+    *           Line after the range of A
+    * @param bLo
+    *           First line of the range of B
+    * @param bHi
+    *           Line after the range of B
+    * @return Start line of A, start line of B, end line of A and end line of B
+    *         of the snake
+    */
+   private int[] FindMiddleSnake(int aLo, int aHi, int bLo, int bHi)
+   {
+      int n = aHi - aLo;
+      int m = bHi - bLo;
+      int delta = n - m;
+      boolean oddDelta = (delta & 1) != 0;
+      int maxD = (n + m + 1) / 2;
+
+      ForwardV[VOffset + 1] = 0;
+      ReverseV[VOffset + 1] = 0;
+
+      for (int d = 0; d <= maxD; d++)
+      {
+         // Extend the forward paths, x and y are offsets from the range start
+         for (int k = -d; k <= d; k += 2)
+         {
+            int x;
+            if (k == -d || (k != d && ForwardV[VOffset + k - 1] < ForwardV[VOffset + k + 1]))
+            {
+               x = ForwardV[VOffset + k + 1];
+            }
+            else
+            {
+               x = ForwardV[VOffset + k - 1] + 1;
+            }
+            int y = x - k;
+            int startX = x;
+            int startY = y;
+            while (x < n && y < m && LinesA[aLo + x] == LinesB[bLo + y])
+            {
+               x++;
+               y++;
+            }
+            ForwardV[VOffset + k] = x;
+
+            if (oddDelta && Math.abs(delta - k) <= d - 1 && x + ReverseV[VOffset + delta - k] >= n)
+            {
+               return new int[] { aLo + startX, bLo + startY, aLo + x, bLo + y };
+            }
+         }
+
+         // Extend the reverse paths, x and y are offsets from the range end
+         for (int k = -d; k <= d; k += 2)
+         {
+            int x;
+            if (k == -d || (k != d && ReverseV[VOffset + k - 1] < ReverseV[VOffset + k + 1]))
+            {
+               x = ReverseV[VOffset + k + 1];
+            }
+            else
+            {
+               x = ReverseV[VOffset + k - 1] + 1;
+            }
+            int y = x - k;
+            int startX = x;
+            int startY = y;
+            while (x < n && y < m && LinesA[aHi - 1 - x] == LinesB[bHi - 1 - y])
+            {
+               x++;
+               y++;
+            }
+            ReverseV[VOffset + k] = x;
+
+            if (!oddDelta && Math.abs(delta - k) <= d && x + ForwardV[VOffset + delta - k] >= n)
+            {
+               return new int[] { aHi - x, bHi - y, aHi - startX, bHi - startY };
+            }
+         }
+      }
+
+      // Not reached, the paths always meet by maxD
+      return new int[] { aLo, bLo, aLo, bLo };
+   }
+
+   /**
+    * Aligns two ranges of lines with patience diff. The lines that appear once
+    * in each range are aligned along their longest increasing sequence, and
+    * the gaps between them are aligned recursively.
+    *
+    * @param aLo
+    *           First line of the range of A
+    * @param aHi
+    *           Line after the range of A
+    * @param bLo
+    *           First line of the range of B
+    * @param bHi
+    *           Line after the range of B
+    */
+   private void AlignPatience(int aLo, int aHi, int bLo, int bHi)
+   {
+      // Align the common prefix and suffix
+      while (aLo < aHi && bLo < bHi && LinesA[aLo] == LinesB[bLo])
+      {
+         MatchesA[aLo++] = bLo++;
+      }
+      while (aLo < aHi && bLo < bHi && LinesA[aHi - 1] == LinesB[bHi - 1])
+      {
+         MatchesA[--aHi] = --bHi;
+      }
+
+      if (aLo == aHi || bLo == bHi)
+      {
+         return;
+      }
+
+      ArrayList<int[]> anchors = FindUniqueAnchors(aLo, aHi, bLo, bHi);
+      if (anchors.isEmpty())
+      {
+         AlignMyers(aLo, aHi, bLo, bHi);
+         return;
+      }
+
+      int prevA = aLo;
+      int prevB = bLo;
+      for (int[] anchor : anchors)
+      {
+         AlignPatience(prevA, anchor[0], prevB, anchor[1]);
+         MatchesA[anchor[0]] = anchor[1];
+         prevA = anchor[0] + 1;
+         prevB = anchor[1] + 1;
+      }
+      AlignPatience(prevA, aHi, prevB, bHi);
+   }
+
+   /**
+    * Finds the lines appearing exactly once in each of two ranges, and keeps
+    * the longest sequence of them that is in the same order in both ranges
+    *
+    * @param aLo
+    *           First line of the range of A
+    * @param aHi
+    *           Line after the range of A
+    * @param bLo
+    *           First line of the range of B
+    * @param bHi
+    *           Line after the range of B
+    * @return Pairs of line indexes of A and B, in increasing order
+    */
+   private ArrayList<int[]> FindUniqueAnchors(int aLo, int aHi, int bLo, int bHi)
+   {
+      // For each line, its number of occurrences in A and B and its indexes
+      HashMap<Integer, int[]> occurrences = new HashMap<Integer, int[]>();
+      for (int i = aLo; i < aHi; i++)
+      {
+         int[] occ = occurrences.computeIfAbsent(LinesA[i], line -> new int[] { 0, 0, -1, -1 });
+         occ[0]++;
+         occ[2] = i;
+      }
+      for (int j = bLo; j < bHi; j++)
+      {
+         int[] occ = occurrences.get(LinesB[j]);
+         if (occ != null)
+         {
+            occ[1]++;
+            occ[3] = j;
+         }
+      }
+
+      // Unique lines in the order of A, identified by their index in B
+      ArrayList<Integer> uniqueA = new ArrayList<Integer>();
+      for (int i = aLo; i < aHi; i++)
+      {
+         int[] occ = occurrences.get(LinesA[i]);
+         if (occ[0] == 1 && occ[1] == 1)
+         {
+            uniqueA.add(i);
+         }
+      }
+
+      // Patience sorting: pile tops hold the smallest B index ending an
+      // increasing sequence of each length, with a back link to the previous
+      // element of that sequence
+      int[] pileTops = new int[uniqueA.size()];
+      int[] backLinks = new int[uniqueA.size()];
+      int numPiles = 0;
+      for (int u = 0; u < uniqueA.size(); u++)
+      {
+         int b = occurrences.get(LinesA[uniqueA.get(u)])[3];
+         int lo = 0;
+         int hi = numPiles;
+         while (lo < hi)
+         {
+            int mid = (lo + hi) >>> 1;
+            if (occurrences.get(LinesA[uniqueA.get(pileTops[mid])])[3] < b)
+            {
+               lo = mid + 1;
+            }
+            else
+            {
+               hi = mid;
+            }
+         }
+         backLinks[u] = lo > 0 ? pileTops[lo - 1] : -1;
+         pileTops[lo] = u;
+         if (lo == numPiles)
+         {
+            numPiles++;
+         }
+      }
+
+      ArrayList<int[]> anchors = new ArrayList<int[]>();
+      for (int u = numPiles > 0 ? pileTops[numPiles - 1] : -1; u >= 0; u = backLinks[u])
+      {
+         int i = uniqueA.get(u);
+         anchors.add(new int[] { i, occurrences.get(LinesA[i])[3] });
+      }
+      Collections.reverse(anchors);
+
+      return anchors;
+   }
+}
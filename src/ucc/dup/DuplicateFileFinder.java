@@ -1,11 +1,18 @@
 package ucc.dup;
 
-import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
 import ucc.datatypes.UCCFile;
+import ucc.main.RuntimeParameters;
 import ucc.utils.ChecksumUtils;
 import ucc.utils.FileUtils;
+import ucc.utils.ParallelRunner;
 import ucc.utils.ProgressVisualizer;
 import ucc.utils.TimeUtils;
 
@@ -19,9 +26,15 @@ import ucc.utils.TimeUtils;
  */
 public class DuplicateFileFinder
 {
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(DuplicateFileFinder.class);
+
+   /** Get a handle to the single instance of RuntimeParameters object */
+   private static RuntimeParameters RtParams = RuntimeParameters.GetInstance();
+
    /**
-    * Identifies any duplicate files within a baseline based on the checksum of
-    * the file
+    * Identifies any duplicate files within a baseline based on the size and
+    * checksum of the file
     *
     * @param cntrResults
     *           contains the list of results found in UCCFile
@@ -34,73 +47,50 @@ public class DuplicateFileFinder
 
          long startTime = 0;
          long endTime = 0;
-         long fileLength = 0;
-         File file;
+         long[] fileLengths = new long[cntrResults.size()];
 
          startTime = TimeUtils.GetTime();
-
-         // Loop through all of the files in the counter results object
-         for (int i = 0; i < cntrResults.size(); i++)
-         {
-            file = new File(cntrResults.get(i).FileName);
-            fileLength = file.length();
-
-            // If the length of the file is greater than zero
-            if (fileLength > 0)
-            {
-               // If the file has an associated language property
-               if (cntrResults.get(i).LangProperty != null)
-               {
-                  // Get the checksum of the file
-                  cntrResults.get(i).FileChecksum = ChecksumUtils.GetFileChecksum(file);
-               }
-            }
-         }
+         boolean[] checksummed = CalcFileChecksums(cntrResults, fileLengths);
          endTime = TimeUtils.GetTime();
          TimeUtils.PrintElapsedTime(startTime, endTime, "Checksum calculation");
 
          startTime = TimeUtils.GetTime();
 
+         // Index of the first file seen with each size and checksum
+         HashMap<Long, HashMap<Long, Integer>> firstFileIdxs = new HashMap<Long, HashMap<Long, Integer>>();
+
          // Loop through all of the files in the counter results object
-         for (int i = 0; i < cntrResults.size() - 1; i++)
+         for (int i = 0; i < cntrResults.size(); i++)
          {
-            // Only check for duplicates if the file is not a duplicate of
-            // another file
-            if (!cntrResults.get(i).IsDup)
+            // If the file has an associated language property and is either
+            // empty or was checksummed because another file has its size
+            if (cntrResults.get(i).LangProperty != null && (fileLengths[i] == 0 || checksummed[i]))
             {
-               for (int j = i + 1; j < cntrResults.size(); j++)
+               HashMap<Long, Integer> sameLengthIdxs = firstFileIdxs.computeIfAbsent(fileLengths[i],
+                        length -> new HashMap<Long, Integer>());
+               Integer firstIdx = sameLengthIdxs.get(cntrResults.get(i).FileChecksum);
+
+               // Files are duplicate of each other if their checksums match
+               if (firstIdx != null)
                {
-                  // If the files have associated language properties
-                  if (cntrResults.get(i).LangProperty != null && cntrResults.get(j).LangProperty != null)
-                  {
-                     // Files are duplicate of each other if their checksums
-                     // match
-                     if (cntrResults.get(i).FileChecksum == cntrResults.get(j).FileChecksum)
-                     {
-                        // Mark the second file as duplicate of the first file
-                        cntrResults.get(j).IsDup = true;
-
-                        // Save the index of the first file as the duplicate of
-                        // index
-                        cntrResults.get(j).DupOfIdx = i;
-
-                        // Set the duplicate code percentage to 100% since the
-                        // files are identical
-                        cntrResults.get(j).DupCodePercent = 100.0;
-                     }
-                  }
+                  // Mark the file as duplicate of the first file
+                  cntrResults.get(i).IsDup = true;
 
-                  // Print the progress to the screen for duplicate
-                  // identification
-                  progressVisualizer
-                           .printProgressBarWithThreshold((j + i * ((cntrResults.size() - 1) * cntrResults.size()))
-                                    / (double) ((cntrResults.size() - 1) * cntrResults.size()));
+                  // Save the index of the first file as the duplicate of index
+                  cntrResults.get(i).DupOfIdx = firstIdx;
+
+                  // Set the duplicate code percentage to 100% since the files
+                  // are identical
+                  cntrResults.get(i).DupCodePercent = 100.0;
+               }
+               else if (!cntrResults.get(i).IsDup)
+               {
+                  sameLengthIdxs.put(cntrResults.get(i).FileChecksum, i);
                }
             }
 
             // Print the progress to the screen for duplicate identification
-            progressVisualizer.printProgressBarWithThreshold((i * ((cntrResults.size() - 1) * cntrResults.size()))
-                     / (double) ((cntrResults.size() - 1) * cntrResults.size()));
+            progressVisualizer.printProgressBarWithThreshold(i / (double) cntrResults.size());
          }
 
          // Print the progress to the screen for duplicate identification
@@ -112,7 +102,105 @@ public class DuplicateFileFinder
    }
 
    /**
-    * Finds duplicate code amongst files
+    * Calculates the checksums of the files that may be duplicates. Only files
+    * sharing their size with another file can be duplicates, and of those only
+    * the ones whose first CHECKSUM_PREFIX_SIZE bytes match another file's are
+    * read completely. The differencer and the duplicate code check compare the
+    * checksums of any two files, so with either of them every file is
+    * checksummed.
+    *
+    * @param cntrResults
+    *           contains the list of results found in UCCFile
+    * @param fileLengths
+    *           Receives the size of each file
+    * @return For each file, whether its FileChecksum was calculated
+    */
+   private static boolean[] CalcFileChecksums(ArrayList<UCCFile> cntrResults, long[] fileLengths)
+   {
+      boolean[] checksummed = new boolean[cntrResults.size()];
+      boolean checksumAll = RtParams.DiffCode || (RtParams.SearchForDups && RtParams.DupThreshold > 0);
+
+      // Group the non-empty files with an associated language property by size
+      HashMap<Long, ArrayList<Integer>> sameLengthIdxs = new HashMap<Long, ArrayList<Integer>>();
+      for (int i = 0; i < cntrResults.size(); i++)
+      {
+         fileLengths[i] = FileUtils.GetFileSize(cntrResults.get(i).FileName);
+
+         if (fileLengths[i] > 0 && cntrResults.get(i).LangProperty != null)
+         {
+            sameLengthIdxs.computeIfAbsent(fileLengths[i], length -> new ArrayList<Integer>()).add(i);
+         }
+      }
+
+      ArrayList<Integer> prefixIdxs = new ArrayList<Integer>();
+      ArrayList<Integer> fullIdxs = new ArrayList<Integer>();
+      for (ArrayList<Integer> idxs : sameLengthIdxs.values())
+      {
+         if (checksumAll || (idxs.size() > 1 && fileLengths[idxs.get(0)] <= Constants.CHECKSUM_PREFIX_SIZE))
+         {
+            fullIdxs.addAll(idxs);
+         }
+         else if (idxs.size() > 1)
+         {
+            prefixIdxs.addAll(idxs);
+         }
+      }
+
+      // Large files of the same size are only read completely if their first
+      // bytes match
+      long[] prefixChecksums = new long[cntrResults.size()];
+      RunInParallel(prefixIdxs,
+               i -> prefixChecksums[i] = ChecksumUtils.GetFilePrefixChecksum(cntrResults.get(i).FileName));
+
+      for (ArrayList<Integer> idxs : sameLengthIdxs.values())
+      {
+         if (!checksumAll && idxs.size() > 1 && fileLengths[idxs.get(0)] > Constants.CHECKSUM_PREFIX_SIZE)
+         {
+            HashMap<Long, ArrayList<Integer>> samePrefixIdxs = new HashMap<Long, ArrayList<Integer>>();
+            for (int i : idxs)
+            {
+               samePrefixIdxs.computeIfAbsent(prefixChecksums[i], prefix -> new ArrayList<Integer>()).add(i);
+            }
+
+            for (ArrayList<Integer> candidates : samePrefixIdxs.values())
+            {
+               if (candidates.size() > 1)
+               {
+                  fullIdxs.addAll(candidates);
+               }
+            }
+         }
+      }
+
+      RunInParallel(fullIdxs, i ->
+      {
+         cntrResults.get(i).FileChecksum = ChecksumUtils.GetFileChecksum(cntrResults.get(i).FileName);
+         checksummed[i] = true;
+      });
+
+      return checksummed;
+   }
+
+   /**
+    * Runs a task for each of the given file indexes, spread over the number of
+    * threads given with -threads. If the task fails for a file, the run fails
+    * as it would in a single threaded run.
+    *
+    * @param idxs
+    *           Indexes of the files to run the task for
+    * @param task
+    *           Task to run, it must only update the given file
+    */
+   private static void RunInParallel(ArrayList<Integer> idxs, IntConsumer task)
+   {
+      ParallelRunner.Run("checksum", idxs.size(), RtParams.NumThreads, (worker, n) -> task.accept(idxs.get(n)));
+   }
+
+   /**
+    * Finds duplicate code amongst files with the same name. A file is a
+    * duplicate of an earlier file if at least the threshold percentage of its
+    * checksummed lines can be paired with distinct equal lines of the earlier
+    * file.
     * 
     * @param cntrResults
     *           An array of UCC file objects containing counter information for
@@ -124,96 +212,199 @@ public class DuplicateFileFinder
    {
       ProgressVisualizer progressVisualizer = new ProgressVisualizer("Performing duplicate checking");
 
-      double dupPercent = 0.0;
-      ArrayList<Integer> fileAChecksums = new ArrayList<Integer>();
-      ArrayList<Integer> fileBChecksums = new ArrayList<Integer>();
-      String filenameA;
-      String filenameB;
+      // Group the files that can be checked by name, in index order
+      HashMap<String, ArrayList<Integer>> sameNameIdxs = new HashMap<String, ArrayList<Integer>>();
+      for (int i = 0; i < cntrResults.size(); i++)
+      {
+         if (IsDupCodeCandidate(cntrResults.get(i)))
+         {
+            sameNameIdxs.computeIfAbsent(FileUtils.GetFileName(cntrResults.get(i).FileName),
+                     name -> new ArrayList<Integer>()).add(i);
+         }
+      }
 
-      // Loop through files 0 through N-1...
-      for (int i = 0; i < cntrResults.size() - 1; i++)
+      int numChecked = 0;
+      for (ArrayList<Integer> idxs : sameNameIdxs.values())
       {
-         // If file A has an associated language property, is not a duplicate,
-         // has some checksummed lines, and is not an
-         // embedded language file
-         if (cntrResults.get(i).LangProperty != null && !cntrResults.get(i).IsDup
-                  && cntrResults.get(i).FileLineChecksum.size() > 0 && cntrResults.get(i).EmbOfIdx == -1)
+         // Loop through files 0 through N-1 of the group...
+         for (int a = 0; a < idxs.size() - 1; a++)
          {
-            // Loop through files 1 through N
-            for (int j = i + 1; j < cntrResults.size(); j++)
+            UCCFile fileA = cntrResults.get(idxs.get(a));
+
+            // Skip file A if it was found to be a duplicate of an earlier file
+            if (fileA.IsDup)
             {
-               // Zero out the arrayLists
-               fileAChecksums.clear();
-               fileBChecksums.clear();
-
-               // If file B has an associated language property, is not a
-               // duplicate, has some checksummed lines, and is
-               // not an
-               // embedded language file
-               if (cntrResults.get(j).LangProperty != null && !cntrResults.get(j).IsDup
-                        && cntrResults.get(j).FileLineChecksum.size() > 0 && cntrResults.get(j).EmbOfIdx == -1)
+               continue;
+            }
+
+            // Number of times each checksum occurs in file A
+            HashMap<Integer, Integer> fileAChecksumCnts = CountChecksums(fileA.FileLineChecksum);
+
+            // Loop through files a+1 through N of the group
+            for (int b = a + 1; b < idxs.size(); b++)
+            {
+               UCCFile fileB = cntrResults.get(idxs.get(b));
+
+               if (fileB.IsDup)
+               {
+                  continue;
+               }
+
+               double dupPercent = CalcDupCodePercent(fileAChecksumCnts, fileB.FileLineChecksum);
+
+               // If the duplicate percent is greater than our threshold...
+               if (dupPercent >= dupThreshold)
+               {
+                  fileB.IsDup = true;
+                  fileB.DupOfIdx = idxs.get(a);
+
+                  // Set duplicate code percentage of the file
+                  fileB.DupCodePercent = dupPercent;
+               }
+            }
+
+            // Print the progress to the screen for duplicate checking
+            progressVisualizer.printProgressBarWithThreshold(++numChecked / (double) cntrResults.size());
+         }
+      }
+
+      // Print the progress to the screen for duplicate checking
+      progressVisualizer.printProgressBarWithThreshold(ProgressVisualizer.DONE);
+   }
+
+   /**
+    * Finds duplicate code amongst files regardless of their names. Files are
+    * summarized by MinHash signatures of their line checksums and only files
+    * whose signatures share a band are compared. A file is a duplicate of the
+    * first earlier file whose estimated Jaccard similarity, and then whose
+    * duplicate code percentage, reaches the threshold. Files already found to
+    * be duplicates are skipped, so this is meant to run after
+    * FindDuplicateCode.
+    * 
+    * @param cntrResults
+    *           An array of UCC file objects containing counter information for
+    *           files
+    * @param dupThreshold
+    *           A threshold for duplicate code identification
+    */
+   public static void FindNearDuplicateCode(ArrayList<UCCFile> cntrResults, double dupThreshold)
+   {
+      ProgressVisualizer progressVisualizer = new ProgressVisualizer("Performing near duplicate checking");
+
+      MinHashIndex index = new MinHashIndex(dupThreshold / 100.0);
+      HashMap<Integer, long[]> signatures = new HashMap<Integer, long[]>();
+
+      for (int i = 0; i < cntrResults.size(); i++)
+      {
+         UCCFile fileB = cntrResults.get(i);
+
+         if (IsDupCodeCandidate(fileB))
+         {
+            long[] signatureB = MinHashIndex.ComputeSignature(fileB.FileLineChecksum);
+
+            // Compare with earlier files in index order, the first match wins
+            for (int idxA : index.GetCandidates(signatureB))
+            {
+               double similarity = MinHashIndex.EstimateSimilarity(signatures.get(idxA), signatureB);
+
+               // The estimate is only a filter, the duplicate code percentage
+               // is calculated the same way as for files of the same name
+               if (similarity * 100.0 >= dupThreshold)
                {
-                  // If file A has the same name as file B
-                  filenameA = FileUtils.GetFileName(cntrResults.get(i).FileName);
-                  filenameB = FileUtils.GetFileName(cntrResults.get(j).FileName);
+                  double dupPercent = CalcDupCodePercent(CountChecksums(cntrResults.get(idxA).FileLineChecksum),
+                           fileB.FileLineChecksum);
 
-                  if (filenameA.equals(filenameB))
+                  if (dupPercent >= dupThreshold)
                   {
-                     // Loop through all the checksummed lines in file A
-                     for (int k = 0; k < cntrResults.get(i).FileLineChecksum.size(); k++)
-                     {
-                        // Loop through all the checksummed lines in file B
-                        for (int l = 0; l < cntrResults.get(j).FileLineChecksum.size(); l++)
-                        {
-                           // If the A arrayList doesn't already contain the k
-                           // element
-                           // and If the B arrayList doesn't already contain the
-                           // l element
-                           // and If the checksums match
-                           if (!fileAChecksums.contains(k) && !fileBChecksums.contains(l)
-                                    && cntrResults.get(i).FileLineChecksum.get(k)
-                                             .equals(cntrResults.get(j).FileLineChecksum.get(l)))
-                           {
-                              // Add k and l to their respective lists
-                              fileAChecksums.add(k);
-                              fileBChecksums.add(l);
-                           }
-                        }
-                     }
-
-                     // Get the duplicate percent of file B (number of matched
-                     // checksums / total number of checksums)
-                     dupPercent = (double) (((double) fileBChecksums.size()
-                              / (double) cntrResults.get(j).FileLineChecksum.size()) * 100.0);
-
-                     // If the duplicate percent is greater than our
-                     // threshold...
-                     if (dupPercent >= dupThreshold)
-                     {
-                        cntrResults.get(j).IsDup = true;
-                        cntrResults.get(j).DupOfIdx = i;
-
-                        // Set duplicate code percentage of the file
-                        cntrResults.get(j).DupCodePercent = dupPercent;
-                     }
-
-                     // Reset duplicate percent variables
-                     dupPercent = 0.0;
+                     fileB.IsDup = true;
+                     fileB.DupOfIdx = idxA;
+
+                     // Set duplicate code percentage of the file
+                     fileB.DupCodePercent = dupPercent;
+                     break;
                   }
                }
+            }
 
-               // Print the progress to the screen for duplicate checking
-               progressVisualizer.printProgressBarWithThreshold((j + i * (cntrResults.size() - 1))
-                        / ((double) ((cntrResults.size() - 1) * cntrResults.size())));
+            // Only files that are not duplicates can be duplicated by later
+            // files
+            if (!fileB.IsDup)
+            {
+               index.Add(i, signatureB);
+               signatures.put(i, signatureB);
             }
          }
 
-         // Print the progress to the screen for duplicate checking
-         progressVisualizer.printProgressBarWithThreshold(
-                  (i * (cntrResults.size() - 1)) / ((double) ((cntrResults.size() - 1) * cntrResults.size())));
+         // Print the progress to the screen for near duplicate checking
+         progressVisualizer.printProgressBarWithThreshold(i / (double) cntrResults.size());
       }
 
-      // Print the progress to the screen for duplicate checking
+      // Print the progress to the screen for near duplicate checking
       progressVisualizer.printProgressBarWithThreshold(ProgressVisualizer.DONE);
    }
+
+   /**
+    * Calculates the percentage of the lines of file B that can be paired with
+    * distinct equal lines of file A
+    * 
+    * @param fileAChecksumCnts
+    *           Number of times each checksum occurs in file A
+    * @param fileBChecksums
+    *           Checksums of the lines of file B
+    * @return The duplicate code percentage of file B
+    */
+   private static double CalcDupCodePercent(HashMap<Integer, Integer> fileAChecksumCnts,
+            ArrayList<Integer> fileBChecksums)
+   {
+      // Pair each line of file B with an unpaired equal line of file A
+      HashMap<Integer, Integer> pairedCnts = new HashMap<Integer, Integer>();
+      int numPaired = 0;
+      for (Integer checksum : fileBChecksums)
+      {
+         int numInA = fileAChecksumCnts.getOrDefault(checksum, 0);
+         int numUsed = pairedCnts.getOrDefault(checksum, 0);
+         if (numUsed < numInA)
+         {
+            pairedCnts.put(checksum, numUsed + 1);
+            numPaired++;
+         }
+      }
+
+      // Get the duplicate percent of file B (number of matched checksums /
+      // total number of checksums)
+      return (double) (((double) numPaired / (double) fileBChecksums.size()) * 100.0);
+   }
+
+   /**
+    * Checks whether a file takes part in the duplicate code check. It must have
+    * an associated language property, not be a duplicate, have some
+    * checksummed lines and not be an embedded language file.
+    * 
+    * @param cntrResult
+    *           The file to check
+    * @return True if the file is checked for duplicate code
+    */
+   private static boolean IsDupCodeCandidate(UCCFile cntrResult)
+   {
+      return cntrResult.LangProperty != null && !cntrResult.IsDup && cntrResult.FileLineChecksum.size() > 0
+               && cntrResult.EmbOfIdx == -1;
+   }
+
+   /**
+    * Counts how many times each checksum occurs in a list of line checksums
+    * 
+    * @param lineChecksums
+    *           Checksums of the lines of a file
+    * @return A map from checksum to its number of occurrences
+    */
+   private static HashMap<Integer, Integer> CountChecksums(ArrayList<Integer> lineChecksums)
+   {
+      HashMap<Integer, Integer> checksumCnts = new HashMap<Integer, Integer>();
+      for (Integer checksum : lineChecksums)
+      {
+         checksumCnts.merge(checksum, 1, Integer::sum);
+      }
+
+      return checksumCnts;
+   }
 }
@@ -0,0 +1,249 @@
+package ucc.dup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+/**
+ * MinHashIndex class finds files whose sets of line checksums are likely to be
+ * similar without comparing every pair of files. Each file is summarized by a
+ * MinHash signature, whose slots agree between two files with a probability
+ * equal to the Jaccard similarity of their line sets. The signature is cut
+ * into bands and files sharing any band are returned as candidates
+ * (locality-sensitive hashing).
+ *
+ * <p>
+ * Signatures can also be computed over the multisets of line checksums, by
+ * numbering the repeats of each line, so that files with many repeated lines
+ * are compared by how many of their lines are common.
+ *
+ * <p>
+ * The number of rows per band is chosen from the similarity threshold so that
+ * files near the threshold are very likely to share a band.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class MinHashIndex
+{
+   /** Number of slots of a MinHash signature */
+   public static final int SIGNATURE_SIZE = 64;
+
+   /** Multipliers of the hash functions, one per signature slot */
+   private static final long[] HashMultipliers = new long[SIGNATURE_SIZE];
+
+   /** Offsets of the hash functions, one per signature slot */
+   private static final long[] HashOffsets = new long[SIGNATURE_SIZE];
+
+   static
+   {
+      // Fixed seeds so that results are reproducible from run to run
+      long seed = 0x9E3779B97F4A7C15L;
+      for (int k = 0; k < SIGNATURE_SIZE; k++)
+      {
+         seed = Mix(seed + k);
+         HashMultipliers[k] = seed | 1L;
+         seed = Mix(seed + k);
+         HashOffsets[k] = seed;
+      }
+   }
+
+   /** Number of signature slots per band */
+   private int RowsPerBand;
+
+   /** For each band, the files indexed under each band value */
+   private ArrayList<HashMap<Long, ArrayList<Integer>>> Bands;
+
+   /**
+    * Constructor to instantiate an empty index
+    *
+    * @param similarityThreshold
+    *           Minimum Jaccard similarity, between 0 and 1, of the files to
+    *           find
+    */
+   public MinHashIndex(double similarityThreshold)
+   {
+      // Use the longest bands whose similarity turning point, (1 / bands) ^ (1
+      // / rows), stays well below the threshold
+      RowsPerBand = 1;
+      for (int rows = 2; rows <= SIGNATURE_SIZE / 2; rows *= 2)
+      {
+         double bands = SIGNATURE_SIZE / rows;
+         if (Math.pow(1.0 / bands, 1.0 / rows) <= similarityThreshold * 0.8)
+         {
+            RowsPerBand = rows;
+         }
+      }
+
+      Bands = new ArrayList<HashMap<Long, ArrayList<Integer>>>();
+      for (int b = 0; b < SIGNATURE_SIZE / RowsPerBand; b++)
+      {
+         Bands.add(new HashMap<Long, ArrayList<Integer>>());
+      }
+   }
+
+   /**
+    * Computes the MinHash signature of the distinct line checksums of a file
+    *
+    * @param lineChecksums
+    *           Checksums of the lines of the file
+    * @return The signature
+    */
+   public static long[] ComputeSignature(ArrayList<Integer> lineChecksums)
+   {
+      long[] signature = new long[SIGNATURE_SIZE];
+      Arrays.fill(signature, Long.MAX_VALUE);
+
+      for (int checksum : new HashSet<Integer>(lineChecksums))
+      {
+         AddToSignature(signature, checksum);
+      }
+
+      return signature;
+   }
+
+   /**
+    * Computes the MinHash signature of all line checksums of a file, repeated
+    * lines included. Each line is hashed together with the number of equal
+    * lines before it, so that the slots of two signatures agree with a
+    * probability equal to the number of common lines divided by the number of
+    * lines of both files less the common ones (the multiset Jaccard
+    * similarity).
+    *
+    * @param lineChecksums
+    *           Checksums of the lines of the file
+    * @return The signature
+    */
+   public static long[] ComputeMultisetSignature(ArrayList<Integer> lineChecksums)
+   {
+      long[] signature = new long[SIGNATURE_SIZE];
+      Arrays.fill(signature, Long.MAX_VALUE);
+
+      HashMap<Integer, Integer> occurrences = new HashMap<Integer, Integer>();
+      for (int checksum : lineChecksums)
+      {
+         int occurrence = occurrences.merge(checksum, 1, Integer::sum) - 1;
+         AddToSignature(signature, ((long) checksum << 32) | occurrence);
+      }
+
+      return signature;
+   }
+
+   /**
+    * Estimates the Jaccard similarity of two files from their signatures
+    *
+    * @param signatureA
+    *           Signature of the first file
+    * @param signatureB
+    *           Signature of the second file
+    * @return Fraction of the signature slots that agree, between 0 and 1
+    */
+   public static double EstimateSimilarity(long[] signatureA, long[] signatureB)
+   {
+      int numEqual = 0;
+      for (int k = 0; k < SIGNATURE_SIZE; k++)
+      {
+         if (signatureA[k] == signatureB[k])
+         {
+            numEqual++;
+         }
+      }
+
+      return numEqual / (double) SIGNATURE_SIZE;
+   }
+
+   /**
+    * Adds a file to the index
+    *
+    * @param idx
+    *           Index of the file
+    * @param signature
+    *           Signature of the file
+    */
+   public void Add(int idx, long[] signature)
+   {
+      for (int b = 0; b < Bands.size(); b++)
+      {
+         Bands.get(b).computeIfAbsent(GetBandValue(signature, b), value -> new ArrayList<Integer>()).add(idx);
+      }
+   }
+
+   /**
+    * Returns the indexed files sharing at least one band with a signature
+    *
+    * @param signature
+    *           Signature to look up
+    * @return Indexes of the candidate files in ascending order
+    */
+   public TreeSet<Integer> GetCandidates(long[] signature)
+   {
+      TreeSet<Integer> candidates = new TreeSet<Integer>();
+      for (int b = 0; b < Bands.size(); b++)
+      {
+         ArrayList<Integer> idxs = Bands.get(b).get(GetBandValue(signature, b));
+         if (idxs != null)
+         {
+            candidates.addAll(idxs);
+         }
+      }
+
+      return candidates;
+   }
+
+   /**
+    * Combines the signature slots of a band into one value
+    *
+    * @param signature
+    *           The signature
+    * @param band
+    *           Number of the band
+    * @return The band value
+    */
+   private long GetBandValue(long[] signature, int band)
+   {
+      long value = band;
+      for (int k = band * RowsPerBand; k < (band + 1) * RowsPerBand; k++)
+      {
+         value = Mix(value * 31 + signature[k]);
+      }
+
+      return value;
+   }
+
+   /**
+    * Lowers the slots of a signature to the hashes of a value where they are
+    * smaller
+    *
+    * @param signature
+    *           The signature
+    * @param value
+    *           Value to hash
+    */
+   private static void AddToSignature(long[] signature, long value)
+   {
+      for (int k = 0; k < SIGNATURE_SIZE; k++)
+      {
+         long hash = Mix(value * HashMultipliers[k] + HashOffsets[k]);
+         if (hash < signature[k])
+         {
+            signature[k] = hash;
+         }
+      }
+   }
+
+   /**
+    * Scrambles the bits of a value (the SplitMix64 finalizer)
+    *
+    * @param value
+    *           Value to scramble
+    * @return The scrambled value
+    */
+   private static long Mix(long value)
+   {
+      value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+      value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+      return value ^ (value >>> 31);
+   }
+}
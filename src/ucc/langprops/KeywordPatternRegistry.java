@@ -0,0 +1,80 @@
+package ucc.langprops;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * KeywordPatternRegistry class keeps the compiled regular expressions used by
+ * the code counters to search a language's keywords. Each LanguageProperties
+ * object owns one registry, so a pattern is compiled the first time it is
+ * needed and then shared by every file (and every counter thread) of that
+ * language.
+ *
+ * <p>
+ * Only expressions built from language properties or constant strings should
+ * be looked up here. Expressions built from the text of a line would make the
+ * registry grow without bound.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class KeywordPatternRegistry
+{
+   /** Compiled patterns keyed by their regular expression */
+   private ConcurrentHashMap<String, Pattern> Patterns;
+
+   /** Compiled whole word patterns keyed by their keyword */
+   private ConcurrentHashMap<String, Pattern> WordPatterns;
+
+   /** Compiled verbatim patterns keyed by their keyword */
+   private ConcurrentHashMap<String, Pattern> LiteralPatterns;
+
+   /**
+    * Default constructor to instantiate an empty registry
+    */
+   public KeywordPatternRegistry()
+   {
+      Patterns = new ConcurrentHashMap<String, Pattern>();
+      WordPatterns = new ConcurrentHashMap<String, Pattern>();
+      LiteralPatterns = new ConcurrentHashMap<String, Pattern>();
+   }
+
+   /**
+    * Returns the compiled pattern of a regular expression
+    *
+    * @param regEx
+    *           Regular expression to compile
+    * @return The compiled pattern
+    */
+   public Pattern GetPattern(String regEx)
+   {
+      return Patterns.computeIfAbsent(regEx, Pattern::compile);
+   }
+
+   /**
+    * Returns the compiled pattern matching a keyword as a whole word only, the
+    * same as compiling "\\b" + keyword + "\\b"
+    *
+    * @param keyword
+    *           Keyword to search
+    * @return The compiled pattern
+    */
+   public Pattern GetWordPattern(String keyword)
+   {
+      return WordPatterns.computeIfAbsent(keyword, kw -> GetPattern("\\b" + kw + "\\b"));
+   }
+
+   /**
+    * Returns the compiled pattern matching a keyword verbatim, ignoring any
+    * metacharacters it may contain, the same as compiling "\\Q" + keyword +
+    * "\\E"
+    *
+    * @param keyword
+    *           Keyword to search
+    * @return The compiled pattern
+    */
+   public Pattern GetLiteralPattern(String keyword)
+   {
+      return LiteralPatterns.computeIfAbsent(keyword, kw -> GetPattern("\\Q" + kw + "\\E"));
+   }
+}
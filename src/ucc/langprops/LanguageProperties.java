@@ -166,6 +166,11 @@ public abstract class LanguageProperties
     */
    private ArrayList<String> BoolOperands;
 
+   /**
+    * Compiled keyword patterns shared by all files of the language
+    */
+   private KeywordPatternRegistry PatternRegistry;
+
    /**
     * Default constructor to initialize language properties
     */
@@ -202,6 +207,8 @@ public abstract class LanguageProperties
       LslocKeywords = new ArrayList<String>();
       PointerKeywords = new ArrayList<String>();
       BoolOperands = new ArrayList<String>();
+
+      PatternRegistry = new KeywordPatternRegistry();
    }
 
    /**
@@ -715,4 +722,12 @@ public abstract class LanguageProperties
    {
       BoolOperands = boolOperands;
    }
+
+   /**
+    * @return the registry of compiled keyword patterns
+    */
+   public KeywordPatternRegistry GetPatternRegistry()
+   {
+      return PatternRegistry;
+   }
 }
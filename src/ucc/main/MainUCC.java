@@ -94,6 +94,17 @@ public class MainUCC
          // correctly.
          HandleNoSymLinks(argsList, "-nolinks");
 
+         // Iterate through all user entered switches options searching for
+         // optional "-exclude" and "-ignorefiles" parameters. They also have
+         // to be identified before file discovery is performed.
+         HandleExcludeRules(argsList, "-exclude", "-ignorefiles");
+
+         // Iterate through all user entered switches options searching for
+         // optional "-savebaseline" and "-loadbaseline" parameters. A loaded
+         // snapshot replaces the directory or file list of baseline A, so it
+         // has to be identified before file discovery is performed.
+         HandleBaselineSnapshots(argsList, "-savebaseline", "-loadbaseline");
+
          // capture OS name in the log in case we need to trouble-shoot
          logger.info("Operating System: " + System.getProperty("os.name"));
 
@@ -143,7 +154,8 @@ public class MainUCC
       // operation and
       // the needed data is available
       if ((RtParams.CountSLOC == true && RtParams.FileListA.size() > 0)
-               || (RtParams.DiffCode == true && RtParams.FileListA.size() > 0 && RtParams.FileListB.size() > 0))
+               || (RtParams.DiffCode == true && (RtParams.FileListA.size() > 0 || !RtParams.LoadBaselinePath.isEmpty())
+                        && RtParams.FileListB.size() > 0))
       {
          ProcessController procCntrl = new ProcessController();
          procCntrl.StartProcessController();
@@ -339,6 +351,110 @@ public class MainUCC
       }
    }
 
+   /**
+    * This method locates and handles the flags that leave files and
+    * directories out of file discovery. The exclude flag is followed by one or
+    * more patterns, up until the next flag.
+    * 
+    * @param argsList
+    *           (List&lt;String&gt;) A list of command-line arguments
+    * @param excludeFlag
+    *           (String)
+    * @param ignoreFilesFlag
+    *           (String)
+    */
+   private static void HandleExcludeRules(List<String> argsList, String excludeFlag, String ignoreFilesFlag)
+   {
+      int i = 0;
+      while (i < argsList.size())
+      {
+         if (argsList.get(i).equalsIgnoreCase(ignoreFilesFlag) == true)
+         {
+            RtParams.UseIgnoreFiles = true;
+            argsList.remove(i); // remove the flag
+         }
+         else if (argsList.get(i).equalsIgnoreCase(excludeFlag) == true)
+         {
+            argsList.remove(i); // remove the flag
+
+            int numPatterns = RtParams.ExcludePatterns.size();
+            while (i < argsList.size() && !argsList.get(i).startsWith("-"))
+            {
+               for (String pattern : argsList.remove(i).trim().split("\\s+"))
+               {
+                  RtParams.ExcludePatterns.add(pattern);
+                  logger.info("added exclude pattern = " + pattern);
+               }
+            }
+
+            if (RtParams.ExcludePatterns.size() == numPatterns)
+            {
+               System.err.println("The " + excludeFlag + " argument must be followed by one or more patterns");
+               System.out.println(ReleaseInfo.GetUsageInfo());
+               System.exit(1);
+            }
+         }
+         else
+         {
+            i++;
+         }
+      }
+   }
+
+   /**
+    * This method locates and handles the flags that save baseline A to a
+    * snapshot or load it from one. Each flag is followed by the name of the
+    * snapshot file.
+    * 
+    * @param argsList
+    *           (List&lt;String&gt;) A list of command-line arguments
+    * @param saveBaselineFlag
+    *           (String)
+    * @param loadBaselineFlag
+    *           (String)
+    */
+   private static void HandleBaselineSnapshots(List<String> argsList, String saveBaselineFlag,
+            String loadBaselineFlag)
+   {
+      int i = 0;
+      while (i < argsList.size())
+      {
+         boolean isSave = argsList.get(i).equalsIgnoreCase(saveBaselineFlag);
+         boolean isLoad = argsList.get(i).equalsIgnoreCase(loadBaselineFlag);
+         if (!isSave && !isLoad)
+         {
+            i++;
+            continue;
+         }
+
+         argsList.remove(i); // remove the flag
+         if (i >= argsList.size())
+         {
+            if (isSave)
+            {
+               System.err.println("Please specify a file name to save the baseline snapshot to");
+            }
+            else
+            {
+               System.err.println("Please specify a baseline snapshot file to load");
+            }
+            System.out.println(ReleaseInfo.GetUsageInfo());
+            System.exit(1);
+         }
+
+         if (isSave)
+         {
+            RtParams.SaveBaselinePath = argsList.remove(i);
+            logger.info("Saving baseline snapshot to " + RtParams.SaveBaselinePath);
+         }
+         else
+         {
+            RtParams.LoadBaselinePath = argsList.remove(i);
+            logger.info("Loading baseline snapshot from " + RtParams.LoadBaselinePath);
+         }
+      }
+   }
+
    /**
     * Parses user provided options, validates them, and stores them in a
     * {@link RuntimeParameters} object to be used on-the-fly by other classes.
@@ -391,7 +507,29 @@ public class MainUCC
                System.exit(0);
                break;
             case "-dir":
-               if (RtParams.DiffCode == true)
+               if (RtParams.DiffCode == true && !RtParams.LoadBaselinePath.isEmpty())
+               {
+                  // Baseline A is loaded from a snapshot, so only the
+                  // directory of baseline B is given
+                  int remainingArguments = argsList.size() - argItr.nextIndex();
+                  if (remainingArguments >= 1)
+                  {
+                     RtParams.DirPathB = argItr.next();
+
+                     // Check if user specified any file filters
+                     CheckForFileFilters(argItr);
+
+                     FileUtils.GenerateFilteredFileList(RtParams.DirPathB, RtParams.FileSpecs, RtParams.FileListB,
+                              RtParams.SkipSymbLinks);
+                  }
+                  else
+                  {
+                     System.err.println("Please specify the directory path of baseline B for differencer operation");
+                     System.out.println(ReleaseInfo.GetUsageInfo());
+                     System.exit(1);
+                  }
+               }
+               else if (RtParams.DiffCode == true)
                {
                   // Clearer logic than <index> + 2 < args.length
                   int remainingArguments = argsList.size() - argItr.nextIndex();
@@ -498,7 +636,7 @@ public class MainUCC
             case "-i2":
                if (RtParams.DiffCode == true)
                {
-                  if (fileListAFlagPresent == true)
+                  if (fileListAFlagPresent == true || !RtParams.LoadBaselinePath.isEmpty())
                   {
                      RtParams.FileListNameB = argItr.next();
                      if (FileUtils.VerifyFileList(RtParams.FileListNameB, RtParams.FileListB) == false)
@@ -535,6 +673,18 @@ public class MainUCC
                   System.exit(1);
                }
                break;
+            case "-cache":
+               if (argItr.hasNext() == true)
+               {
+                  RtParams.CacheDirPath = argItr.next();
+               }
+               else
+               {
+                  System.err.println("Please specify a count cache directory");
+                  System.out.println(ReleaseInfo.GetUsageInfo());
+                  System.exit(1);
+               }
+               break;
             case "-t":
                if (argItr.hasNext() == true)
                {
@@ -619,6 +769,49 @@ public class MainUCC
                   System.exit(1);
                }
                break;
+            case "-threads":
+               if (argItr.hasNext() == true)
+               {
+                  RtParams.NumThreads = StringToInteger(argItr.next());
+
+                  // Check bounds of number of threads
+                  if (RtParams.NumThreads == -1)
+                  {
+                     logger.error("Invalid number of threads provided. " + "Setting number of threads to default value of "
+                              + Constants.DEFAULT_NUM_THREADS);
+
+                     RtParams.NumThreads = Constants.DEFAULT_NUM_THREADS;
+                  }
+                  else if (RtParams.NumThreads < Constants.MIN_NUM_THREADS)
+                  {
+                     logger.error("Number of threads " + RtParams.NumThreads + " is not allowed. "
+                              + "Number of threads must be between " + Constants.MIN_NUM_THREADS + " and "
+                              + Constants.MAX_NUM_THREADS + ". " + "Setting number of threads to "
+                              + Constants.MIN_NUM_THREADS);
+
+                     RtParams.NumThreads = Constants.MIN_NUM_THREADS;
+                  }
+                  else if (RtParams.NumThreads > Constants.MAX_NUM_THREADS)
+                  {
+                     logger.error("Number of threads " + RtParams.NumThreads + " is not allowed. "
+                              + "Number of threads must be between " + Constants.MIN_NUM_THREADS + " and "
+                              + Constants.MAX_NUM_THREADS + ". " + "Setting number of threads to "
+                              + Constants.MAX_NUM_THREADS);
+
+                     RtParams.NumThreads = Constants.MAX_NUM_THREADS;
+                  }
+                  else
+                  {
+                     logger.info("Set number of threads to " + RtParams.NumThreads);
+                  }
+               }
+               else
+               {
+                  System.err.println("Please provide a value for number of threads");
+                  System.out.println(ReleaseInfo.GetUsageInfo());
+                  System.exit(1);
+               }
+               break;
             case "-tdup":
                if (argItr.hasNext() == true)
                {
@@ -662,6 +855,74 @@ public class MainUCC
                   System.exit(1);
                }
                break;
+            case "-diffalgo":
+               if (argItr.hasNext() == true)
+               {
+                  String algorithm = argItr.next();
+                  try
+                  {
+                     RtParams.DiffAlgo = RuntimeParameters.DiffAlgorithm.valueOf(algorithm.toUpperCase());
+                     logger.info("Set differencing algorithm to " + algorithm);
+                  }
+                  catch (IllegalArgumentException e)
+                  {
+                     logger.error("Invalid differencing algorithm " + algorithm + " provided. "
+                              + "Differencing algorithm must be one of myers, patience or legacy. "
+                              + "Setting differencing algorithm to default value of legacy");
+
+                     RtParams.DiffAlgo = RuntimeParameters.DiffAlgorithm.LEGACY;
+                  }
+               }
+               else
+               {
+                  System.err.println("Please provide a differencing algorithm");
+                  System.out.println(ReleaseInfo.GetUsageInfo());
+                  System.exit(1);
+               }
+               break;
+            case "-trename":
+               if (argItr.hasNext() == true)
+               {
+                  RtParams.RenameThreshold = StringToDouble(argItr.next());
+
+                  // Check bounds of rename threshold
+                  if (RtParams.RenameThreshold == -1.0)
+                  {
+                     logger.error("Invalid rename threshold value provided. "
+                              + "Setting rename threshold to default value of " + Constants.DEFAULT_RENAME_THRESHOLD);
+
+                     RtParams.RenameThreshold = Constants.DEFAULT_RENAME_THRESHOLD;
+                  }
+                  else if (RtParams.RenameThreshold < Constants.MIN_RENAME_THRESHOLD)
+                  {
+                     logger.error("Rename threshold value of " + RtParams.RenameThreshold + " is not allowed. "
+                              + "Rename threshold must be between " + Constants.MIN_RENAME_THRESHOLD + " and "
+                              + Constants.MAX_RENAME_THRESHOLD + ". " + "Setting rename threshold to "
+                              + Constants.MIN_RENAME_THRESHOLD);
+
+                     RtParams.RenameThreshold = Constants.MIN_RENAME_THRESHOLD;
+                  }
+                  else if (RtParams.RenameThreshold > Constants.MAX_RENAME_THRESHOLD)
+                  {
+                     logger.error("Rename threshold value of " + RtParams.RenameThreshold + " is not allowed. "
+                              + "Rename threshold must be between " + Constants.MIN_RENAME_THRESHOLD + " and "
+                              + Constants.MAX_RENAME_THRESHOLD + ". " + "Setting rename threshold to "
+                              + Constants.MAX_RENAME_THRESHOLD);
+
+                     RtParams.RenameThreshold = Constants.MAX_RENAME_THRESHOLD;
+                  }
+                  else
+                  {
+                     logger.info("Set rename threshold to " + RtParams.RenameThreshold);
+                  }
+               }
+               else
+               {
+                  System.err.println("Please provide a value for rename threshold");
+                  System.out.println(ReleaseInfo.GetUsageInfo());
+                  System.exit(1);
+               }
+               break;
             case "-cf":
                RtParams.HndlClearCaseFiles = true;
                break;
@@ -674,12 +935,24 @@ public class MainUCC
             case "-nodup":
                RtParams.SearchForDups = false;
                break;
+            case "-dupanyname":
+               RtParams.SearchForDupsAnyName = true;
+               break;
             case "-nocomplex":
                RtParams.CountCmplxMetrics = false;
                break;
             case "-nolinks":
                RtParams.SkipSymbLinks = true;
                break;
+            case "-uniquefiles":
+               RtParams.CountFilesOnce = true;
+               break;
+            case "-detectlang":
+               RtParams.DetectLanguages = true;
+               break;
+            case "-keeptemp":
+               RtParams.KeepTempFiles = true;
+               break;
             case "-import":
                if (argItr.hasNext() == true)
                {
@@ -754,6 +1027,16 @@ public class MainUCC
                break; // Will not get here
          }
       }
+
+      // Snapshots hold the LSLOC lines of baseline A, which are only kept
+      // when differencing
+      if ((!RtParams.SaveBaselinePath.isEmpty() || !RtParams.LoadBaselinePath.isEmpty())
+               && RtParams.DiffCode == false)
+      {
+         System.err.println("Please specify -d with -savebaseline or -loadbaseline");
+         System.out.println(ReleaseInfo.GetUsageInfo());
+         System.exit(1);
+      }
    }
 
    /**
@@ -1,10 +1,18 @@
 package ucc.main;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import ucc.cache.BaselineSnapshot;
+import ucc.cache.CountCache;
+import ucc.cache.UCCFileSerializer;
 import ucc.counters.*;
 import ucc.datatypes.Constants;
 import ucc.datatypes.DataTypes.LanguagePropertiesType;
@@ -19,7 +27,11 @@ import ucc.reports.CounterReporter;
 import ucc.reports.DiffReporter;
 import ucc.reports.ASCIICounterReporter;
 import ucc.reports.ASCIIDiffReporter;
+import ucc.utils.ArchiveUtils;
 import ucc.utils.FileUtils;
+import ucc.utils.GitUtils;
+import ucc.utils.LanguageDetector;
+import ucc.utils.ParallelRunner;
 import ucc.utils.ProgressVisualizer;
 import ucc.utils.TimeUtils;
 
@@ -32,8 +44,8 @@ import ucc.utils.TimeUtils;
  * two baselines.
  * 
  * <p>
- * This class will also handle multi-threading capability of UCC-X in the
- * future.
+ * Files of a baseline can be counted by several threads at once, see the
+ * -threads option.
  * 
  * @author Integrity Applications Incorporated
  * 
@@ -46,6 +58,13 @@ public class ProcessController
    /** An array of all the language properties */
    private LanguageProperties[] LangProps;
 
+   /**
+    * Language of each supported file extension, keyed by the upper case
+    * extension. Built once by SetUserExtMapping, after the user defined
+    * extensions are applied.
+    */
+   private Map<String, LanguagePropertiesType> ExtToLangMap;
+
    /**
     * An array of CodeCounter objects to be used for generating count metrics
     * for a given baseline. When differencing, this object represents baseline
@@ -109,6 +128,17 @@ public class ProcessController
     */
    private int NumLangs;
 
+   /**
+    * Cache of counting results kept between runs, or null if not used
+    */
+   private CountCache CntCache;
+
+   /**
+    * Counted files of baseline A by checksum, while baseline B is counted, so
+    * that files of baseline B with the same contents are not counted again
+    */
+   private HashMap<Long, UCCFile> CountedFilesA;
+
    /**
     * Default constructor to instantiate/initialize class member objects
     */
@@ -164,87 +194,165 @@ public class ProcessController
       LangProps[LanguagePropertiesType.R.GetIndex()] = new RLanguageProperties();
       LangProps[LanguagePropertiesType.GO.GetIndex()] = new GoLanguageProperties();
 
+      // Setup custom language properties (if used)
+      if (RtParams.UseCustomLang)
+      {
+         LangProps[LanguagePropertiesType.CUSTOM.GetIndex()] = PropertiesReader.GetCustomLangProps();
+      }
 
       // Initialize code counter objects
-      CntrObjs = new CodeCounter[NumLangs];
-      CntrObjs[LanguagePropertiesType.ADA.GetIndex()] =
+      CntrObjs = CreateCodeCounters();
+
+      // Open the count cache (if used). Custom language definitions can change
+      // between runs without notice, so their counts are never cached.
+      if (!RtParams.CacheDirPath.isEmpty())
+      {
+         if (RtParams.UseCustomLang)
+         {
+            logger.info("Count cache is not used with a custom language definition");
+         }
+         else
+         {
+            CntCache = new CountCache(RtParams.CacheDirPath);
+         }
+      }
+
+      // Initialize counter results object
+      CntrResults = new ArrayList<UCCFile>();
+
+      // Initialize reporter objects based on output format
+      if (RtParams.OutputFileFmt == RuntimeParameters.OutputFormat.CSV)
+      {
+         CntrRprtr = new CSVCounterReporter("", RtParams.OutputDirPath, NumLangs);
+      }
+      else
+      {
+         CntrRprtr = new ASCIICounterReporter("", RtParams.OutputDirPath, NumLangs);
+      }
+
+      // If differencer operation is selected, initialize additional objects
+      if (RtParams.DiffCode)
+      {
+         // Initialize additional counter results object(s)
+         CntrResultsB = new ArrayList<UCCFile>();
+
+         // Initialize differencer object
+         DiffObj = new Differencer();
+
+         // Initialize differencer results object
+         DiffResults = new ArrayList<DiffResultType>();
+
+         // If duplicate files are to be identified, initialize a differencer
+         // results object to store duplicate files differencer results
+         if (RtParams.SearchForDups)
+         {
+            DupDiffResults = new ArrayList<DiffResultType>();
+         }
+
+         // Initialize reporter objects based on output format
+         if (RtParams.OutputFileFmt == RuntimeParameters.OutputFormat.CSV)
+         {
+            CntrRprtr = new CSVCounterReporter("Baseline-A-", RtParams.OutputDirPath, NumLangs);
+            CntrRprtrB = new CSVCounterReporter("Baseline-B-", RtParams.OutputDirPath, NumLangs);
+
+            DiffRprtr = new CSVDiffReporter(RtParams.OutputDirPath, NumLangs);
+         }
+         else
+         {
+            CntrRprtr = new ASCIICounterReporter("Baseline-A-", RtParams.OutputDirPath, NumLangs);
+            CntrRprtrB = new ASCIICounterReporter("Baseline-B-", RtParams.OutputDirPath, NumLangs);
+
+            DiffRprtr = new ASCIIDiffReporter(RtParams.OutputDirPath, NumLangs);
+         }
+      }
+   }
+
+   /**
+    * Creates a full set of code counter objects, one per supported language.
+    * Counters keep per-file state while counting, so each counting thread must
+    * use its own set.
+    * 
+    * @return An array of CodeCounter objects indexed by language
+    */
+   private CodeCounter[] CreateCodeCounters()
+   {
+      CodeCounter[] cntrObjs = new CodeCounter[NumLangs];
+      cntrObjs[LanguagePropertiesType.ADA.GetIndex()] =
                new ADACounter(LangProps[LanguagePropertiesType.ADA.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.ASP.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.ASP.GetIndex()] =
                new ASPCounter(LangProps[LanguagePropertiesType.ASP.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.ASSEMBLY.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.ASSEMBLY.GetIndex()] =
                new AssemblyCounter(LangProps[LanguagePropertiesType.ASSEMBLY.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.BASH.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.BASH.GetIndex()] =
                new BashCounter(LangProps[LanguagePropertiesType.BASH.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.C_CPP.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.C_CPP.GetIndex()] =
                new CCPPCounter(LangProps[LanguagePropertiesType.C_CPP.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.CSHARP.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.CSHARP.GetIndex()] =
                new CSharpCounter(LangProps[LanguagePropertiesType.CSHARP.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.CSHELL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.CSHELL.GetIndex()] =
                new CShellCounter(LangProps[LanguagePropertiesType.CSHELL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.COLDFUSION.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.COLDFUSION.GetIndex()] =
                new ColdFusionCounter(LangProps[LanguagePropertiesType.COLDFUSION.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.COLDFUSION_SCRIPT.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.COLDFUSION_SCRIPT.GetIndex()] =
                new ColdFusionScriptCounter(LangProps[LanguagePropertiesType.COLDFUSION_SCRIPT.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.CSS.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.CSS.GetIndex()] =
                new CSSCounter(LangProps[LanguagePropertiesType.CSS.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.DOS_BATCH.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.DOS_BATCH.GetIndex()] =
                new DOSBatchCounter(LangProps[LanguagePropertiesType.DOS_BATCH.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.FORTRAN.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.FORTRAN.GetIndex()] =
                new FortranCounter(LangProps[LanguagePropertiesType.FORTRAN.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.HTML.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.HTML.GetIndex()] =
                new HTMLCounter(LangProps[LanguagePropertiesType.HTML.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.IDL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.IDL.GetIndex()] =
                new IDLCounter(LangProps[LanguagePropertiesType.IDL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.JAVA.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.JAVA.GetIndex()] =
                new JavaCounter(LangProps[LanguagePropertiesType.JAVA.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.JAVASCRIPT.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.JAVASCRIPT.GetIndex()] =
                new JavaScriptCounter(LangProps[LanguagePropertiesType.JAVASCRIPT.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.JSP.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.JSP.GetIndex()] =
                new JSPCounter(LangProps[LanguagePropertiesType.JSP.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.MAKEFILE.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.MAKEFILE.GetIndex()] =
                new MakefileCounter(LangProps[LanguagePropertiesType.MAKEFILE.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.MATLAB.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.MATLAB.GetIndex()] =
                new MatlabCounter(LangProps[LanguagePropertiesType.MATLAB.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.NEXTMIDAS.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.NEXTMIDAS.GetIndex()] =
                new NextMidasCounter(LangProps[LanguagePropertiesType.NEXTMIDAS.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.PASCAL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.PASCAL.GetIndex()] =
                new PascalCounter(LangProps[LanguagePropertiesType.PASCAL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.PERL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.PERL.GetIndex()] =
                new PerlCounter(LangProps[LanguagePropertiesType.PERL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.PHP.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.PHP.GetIndex()] =
                new PHPCounter(LangProps[LanguagePropertiesType.PHP.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.PYTHON.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.PYTHON.GetIndex()] =
                new PythonCounter(LangProps[LanguagePropertiesType.PYTHON.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.RUBY.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.RUBY.GetIndex()] =
                new RubyCounter(LangProps[LanguagePropertiesType.RUBY.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.SCALA.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.SCALA.GetIndex()] =
                new ScalaCounter(LangProps[LanguagePropertiesType.SCALA.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.SQL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.SQL.GetIndex()] =
                new SQLCounter(LangProps[LanguagePropertiesType.SQL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.VB.GetIndex()] = new VBCounter(LangProps[LanguagePropertiesType.VB.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.VB_SCRIPT.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.VB.GetIndex()] = new VBCounter(LangProps[LanguagePropertiesType.VB.GetIndex()]);
+      cntrObjs[LanguagePropertiesType.VB_SCRIPT.GetIndex()] =
                new VBScriptCounter(LangProps[LanguagePropertiesType.VB_SCRIPT.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.VERILOG.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.VERILOG.GetIndex()] =
                new VerilogCounter(LangProps[LanguagePropertiesType.VERILOG.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.VHDL.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.VHDL.GetIndex()] =
                new VHDLCounter(LangProps[LanguagePropertiesType.VHDL.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.XMIDAS.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.XMIDAS.GetIndex()] =
                new XmidasCounter(LangProps[LanguagePropertiesType.XMIDAS.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.XML.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.XML.GetIndex()] =
                new XMLCounter(LangProps[LanguagePropertiesType.XML.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.R.GetIndex()] = new RCounter(
+      cntrObjs[LanguagePropertiesType.R.GetIndex()] = new RCounter(
                LangProps[LanguagePropertiesType.R.GetIndex()]);
-      CntrObjs[LanguagePropertiesType.GO.GetIndex()] =
+      cntrObjs[LanguagePropertiesType.GO.GetIndex()] =
                new GoCounter(LangProps[LanguagePropertiesType.GO.GetIndex()]);
 
-      // Setup custom language properties and code counter (if used)
+      // Setup custom language code counter (if used)
       if (RtParams.UseCustomLang)
       {
-         LangProps[LanguagePropertiesType.CUSTOM.GetIndex()] = PropertiesReader.GetCustomLangProps();
-
          if ((LangProps[LanguagePropertiesType.CUSTOM.GetIndex()].GetSimilarTo()).isEmpty())
          {
-            CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+            cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                      new CodeCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
          }
          else
@@ -256,236 +364,189 @@ public class ProcessController
             switch (customLangSimilarTo)
             {
                case ADA:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new ADACounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case ASP:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new ASPCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case ASSEMBLY:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new AssemblyCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case BASH:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new BashCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case C_CPP:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new CCPPCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case CSHARP:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new CSharpCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case CSHELL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new CShellCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case COLDFUSION:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new ColdFusionCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case COLDFUSION_SCRIPT:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new ColdFusionScriptCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case CSS:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new CSSCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case DOS_BATCH:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new DOSBatchCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case FORTRAN:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new FortranCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case HTML:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new HTMLCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case IDL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new IDLCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case JAVA:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new JavaCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case JAVASCRIPT:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new JavaScriptCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case JSP:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new JSPCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case MAKEFILE:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new MakefileCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case MATLAB:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new MatlabCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case NEXTMIDAS:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new NextMidasCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case PASCAL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new PascalCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case PERL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new PerlCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case PHP:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new PHPCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case PYTHON:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new PythonCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case RUBY:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new RubyCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case SCALA:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new ScalaCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case SQL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new SQLCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case VB:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new VBCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case VB_SCRIPT:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new VBScriptCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case VERILOG:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new VerilogCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case VHDL:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new VHDLCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case XMIDAS:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new XmidasCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case XML:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new XMLCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
 
                case R:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] = new RCounter(
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] = new RCounter(
                         LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
                   
                case GO:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new GoCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
                   
                default:
-                  CntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
+                  cntrObjs[LanguagePropertiesType.CUSTOM.GetIndex()] =
                            new CodeCounter(LangProps[LanguagePropertiesType.CUSTOM.GetIndex()]);
                   break;
             }
          }
       }
 
-      // Initialize counter results object
-      CntrResults = new ArrayList<UCCFile>();
-
-      // Initialize reporter objects based on output format
-      if (RtParams.OutputFileFmt == RuntimeParameters.OutputFormat.CSV)
-      {
-         CntrRprtr = new CSVCounterReporter("", RtParams.OutputDirPath, NumLangs);
-      }
-      else
-      {
-         CntrRprtr = new ASCIICounterReporter("", RtParams.OutputDirPath, NumLangs);
-      }
-
-      // If differencer operation is selected, initialize additional objects
-      if (RtParams.DiffCode)
-      {
-         // Initialize additional counter results object(s)
-         CntrResultsB = new ArrayList<UCCFile>();
-
-         // Initialize differencer object
-         DiffObj = new Differencer();
-
-         // Initialize differencer results object
-         DiffResults = new ArrayList<DiffResultType>();
-
-         // If duplicate files are to be identified, initialize a differencer
-         // results object to store duplicate files differencer results
-         if (RtParams.SearchForDups)
-         {
-            DupDiffResults = new ArrayList<DiffResultType>();
-         }
-
-         // Initialize reporter objects based on output format
-         if (RtParams.OutputFileFmt == RuntimeParameters.OutputFormat.CSV)
-         {
-            CntrRprtr = new CSVCounterReporter("Baseline-A-", RtParams.OutputDirPath, NumLangs);
-            CntrRprtrB = new CSVCounterReporter("Baseline-B-", RtParams.OutputDirPath, NumLangs);
-
-            DiffRprtr = new CSVDiffReporter(RtParams.OutputDirPath, NumLangs);
-         }
-         else
-         {
-            CntrRprtr = new ASCIICounterReporter("Baseline-A-", RtParams.OutputDirPath, NumLangs);
-            CntrRprtrB = new ASCIICounterReporter("Baseline-B-", RtParams.OutputDirPath, NumLangs);
-
-            DiffRprtr = new ASCIIDiffReporter(RtParams.OutputDirPath, NumLangs);
-         }
-      }
+      return cntrObjs;
    }
 
    /**
@@ -539,6 +600,12 @@ public class ProcessController
             logger.error("Error!  Differencer request could not be processed");
          }
       }
+
+      // Release the archives and git repositories source files were counted
+      // from
+      ArchiveUtils.CloseArchives();
+      GitUtils.CloseRepositories();
+
       endTime = TimeUtils.GetTime();
 
       TimeUtils.PrintElapsedTime(startTime, endTime, "Total");
@@ -565,6 +632,14 @@ public class ProcessController
 
       boolean processed = false;
 
+      // Count each physical file once, reporting its other paths as aliases
+      if (RtParams.CountFilesOnce)
+      {
+         ArrayList<String[]> fileAliases = new ArrayList<String[]>();
+         fileList = FileUtils.RemoveFileAliases(fileList, fileAliases);
+         cntrRprtr.SetFileAliases(fileAliases);
+      }
+
       if (fileList.size() > 0)
       {
          if (cntrResults == null)
@@ -599,21 +674,14 @@ public class ProcessController
             long endTime = 0;
             startTime = TimeUtils.GetTime();
 
-            UCCFile cntrResult;
-
             // Count code metrics for each file
-            for (int i = 0; i < cntrResults.size(); i++)
+            if (RtParams.NumThreads > 1 && cntrResults.size() > 1)
             {
-               // Output
-               cntrResult = cntrResults.get(i);
-
-               if (cntrResult.LangProperty != null && (!cntrResult.IsDup || (cntrResult.IsDup && RtParams.DiffCode)))
-               {
-                  CntrObjs[cntrResult.LangProperty.GetIndex()].CountSLOC(cntrResults, i);
-               }
-
-               // Print the progress to the screen for code counters
-               progressVisualizer.printProgressBarWithThreshold(i / ((double) cntrResults.size()));
+               CountFilesParallel(cntrResults, progressVisualizer);
+            }
+            else
+            {
+               CountFiles(cntrResults, progressVisualizer);
             }
             // Print the progress to the screen for code counters
             progressVisualizer.printProgressBarWithThreshold(ProgressVisualizer.DONE);
@@ -621,10 +689,22 @@ public class ProcessController
             endTime = TimeUtils.GetTime();
             TimeUtils.PrintElapsedTime(startTime, endTime, "PSLOC and LSLOC Counting");
 
+            if (CntCache != null)
+            {
+               CntCache.Prune();
+               logger.info("Count cache hits: " + CntCache.GetNumHits() + ", misses: " + CntCache.GetNumMisses());
+            }
+
             // Find duplicate code amongst files
             if (RtParams.SearchForDups && RtParams.DupThreshold > 0)
             {
                DuplicateFileFinder.FindDuplicateCode(cntrResults, RtParams.DupThreshold);
+
+               // Also look for copies with a different file name
+               if (RtParams.SearchForDupsAnyName)
+               {
+                  DuplicateFileFinder.FindNearDuplicateCode(cntrResults, RtParams.DupThreshold);
+               }
             }
 
             processed = true;
@@ -644,6 +724,238 @@ public class ProcessController
       return processed;
    }
 
+   /**
+    * Loads the code count metrics of a baseline from a snapshot saved by an
+    * earlier run instead of counting its files
+    * 
+    * @param snapshotFileName
+    *           Name of the snapshot file
+    * @param cntrResults
+    *           Stores code count metrics of the baseline
+    * @param cntrRprtr
+    *           Prints code count reports of the baseline
+    * @param baseline
+    *           String containing the baseline (A or B) that is loaded
+    * @return True if the snapshot was loaded, false otherwise
+    */
+   private boolean LoadBaselineReq(String snapshotFileName, ArrayList<UCCFile> cntrResults,
+            CounterReporter cntrRprtr, String baseline)
+   {
+      long startTime = TimeUtils.GetTime();
+      if (!BaselineSnapshot.Load(snapshotFileName, baseline, cntrResults))
+      {
+         return false;
+      }
+      long endTime = TimeUtils.GetTime();
+      TimeUtils.PrintElapsedTime(startTime, endTime, "Baseline Snapshot Loading");
+
+      // Save counter results in reports
+      logger.debug("Generating counter reports...");
+      System.out.println("Generating counter reports...");
+      SaveCounterResults(cntrResults, cntrRprtr);
+
+      return true;
+   }
+
+   /**
+    * Counts code metrics for each file in the given list, one file after
+    * another, using the shared set of code counters. Embedded code files added
+    * to the list while counting are counted as well. With the count cache, or
+    * while files of baseline A can be reused, each file is counted in a
+    * private list as in CountFilesParallel, so that its embedded code files can
+    * be stored and restored with it.
+    * 
+    * @param cntrResults
+    *           Stores code count metrics for given list of files
+    * @param progressVisualizer
+    *           Prints the counting progress to the screen
+    */
+   private void CountFiles(ArrayList<UCCFile> cntrResults, ProgressVisualizer progressVisualizer)
+   {
+      UCCFile cntrResult;
+
+      if (CntCache != null || CountedFilesA != null)
+      {
+         int numFiles = cntrResults.size();
+         for (int i = 0; i < numFiles; i++)
+         {
+            ArrayList<UCCFile> embResults = CountFile(CntrObjs, cntrResults.get(i));
+            if (embResults != null)
+            {
+               for (UCCFile embResult : embResults)
+               {
+                  embResult.EmbOfIdx = i;
+                  cntrResults.add(embResult);
+               }
+            }
+
+            // Print the progress to the screen for code counters
+            progressVisualizer.printProgressBarWithThreshold(i / ((double) numFiles));
+         }
+         return;
+      }
+
+      for (int i = 0; i < cntrResults.size(); i++)
+      {
+         cntrResult = cntrResults.get(i);
+
+         if (IsCountable(cntrResult))
+         {
+            CntrObjs[cntrResult.LangProperty.GetIndex()].CountSLOC(cntrResults, i);
+         }
+
+         // Print the progress to the screen for code counters
+         progressVisualizer.printProgressBarWithThreshold(i / ((double) cntrResults.size()));
+      }
+   }
+
+   /**
+    * Counts code metrics for each file in the given list using a pool of
+    * {@link RuntimeParameters#NumThreads} worker threads. Every worker owns its
+    * own set of code counters. A file and the embedded code files extracted
+    * from it are counted by the same worker in a private list, and the
+    * embedded code files are appended to the results once all workers are
+    * done, so the order of the results matches a single threaded run. If a
+    * file cannot be counted, the run fails as it would counting the files one
+    * after another, rather than reporting partial results.
+    * 
+    * @param cntrResults
+    *           Stores code count metrics for given list of files
+    * @param progressVisualizer
+    *           Prints the counting progress to the screen
+    */
+   private void CountFilesParallel(ArrayList<UCCFile> cntrResults, ProgressVisualizer progressVisualizer)
+   {
+      final int numFiles = cntrResults.size();
+      final int numWorkers = Math.min(RtParams.NumThreads, numFiles);
+      final AtomicInteger numDone = new AtomicInteger(0);
+
+      // Embedded code files found in each file, indexed like cntrResults
+      final ArrayList<ArrayList<UCCFile>> embResults = new ArrayList<ArrayList<UCCFile>>(numFiles);
+      for (int i = 0; i < numFiles; i++)
+      {
+         embResults.add(null);
+      }
+
+      // Counters sort their language property lists when they are created,
+      // so all of them are created here before any worker starts
+      final CodeCounter[][] workerCntrObjs = new CodeCounter[numWorkers][];
+      for (int w = 0; w < numWorkers; w++)
+      {
+         workerCntrObjs[w] = (w == 0) ? CntrObjs : CreateCodeCounters();
+      }
+
+      ParallelRunner.Run("counting", numFiles, numWorkers, (worker, i) -> {
+         embResults.set(i, CountFile(workerCntrObjs[worker], cntrResults.get(i)));
+
+         int done = numDone.incrementAndGet();
+         synchronized (progressVisualizer)
+         {
+            progressVisualizer.printProgressBarWithThreshold(done / ((double) numFiles));
+         }
+      });
+
+      // Append embedded code files in the same order a serial run adds them
+      for (int i = 0; i < numFiles; i++)
+      {
+         if (embResults.get(i) != null)
+         {
+            for (UCCFile embResult : embResults.get(i))
+            {
+               embResult.EmbOfIdx = i;
+               cntrResults.add(embResult);
+            }
+         }
+      }
+   }
+
+   /**
+    * Counts code metrics of a single file, followed by any embedded code files
+    * extracted from it, with the given set of code counters. The results are
+    * copied from an identical file of baseline A, or read from the count cache,
+    * instead when possible.
+    * 
+    * @param cntrObjs
+    *           Code counters owned by the calling thread
+    * @param cntrResult
+    *           Stores code count metrics for the file
+    * @return Embedded code files that were extracted and counted, or null if
+    *         there were none
+    */
+   private ArrayList<UCCFile> CountFile(CodeCounter[] cntrObjs, UCCFile cntrResult)
+   {
+      if (!IsCountable(cntrResult))
+      {
+         return null;
+      }
+
+      if (CountedFilesA != null && cntrResult.FileChecksum != 0)
+      {
+         UCCFile countedA = CountedFilesA.get(cntrResult.FileChecksum);
+         if (countedA != null && countedA.LangProperty == cntrResult.LangProperty)
+         {
+            try
+            {
+               UCCFileSerializer.CopyCounts(countedA, cntrResult);
+               return null;
+            }
+            catch (IOException e)
+            {
+               logger.debug("Could not copy the results of " + countedA.FileName + ": " + e.getMessage());
+            }
+         }
+      }
+
+      long fileChecksum = 0;
+      if (CntCache != null)
+      {
+         fileChecksum = CountCache.GetFileChecksum(cntrResult);
+         ArrayList<UCCFile> cachedResults = CntCache.Load(cntrResult, fileChecksum);
+         if (cachedResults != null)
+         {
+            return cachedResults.isEmpty() ? null : cachedResults;
+         }
+      }
+
+      // The file is always at index 0 of its private list, embedded code files
+      // extracted from it are appended after it with EmbOfIdx set to 0
+      ArrayList<UCCFile> fileResults = new ArrayList<UCCFile>();
+      fileResults.add(cntrResult);
+
+      for (int i = 0; i < fileResults.size(); i++)
+      {
+         if (IsCountable(fileResults.get(i)))
+         {
+            cntrObjs[fileResults.get(i).LangProperty.GetIndex()].CountSLOC(fileResults, i);
+         }
+      }
+
+      if (CntCache != null)
+      {
+         CntCache.Store(cntrResult, fileResults.subList(1, fileResults.size()), fileChecksum);
+      }
+
+      if (fileResults.size() == 1)
+      {
+         return null;
+      }
+
+      return new ArrayList<UCCFile>(fileResults.subList(1, fileResults.size()));
+   }
+
+   /**
+    * Checks whether a file has to be run through a code counter
+    * 
+    * @param cntrResult
+    *           The file to check
+    * @return True if the file has a known language and is not a duplicate that
+    *         can be skipped, false otherwise
+    */
+   private boolean IsCountable(UCCFile cntrResult)
+   {
+      return cntrResult.LangProperty != null && (!cntrResult.IsDup || (cntrResult.IsDup && RtParams.DiffCode));
+   }
+
    /**
     * Performs code differencer operation
     * 
@@ -653,22 +965,45 @@ public class ProcessController
    {
       boolean processed = false;
 
-      if (RtParams.FileListA.size() > 0 && RtParams.FileListB.size() > 0)
+      if ((RtParams.FileListA.size() > 0 || !RtParams.LoadBaselinePath.isEmpty()) && RtParams.FileListB.size() > 0)
       {
          if (DiffResults == null)
          {
             DiffResults = new ArrayList<DiffResultType>();
          }
 
-         System.out.println("Processing baseline A counter request...");
-         logger.debug("Processing baseline A counter request...");
-         if (ProcessCountReq(RtParams.FileListA, CntrResults, CntrRprtr, Constants.BASELINE_A))
+         boolean processedA;
+         if (!RtParams.LoadBaselinePath.isEmpty())
+         {
+            System.out.println("Loading baseline A from " + RtParams.LoadBaselinePath + "...");
+            logger.debug("Loading baseline A from " + RtParams.LoadBaselinePath + "...");
+            processedA = LoadBaselineReq(RtParams.LoadBaselinePath, CntrResults, CntrRprtr, Constants.BASELINE_A);
+         }
+         else
+         {
+            System.out.println("Processing baseline A counter request...");
+            logger.debug("Processing baseline A counter request...");
+            processedA = ProcessCountReq(RtParams.FileListA, CntrResults, CntrRprtr, Constants.BASELINE_A);
+
+            // Save baseline A before differencing releases its LSLOC lines
+            if (processedA && !RtParams.SaveBaselinePath.isEmpty())
+            {
+               System.out.println("Saving baseline A to " + RtParams.SaveBaselinePath + "...");
+               logger.debug("Saving baseline A to " + RtParams.SaveBaselinePath + "...");
+               BaselineSnapshot.Save(CntrResults, RtParams.SaveBaselinePath);
+            }
+         }
+
+         if (processedA)
          {
             System.out.println("");
             System.out.println("");
             System.out.println("Processing baseline B counter request...");
             logger.debug("Processing baseline B counter request...");
-            if (ProcessCountReq(RtParams.FileListB, CntrResultsB, CntrRprtrB, Constants.BASELINE_B))
+            CountedFilesA = IndexCountedFiles(CntrResults);
+            boolean processedB = ProcessCountReq(RtParams.FileListB, CntrResultsB, CntrRprtrB, Constants.BASELINE_B);
+            CountedFilesA = null;
+            if (processedB)
             {
                long startTime = 0;
                long endTime = 0;
@@ -709,20 +1044,58 @@ public class ProcessController
       return processed;
    }
 
+   /**
+    * Indexes the counted files of a baseline by checksum. Only files whose
+    * checksum is known and that hold no embedded code are indexed, as the
+    * results of embedded code files are not copied.
+    * 
+    * @param cntrResults
+    *           Code count metrics of the baseline
+    * @return The counted files, by checksum
+    */
+   private HashMap<Long, UCCFile> IndexCountedFiles(ArrayList<UCCFile> cntrResults)
+   {
+      HashMap<Long, UCCFile> countedFiles = new HashMap<Long, UCCFile>();
+      for (UCCFile cntrResult : cntrResults)
+      {
+         if (cntrResult.EmbOfIdx == -1 && cntrResult.FileChecksum != 0 && cntrResult.IsCounted
+                  && !cntrResult.HasEmbCode && cntrResult.LslocLines != null)
+         {
+            countedFiles.putIfAbsent(cntrResult.FileChecksum, cntrResult);
+         }
+      }
+      return countedFiles;
+   }
+
    /**
     * Sets user defined file extension(s) for given language(s). This will
-    * override any built-in file extensions for the language(s).
+    * override any built-in file extensions for the language(s). Then builds
+    * the table mapping each file extension to its language.
     */
    private void SetUserExtMapping()
    {
+      LanguagePropertiesType[] langTypes = LanguagePropertiesType.values();
+
       for (int i = 0; i < NumLangs; i++)
       {
-         ArrayList<String> extensions = RtParams.FileExtToLangMap.get(LanguagePropertiesType.values()[i].toString());
+         ArrayList<String> extensions = RtParams.FileExtToLangMap.get(langTypes[i].toString());
          if (extensions != null)
          {
             LangProps[i].SetLangFileExts(extensions);
          }
       }
+
+      // When languages share an extension, the last language claiming it is
+      // used
+      HashMap<String, LanguagePropertiesType> extToLangMap = new HashMap<String, LanguagePropertiesType>();
+      for (int i = 0; i < NumLangs; i++)
+      {
+         for (String extension : LangProps[i].GetLangFileExts())
+         {
+            extToLangMap.put(extension.toUpperCase(), langTypes[i]);
+         }
+      }
+      ExtToLangMap = Collections.unmodifiableMap(extToLangMap);
    }
 
    /**
@@ -734,12 +1107,11 @@ public class ProcessController
     */
    private void MapFileExtToLang(ArrayList<UCCFile> cntrResult)
    {
-      ArrayList<String> supportedExtensions = new ArrayList<String>();
-
       for (int i = 0; i < cntrResult.size(); i++)
       {
          // Retrieve the file's extension from its name
-         String fileExt = FileUtils.GetFileExt(FileUtils.GetFileName(cntrResult.get(i).FileName)).toLowerCase().trim();
+         String fileName = FileUtils.GetFileName(cntrResult.get(i).FileName);
+         String fileExt = FileUtils.GetFileExt(fileName).toLowerCase().trim();
 
          // If a file extension exists, check if it maps to any of the defined
          // language file extensions
@@ -753,31 +1125,37 @@ public class ProcessController
             }
          }
 
-         if (fileExt != "" && !fileExt.isEmpty())
+         if (!fileExt.isEmpty())
          {
-            for (int k = 0; k < NumLangs; k++)
+            LanguagePropertiesType langType = ExtToLangMap.get(fileExt.toUpperCase());
+            if (langType != null)
             {
-               // Get all supported file extensions for the language
-               supportedExtensions = LangProps[k].GetLangFileExts();
-
-               for (int j = 0; j < supportedExtensions.size(); j++)
-               {
-                  if (supportedExtensions.get(j).toUpperCase().equals(fileExt.toUpperCase()))
-                  {
-                     cntrResult.get(i).LangProperty = LanguagePropertiesType.values()[k];
-                     break; // Exit the loop once we find a match
-                  }
-               }
+               cntrResult.get(i).LangProperty = langType;
             }
          }
          else // Special case for Makefiles
          {
-            String fileName = FileUtils.GetFileName(cntrResult.get(i).FileName).toLowerCase();
-            if (fileName.contains("makefile"))
+            if (fileName.toLowerCase().contains("makefile"))
             {
                cntrResult.get(i).LangProperty = LanguagePropertiesType.MAKEFILE;
             }
          }
+
+         // Detect the language from the first bytes of files without an
+         // extension and of files with an ambiguous one. Files with an
+         // unknown extension, such as backups or binaries, are not read.
+         if (RtParams.DetectLanguages
+                  && ((fileExt.isEmpty() && cntrResult.get(i).LangProperty == null)
+                           || LanguageDetector.IsAmbiguousExt(fileExt)))
+         {
+            LanguagePropertiesType langType = LanguageDetector.Detect(cntrResult.get(i).FileName);
+
+            // Languages disabled by the user are not detected
+            if (langType != null && !LangProps[langType.GetIndex()].GetLangFileExts().isEmpty())
+            {
+               cntrResult.get(i).LangProperty = langType;
+            }
+         }
       }
    }
 
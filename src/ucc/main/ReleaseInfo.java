@@ -17,10 +17,15 @@ public class ReleaseInfo
 
    /** UCC-G usage information */
    private static final String UsageInfo = "\nUsage:\n\n"
-            + " UCC-G [-v] [-h] [-d [-i1 <fileListA>] [-i2 <fileListB>] [-t <#>]]\n"
-            + "       [-tdup <#>] [-trunc <#>] [-cf]\n" + "       [-dir <dirA> [<dirB>] <filespecs> [-import <file>]]\n"
+            + " UCC-G [-v] [-h] [-d [-i1 <fileListA>] [-i2 <fileListB>] [-t <#>]\n"
+            + "       [-diffalgo <algo>] [-trename <#>]\n"
+            + "       [-savebaseline <file>] [-loadbaseline <file>]]\n"
+            + "       [-tdup <#>] [-trunc <#>] [-threads <#>] [-cf]\n" + "       [-dir <dirA> [<dirB>] <filespecs> [-import <file>]]\n"
             + "       [-outdir <outDir>] [-extfile <extFile>] [-unified] [-ascii]\n"
-            + "       [-nodup] [-nocomplex] [-nolinks] [-debug <level>] \n"
+            + "       [-nodup] [-dupanyname] [-nocomplex] [-nolinks] [-debug <level>]\n"
+            + "       [-exclude <patterns>] [-ignorefiles] [-uniquefiles]\n"
+            + "       [-detectlang]\n"
+            + "       [-keeptemp] [-cache <cacheDir>]\n"
             + "       [-export <language> -outdir <outDir>]\n\n";
 
    /**
@@ -72,6 +77,10 @@ public class ReleaseInfo
          System.out.println("                  Baseline B for comparison to Baseline A.");
          System.out.println("                  If -i2 is not specified, the file 'fileListB.txt' will be");
          System.out.println("                  used as the default if -d is specified.\n");
+         System.out.println("                  A file list may name archives, whose files are all counted,");
+         System.out.println("                  and files in archives as <archive>!/<path in archive>.");
+         System.out.println("                  Git revisions and their files are named in the same way,");
+         System.out.println("                  as <repository>@<revision> and <repository>@<revision>!/<path>.\n");
          System.out.println(" -t <#>:          Specifies the percentage of common characters between two");
          System.out.println("                  lines of code that are being compared in order to determine");
          System.out.println("                  whether the line is modified or replaced. If the percentage");
@@ -81,6 +90,33 @@ public class ReleaseInfo
          System.out.println("                  line added. Otherwise, it will be counted as one modified");
          System.out.println("                  line. The valid range is 0 to 100 and defaults to 60.");
       }
+      else if (option.equals("-diffalgo"))
+      {
+         System.out.println("\nUsage: UCC-G -d -diffalgo <algo>\n");
+         System.out.println(" -diffalgo <algo>: Selects how the LSLOC of two files are compared.");
+         System.out.println("                   legacy compares every line of one file with every line");
+         System.out.println("                   of the other, regardless of their order. myers and");
+         System.out.println("                   patience first align the two files in line order, as");
+         System.out.println("                   diff tools do, and only search the unaligned lines for");
+         System.out.println("                   modified lines. These are much faster on large files,");
+         System.out.println("                   but moved lines are counted as deleted and new.");
+         System.out.println("                   patience aligns the lines that are unique in both");
+         System.out.println("                   files first, which often follows the structure of the");
+         System.out.println("                   code better. Defaults to legacy.");
+      }
+      else if (option.equals("-trename"))
+      {
+         System.out.println("\nUsage: UCC-G -d -trename <#>\n");
+         System.out.println(" -trename <#>: Pairs files that were renamed or moved between the two");
+         System.out.println("               baselines. A baseline A file left without a pair is paired");
+         System.out.println("               with an unpaired baseline B file of the same language if");
+         System.out.println("               the percentage of LSLOC common to both files is greater");
+         System.out.println("               than or equal to the specified threshold. Candidates are");
+         System.out.println("               found with MinHash signatures of the LSLOC, so files are");
+         System.out.println("               not compared all against all. Without this option, such");
+         System.out.println("               files are reported as deleted and added. The valid range");
+         System.out.println("               is 1 to 100.");
+      }
       else if (option.equals("-tdup"))
       {
          System.out.println("\nUsage: UCC-G -tdup <#>\n");
@@ -104,6 +140,17 @@ public class ReleaseInfo
          System.out.println("             or the threshold is set too high, very long LSLOC may");
          System.out.println("             significantly degrade performance.");
       }
+      else if (option.equals("-threads"))
+      {
+         System.out.println("\nUsage: UCC-G -threads <#>\n");
+         System.out.println(" -threads <#>: Specifies the number of threads used to count the files of a");
+         System.out.println("               baseline and to difference matched file pairs. Each thread");
+         System.out.println("               counts whole files or compares whole file pairs, and the");
+         System.out.println("               results are reported in the same order as a single");
+         System.out.println("               threaded run.");
+         System.out.println("               The valid range is 1 to 256 and defaults to 1. The number");
+         System.out.println("               of available cores is shown at startup.");
+      }
       else if (option.equals("-cf"))
       {
          System.out.println("\nUsage: UCC-G -cf\n");
@@ -120,6 +167,15 @@ public class ReleaseInfo
          System.out.println("       the directories to be searched for each baseline. The fileSpecs indicate");
          System.out.println("       the file type specifications (typically containing search wildcards).");
          System.out.println("       The specified directories will be searched recursively.");
+         System.out.println("       A zip, jar, tar, tar.gz or tgz archive can be given instead of a");
+         System.out.println("       directory, its files are counted without extracting them and are");
+         System.out.println("       reported as <archive>!/<path in archive>.");
+         System.out.println("       A git revision can also be given as <repository>@<revision>, for");
+         System.out.println("       example myrepo@v1.2, its files are read from the repository without");
+         System.out.println("       a checkout and are reported as <repository>@<revision>!/<path>.");
+         System.out.println("       Files with the same contents in both baselines, from revisions,");
+         System.out.println("       directories or archives alike, are reported as unmodified without");
+         System.out.println("       being counted or compared again, unless -nodup is given.");
          System.out.println("\nRequired Parameters:\n");
          System.out.println(" <dirA>:      Specifies the directory of Baseline A to be searched for files");
          System.out.println("              to be counted or compared.\n");
@@ -144,6 +200,34 @@ public class ReleaseInfo
          System.out.println("                   overwriting output files from multiple runs and allows for");
          System.out.println("                   batch execution and output organization.");
       }
+      else if (option.equals("-savebaseline"))
+      {
+         System.out.println("\nUsage: UCC-G -d -savebaseline <file> -dir <dirA> <dirB>\n");
+         System.out.println(" -savebaseline <file>: Saves the counting results of baseline A, with the");
+         System.out.println("                       LSLOC the differencer compares, to a snapshot file.");
+         System.out.println("                       Later runs can load the snapshot with -loadbaseline");
+         System.out.println("                       instead of counting baseline A again.");
+      }
+      else if (option.equals("-loadbaseline"))
+      {
+         System.out.println("\nUsage: UCC-G -d -loadbaseline <file> -dir <dirB>");
+         System.out.println("       UCC-G -d -loadbaseline <file> -i2 <fileListB>\n");
+         System.out.println(" -loadbaseline <file>: Loads baseline A from a snapshot saved with");
+         System.out.println("                       -savebaseline instead of counting it. Only the");
+         System.out.println("                       directory or file list of baseline B is given, after");
+         System.out.println("                       this option. The snapshot must have been saved by the");
+         System.out.println("                       same version of UCC-G with the same counting options.");
+      }
+      else if (option.equals("-cache"))
+      {
+         System.out.println("\nUsage: UCC-G -cache <cacheDir>\n");
+         System.out.println(" -cache <cacheDir>: Keeps the counting results of each file in the given");
+         System.out.println("                    directory, which is created if needed. Later runs with");
+         System.out.println("                    the same options read the results of files whose size,");
+         System.out.println("                    modification time and contents did not change instead of");
+         System.out.println("                    counting them again. Entries that were not used for 30");
+         System.out.println("                    days are deleted. The cache is not used with -import.");
+      }
       else if (option.equals("-extfile"))
       {
          System.out.println("\nUsage: UCC-G -extfile <extFile>\n");
@@ -184,6 +268,16 @@ public class ReleaseInfo
          System.out.println("         results willbe reported separately. Please see the user manual for");
          System.out.println("         details.");
       }
+      else if (option.equals("-dupanyname"))
+      {
+         System.out.println("\nUsage: UCC-G -dupanyname -tdup <#>\n");
+         System.out.println(" -dupanyname: Also checks files of different names for duplicate code, for");
+         System.out.println("              example copied and renamed files. The similarity of two");
+         System.out.println("              files is estimated from MinHash signatures of their LSLOC");
+         System.out.println("              and compared with the -tdup threshold. Only files with");
+         System.out.println("              similar signatures are compared, so this remains fast on");
+         System.out.println("              large baselines. Requires -tdup.");
+      }
       else if (option.equals("-nocomplex"))
       {
          System.out.println("\nUsage: UCC-G -nocomplex\n");
@@ -196,6 +290,53 @@ public class ReleaseInfo
          System.out.println(" -nolinks: Disables following symbolic links to directories and files.");
          System.out.println("           For UNIX systems only.\n");
       }
+      else if (option.equals("-uniquefiles"))
+      {
+         System.out.println("\nUsage: UCC-G -uniquefiles\n");
+         System.out.println(" -uniquefiles: Counts each physical file once, however many paths lead to it");
+         System.out.println("               through symbolic links, hard links or bind mounts. Files are");
+         System.out.println("               told apart by device and inode. The first path of each file");
+         System.out.println("               is counted, and the other paths are listed with it in the");
+         System.out.println("               outfile_file_aliases report.");
+      }
+      else if (option.equals("-detectlang"))
+      {
+         System.out.println("\nUsage: UCC-G -detectlang\n");
+         System.out.println(" -detectlang: Detects the language of files from their first bytes when their");
+         System.out.println("              extension does not tell it: files without an extension, and");
+         System.out.println("              .in templates such as setup.py.in. Files with an unknown");
+         System.out.println("              extension are not read. The language is taken from a shebang");
+         System.out.println("              line, such as #!/usr/bin/env python3, from a vim or emacs");
+         System.out.println("              modeline, such as vim: set ft=sh: or -*- mode: perl -*-, or");
+         System.out.println("              from a leading <?php, <?xml or <html. Languages disabled with");
+         System.out.println("              -extfile are not detected.");
+      }
+      else if (option.equals("-exclude") || option.equals("-ignorefiles"))
+      {
+         System.out.println("\nUsage: UCC-G -exclude <patterns> [-ignorefiles]\n");
+         System.out.println(" -exclude <patterns>: Leaves the files and directories matching any of the");
+         System.out.println("                      patterns out when searching the -dir directories.");
+         System.out.println("                      Matching directories are not searched at all. The");
+         System.out.println("                      patterns follow the syntax of .gitignore files:");
+         System.out.println("                      '*' and '?' match within a name, '**' matches any");
+         System.out.println("                      number of directories, a pattern ending with '/' only");
+         System.out.println("                      matches directories, and a pattern holding another '/'");
+         System.out.println("                      is matched against the path relative to the searched");
+         System.out.println("                      directory instead of the name. For example,");
+         System.out.println("                      -exclude node_modules build/ \"third_party/**/*.js\"");
+         System.out.println("\nRelated Options:\n");
+         System.out.println(" -ignorefiles:        Also leaves out the files and directories named in the");
+         System.out.println("                      .gitignore and .uccignore files of each searched");
+         System.out.println("                      directory, and the .git directories.");
+      }
+      else if (option.equals("-keeptemp"))
+      {
+         System.out.println("\nUsage: UCC-G -keeptemp\n");
+         System.out.println(" -keeptemp: Saves the intermediate _PSLOC and _LSLOC files of every counted");
+         System.out.println("            file in the output directory. These are normally kept in memory");
+         System.out.println("            and only written for very large files or baselines. Useful for");
+         System.out.println("            debugging counters and the differencer.");
+      }
       else if (option.equals("-h"))
       {
          System.out.println("\nUsage: UCC-G -h <option>\n");
@@ -260,6 +401,12 @@ public class ReleaseInfo
          System.out.println(" -i2 <fileListB>     Filename containing filenames in the Baseline B.\n");
          System.out.println(" -t <#>              Specifies the threshold percentage for a modified line.");
          System.out.println("                     (DEFAULTS TO 60).\n");
+         System.out.println(" -diffalgo <algo>    Specifies the algorithm used to compare LSLOC: myers,");
+         System.out.println("                     patience or legacy (DEFAULTS TO legacy).\n");
+         System.out.println(" -trename <#>        Specifies the threshold percentage of common LSLOC for");
+         System.out.println("                     pairing renamed or moved files (DISABLED BY DEFAULT).\n");
+         System.out.println(" -savebaseline <file> Saves the counts of baseline A to a snapshot file.\n");
+         System.out.println(" -loadbaseline <file> Loads baseline A from a snapshot instead of counting it.\n");
          System.out.println(" -tdup <#>           Specifies the threshold percentage for duplicated files -");
          System.out.println("                     the maximum percent match between two files of the");
          System.out.println("                     same name in a baseline to be considered duplicates.");
@@ -267,6 +414,9 @@ public class ReleaseInfo
          System.out.println(" -trunc <#>          Specifies the maximum number of characters allowed in a");
          System.out.println("                     logical SLOC. Additional characters will be truncated.");
          System.out.println("                     (DEFAULTS TO 10,000, use 0 for no truncation).\n");
+         System.out.println(" -threads <#>        Specifies the number of threads used for counting and");
+         System.out.println("                     differencing files.");
+         System.out.println("                     (DEFAULTS TO 1).\n");
          System.out.println(" -cf                 Indicated that target files were retrieved from ClearCase.");
          System.out.println("                     Restored the original filename before counting.\n");
          System.out.println(" -dir                Specifies the directories and file specifications:\n");
@@ -281,18 +431,31 @@ public class ReleaseInfo
          System.out.println("                     for custom language.\n");
          System.out.println(" -outdir <outDir>    Specifies the directory to store the output files.\n");
          System.out.println(" -extfile <extFile>  Indicates language extension mapping filename.\n");
+         System.out.println(" -cache <cacheDir>   Reuses the counts of unchanged files from earlier runs.\n");
          System.out.println(" -unified            Prints language report files to a unified report file.\n");
          System.out.println(" -ascii              Prints ASCII text report files instead of CSV files.\n");
          System.out.println(" -nodup              Disables separate processing of duplicate files.\n");
+         System.out.println(" -dupanyname         Also checks files of different names for duplicate");
+         System.out.println("                     code using the -tdup threshold.\n");
          System.out.println(" -nocomplex          Disables printing complexity reports or keyword counts.\n");
          System.out.println(" -nolinks            Disables following symbolic links to directories and files.");
          System.out.println("                     For UNIX systems only.\n");
+         System.out.println(" -uniquefiles        Counts each physical file once, reporting its other");
+         System.out.println("                     paths (links, hard links) as aliases.\n");
+         System.out.println(" -detectlang         Detects the language of files without an extension");
+         System.out.println("                     from their shebang line, modeline or first tokens.\n");
+         System.out.println(" -exclude <patterns> Leaves files and directories matching the patterns out");
+         System.out.println("                     when searching directories.\n");
+         System.out.println(" -ignorefiles        Leaves out files and directories named in .gitignore");
+         System.out.println("                     and .uccignore files when searching directories.\n");
          System.out.println(" -debug <level>      Enables the UCC-G debugger. Outputs are directed to the");
          System.out.println("                     <time_stamp>_ucc.log file which will appear in the same");
          System.out.println("                     folder as the UCC-G executable by default if -outdir is");
          System.out.println("                     unspecified. Valid levels are FATAL, ERROR, WARN, INFO, ");
          System.out.println("                     DEBUG or TRACE. By default, the application is set to ");
          System.out.println("                     the ERROR level.\n");
+         System.out.println(" -keeptemp           Saves the intermediate _PSLOC and _LSLOC files in the");
+         System.out.println("                     output directory for debugging.\n");
          System.out.println(" -export <language>  Exports language properties for specified language to text");
          System.out.println("                     file.");
          System.out.println("                     Output text file is stored in the directory specified");
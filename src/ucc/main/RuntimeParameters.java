@@ -25,6 +25,12 @@ public class RuntimeParameters
       CSV, ASCII
    }
 
+   /** Enumerated type to hold the algorithms used to difference LSLOC */
+   public enum DiffAlgorithm
+   {
+      LEGACY, MYERS, PATIENCE
+   }
+
    /** User provided input arguments */
    public StringBuffer UserInputStr;
 
@@ -43,15 +49,39 @@ public class RuntimeParameters
    /** Flag for duplicate file search */
    public boolean SearchForDups;
 
+   /** Flag for duplicate code search amongst files of different names */
+   public boolean SearchForDupsAnyName;
+
    /** Flag for use of custom language properties */
    public boolean UseCustomLang;
 
    /** Flag for skipping symbolic links */
    public boolean SkipSymbLinks;
 
+   /**
+    * Flag for leaving out the files and directories named in .gitignore and
+    * .uccignore files when searching directories
+    */
+   public boolean UseIgnoreFiles;
+
+   /**
+    * Flag for counting each physical file once, however many paths (links,
+    * hard links or bind mounts) lead to it
+    */
+   public boolean CountFilesOnce;
+
+   /**
+    * Flag for detecting the language of files from their contents when their
+    * extension does not tell it
+    */
+   public boolean DetectLanguages;
+
    /** Flag for handling clear case files */
    public boolean HndlClearCaseFiles;
 
+   /** Flag for keeping the intermediate _PSLOC and _LSLOC files for debugging */
+   public boolean KeepTempFiles;
+
    /** First filename of user input file list */
    public String FileListNameA;
 
@@ -76,27 +106,48 @@ public class RuntimeParameters
    /** Specification for which files to process in a given directory */
    public ArrayList<String> FileSpecs;
 
+   /** Patterns of files and directories to leave out when searching directories */
+   public ArrayList<String> ExcludePatterns;
+
    /** Modification threshold */
    public double ModThreshold;
 
    /** Duplication threshold */
    public double DupThreshold;
 
+   /** Renamed files similarity threshold */
+   public double RenameThreshold;
+
    /** Line truncation threshold */
    public int TruncThreshold;
 
+   /** Number of threads used to count files */
+   public int NumThreads;
+
    /** User specified output directory path */
    public String OutputDirPath;
 
    /** User specified output file format */
    public OutputFormat OutputFileFmt;
 
+   /** Algorithm used to difference the LSLOC of two files */
+   public DiffAlgorithm DiffAlgo;
+
    /** User specified file for mapping file extensions to languages */
    public String ExtFileName;
 
    /** A hash map of file extension to language mapping specified by the user */
    public HashMap<String, ArrayList<String>> FileExtToLangMap;
 
+   /** User specified directory of the count cache, empty if not used */
+   public String CacheDirPath;
+
+   /** User specified file to save baseline A to, empty if not saved */
+   public String SaveBaselinePath;
+
+   /** User specified file to load baseline A from, empty if counted */
+   public String LoadBaselinePath;
+
    /** The Single Static instance of this class */
    private static RuntimeParameters RtParams = new RuntimeParameters();
 
@@ -112,9 +163,14 @@ public class RuntimeParameters
       CountCmplxMetrics = true; // By default, count complex metrics
       DiffCode = false; // By default, turn off differencing
       SearchForDups = true;
+      SearchForDupsAnyName = false;
       UseCustomLang = false;
       SkipSymbLinks = false;
+      UseIgnoreFiles = false;
+      CountFilesOnce = false;
+      DetectLanguages = false;
       HndlClearCaseFiles = false;
+      KeepTempFiles = false;
 
       FileListNameA = "";
       FileListNameB = "";
@@ -123,10 +179,13 @@ public class RuntimeParameters
       DirPathA = "";
       DirPathB = "";
       FileSpecs = new ArrayList<String>();
+      ExcludePatterns = new ArrayList<String>();
 
       ModThreshold = Constants.DEFAULT_MOD_THRESHOLD;
       DupThreshold = Constants.DEFAULT_DUP_THRESHOLD;
+      RenameThreshold = Constants.DEFAULT_RENAME_THRESHOLD;
       TruncThreshold = Constants.DEFAULT_TRUNC_THRESHOLD;
+      NumThreads = Constants.DEFAULT_NUM_THREADS;
 
       OutputDirPath = System.getProperty("user.dir");
 
@@ -142,9 +201,14 @@ public class RuntimeParameters
       }
 
       OutputFileFmt = OutputFormat.CSV;
+      DiffAlgo = DiffAlgorithm.LEGACY;
 
       ExtFileName = "";
       FileExtToLangMap = new HashMap<String, ArrayList<String>>();
+
+      CacheDirPath = "";
+      SaveBaselinePath = "";
+      LoadBaselinePath = "";
       ;
    }
 
@@ -81,6 +81,9 @@ public class CSVCounterReporter extends CounterReporter
       // Generate a report for files that were not counted
       GenUncountedReport(cntrResults);
 
+      // Generate a report for paths that were counted through another path
+      GenFileAliasReport();
+
       if (RtParams.SearchForDups && DupResFound)
       {
          // Generate duplicate file pairs report
@@ -692,6 +695,52 @@ public class CSVCounterReporter extends CounterReporter
       }
    }
 
+   /*
+    * (non-Javadoc)
+    * 
+    * @see CounterReporter#GenFileAliasReport()
+    */
+   @Override
+   protected void GenFileAliasReport()
+   {
+      // Check if any paths were left out as aliases of a counted file
+      if (FileAliases != null && !FileAliases.isEmpty())
+      {
+         // Get report file name
+         String fileName = GetReportFileName(ReportType.FILE_ALIAS_REPORT);
+         try
+         {
+            // Open output streams for writing
+            OutputStreamWriter outStream =
+                     new OutputStreamWriter(new FileOutputStream(fileName), Constants.CHARSET_NAME);
+            BufferedWriter bufWriter = new BufferedWriter(outStream);
+
+            // Write the file header
+            bufWriter.write(GetFileHeader("FILE ALIASES", RtParams.UserInputStr));
+            bufWriter.newLine();
+
+            // Write column headers for data
+            bufWriter.write("Alias,Counted File" + Constants.NEW_LINE_SEPARATOR);
+
+            String row;
+            for (String[] alias : FileAliases)
+            {
+               row = alias[0] + "," + alias[1] + Constants.NEW_LINE_SEPARATOR;
+               bufWriter.write(row);
+            }
+
+            // Close the output streams
+            bufWriter.close();
+            logger.debug("Finished writing file aliases report to file " + fileName);
+         }
+         catch (IOException ex)
+         {
+            logger.error("Error writing file aliases report to file " + fileName);
+            logger.debug(ex);
+         }
+      }
+   }
+
    /**
     * Write each complexity keyword's total count to the buffered writer
     * 
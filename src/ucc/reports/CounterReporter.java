@@ -74,6 +74,12 @@ public abstract class CounterReporter extends Reporter
     */
    protected boolean CyclomaticComplexityResFound;
 
+   /**
+    * Pairs of a path that was not counted and the path of the same file that
+    * was counted, or null if files were not checked for aliases
+    */
+   protected ArrayList<String[]> FileAliases;
+
    /**
     * An Arraylist to hold all operator count for each file
     */
@@ -142,6 +148,20 @@ public abstract class CounterReporter extends Reporter
       DupResFound = false;
       UncountedFilesFound = false;
       CyclomaticComplexityResFound = false;
+      FileAliases = null;
+   }
+
+   /**
+    * Sets the paths that were not counted because they lead to a file counted
+    * through another path
+    *
+    * @param fileAliases
+    *           Pairs of the path that was not counted and the path that was
+    *           counted
+    */
+   public void SetFileAliases(ArrayList<String[]> fileAliases)
+   {
+      FileAliases = fileAliases;
    }
 
    /**
@@ -263,10 +283,13 @@ public abstract class CounterReporter extends Reporter
       boolean cmplxSumInit;
       boolean dupCmplxSumInit;
 
-      // Physically delete the embedded files
+      // Physically delete the embedded files. Embedded files of a baseline
+      // loaded from a snapshot were already deleted and renamed after the file
+      // they are embedded in, which must not be deleted.
       for (int i = 0; i < cntrResults.size(); i++)
       {
-         if (cntrResults.get(i).EmbOfIdx != -1)
+         if (cntrResults.get(i).EmbOfIdx != -1
+                  && !cntrResults.get(i).FileName.equals(cntrResults.get(cntrResults.get(i).EmbOfIdx).FileName))
          {
             FileUtils.DeleteFile(cntrResults.get(i).FileName);
          }
@@ -665,6 +688,13 @@ public abstract class CounterReporter extends Reporter
     */
    protected abstract void GenUncountedReport(ArrayList<UCCFile> cntrResults);
 
+   /**
+    * Generates file alias report for files reached through several paths.
+    * Alias report contains each path that was not counted and the path of the
+    * same file that was counted.
+    */
+   protected abstract void GenFileAliasReport();
+
    /**
     * Generates complexity counter report for all language types.
     */
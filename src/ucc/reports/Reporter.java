@@ -50,7 +50,8 @@ public class Reporter
       DIFFERENCER_REPORT("outfile_diff_results" + REPORT_SUFFIX),
       DUP_MATCHED_PAIRS_REPORT(DUP_REPORT_PREFIX + "MatchedPairs" + REPORT_SUFFIX),
       DUP_DIFFERENCER_REPORT(DUP_REPORT_PREFIX + "outfile_diff_results" + REPORT_SUFFIX),
-      UNCOUNTED_FILE_REPORT("outfile_uncounted_files" + REPORT_SUFFIX);
+      UNCOUNTED_FILE_REPORT("outfile_uncounted_files" + REPORT_SUFFIX),
+      FILE_ALIAS_REPORT("outfile_file_aliases" + REPORT_SUFFIX);
 
       /** Report name associated with enumerated value */
       private String RprtName;
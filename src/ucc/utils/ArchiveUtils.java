@@ -0,0 +1,814 @@
+package ucc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+import ucc.main.RuntimeParameters;
+
+/**
+ * This class reads source files stored in archives, so that they can be
+ * counted without extracting them. Zip and jar archives, and tar archives that
+ * may be compressed with gzip, are supported. A file in an archive is named by
+ * the path of the archive followed by {@link Constants#ARCHIVE_ENTRY_SEPARATOR}
+ * and the path of the file in the archive, for example
+ * <code>/drops/vendor.zip!/src/main.c</code>. Functions in this class are
+ * static so they can be called directly without instantiating an object of
+ * this class.
+ *
+ * <p>
+ * Zip archives are read in place through their central directory. Tar
+ * archives cannot be read in place. Only the headers of a tar archive are read
+ * when its files are listed. The first time one of the listed files is opened,
+ * the contents of all the listed files are read in one pass over the archive,
+ * into memory while the archive memory budget allows it and into temporary
+ * files in the output directory after that. Files that the file filters or
+ * exclude rules leave out are never kept.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class ArchiveUtils
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(ArchiveUtils.class);
+
+   /** Size of a tar header or data block */
+   private static final int TAR_BLOCK_SIZE = 512;
+
+   /** Open zip archives, by archive path */
+   private static final ConcurrentHashMap<String, ZipFile> ZipArchives = new ConcurrentHashMap<String, ZipFile>();
+
+   /** Read tar archives, by archive path */
+   private static final ConcurrentHashMap<String, TarArchive> TarArchives = new ConcurrentHashMap<String, TarArchive>();
+
+   /** Budget, in bytes, shared by the contents of tar files kept in memory */
+   private static final MemoryBudget TarBudget = new MemoryBudget(
+            (long) (Runtime.getRuntime().maxMemory() * Constants.ARCHIVE_MEMORY_BUDGET_FRACTION));
+
+   /**
+    * TarArchive class holds what has been read of a tar archive
+    */
+   private static class TarArchive
+   {
+      /**
+       * Sizes of the regular files of the archive, by path in the archive, in
+       * archive order
+       */
+      LinkedHashMap<String, Long> EntrySizes = new LinkedHashMap<String, Long>();
+
+      /** Paths of the files listed for counting */
+      HashSet<String> ListedEntries = new HashSet<String>();
+
+      /** Contents of the listed files kept in memory */
+      HashMap<String, byte[]> Contents = new HashMap<String, byte[]>();
+
+      /** Temporary files holding the contents of the other listed files */
+      HashMap<String, Path> SpillFiles = new HashMap<String, Path>();
+   }
+
+   /**
+    * Checks whether a file name has the extension of a supported archive
+    *
+    * @param fileName
+    *           File name
+    * @return True if the file name is that of an archive, false otherwise
+    */
+   public static boolean HasArchiveExt(String fileName)
+   {
+      String name = fileName.toLowerCase();
+      return IsZipName(name) || IsTarName(name);
+   }
+
+   /**
+    * Checks whether a path is an archive file that can be read
+    *
+    * @param path
+    *           Path of a file or directory
+    * @return True if the path is an archive file, false otherwise
+    */
+   public static boolean IsArchive(String path)
+   {
+      return HasArchiveExt(path) && new File(path).isFile();
+   }
+
+   /**
+    * Checks whether a file name is the name of a file in an archive
+    *
+    * @param fileName
+    *           File name
+    * @return True if the file name is that of a file in an archive, false
+    *         otherwise
+    */
+   public static boolean IsArchiveEntry(String fileName)
+   {
+      int sep = fileName.indexOf(Constants.ARCHIVE_ENTRY_SEPARATOR);
+      return sep > 0 && HasArchiveExt(fileName.substring(0, sep)) && !new File(fileName).exists();
+   }
+
+   /**
+    * Generates a list of the files in an archive. The file names are filtered
+    * based on the provided file filters, as for the files of a directory.
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @param fileFilters
+    *           A list of filters to be applied to file names, null or empty to
+    *           include all files
+    * @param fileList
+    *           Receives the names of the files in the archive
+    * @return True if the archive could be read, false otherwise
+    */
+   public static boolean GenerateFilteredFileList(String archivePath, ArrayList<String> fileFilters,
+            ArrayList<String> fileList)
+   {
+      String absPath = new File(archivePath).getAbsolutePath();
+
+      try
+      {
+         ArrayList<String> entryNames = new ArrayList<String>();
+         if (IsZipName(absPath.toLowerCase()))
+         {
+            Enumeration<? extends ZipEntry> entries = GetZipArchive(absPath).entries();
+            while (entries.hasMoreElements())
+            {
+               ZipEntry entry = entries.nextElement();
+               if (!entry.isDirectory())
+               {
+                  entryNames.add(entry.getName());
+               }
+            }
+         }
+         else
+         {
+            entryNames.addAll(GetTarArchive(absPath).EntrySizes.keySet());
+         }
+
+         Pattern filterPattern = FileUtils.CompileFileFilters(fileFilters);
+         ExcludeRules excludedPaths = ExcludeRules.Compile(RuntimeParameters.GetInstance().ExcludePatterns);
+         ArrayList<String> listedNames = new ArrayList<String>();
+         for (String entryName : entryNames)
+         {
+            if (FileUtils.MatchesFileFilters(FileUtils.GetFileName(entryName), filterPattern)
+                     && (excludedPaths == null || !excludedPaths.IsPathExcluded(entryName)))
+            {
+               listedNames.add(entryName);
+               fileList.add(absPath + Constants.ARCHIVE_ENTRY_SEPARATOR + entryName);
+            }
+         }
+
+         if (!IsZipName(absPath.toLowerCase()))
+         {
+            ListTarEntries(absPath, listedNames);
+         }
+         return true;
+      }
+      catch (IOException e)
+      {
+         System.err.println("Error reading archive " + archivePath);
+         logger.error("Error reading archive " + archivePath);
+         logger.debug(e);
+         return false;
+      }
+   }
+
+   /**
+    * Opens a file in an archive for reading
+    *
+    * @param fileName
+    *           Name of the file in the archive
+    * @return A stream of the contents of the file
+    * @throws IOException
+    *            If the archive could not be read or does not hold the file
+    */
+   public static InputStream OpenEntry(String fileName) throws IOException
+   {
+      int sep = fileName.indexOf(Constants.ARCHIVE_ENTRY_SEPARATOR);
+      String archivePath = fileName.substring(0, sep);
+      String entryName = fileName.substring(sep + Constants.ARCHIVE_ENTRY_SEPARATOR.length());
+
+      if (IsZipName(archivePath.toLowerCase()))
+      {
+         ZipFile zipFile = GetZipArchive(archivePath);
+         ZipEntry entry = zipFile.getEntry(entryName);
+         if (entry == null || entry.isDirectory())
+         {
+            throw new FileNotFoundException(fileName);
+         }
+         return zipFile.getInputStream(entry);
+      }
+
+      return OpenTarEntry(archivePath, entryName, fileName);
+   }
+
+   /**
+    * Returns the size of a file in an archive
+    *
+    * @param fileName
+    *           Name of the file in the archive
+    * @return Size of the file in bytes, 0 if it could not be found
+    */
+   public static long GetEntrySize(String fileName)
+   {
+      int sep = fileName.indexOf(Constants.ARCHIVE_ENTRY_SEPARATOR);
+      String archivePath = fileName.substring(0, sep);
+      String entryName = fileName.substring(sep + Constants.ARCHIVE_ENTRY_SEPARATOR.length());
+
+      try
+      {
+         if (IsZipName(archivePath.toLowerCase()))
+         {
+            ZipEntry entry = GetZipArchive(archivePath).getEntry(entryName);
+            return (entry == null || entry.getSize() < 0) ? 0 : entry.getSize();
+         }
+
+         Long size = GetTarArchive(archivePath).EntrySizes.get(entryName);
+         return (size == null) ? 0 : size;
+      }
+      catch (IOException e)
+      {
+         logger.error("Error reading archive " + archivePath);
+         logger.debug(e);
+         return 0;
+      }
+   }
+
+   /**
+    * Closes all open archives and releases the contents of tar archives,
+    * deleting their temporary files
+    */
+   public static synchronized void CloseArchives()
+   {
+      for (ZipFile zipFile : ZipArchives.values())
+      {
+         try
+         {
+            zipFile.close();
+         }
+         catch (IOException e)
+         {
+            logger.debug(e);
+         }
+      }
+      ZipArchives.clear();
+
+      for (TarArchive archive : TarArchives.values())
+      {
+         ReleaseTarContents(archive);
+      }
+      TarArchives.clear();
+   }
+
+   /**
+    * Checks whether a lower case file name is that of a zip archive
+    *
+    * @param name
+    *           Lower case file name
+    * @return True for a zip or jar archive, false otherwise
+    */
+   private static boolean IsZipName(String name)
+   {
+      return name.endsWith(".zip") || name.endsWith(".jar");
+   }
+
+   /**
+    * Checks whether a lower case file name is that of a tar archive
+    *
+    * @param name
+    *           Lower case file name
+    * @return True for a tar archive, compressed or not, false otherwise
+    */
+   private static boolean IsTarName(String name)
+   {
+      return name.endsWith(".tar") || IsGzipTarName(name);
+   }
+
+   /**
+    * Checks whether a lower case file name is that of a gzip compressed tar
+    * archive
+    *
+    * @param name
+    *           Lower case file name
+    * @return True for a compressed tar archive, false otherwise
+    */
+   private static boolean IsGzipTarName(String name)
+   {
+      return name.endsWith(".tar.gz") || name.endsWith(".tgz");
+   }
+
+   /**
+    * Returns an open zip archive, opening it the first time it is used
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @return The zip archive
+    * @throws IOException
+    *            If the archive could not be opened
+    */
+   private static synchronized ZipFile GetZipArchive(String archivePath) throws IOException
+   {
+      ZipFile zipFile = ZipArchives.get(archivePath);
+      if (zipFile == null)
+      {
+         zipFile = new ZipFile(archivePath);
+         ZipArchives.put(archivePath, zipFile);
+      }
+      return zipFile;
+   }
+
+   /**
+    * Returns a tar archive, reading the headers of its files the first time it
+    * is used
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @return The tar archive
+    * @throws IOException
+    *            If the archive could not be read
+    */
+   private static synchronized TarArchive GetTarArchive(String archivePath) throws IOException
+   {
+      TarArchive archive = TarArchives.get(archivePath);
+      if (archive == null)
+      {
+         archive = new TarArchive();
+         try (InputStream in = OpenTarStream(archivePath))
+         {
+            ReadTarEntries(in, archive, null);
+         }
+         TarArchives.put(archivePath, archive);
+      }
+      return archive;
+   }
+
+   /**
+    * Records the files of a tar archive that are listed for counting, so that
+    * their contents are kept when the archive is read
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @param entryNames
+    *           Paths of the listed files in the archive
+    * @throws IOException
+    *            If the archive could not be read
+    */
+   private static synchronized void ListTarEntries(String archivePath, ArrayList<String> entryNames)
+            throws IOException
+   {
+      GetTarArchive(archivePath).ListedEntries.addAll(entryNames);
+   }
+
+   /**
+    * Opens a file in a tar archive for reading. The contents of all listed
+    * files not read yet are read the first time one of them is opened. A file
+    * that was not listed is listed when it is opened.
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @param entryName
+    *           Path of the file in the archive
+    * @param fileName
+    *           Name of the file in the archive, including the archive path
+    * @return A stream of the contents of the file
+    * @throws IOException
+    *            If the archive could not be read or does not hold the file
+    */
+   private static synchronized InputStream OpenTarEntry(String archivePath, String entryName, String fileName)
+            throws IOException
+   {
+      TarArchive archive = GetTarArchive(archivePath);
+      if (!archive.EntrySizes.containsKey(entryName))
+      {
+         throw new FileNotFoundException(fileName);
+      }
+
+      if (!archive.Contents.containsKey(entryName) && !archive.SpillFiles.containsKey(entryName))
+      {
+         archive.ListedEntries.add(entryName);
+
+         HashSet<String> entriesToRead = new HashSet<String>(archive.ListedEntries);
+         entriesToRead.removeAll(archive.Contents.keySet());
+         entriesToRead.removeAll(archive.SpillFiles.keySet());
+         try (InputStream in = OpenTarStream(archivePath))
+         {
+            ReadTarEntries(in, archive, entriesToRead);
+         }
+      }
+
+      byte[] contents = archive.Contents.get(entryName);
+      if (contents != null)
+      {
+         return new ByteArrayInputStream(contents);
+      }
+      return Files.newInputStream(archive.SpillFiles.get(entryName));
+   }
+
+   /**
+    * Opens a tar archive for reading, uncompressing it if needed
+    *
+    * @param archivePath
+    *           Path of the archive
+    * @return Stream of the uncompressed archive
+    * @throws IOException
+    *            If the archive could not be opened
+    */
+   private static InputStream OpenTarStream(String archivePath) throws IOException
+   {
+      InputStream in = new BufferedInputStream(Files.newInputStream(new File(archivePath).toPath()));
+      if (IsGzipTarName(archivePath.toLowerCase()))
+      {
+         try
+         {
+            in = new GZIPInputStream(in);
+         }
+         catch (IOException e)
+         {
+            in.close();
+            throw e;
+         }
+      }
+      return in;
+   }
+
+   /**
+    * Reads the regular files of a tar archive. The POSIX ustar format is read,
+    * along with the long names of the GNU and pax formats. The sizes of all
+    * files are recorded, and the contents of the files asked for are kept.
+    * Contents are kept in memory while the archive memory budget allows it,
+    * and copied to temporary files after that.
+    *
+    * @param in
+    *           Stream of the uncompressed archive
+    * @param archive
+    *           Receives the sizes and contents of the files
+    * @param entriesToRead
+    *           Paths of the files whose contents are kept, null to keep none
+    * @throws IOException
+    *            If the stream could not be read or is not a tar archive
+    */
+   private static void ReadTarEntries(InputStream in, TarArchive archive, HashSet<String> entriesToRead)
+            throws IOException
+   {
+      byte[] header = new byte[TAR_BLOCK_SIZE];
+      String longName = null;
+
+      while (ReadFully(in, header) && !IsZeroBlock(header))
+      {
+         String name = GetTarString(header, 0, 100);
+         if (GetTarString(header, 257, 5).equals("ustar"))
+         {
+            String prefix = GetTarString(header, 345, 155);
+            if (!prefix.isEmpty())
+            {
+               name = prefix + "/" + name;
+            }
+         }
+         long size = GetTarNumber(header, 124, 12);
+         char type = (char) header[156];
+
+         if (size < 0 || size > Integer.MAX_VALUE)
+         {
+            throw new IOException("Invalid tar entry size " + size);
+         }
+         long padding = (TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE;
+
+         if (type == 'L' || type == 'x')
+         {
+            byte[] data = new byte[(int) size];
+            if (!ReadFully(in, data))
+            {
+               throw new IOException("Truncated tar archive");
+            }
+            SkipFully(in, padding);
+
+            if (type == 'L')
+            {
+               // GNU long name of the next entry
+               longName = GetTarString(data, 0, data.length);
+            }
+            else
+            {
+               // pax extended header, which may hold the path of the next
+               // entry
+               String path = GetPaxPath(data);
+               if (path != null)
+               {
+                  longName = path;
+               }
+            }
+            continue;
+         }
+
+         if (longName != null)
+         {
+            name = longName;
+            longName = null;
+         }
+         if (type != '0' && type != '\0' && type != '7')
+         {
+            SkipFully(in, size + padding);
+            continue;
+         }
+         while (name.startsWith("./"))
+         {
+            name = name.substring(2);
+         }
+
+         archive.EntrySizes.put(name, size);
+         if (entriesToRead == null || !entriesToRead.contains(name))
+         {
+            SkipFully(in, size + padding);
+            continue;
+         }
+
+         // A later file of the same path replaces an earlier one
+         byte[] oldData = archive.Contents.remove(name);
+         if (oldData != null)
+         {
+            TarBudget.Release(oldData.length);
+         }
+         Path oldSpillPath = archive.SpillFiles.remove(name);
+         if (oldSpillPath != null)
+         {
+            Files.deleteIfExists(oldSpillPath);
+         }
+
+         if (TarBudget.TryReserve(size))
+         {
+            byte[] data = new byte[(int) size];
+            if (!ReadFully(in, data))
+            {
+               TarBudget.Release(size);
+               throw new IOException("Truncated tar archive");
+            }
+            archive.Contents.put(name, data);
+         }
+         else
+         {
+            Path spillPath = Files.createTempFile(Paths.get(RuntimeParameters.GetInstance().OutputDirPath),
+                     "archive", ".tmp");
+            spillPath.toFile().deleteOnExit();
+            archive.SpillFiles.put(name, spillPath);
+            try (OutputStream out = Files.newOutputStream(spillPath))
+            {
+               CopyFully(in, out, size);
+            }
+         }
+         SkipFully(in, padding);
+      }
+   }
+
+   /**
+    * Gives back the memory of the file contents of a tar archive to the archive
+    * memory budget and deletes its temporary files
+    *
+    * @param archive
+    *           The tar archive
+    */
+   private static void ReleaseTarContents(TarArchive archive)
+   {
+      for (byte[] data : archive.Contents.values())
+      {
+         TarBudget.Release(data.length);
+      }
+      for (Path spillPath : archive.SpillFiles.values())
+      {
+         try
+         {
+            Files.deleteIfExists(spillPath);
+         }
+         catch (IOException e)
+         {
+            logger.error("Error deleting temporary file " + spillPath);
+            logger.debug(e);
+         }
+      }
+   }
+
+   /**
+    * Returns the path held by a pax extended header
+    *
+    * @param data
+    *           The data of the header, made of "length key=value\n" records
+    * @return The path, or null if the header holds none
+    */
+   private static String GetPaxPath(byte[] data)
+   {
+      String path = null;
+      int pos = 0;
+      while (pos < data.length)
+      {
+         int space = pos;
+         while (space < data.length && data[space] != ' ')
+         {
+            space++;
+         }
+
+         int length;
+         try
+         {
+            length = Integer.parseInt(new String(data, pos, space - pos, StandardCharsets.US_ASCII));
+         }
+         catch (NumberFormatException e)
+         {
+            break;
+         }
+         if (length <= 0 || pos + length > data.length)
+         {
+            break;
+         }
+
+         String record = new String(data, space + 1, pos + length - space - 2, StandardCharsets.UTF_8);
+         if (record.startsWith("path="))
+         {
+            path = record.substring("path=".length());
+         }
+         pos += length;
+      }
+      return path;
+   }
+
+   /**
+    * Returns a NUL terminated string field of a tar header
+    *
+    * @param block
+    *           The header
+    * @param offset
+    *           Offset of the field
+    * @param length
+    *           Maximum length of the field
+    * @return The string
+    */
+   private static String GetTarString(byte[] block, int offset, int length)
+   {
+      int end = offset;
+      while (end < offset + length && block[end] != 0)
+      {
+         end++;
+      }
+      return new String(block, offset, end - offset, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Returns a numeric field of a tar header, written in octal or, for large
+    * values, in base-256
+    *
+    * @param block
+    *           The header
+    * @param offset
+    *           Offset of the field
+    * @param length
+    *           Length of the field
+    * @return The number, or -1 if the field is not valid
+    */
+   private static long GetTarNumber(byte[] block, int offset, int length)
+   {
+      long value = 0;
+      if ((block[offset] & 0x80) != 0)
+      {
+         value = block[offset] & 0x7f;
+         for (int i = offset + 1; i < offset + length; i++)
+         {
+            value = (value << 8) | (block[i] & 0xff);
+         }
+         return value;
+      }
+
+      for (int i = offset; i < offset + length; i++)
+      {
+         byte b = block[i];
+         if (b >= '0' && b <= '7')
+         {
+            value = (value << 3) + (b - '0');
+         }
+         else if (b != ' ' && b != 0)
+         {
+            return -1;
+         }
+      }
+      return value;
+   }
+
+   /**
+    * Checks whether a tar block holds only zeros, which marks the end of the
+    * archive
+    *
+    * @param block
+    *           The block
+    * @return True if the block holds only zeros, false otherwise
+    */
+   private static boolean IsZeroBlock(byte[] block)
+   {
+      for (byte b : block)
+      {
+         if (b != 0)
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Reads bytes until a buffer is full
+    *
+    * @param in
+    *           Stream to read from
+    * @param buffer
+    *           The buffer
+    * @return True if the buffer was filled, false if the stream ended first
+    * @throws IOException
+    *            If the stream could not be read
+    */
+   private static boolean ReadFully(InputStream in, byte[] buffer) throws IOException
+   {
+      int pos = 0;
+      while (pos < buffer.length)
+      {
+         int numRead = in.read(buffer, pos, buffer.length - pos);
+         if (numRead < 0)
+         {
+            return false;
+         }
+         pos += numRead;
+      }
+      return true;
+   }
+
+   /**
+    * Copies a number of bytes of a stream to another stream
+    *
+    * @param in
+    *           Stream to read from
+    * @param out
+    *           Stream to write to
+    * @param count
+    *           Number of bytes to copy
+    * @throws IOException
+    *            If the streams could not be read or written, or the stream to
+    *            read from ended first
+    */
+   private static void CopyFully(InputStream in, OutputStream out, long count) throws IOException
+   {
+      byte[] buffer = new byte[64 * 1024];
+      while (count > 0)
+      {
+         int numRead = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+         if (numRead < 0)
+         {
+            throw new IOException("Truncated tar archive");
+         }
+         out.write(buffer, 0, numRead);
+         count -= numRead;
+      }
+   }
+
+   /**
+    * Skips a number of bytes of a stream
+    *
+    * @param in
+    *           Stream to read from
+    * @param count
+    *           Number of bytes to skip
+    * @throws IOException
+    *            If the stream could not be read
+    */
+   private static void SkipFully(InputStream in, long count) throws IOException
+   {
+      while (count > 0)
+      {
+         long numSkipped = in.skip(count);
+         if (numSkipped <= 0)
+         {
+            if (in.read() < 0)
+            {
+               return;
+            }
+            numSkipped = 1;
+         }
+         count -= numSkipped;
+      }
+   }
+}
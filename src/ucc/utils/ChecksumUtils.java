@@ -4,11 +4,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.zip.Adler32;
-import java.util.zip.CheckedInputStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,15 +27,49 @@ public class ChecksumUtils
    /** Instantiate the Log4j logger for this class */
    private static final Logger logger = LogManager.getLogger(ChecksumUtils.class);
 
+   /** Read buffer of each thread calculating file checksums */
+   private static final ThreadLocal<byte[]> ReadBuffers = ThreadLocal
+            .withInitial(() -> new byte[Constants.CHECKSUM_BUFFER_SIZE]);
+
    /**
-    * Calculates checksum of a given file. Refactored from
-    * http://www.javadocexamples.com/java/util/zip/Adler32/Adler32().html
+    * Calculates checksum of a given file. The checksum is derived from the
+    * SHA-256 digest of the file contents, so two files with the same checksum
+    * can be taken as identical. It is always greater than zero.
     * 
     * @param file
     *           Input file whose checksum this calculates
     * @return Checksum value
     */
    public static long GetFileChecksum(File file)
+   {
+      return GetFileChecksum(file, Long.MAX_VALUE);
+   }
+
+   /**
+    * Calculates checksum of the first CHECKSUM_PREFIX_SIZE bytes of a given
+    * file. This is used to tell apart files of the same size without reading
+    * them completely.
+    * 
+    * @param file
+    *           Input file whose checksum this calculates
+    * @return Checksum value
+    */
+   public static long GetFilePrefixChecksum(File file)
+   {
+      return GetFileChecksum(file, Constants.CHECKSUM_PREFIX_SIZE);
+   }
+
+   /**
+    * Calculates checksum of at most the given number of leading bytes of a
+    * file. The file is read with a fixed size buffer.
+    * 
+    * @param file
+    *           Input file whose checksum this calculates
+    * @param maxBytes
+    *           Maximum number of bytes to read
+    * @return Checksum value
+    */
+   private static long GetFileChecksum(File file, long maxBytes)
    {
       long checksum = 0;
 
@@ -44,10 +77,10 @@ public class ChecksumUtils
       {
          if (file != null && file.exists() && file.isFile())
          {
-            CheckedInputStream cis = null;
+            FileInputStream fis = null;
             try
             {
-               cis = new CheckedInputStream(new FileInputStream(file), new Adler32());
+               fis = new FileInputStream(file);
             }
             catch (FileNotFoundException e)
             {
@@ -55,19 +88,10 @@ public class ChecksumUtils
                System.exit(1);
             }
 
-            int buffersize = (int) (file.length());
-            byte[] buffer = new byte[buffersize];
-
-            while (cis.read(buffer) >= 0)
-            {
-               // Read in the file completely
-            }
-
-            // Get the checksum value
-            checksum = cis.getChecksum().getValue();
+            checksum = GetStreamChecksum(fis, maxBytes);
 
             // Close the stream
-            cis.close();
+            fis.close();
          }
       }
       catch (IOException ioe)
@@ -77,6 +101,126 @@ public class ChecksumUtils
          logger.debug(ioe);
          System.exit(1);
       }
+      catch (NoSuchAlgorithmException e)
+      {
+         logger.fatal("Error with the SHA-256 hashing");
+         logger.debug(e);
+         System.exit(1);
+      }
+
+      return checksum;
+   }
+
+   /**
+    * Calculates checksum of a source file given by name, which may be a file
+    * in an archive or of a git revision. The checksum of a file of a git
+    * revision is calculated once per blob ID.
+    * 
+    * @param fileName
+    *           Name of the file whose checksum this calculates
+    * @return Checksum value
+    */
+   public static long GetFileChecksum(String fileName)
+   {
+      if (GitUtils.IsGitEntry(fileName))
+      {
+         return GitUtils.GetEntryChecksum(fileName);
+      }
+      return GetSourceFileChecksum(fileName, Long.MAX_VALUE);
+   }
+
+   /**
+    * Calculates checksum of the first CHECKSUM_PREFIX_SIZE bytes of a source
+    * file given by name, which may be a file in an archive or of a git
+    * revision
+    * 
+    * @param fileName
+    *           Name of the file whose checksum this calculates
+    * @return Checksum value
+    */
+   public static long GetFilePrefixChecksum(String fileName)
+   {
+      return GetSourceFileChecksum(fileName, Constants.CHECKSUM_PREFIX_SIZE);
+   }
+
+   /**
+    * Calculates checksum of at most the given number of leading bytes of a
+    * source file given by name
+    * 
+    * @param fileName
+    *           Name of the file whose checksum this calculates
+    * @param maxBytes
+    *           Maximum number of bytes to read
+    * @return Checksum value
+    */
+   static long GetSourceFileChecksum(String fileName, long maxBytes)
+   {
+      if (!ArchiveUtils.IsArchiveEntry(fileName) && !GitUtils.IsGitEntry(fileName))
+      {
+         return GetFileChecksum(new File(fileName), maxBytes);
+      }
+
+      long checksum = 0;
+      try (InputStream in = FileUtils.OpenSourceFile(fileName))
+      {
+         checksum = GetStreamChecksum(in, maxBytes);
+      }
+      catch (IOException ioe)
+      {
+         logger.fatal("IO exception thrown while computing checksum for file " + fileName);
+         logger.debug(ioe);
+         System.exit(1);
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         logger.fatal("Error with the SHA-256 hashing");
+         logger.debug(e);
+         System.exit(1);
+      }
+
+      return checksum;
+   }
+
+   /**
+    * Calculates checksum of at most the given number of leading bytes of a
+    * stream. The checksum is derived from the SHA-256 digest of the bytes and
+    * is always greater than zero.
+    * 
+    * @param in
+    *           Stream whose checksum this calculates
+    * @param maxBytes
+    *           Maximum number of bytes to read
+    * @return Checksum value
+    * @throws IOException
+    *            If the stream could not be read
+    * @throws NoSuchAlgorithmException
+    *            If SHA-256 is not available
+    */
+   private static long GetStreamChecksum(InputStream in, long maxBytes) throws IOException, NoSuchAlgorithmException
+   {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      byte[] buffer = ReadBuffers.get();
+      long remaining = maxBytes;
+      int numRead;
+
+      while (remaining > 0 && (numRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0)
+      {
+         md.update(buffer, 0, numRead);
+         remaining -= numRead;
+      }
+
+      // Fold the first eight bytes of the digest into a positive value
+      long checksum = 0;
+      byte[] digest = md.digest();
+      for (int i = 0; i < 8; i++)
+      {
+         checksum = (checksum << 8) | (digest[i] & 0xff);
+      }
+      checksum &= Long.MAX_VALUE;
+      if (checksum == 0)
+      {
+         checksum = 1;
+      }
 
       return checksum;
    }
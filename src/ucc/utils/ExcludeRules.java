@@ -0,0 +1,361 @@
+package ucc.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+
+/**
+ * ExcludeRules class holds glob patterns naming the files and directories to
+ * leave out when listing the files under a directory. The patterns follow the
+ * syntax of .gitignore files:
+ * <ul>
+ * <li>'*' matches any characters but '/', '?' matches any one character but
+ * '/' and [...] matches one character of a class</li>
+ * <li>'**' matches any number of directories</li>
+ * <li>A pattern ending with '/' only matches directories</li>
+ * <li>A pattern holding a '/' other than at its end is matched against the
+ * path relative to the directory of the rules, other patterns are matched
+ * against the name of a file or directory at any depth</li>
+ * <li>In ignore files, a pattern starting with '!' includes again what an
+ * earlier pattern excluded, and lines starting with '#' are comments</li>
+ * </ul>
+ * The patterns are compiled once, when the rules are created. Directories are
+ * matched before they are listed, so an excluded directory is never listed.
+ *
+ * <p>
+ * Rules read from the ignore files of a directory apply to the files under
+ * that directory and are chained to the rules of the enclosing directories.
+ * The rules of the innermost directory with a matching pattern decide, and
+ * within them the last matching pattern decides.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class ExcludeRules
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(ExcludeRules.class);
+
+   /** Characters with a special meaning in regular expressions */
+   private static final String REGEX_META_CHARS = "\\.[]{}()<>*+-=!?^$|&";
+
+   /**
+    * Path of the directory the rules are relative to, relative to the listed
+    * directory, empty for the listed directory itself
+    */
+   private final String BasePath;
+
+   /** Rules of the enclosing directories, or null */
+   private final ExcludeRules Parent;
+
+   /** The compiled patterns, in the order they were given */
+   private final ArrayList<Rule> Rules;
+
+   /**
+    * Constructor
+    *
+    * @param basePath
+    *           Path of the directory the rules are relative to, relative to the
+    *           listed directory
+    * @param parent
+    *           Rules of the enclosing directories, or null
+    */
+   private ExcludeRules(String basePath, ExcludeRules parent)
+   {
+      BasePath = basePath;
+      Parent = parent;
+      Rules = new ArrayList<Rule>();
+   }
+
+   /**
+    * Compiles exclude patterns given on the command line. These patterns are
+    * relative to the listed directory and cannot be negated.
+    *
+    * @param patterns
+    *           The patterns
+    * @return The rules, or null if there are no patterns
+    */
+   public static ExcludeRules Compile(List<String> patterns)
+   {
+      if (patterns == null || patterns.isEmpty())
+      {
+         return null;
+      }
+
+      ExcludeRules rules = new ExcludeRules("", null);
+      for (String pattern : patterns)
+      {
+         rules.AddRule(pattern, false);
+      }
+      return rules.Rules.isEmpty() ? null : rules;
+   }
+
+   /**
+    * Reads the ignore files ({@link Constants#IGNORE_FILE_NAMES}) of a
+    * directory and chains their rules to the rules of the enclosing
+    * directories
+    *
+    * @param dir
+    *           The directory
+    * @param dirPath
+    *           Path of the directory relative to the listed directory, empty for
+    *           the listed directory itself
+    * @param parent
+    *           Rules of the enclosing directories, or null
+    * @return The rules applying under the directory, which are the parent
+    *         rules if the directory has no ignore file
+    */
+   public static ExcludeRules ReadIgnoreFiles(Path dir, String dirPath, ExcludeRules parent)
+   {
+      ExcludeRules rules = null;
+      for (String ignoreFileName : Constants.IGNORE_FILE_NAMES)
+      {
+         Path ignoreFile = dir.resolve(ignoreFileName);
+         if (!Files.isRegularFile(ignoreFile))
+         {
+            continue;
+         }
+
+         try
+         {
+            for (String line : Files.readAllLines(ignoreFile, StandardCharsets.UTF_8))
+            {
+               if (rules == null)
+               {
+                  rules = new ExcludeRules(dirPath, parent);
+               }
+               rules.AddRule(line, true);
+            }
+         }
+         catch (IOException e)
+         {
+            logger.error("Unable to read ignore file: " + ignoreFile);
+            logger.debug(e);
+         }
+      }
+
+      return (rules == null || rules.Rules.isEmpty()) ? parent : rules;
+   }
+
+   /**
+    * Checks whether a file or directory is excluded by these rules or the
+    * rules of the enclosing directories
+    *
+    * @param path
+    *           Path of the file or directory relative to the listed directory,
+    *           with '/' separators
+    * @param isDirectory
+    *           True for a directory, false for a file
+    * @return True if the file or directory is excluded, false otherwise
+    */
+   public boolean IsExcluded(String path, boolean isDirectory)
+   {
+      for (ExcludeRules rules = this; rules != null; rules = rules.Parent)
+      {
+         String relPath = rules.BasePath.isEmpty() ? path : path.substring(rules.BasePath.length() + 1);
+         String name = relPath.substring(relPath.lastIndexOf('/') + 1);
+
+         for (int i = rules.Rules.size() - 1; i >= 0; i--)
+         {
+            Rule rule = rules.Rules.get(i);
+            if ((isDirectory || !rule.DirOnly) && rule.Regex.matcher(rule.MatchName ? name : relPath).matches())
+            {
+               return !rule.Negated;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Checks whether a path holding directories is excluded, checking each of
+    * its directories in turn and then the path itself as a file. This is used
+    * for files that are not listed from a directory, such as the files in an
+    * archive.
+    *
+    * @param path
+    *           Path of the file relative to the listed location, with '/'
+    *           separators
+    * @return True if the file or one of its directories is excluded, false
+    *         otherwise
+    */
+   public boolean IsPathExcluded(String path)
+   {
+      for (int sep = path.indexOf('/'); sep >= 0; sep = path.indexOf('/', sep + 1))
+      {
+         if (sep > 0 && IsExcluded(path.substring(0, sep), true))
+         {
+            return true;
+         }
+      }
+      return IsExcluded(path, false);
+   }
+
+   /**
+    * Compiles a pattern and adds it to the rules
+    *
+    * @param pattern
+    *           The pattern, or a line of an ignore file
+    * @param isIgnoreFileLine
+    *           True if the pattern is a line of an ignore file, which may be a
+    *           comment or a negated pattern
+    */
+   private void AddRule(String pattern, boolean isIgnoreFileLine)
+   {
+      boolean negated = false;
+
+      // Trailing spaces are ignored unless escaped
+      int end = pattern.length();
+      while (end > 0 && pattern.charAt(end - 1) == ' ' && (end < 2 || pattern.charAt(end - 2) != '\\'))
+      {
+         end--;
+      }
+      pattern = pattern.substring(0, end);
+
+      if (isIgnoreFileLine)
+      {
+         if (pattern.isEmpty() || pattern.startsWith("#"))
+         {
+            return;
+         }
+         if (pattern.startsWith("!"))
+         {
+            negated = true;
+            pattern = pattern.substring(1);
+         }
+      }
+
+      boolean dirOnly = pattern.endsWith("/");
+      if (dirOnly)
+      {
+         pattern = pattern.substring(0, pattern.length() - 1);
+      }
+
+      boolean matchName = pattern.indexOf('/') < 0;
+      if (pattern.startsWith("/"))
+      {
+         pattern = pattern.substring(1);
+      }
+
+      if (!pattern.isEmpty())
+      {
+         Rules.add(new Rule(Pattern.compile(GlobToRegEx(pattern)), negated, dirOnly, matchName));
+      }
+   }
+
+   /**
+    * Converts a glob pattern to a Java regular expression
+    *
+    * @param glob
+    *           The glob pattern, without leading or trailing '/'
+    * @return The regular expression
+    */
+   private static String GlobToRegEx(String glob)
+   {
+      StringBuilder regEx = new StringBuilder();
+
+      for (int i = 0; i < glob.length(); i++)
+      {
+         char c = glob.charAt(i);
+         if (c == '*' && glob.startsWith("**", i))
+         {
+            // "**/" matches any number of directories, a final "**" matches
+            // everything below
+            if (glob.startsWith("**/", i))
+            {
+               regEx.append("(?:.*/)?");
+               i += 2;
+            }
+            else
+            {
+               regEx.append(".*");
+               i++;
+            }
+         }
+         else if (c == '*')
+         {
+            regEx.append("[^/]*");
+         }
+         else if (c == '?')
+         {
+            regEx.append("[^/]");
+         }
+         else if (c == '[' && glob.indexOf(']', i + 2) > 0)
+         {
+            int close = glob.indexOf(']', i + 2);
+            String members = glob.substring(i + 1, close);
+            regEx.append('[');
+            if (members.startsWith("!") || members.startsWith("^"))
+            {
+               regEx.append('^');
+               members = members.substring(1);
+            }
+            regEx.append(members.replace("\\", "\\\\").replace("[", "\\[").replace("&", "\\&"));
+            regEx.append(']');
+            i = close;
+         }
+         else
+         {
+            // A backslash takes the next character literally
+            if (c == '\\' && i + 1 < glob.length())
+            {
+               c = glob.charAt(++i);
+            }
+            if (REGEX_META_CHARS.indexOf(c) >= 0)
+            {
+               regEx.append('\\');
+            }
+            regEx.append(c);
+         }
+      }
+
+      return regEx.toString();
+   }
+
+   /**
+    * Rule class holds one compiled pattern
+    */
+   private static class Rule
+   {
+      /** The compiled pattern */
+      private final Pattern Regex;
+
+      /** True if the pattern includes again what it matches */
+      private final boolean Negated;
+
+      /** True if the pattern only matches directories */
+      private final boolean DirOnly;
+
+      /** True if the pattern is matched against names rather than paths */
+      private final boolean MatchName;
+
+      /**
+       * Constructor
+       *
+       * @param regex
+       *           The compiled pattern
+       * @param negated
+       *           True if the pattern includes again what it matches
+       * @param dirOnly
+       *           True if the pattern only matches directories
+       * @param matchName
+       *           True if the pattern is matched against names
+       */
+      Rule(Pattern regex, boolean negated, boolean dirOnly, boolean matchName)
+      {
+         Regex = regex;
+         Negated = negated;
+         DirOnly = dirOnly;
+         MatchName = matchName;
+      }
+   }
+}
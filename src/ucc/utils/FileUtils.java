@@ -4,15 +4,16 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.UnsupportedEncodingException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.FileSystemException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -75,37 +76,9 @@ public class FileUtils
          fileList = new ArrayList<String>();
       }
 
-      // Get the file object for the given path
-      File root = new File(path);
-      File[] list = root.listFiles();
-      boolean isSymbolicLink;
-
-      /**
-       * Recursively generates file list in @path directory
-       */
-      if (list != null)
-      {
-         for (File f : list)
-         {
-            isSymbolicLink = Files.isSymbolicLink(f.toPath());
-            if (isSymbolicLink && isSkipSymbolicLinks)
-               continue;
-            if (f.isDirectory())
-            {
-               GenerateFileList(f.getAbsolutePath(), fileList, isSkipSymbolicLinks);
-            }
-            else
-            {
-               fileList.add(f.getAbsoluteFile().toString());
-            }
-         }
-      }
-      else
-      {
-         System.err.println("No files found at directory path: " + path + " . Exiting the program.");
-         logger.fatal("No files found at directory path: " + path + " . Exiting the program.");
-         System.exit(1);
-      }
+      RuntimeParameters rtParams = RuntimeParameters.GetInstance();
+      WalkDirectory(new FileWalker(null, isSkipSymbolicLinks, false, ExcludeRules.Compile(rtParams.ExcludePatterns),
+               rtParams.UseIgnoreFiles), path, fileList);
    }
 
    /**
@@ -129,115 +102,204 @@ public class FileUtils
    public static void GenerateFilteredFileList(String path, ArrayList<String> fileFilters, ArrayList<String> fileList,
             boolean isSkipSymbolicLinks)
    {
-      Matcher matcher;
-      String regEx;
-      boolean isSymbolicLink;
-
       // Allocate memory for file list if it has not been allocated yet
       if (fileList == null)
       {
          fileList = new ArrayList<String>();
       }
 
-      // Get the file object for the given path
-      File root = new File(path);
-      File[] list = root.listFiles();
+      // A git revision is listed like a directory
+      if (GitUtils.IsGitRevision(path))
+      {
+         if (!GitUtils.GenerateFilteredFileList(path, fileFilters, fileList))
+         {
+            System.err.println("No files found in git revision: " + path + " . Exiting the program.");
+            logger.fatal("No files found in git revision: " + path + " . Exiting the program.");
+            System.exit(1);
+         }
+         return;
+      }
 
-      /**
-       * Recursively generates file list in @path directory
-       */
-      if (list != null)
+      // An archive is listed like a directory
+      if (ArchiveUtils.IsArchive(path))
       {
-         for (File f : list)
+         if (!ArchiveUtils.GenerateFilteredFileList(path, fileFilters, fileList))
          {
-            isSymbolicLink = Files.isSymbolicLink(f.toPath());
-            if (isSymbolicLink && isSkipSymbolicLinks)
-               continue;
-            if (f.isDirectory())
-            {
-               GenerateFilteredFileList(f.getAbsolutePath(), fileFilters, fileList, isSkipSymbolicLinks);
-            }
-            else
-            {
-               // Get the file name
-               String fileName = f.getName();
+            System.err.println("No files found in archive: " + path + " . Exiting the program.");
+            logger.fatal("No files found in archive: " + path + " . Exiting the program.");
+            System.exit(1);
+         }
+         return;
+      }
 
-               // If file filters are available, apply them to the file name
-               if (fileFilters != null && !fileFilters.isEmpty())
-               {
-                  for (int i = 0; i < fileFilters.size(); i++)
-                  {
-                     // Replace wild card characters with Java regular
-                     // expression characters
-                     regEx = fileFilters.get(i).replace("?", ".?").replace("*", ".*");
-
-                     try
-                     {
-                        matcher = Pattern.compile(regEx).matcher(fileName);
-
-                        // Check if file name contains filter pattern
-                        if (matcher.matches())
-                        {
-                           // Add full file path to the list
-                           fileList.add(f.getAbsoluteFile().toString());
-                           break;
-                        }
-                     }
-                     catch (PatternSyntaxException ex)
-                     {
-                        logger.error("Invalid file filter \"" + fileFilters.get(i) + "\", could not form "
-                                 + "regular expression with it."
-                                 + "  Removing the file filter from the list of filters.");
-                        logger.debug(ex);
-
-                        // Remove the filter that is throwing the exception to
-                        // prevent future exceptions and to proceed
-                        // with the program
-                        fileFilters.remove(i);
-
-                        // Decrement index variable if there are other filters
-                        // after it so they can be applied
-                        if (i + 1 <= fileFilters.size())
-                        {
-                           i--;
-                        }
-                     }
-                  }
-               }
-               else
-               {
-                  if (isSymbolicLink && isSkipSymbolicLinks)
-                     continue;
-                  if (isSymbolicLink && !isSkipSymbolicLinks)
-                  {
-                     Path link = f.toPath();
-                     try
-                     {
-                        Path t = Files.readSymbolicLink(link);
-                        fileList.add(t.toString());
-                     }
-                     catch (IOException x)
-                     {
-                        logger.error("Unable to read symbolic link: " + link);
-                        logger.error("Try executing UCC-G with the -nolinks flag");
-                        logger.debug(x);
-                     }
-                  }
-                  else
-                  {
-                     // Add full file path to the list
-                     fileList.add(f.getAbsoluteFile().toString());
-                  }
-               }
+      // Symbolic links to files are listed by the path they point to when
+      // all files are listed
+      RuntimeParameters rtParams = RuntimeParameters.GetInstance();
+      Pattern filterPattern = CompileFileFilters(fileFilters);
+      WalkDirectory(new FileWalker(filterPattern, isSkipSymbolicLinks, filterPattern == null,
+               ExcludeRules.Compile(rtParams.ExcludePatterns), rtParams.UseIgnoreFiles), path, fileList);
+   }
+
+   /**
+    * Lists the files under a directory with the given walker. If a directory
+    * cannot be listed, the program exits.
+    * 
+    * @param walker
+    *           The walker
+    * @param path
+    *           Path of the directory
+    * @param fileList
+    *           Receives the files under the directory
+    */
+   private static void WalkDirectory(FileWalker walker, String path, ArrayList<String> fileList)
+   {
+      try
+      {
+         walker.Walk(path, fileList);
+      }
+      catch (FileSystemException e)
+      {
+         String dirPath = (e.getFile() != null) ? e.getFile() : path;
+         System.err.println("No files found at directory path: " + dirPath + " . Exiting the program.");
+         logger.fatal("No files found at directory path: " + dirPath + " . Exiting the program.");
+         logger.debug(e);
+         System.exit(1);
+      }
+   }
+
+   /**
+    * Checks whether a file name matches any of the given file filters, in
+    * which the wild card characters '?' and '*' are allowed. Filters that do
+    * not form a valid regular expression are removed from the list. When many
+    * file names are matched, compile the filters once with CompileFileFilters
+    * instead.
+    * 
+    * @param fileName
+    *           File name, without its path
+    * @param fileFilters
+    *           A list of filters to be applied to the file name
+    * @return True if there are no filters or the file name matches one of
+    *         them, false otherwise
+    */
+   public static boolean MatchesFileFilters(String fileName, ArrayList<String> fileFilters)
+   {
+      return MatchesFileFilters(fileName, CompileFileFilters(fileFilters));
+   }
+
+   /**
+    * Checks whether a file name matches file filters compiled by
+    * CompileFileFilters
+    * 
+    * @param fileName
+    *           File name, without its path
+    * @param filterPattern
+    *           The compiled filters, or null if there are none
+    * @return True if there are no filters or the file name matches one of
+    *         them, false otherwise
+    */
+   public static boolean MatchesFileFilters(String fileName, Pattern filterPattern)
+   {
+      return filterPattern == null || filterPattern.matcher(fileName).matches();
+   }
+
+   /**
+    * Compiles file filters, in which the wild card characters '?' and '*' are
+    * allowed, into a single pattern that matches a file name if any of the
+    * filters does. Filters that do not form a valid regular expression are
+    * removed from the list.
+    * 
+    * @param fileFilters
+    *           A list of filters to be applied to file names
+    * @return The compiled filters, or null if there are no valid filters
+    */
+   public static Pattern CompileFileFilters(ArrayList<String> fileFilters)
+   {
+      String regEx;
+      StringBuilder filtersRegEx = new StringBuilder();
+
+      if (fileFilters == null)
+      {
+         return null;
+      }
+
+      for (int i = 0; i < fileFilters.size(); i++)
+      {
+         // Replace wild card characters with Java regular expression
+         // characters
+         regEx = fileFilters.get(i).replace("?", ".?").replace("*", ".*");
+
+         try
+         {
+            Pattern.compile(regEx);
+
+            if (filtersRegEx.length() > 0)
+            {
+               filtersRegEx.append('|');
             }
+            filtersRegEx.append("(?:").append(regEx).append(')');
+         }
+         catch (PatternSyntaxException ex)
+         {
+            logger.error("Invalid file filter \"" + fileFilters.get(i) + "\", could not form "
+                     + "regular expression with it." + "  Removing the file filter from the list of filters.");
+            logger.debug(ex);
+
+            // Remove the filter that is throwing the exception to prevent
+            // future exceptions and to proceed with the program
+            fileFilters.remove(i);
+            i--;
          }
       }
-      else
+
+      if (filtersRegEx.length() == 0)
       {
-         System.err.println("No files found at directory path: " + path + " . Exiting the program.");
-         logger.fatal("No files found at directory path: " + path + " . Exiting the program.");
-         System.exit(1);
+         return null;
+      }
+      return Pattern.compile(filtersRegEx.toString());
+   }
+
+   /**
+    * Opens a source file for reading. The file may be a file in an archive or
+    * of a git revision.
+    * 
+    * @param fileName
+    *           Name of the source file
+    * @return A stream of the contents of the file
+    * @throws IOException
+    *            If the file could not be opened
+    */
+   public static InputStream OpenSourceFile(String fileName) throws IOException
+   {
+      if (GitUtils.IsGitEntry(fileName))
+      {
+         return GitUtils.OpenEntry(fileName);
+      }
+      if (ArchiveUtils.IsArchiveEntry(fileName))
+      {
+         return ArchiveUtils.OpenEntry(fileName);
+      }
+      return new FileInputStream(fileName);
+   }
+
+   /**
+    * Returns the size of a source file, which may be a file in an archive or
+    * of a git revision
+    * 
+    * @param fileName
+    *           Name of the source file
+    * @return Size of the file in bytes, 0 if it does not exist
+    */
+   public static long GetFileSize(String fileName)
+   {
+      if (GitUtils.IsGitEntry(fileName))
+      {
+         return GitUtils.GetEntrySize(fileName);
+      }
+      if (ArchiveUtils.IsArchiveEntry(fileName))
+      {
+         return ArchiveUtils.GetEntrySize(fileName);
       }
+      return new File(fileName).length();
    }
 
    /**
@@ -329,8 +391,26 @@ public class FileUtils
          {
             File fileListEntry = new File(fileList.get(i));
 
+            // If an entry is a git revision, add all the files of the
+            // revision to the verified list
+            if (GitUtils.IsGitRevision(fileList.get(i)))
+            {
+               GitUtils.GenerateFilteredFileList(fileList.get(i), null, verifiedFileList);
+            }
+            // If an entry is an archive, add all the files in the archive to
+            // the verified list
+            else if (ArchiveUtils.IsArchive(fileList.get(i)))
+            {
+               ArchiveUtils.GenerateFilteredFileList(fileList.get(i), null, verifiedFileList);
+            }
+            // If an entry is a file in an archive or of a git revision, add it
+            // to verified list
+            else if (ArchiveUtils.IsArchiveEntry(fileList.get(i)) || GitUtils.IsGitEntry(fileList.get(i)))
+            {
+               verifiedFileList.add(fileList.get(i));
+            }
             // If an entry is a file, add it to verified list
-            if (fileListEntry.isFile())
+            else if (fileListEntry.isFile())
             {
                verifiedFileList.add(fileListEntry.getAbsoluteFile().toString());
             }
@@ -464,30 +544,15 @@ public class FileUtils
     */
    public static boolean ReadLines(String fileName, ArrayList<String> lineBuf)
    {
-      String line;
       boolean success = false;
 
       if (lineBuf != null)
       {
-         // Create new line reader
-         LineNumberReader reader;
          try
          {
-            reader = new LineNumberReader(new InputStreamReader(new FileInputStream(fileName), Constants.CHARSET_NAME));
-
-            // Read lines till the end of the stream
-            while ((line = reader.readLine()) != null)
-            {
-               if (!line.trim().isEmpty())
-               {
-                  lineBuf.add(line);
-               }
-               success = true;
-            }
-            if (reader != null)
-            {
-               reader.close();
-            }
+            success = ReadLines(
+                     new LineNumberReader(new InputStreamReader(new FileInputStream(fileName), Constants.CHARSET_NAME)),
+                     lineBuf);
          }
          catch (UnsupportedEncodingException e)
          {
@@ -509,6 +574,73 @@ public class FileUtils
       return success;
    }
 
+   /**
+    * Reads lines from a text buffer into a String buffer where each entry
+    * corresponds to a line in the text
+    * 
+    * @param textBuf
+    *           Text buffer to read
+    * @param lineBuf
+    *           String buffer to store the text
+    * @return True if the text was read successfully. False, otherwise
+    */
+   public static boolean ReadLines(SpillableTextBuffer textBuf, ArrayList<String> lineBuf)
+   {
+      boolean success = false;
+
+      if (lineBuf != null)
+      {
+         try
+         {
+            success = ReadLines(new LineNumberReader(textBuf.OpenReader()), lineBuf);
+         }
+         catch (IOException e)
+         {
+            logger.error("IOException when reading file " + textBuf.GetFileName());
+            logger.debug(e);
+         }
+      }
+
+      return success;
+   }
+
+   /**
+    * Reads the non-blank lines of a reader into a String buffer and closes the
+    * reader
+    * 
+    * @param reader
+    *           Reader to read lines from
+    * @param lineBuf
+    *           String buffer to store the lines
+    * @return True if at least one line was read. False, otherwise
+    * @throws IOException
+    *            If the reader failed
+    */
+   private static boolean ReadLines(LineNumberReader reader, ArrayList<String> lineBuf) throws IOException
+   {
+      String line;
+      boolean success = false;
+
+      try
+      {
+         // Read lines till the end of the stream
+         while ((line = reader.readLine()) != null)
+         {
+            if (!line.trim().isEmpty())
+            {
+               lineBuf.add(line);
+            }
+            success = true;
+         }
+      }
+      finally
+      {
+         reader.close();
+      }
+
+      return success;
+   }
+
    /**
     * Deletes the file with provided file name
     * 
@@ -554,6 +686,53 @@ public class FileUtils
       return verifiedFileList;
    }
 
+   /**
+    * Removes the paths leading to a file already in the list, such as symbolic
+    * links, hard links or bind mounts of it. Files are told apart by their file
+    * key (device and inode). The first path of each file is kept, and a path
+    * listed again is dropped. Files in archives and git revisions are always
+    * kept.
+    *
+    * @param fileList
+    *           ArrayList of filenames
+    * @param fileAliases
+    *           Receives a pair of the removed path and the kept path for each
+    *           removed path
+    * @return ArrayList of filenames with one path for each file
+    */
+   public static ArrayList<String> RemoveFileAliases(ArrayList<String> fileList, ArrayList<String[]> fileAliases)
+   {
+      ArrayList<String> uniqueFileList = new ArrayList<String>(fileList.size());
+      HashMap<Object, String> visitedFiles = new HashMap<Object, String>();
+
+      for (String fileName : fileList)
+      {
+         Object key = null;
+         if (!ArchiveUtils.IsArchiveEntry(fileName) && !GitUtils.IsGitEntry(fileName))
+         {
+            key = FileWalker.GetFileKey(Paths.get(fileName));
+         }
+
+         String countedFileName = key == null ? null : visitedFiles.putIfAbsent(key, fileName);
+         if (countedFileName != null && countedFileName.equals(fileName))
+         {
+            // The same path listed twice is not an alias
+            continue;
+         }
+         else if (countedFileName != null)
+         {
+            fileAliases.add(new String[] { fileName, countedFileName });
+            logger.debug("Not counting " + fileName + " again, it is the same file as " + countedFileName);
+         }
+         else
+         {
+            uniqueFileList.add(fileName);
+         }
+      }
+
+      return uniqueFileList;
+   }
+
    public static void CheckForDuplicateFileNames(ArrayList<UCCFile> cntrResults)
    {
       String filenameA;
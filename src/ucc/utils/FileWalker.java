@@ -0,0 +1,411 @@
+package ucc.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+
+/**
+ * FileWalker class lists the files under a directory, listing several
+ * directories at once with a pool of {@link Constants#FILE_WALKER_THREADS}
+ * threads. The attributes of each entry are read once, without following
+ * symbolic links, and they are only read again for symbolic links. File names
+ * are matched against filters compiled once by
+ * {@link FileUtils#CompileFileFilters}. Files and directories matched by
+ * {@link ExcludeRules} are left out, and excluded directories are not listed.
+ * A directory reached again through a symbolic link or a bind mount under
+ * itself, which would make the walk endless, is told by the file key (device
+ * and inode) of its enclosing directories and is not listed again.
+ *
+ * <p>
+ * Each directory is listed by a task that starts a new task for each of its
+ * sub-directories before returning. The calling thread takes the files of the
+ * listed directories, waiting for each directory in turn, so the files are
+ * listed in the same order as a recursive walk of the directory while the
+ * rest of the tree is still being listed.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class FileWalker
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(FileWalker.class);
+
+   /** Filter file names must match, or null to list all files */
+   private Pattern FilterPattern;
+
+   /** Flag indicating whether symbolic links are skipped */
+   private boolean SkipSymbolicLinks;
+
+   /**
+    * Flag indicating whether symbolic links to files are listed by the path
+    * they point to rather than by their own path
+    */
+   private boolean ListLinkTargets;
+
+   /** Rules of files and directories to leave out, or null */
+   private ExcludeRules ExcludedPaths;
+
+   /**
+    * Flag indicating whether the rules of the ignore files of each directory
+    * are applied
+    */
+   private boolean UseIgnoreFiles;
+
+   /** Threads listing the directories, while a walk is running */
+   private ExecutorService Executor;
+
+   /**
+    * Constructor
+    *
+    * @param filterPattern
+    *           Filter file names must match, or null to list all files
+    * @param isSkipSymbolicLinks
+    *           Flag indicating whether symbolic links should be skipped
+    *           (excluded)
+    * @param isListLinkTargets
+    *           Flag indicating whether symbolic links to files are listed by
+    *           the path they point to
+    * @param excludedPaths
+    *           Rules of files and directories to leave out, or null
+    * @param isUseIgnoreFiles
+    *           Flag indicating whether the ignore files of each directory are
+    *           applied, which also leaves out git metadata directories
+    */
+   public FileWalker(Pattern filterPattern, boolean isSkipSymbolicLinks, boolean isListLinkTargets,
+            ExcludeRules excludedPaths, boolean isUseIgnoreFiles)
+   {
+      FilterPattern = filterPattern;
+      SkipSymbolicLinks = isSkipSymbolicLinks;
+      ListLinkTargets = isListLinkTargets;
+      ExcludedPaths = excludedPaths;
+      UseIgnoreFiles = isUseIgnoreFiles;
+   }
+
+   /**
+    * Lists the files under a directory, looking through sub-directories
+    * recursively
+    *
+    * @param path
+    *           Path of the directory
+    * @param fileList
+    *           Receives the absolute paths of the files
+    * @throws FileSystemException
+    *            If the directory or one of its sub-directories could not be
+    *            listed. {@link FileSystemException#getFile} gives its path.
+    */
+   public void Walk(String path, ArrayList<String> fileList) throws FileSystemException
+   {
+      Executor = Executors.newFixedThreadPool(Constants.FILE_WALKER_THREADS, runnable -> {
+         Thread thread = new Thread(runnable, "FileWalker");
+         thread.setDaemon(true);
+         return thread;
+      });
+
+      try
+      {
+         // Directories whose entries are being taken, innermost last
+         ArrayDeque<Iterator<Object>> dirs = new ArrayDeque<Iterator<Object>>();
+         Path root = Paths.get(path).toAbsolutePath();
+         dirs.push(GetEntries(ListDirectoryLater(root, "", null, new DirKey(GetFileKey(root), null))));
+
+         while (!dirs.isEmpty())
+         {
+            Iterator<Object> entries = dirs.peek();
+            if (!entries.hasNext())
+            {
+               dirs.pop();
+               continue;
+            }
+
+            Object entry = entries.next();
+            if (entry instanceof String)
+            {
+               fileList.add((String) entry);
+            }
+            else
+            {
+               @SuppressWarnings("unchecked")
+               Future<ArrayList<Object>> subDir = (Future<ArrayList<Object>>) entry;
+               dirs.push(GetEntries(subDir));
+            }
+         }
+      }
+      finally
+      {
+         Executor.shutdownNow();
+         Executor = null;
+      }
+   }
+
+   /**
+    * Starts listing a directory in the thread pool
+    *
+    * @param dir
+    *           Absolute path of the directory
+    * @param dirPath
+    *           Path of the directory relative to the walked directory, with '/'
+    *           separators
+    * @param ignoreRules
+    *           Rules of the ignore files of the enclosing directories, or null
+    * @param dirKeys
+    *           File keys of the directory and its enclosing directories
+    * @return The entries of the directory, once listed
+    */
+   private Future<ArrayList<Object>> ListDirectoryLater(Path dir, String dirPath, ExcludeRules ignoreRules,
+            DirKey dirKeys)
+   {
+      return Executor.submit(() -> ListDirectory(dir, dirPath, ignoreRules, dirKeys));
+   }
+
+   /**
+    * Waits for a directory to be listed and returns its entries
+    *
+    * @param dir
+    *           The directory being listed
+    * @return An iterator over the entries of the directory
+    * @throws FileSystemException
+    *            If the directory could not be listed
+    */
+   private Iterator<Object> GetEntries(Future<ArrayList<Object>> dir) throws FileSystemException
+   {
+      try
+      {
+         return dir.get().iterator();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new FileSystemException(null, null, "Interrupted while listing files");
+      }
+      catch (ExecutionException e)
+      {
+         if (e.getCause() instanceof FileSystemException)
+         {
+            throw (FileSystemException) e.getCause();
+         }
+         throw new FileSystemException(null, null, String.valueOf(e.getCause()));
+      }
+   }
+
+   /**
+    * Lists the entries of a directory. Each entry is either the path of a file
+    * to list or the future entries of a sub-directory, whose listing is
+    * started here.
+    *
+    * @param dir
+    *           Absolute path of the directory
+    * @param dirPath
+    *           Path of the directory relative to the walked directory, with '/'
+    *           separators
+    * @param ignoreRules
+    *           Rules of the ignore files of the enclosing directories, or null
+    * @param dirKeys
+    *           File keys of the directory and its enclosing directories
+    * @return The entries of the directory, in directory order
+    * @throws IOException
+    *            If the directory could not be listed
+    */
+   private ArrayList<Object> ListDirectory(Path dir, String dirPath, ExcludeRules ignoreRules, DirKey dirKeys)
+            throws IOException
+   {
+      ArrayList<Object> entries = new ArrayList<Object>();
+
+      if (UseIgnoreFiles)
+      {
+         ignoreRules = ExcludeRules.ReadIgnoreFiles(dir, dirPath, ignoreRules);
+      }
+
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir))
+      {
+         for (Path entry : stream)
+         {
+            boolean isSymbolicLink = false;
+            BasicFileAttributes attrs = null;
+            try
+            {
+               attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+               isSymbolicLink = attrs.isSymbolicLink();
+               if (isSymbolicLink && !SkipSymbolicLinks)
+               {
+                  attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+               }
+            }
+            catch (IOException e)
+            {
+               // The entry is listed as a file, as it cannot be told apart
+               logger.debug(e);
+               attrs = null;
+            }
+
+            if (isSymbolicLink && SkipSymbolicLinks)
+            {
+               continue;
+            }
+            boolean isDirectory = attrs != null && attrs.isDirectory();
+
+            // Excluded directories are left out without being listed
+            String name = entry.getFileName().toString();
+            String entryPath = dirPath.isEmpty() ? name : dirPath + "/" + name;
+            if (IsExcluded(entryPath, name, isDirectory, ignoreRules))
+            {
+               continue;
+            }
+
+            if (isDirectory)
+            {
+               // A directory enclosing itself is not listed again
+               Object key = attrs.fileKey();
+               if (dirKeys.Contains(key))
+               {
+                  logger.warn("Skipping directory that loops back to an enclosing directory: " + entry);
+                  continue;
+               }
+               entries.add(ListDirectoryLater(entry, entryPath, ignoreRules, new DirKey(key, dirKeys)));
+            }
+            else if (FilterPattern != null)
+            {
+               if (FilterPattern.matcher(name).matches())
+               {
+                  entries.add(entry.toString());
+               }
+            }
+            else if (isSymbolicLink && ListLinkTargets)
+            {
+               try
+               {
+                  // Relative targets are relative to the directory of the link
+                  entries.add(dir.resolve(Files.readSymbolicLink(entry)).normalize().toString());
+               }
+               catch (IOException x)
+               {
+                  logger.error("Unable to read symbolic link: " + entry);
+                  logger.error("Try executing UCC-G with the -nolinks flag");
+                  logger.debug(x);
+               }
+            }
+            else
+            {
+               entries.add(entry.toString());
+            }
+         }
+      }
+
+      return entries;
+   }
+
+   /**
+    * Checks whether a file or directory is to be left out
+    *
+    * @param entryPath
+    *           Path of the file or directory relative to the walked directory
+    * @param name
+    *           Name of the file or directory
+    * @param isDirectory
+    *           True for a directory, false for a file
+    * @param ignoreRules
+    *           Rules of the ignore files of the enclosing directories, or null
+    * @return True if the file or directory is to be left out, false otherwise
+    */
+   private boolean IsExcluded(String entryPath, String name, boolean isDirectory, ExcludeRules ignoreRules)
+   {
+      if (ExcludedPaths != null && ExcludedPaths.IsExcluded(entryPath, isDirectory))
+      {
+         return true;
+      }
+      if (UseIgnoreFiles && isDirectory && name.equals(Constants.GIT_DIR_NAME))
+      {
+         return true;
+      }
+      return ignoreRules != null && ignoreRules.IsExcluded(entryPath, isDirectory);
+   }
+
+   /**
+    * Returns the file key of a file or directory, following symbolic links
+    *
+    * @param path
+    *           Path of the file or directory
+    * @return The file key, or null if it is not available
+    */
+   public static Object GetFileKey(Path path)
+   {
+      try
+      {
+         return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+      }
+      catch (IOException e)
+      {
+         logger.debug(e);
+         return null;
+      }
+   }
+
+   /**
+    * DirKey class holds the file key of a directory being listed, chained to
+    * the file keys of its enclosing directories
+    */
+   private static class DirKey
+   {
+      /** File key of the directory, or null if it is not available */
+      private final Object Key;
+
+      /** File keys of the enclosing directories, or null */
+      private final DirKey Parent;
+
+      /**
+       * Constructor
+       *
+       * @param key
+       *           File key of the directory, or null
+       * @param parent
+       *           File keys of the enclosing directories, or null
+       */
+      DirKey(Object key, DirKey parent)
+      {
+         Key = key;
+         Parent = parent;
+      }
+
+      /**
+       * Checks whether a file key is the key of this directory or of one of
+       * its enclosing directories
+       *
+       * @param key
+       *           The file key, or null
+       * @return True if the key was found, false otherwise
+       */
+      boolean Contains(Object key)
+      {
+         if (key == null)
+         {
+            return false;
+         }
+         for (DirKey dirKey = this; dirKey != null; dirKey = dirKey.Parent)
+         {
+            if (key.equals(dirKey.Key))
+            {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+}
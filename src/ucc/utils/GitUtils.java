@@ -0,0 +1,550 @@
+package ucc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+import ucc.main.RuntimeParameters;
+
+/**
+ * This class reads source files from the object database of a local git
+ * repository, so that a revision can be counted without checking it out. A
+ * revision is named by the path of the repository followed by
+ * {@link Constants#GIT_REVISION_SEPARATOR} and any revision git accepts, for
+ * example <code>/work/project@v2.1</code>. A file of a revision is named by
+ * the revision followed by {@link Constants#ARCHIVE_ENTRY_SEPARATOR} and the
+ * path of the file in the revision, for example
+ * <code>/work/project@v2.1!/src/main.c</code>. Functions in this class are
+ * static so they can be called directly without instantiating an object of
+ * this class.
+ *
+ * <p>
+ * The git command line is used to list the files of a revision and to read
+ * their contents, through one long running <code>git cat-file --batch</code>
+ * process per repository. The checksum of a file of a revision is derived
+ * from its contents, as for any other file, so that it can be compared with
+ * the checksums of files of directories and archives. It is calculated once
+ * per blob ID, so files with the same contents in two revisions are read
+ * once.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class GitUtils
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(GitUtils.class);
+
+   /** Mode git gives to symbolic links, which are not listed as files */
+   private static final String GIT_SYMLINK_MODE = "120000";
+
+   /** Listed revisions, by name */
+   private static final ConcurrentHashMap<String, GitRevision> Revisions = new ConcurrentHashMap<String, GitRevision>();
+
+   /** Names of revisions that could not be read */
+   private static final ConcurrentHashMap<String, Boolean> BadRevisions = new ConcurrentHashMap<String, Boolean>();
+
+   /** Running cat-file processes, by repository path */
+   private static final ConcurrentHashMap<String, BlobReader> BlobReaders = new ConcurrentHashMap<String, BlobReader>();
+
+   /** Checksums of the contents of the blobs read so far, by blob ID */
+   private static final ConcurrentHashMap<String, Long> BlobChecksums = new ConcurrentHashMap<String, Long>();
+
+   /**
+    * Checks whether a path names a revision of a git repository. A path that
+    * exists as a file or directory is never taken as a revision.
+    *
+    * @param path
+    *           Path given as a source directory
+    * @return True if the path names a revision that could be read, false
+    *         otherwise
+    */
+   public static boolean IsGitRevision(String path)
+   {
+      return path.contains(Constants.GIT_REVISION_SEPARATOR) && !new File(path).exists()
+               && GetRevision(path) != null;
+   }
+
+   /**
+    * Checks whether a file name is the name of a file of a git revision
+    *
+    * @param fileName
+    *           File name
+    * @return True if the file name is that of a file of a revision, false
+    *         otherwise
+    */
+   public static boolean IsGitEntry(String fileName)
+   {
+      int sep = fileName.indexOf(Constants.ARCHIVE_ENTRY_SEPARATOR);
+      return sep > 0 && fileName.lastIndexOf(Constants.GIT_REVISION_SEPARATOR, sep) > 0
+               && GetRevision(fileName.substring(0, sep)) != null && !new File(fileName).exists();
+   }
+
+   /**
+    * Generates a list of the files of a git revision. The file names are
+    * filtered based on the provided file filters, as for the files of a
+    * directory.
+    *
+    * @param revisionName
+    *           Name of the revision
+    * @param fileFilters
+    *           A list of filters to be applied to file names, null or empty to
+    *           include all files
+    * @param fileList
+    *           Receives the names of the files of the revision
+    * @return True if the revision could be read, false otherwise
+    */
+   public static boolean GenerateFilteredFileList(String revisionName, ArrayList<String> fileFilters,
+            ArrayList<String> fileList)
+   {
+      GitRevision revision = GetRevision(revisionName);
+      if (revision == null)
+      {
+         return false;
+      }
+
+      Pattern filterPattern = FileUtils.CompileFileFilters(fileFilters);
+      ExcludeRules excludedPaths = ExcludeRules.Compile(RuntimeParameters.GetInstance().ExcludePatterns);
+      for (String path : revision.Blobs.keySet())
+      {
+         if (FileUtils.MatchesFileFilters(FileUtils.GetFileName(path), filterPattern)
+                  && (excludedPaths == null || !excludedPaths.IsPathExcluded(path)))
+         {
+            fileList.add(revision.Name + Constants.ARCHIVE_ENTRY_SEPARATOR + path);
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Opens a file of a git revision for reading
+    *
+    * @param fileName
+    *           Name of the file of the revision
+    * @return A stream of the contents of the file
+    * @throws IOException
+    *            If the repository could not be read or the revision does not
+    *            hold the file
+    */
+   public static InputStream OpenEntry(String fileName) throws IOException
+   {
+      GitRevision revision = GetEntryRevision(fileName);
+      GitBlob blob = GetBlob(revision, fileName);
+      if (blob == null)
+      {
+         throw new FileNotFoundException(fileName);
+      }
+
+      BlobReader reader = BlobReaders.computeIfAbsent(revision.RepoPath, BlobReader::new);
+      return new ByteArrayInputStream(reader.Read(blob.Id));
+   }
+
+   /**
+    * Returns the size of a file of a git revision
+    *
+    * @param fileName
+    *           Name of the file of the revision
+    * @return Size of the file in bytes, 0 if it could not be found
+    */
+   public static long GetEntrySize(String fileName)
+   {
+      GitBlob blob = GetBlob(GetEntryRevision(fileName), fileName);
+      return (blob == null) ? 0 : blob.Size;
+   }
+
+   /**
+    * Returns the checksum of a file of a git revision, derived from the SHA-256
+    * digest of its contents as for files of directories and archives. The
+    * checksum is calculated once per blob ID, so files of any revision of any
+    * repository that have the same contents are read once.
+    *
+    * @param fileName
+    *           Name of the file of the revision
+    * @return Checksum value, 0 if the file could not be found
+    */
+   public static long GetEntryChecksum(String fileName)
+   {
+      GitBlob blob = GetBlob(GetEntryRevision(fileName), fileName);
+      if (blob == null)
+      {
+         return 0;
+      }
+
+      return BlobChecksums.computeIfAbsent(blob.Id,
+               id -> ChecksumUtils.GetSourceFileChecksum(fileName, Long.MAX_VALUE));
+   }
+
+   /**
+    * Stops the cat-file processes and releases the listed revisions
+    */
+   public static void CloseRepositories()
+   {
+      for (BlobReader reader : BlobReaders.values())
+      {
+         reader.Close();
+      }
+      BlobReaders.clear();
+      BlobChecksums.clear();
+      Revisions.clear();
+      BadRevisions.clear();
+   }
+
+   /**
+    * Returns the revision a file of a git revision belongs to
+    *
+    * @param fileName
+    *           Name of the file of the revision
+    * @return The revision, or null if it could not be read
+    */
+   private static GitRevision GetEntryRevision(String fileName)
+   {
+      return GetRevision(fileName.substring(0, fileName.indexOf(Constants.ARCHIVE_ENTRY_SEPARATOR)));
+   }
+
+   /**
+    * Returns the blob of a file of a git revision
+    *
+    * @param revision
+    *           The revision, or null
+    * @param fileName
+    *           Name of the file of the revision
+    * @return The blob, or null if the revision does not hold the file
+    */
+   private static GitBlob GetBlob(GitRevision revision, String fileName)
+   {
+      if (revision == null)
+      {
+         return null;
+      }
+      int pathStart = revision.Name.length() + Constants.ARCHIVE_ENTRY_SEPARATOR.length();
+      return revision.Blobs.get(fileName.substring(pathStart));
+   }
+
+   /**
+    * Returns a git revision, listing its files the first time it is used
+    *
+    * @param revisionName
+    *           Name of the revision
+    * @return The revision, or null if the name does not name a revision that
+    *         could be read
+    */
+   private static GitRevision GetRevision(String revisionName)
+   {
+      GitRevision revision = Revisions.get(revisionName);
+      if (revision != null || BadRevisions.containsKey(revisionName))
+      {
+         return revision;
+      }
+
+      synchronized (Revisions)
+      {
+         revision = Revisions.get(revisionName);
+         if (revision == null && !BadRevisions.containsKey(revisionName))
+         {
+            revision = ReadRevision(revisionName);
+            if (revision != null)
+            {
+               Revisions.put(revisionName, revision);
+            }
+            else
+            {
+               BadRevisions.put(revisionName, Boolean.TRUE);
+            }
+         }
+      }
+      return revision;
+   }
+
+   /**
+    * Lists the files of a git revision. The repository path is the longest
+    * part of the name before a revision separator that is a directory.
+    *
+    * @param revisionName
+    *           Name of the revision
+    * @return The revision, or null if the name does not name a revision that
+    *         could be read
+    */
+   private static GitRevision ReadRevision(String revisionName)
+   {
+      int sep = revisionName.lastIndexOf(Constants.GIT_REVISION_SEPARATOR);
+      while (sep > 0 && !new File(revisionName.substring(0, sep)).isDirectory())
+      {
+         sep = revisionName.lastIndexOf(Constants.GIT_REVISION_SEPARATOR, sep - 1);
+      }
+      if (sep <= 0 || sep == revisionName.length() - 1)
+      {
+         return null;
+      }
+
+      String repoPath = new File(revisionName.substring(0, sep)).getAbsolutePath();
+      String rev = revisionName.substring(sep + Constants.GIT_REVISION_SEPARATOR.length());
+
+      try
+      {
+         String treeId = new String(RunGit(repoPath, "rev-parse", "--verify", "--quiet", rev + "^{tree}"),
+                  StandardCharsets.UTF_8).trim();
+
+         GitRevision revision = new GitRevision(revisionName, repoPath);
+
+         // Each entry is "<mode> <type> <id> <size>\t<path>", ended by NUL
+         String listing = new String(RunGit(repoPath, "ls-tree", "-r", "-z", "-l", treeId), StandardCharsets.UTF_8);
+         for (String entry : listing.split("\0"))
+         {
+            int tab = entry.indexOf('\t');
+            if (tab < 0)
+            {
+               continue;
+            }
+
+            String[] fields = entry.substring(0, tab).trim().split(" +");
+            if (fields.length == 4 && fields[1].equals("blob") && !fields[0].equals(GIT_SYMLINK_MODE))
+            {
+               revision.Blobs.put(entry.substring(tab + 1), new GitBlob(fields[2], Long.parseLong(fields[3])));
+            }
+         }
+
+         logger.debug("Listed " + revision.Blobs.size() + " files of git revision " + revisionName);
+         return revision;
+      }
+      catch (IOException e)
+      {
+         // Not every name with a revision separator is meant as a revision
+         logger.debug("Could not read git revision " + revisionName + ": " + e.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * Runs a git command in a repository and returns its output
+    *
+    * @param repoPath
+    *           Path of the repository
+    * @param args
+    *           Arguments of the git command
+    * @return The output of the command
+    * @throws IOException
+    *            If git could not be run or the command failed
+    */
+   private static byte[] RunGit(String repoPath, String... args) throws IOException
+   {
+      ArrayList<String> command = new ArrayList<String>();
+      command.add("git");
+      command.add("-C");
+      command.add(repoPath);
+      for (String arg : args)
+      {
+         command.add(arg);
+      }
+
+      Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+      process.getOutputStream().close();
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      try (InputStream in = process.getInputStream())
+      {
+         byte[] buffer = new byte[Constants.CHECKSUM_BUFFER_SIZE];
+         int numRead;
+         while ((numRead = in.read(buffer)) > 0)
+         {
+            output.write(buffer, 0, numRead);
+         }
+      }
+
+      try
+      {
+         int exitCode = process.waitFor();
+         if (exitCode != 0)
+         {
+            throw new IOException("git " + args[0] + " exited with code " + exitCode);
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IOException("Interrupted while waiting for git " + args[0]);
+      }
+      return output.toByteArray();
+   }
+
+   /**
+    * GitRevision class holds the files of a listed git revision
+    */
+   private static class GitRevision
+   {
+      /** Name of the revision, as given by the user */
+      private final String Name;
+
+      /** Absolute path of the repository */
+      private final String RepoPath;
+
+      /** Blobs of the files of the revision, by path in the revision */
+      private final LinkedHashMap<String, GitBlob> Blobs;
+
+      /**
+       * Constructor
+       *
+       * @param name
+       *           Name of the revision
+       * @param repoPath
+       *           Absolute path of the repository
+       */
+      GitRevision(String name, String repoPath)
+      {
+         Name = name;
+         RepoPath = repoPath;
+         Blobs = new LinkedHashMap<String, GitBlob>();
+      }
+   }
+
+   /**
+    * GitBlob class holds the ID and size of the blob of a file
+    */
+   private static class GitBlob
+   {
+      /** Blob ID, as hexadecimal digits */
+      private final String Id;
+
+      /** Size of the blob in bytes */
+      private final long Size;
+
+      /**
+       * Constructor
+       *
+       * @param id
+       *           Blob ID
+       * @param size
+       *           Size of the blob in bytes
+       */
+      GitBlob(String id, long size)
+      {
+         Id = id;
+         Size = size;
+      }
+   }
+
+   /**
+    * BlobReader class reads blobs of a repository through a running
+    * <code>git cat-file --batch</code> process. Blobs are read one at a time.
+    */
+   private static class BlobReader
+   {
+      /** Path of the repository */
+      private final String RepoPath;
+
+      /** The cat-file process, started on first use */
+      private Process CatFile;
+
+      /** Requests to the process */
+      private OutputStream Requests;
+
+      /** Responses of the process */
+      private InputStream Responses;
+
+      /**
+       * Constructor
+       *
+       * @param repoPath
+       *           Path of the repository
+       */
+      BlobReader(String repoPath)
+      {
+         RepoPath = repoPath;
+      }
+
+      /**
+       * Reads the contents of a blob
+       *
+       * @param blobId
+       *           Blob ID
+       * @return Contents of the blob
+       * @throws IOException
+       *            If the blob could not be read
+       */
+      synchronized byte[] Read(String blobId) throws IOException
+      {
+         if (CatFile == null)
+         {
+            CatFile = new ProcessBuilder("git", "-C", RepoPath, "cat-file", "--batch")
+                     .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            Requests = CatFile.getOutputStream();
+            Responses = new BufferedInputStream(CatFile.getInputStream());
+         }
+
+         Requests.write((blobId + "\n").getBytes(StandardCharsets.US_ASCII));
+         Requests.flush();
+
+         // The response starts with "<id> <type> <size>" or "<id> missing"
+         StringBuilder header = new StringBuilder();
+         int c;
+         while ((c = Responses.read()) != '\n')
+         {
+            if (c < 0)
+            {
+               throw new IOException("git cat-file stopped in " + RepoPath);
+            }
+            header.append((char) c);
+         }
+
+         String[] fields = header.toString().split(" ");
+         if (fields.length != 3)
+         {
+            throw new FileNotFoundException("Blob " + blobId + " not found in " + RepoPath);
+         }
+
+         byte[] contents = new byte[Integer.parseInt(fields[2])];
+         int offset = 0;
+         while (offset < contents.length)
+         {
+            int numRead = Responses.read(contents, offset, contents.length - offset);
+            if (numRead < 0)
+            {
+               throw new IOException("git cat-file stopped in " + RepoPath);
+            }
+            offset += numRead;
+         }
+
+         // The contents are followed by a line feed
+         Responses.read();
+         return contents;
+      }
+
+      /**
+       * Stops the cat-file process
+       */
+      synchronized void Close()
+      {
+         if (CatFile != null)
+         {
+            try
+            {
+               Requests.close();
+               CatFile.waitFor();
+            }
+            catch (IOException e)
+            {
+               logger.debug(e);
+            }
+            catch (InterruptedException e)
+            {
+               Thread.currentThread().interrupt();
+            }
+            CatFile.destroy();
+            CatFile = null;
+         }
+      }
+   }
+}
@@ -0,0 +1,316 @@
+package ucc.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import ucc.datatypes.Constants;
+import ucc.datatypes.DataTypes.LanguagePropertiesType;
+
+/**
+ * LanguageDetector class tells the language of a source file from its first
+ * {@link Constants#LANG_DETECT_HEAD_SIZE} bytes, for files whose extension
+ * does not tell it. It looks, in this order, for:
+ * <ul>
+ * <li>A shebang line naming the interpreter, such as #!/usr/bin/env python3</li>
+ * <li>A vim or emacs modeline naming the file type, such as vim: set ft=sh: or
+ * -*- mode: perl -*-, in the first lines of the file</li>
+ * <li>A signature opening the file, such as &lt;?php or &lt;?xml</li>
+ * </ul>
+ * Binary files, holding a NUL byte, are never detected. The result for each
+ * file is cached, so each file is read at most once.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class LanguageDetector
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(LanguageDetector.class);
+
+   /** Number of lines at the start of a file searched for a modeline */
+   private static final int MODELINE_LINES = 5;
+
+   /** Shebang line: the interpreter and its arguments */
+   private static final Pattern SHEBANG_PATTERN = Pattern.compile("^#!\\s*(\\S+)(.*)");
+
+   /** Vim modeline: the file type */
+   private static final Pattern VIM_MODELINE_PATTERN =
+            Pattern.compile("(?:^|\\s)(?:vi|vim|ex)(?:[<=>]?\\d+)?:.*?\\b(?:ft|filetype|syntax)=([\\w+#-]+)");
+
+   /** Emacs modeline: the text between the -*- markers */
+   private static final Pattern EMACS_MODELINE_PATTERN = Pattern.compile("-\\*-(.+?)-\\*-");
+
+   /** Version numbers at the end of an interpreter name, as in python3.8 */
+   private static final Pattern INTERPRETER_VERSION_PATTERN = Pattern.compile("[\\d.]+$");
+
+   /** Languages of the interpreters named by shebang lines */
+   private static final HashMap<String, LanguagePropertiesType> INTERPRETERS =
+            new HashMap<String, LanguagePropertiesType>();
+
+   /** Languages of the file types named by modelines */
+   private static final HashMap<String, LanguagePropertiesType> MODE_NAMES =
+            new HashMap<String, LanguagePropertiesType>();
+
+   /**
+    * File extensions often used by files of another language that can be
+    * detected, for which a detected language is used instead of the mapped
+    * one: .in templates such as configure.in or setup.py.in. Extensions whose
+    * other languages are not counted, such as .m for Objective-C, .v for Coq
+    * or .pp for Puppet, are left out since detection could not pick a better
+    * counter for them.
+    */
+   private static final HashSet<String> AMBIGUOUS_FILE_EXTS = new HashSet<String>(Arrays.asList(".in"));
+
+   /** Languages detected so far, keyed by file name, empty if not detected */
+   private static final ConcurrentHashMap<String, Optional<LanguagePropertiesType>> DetectedLangs =
+            new ConcurrentHashMap<String, Optional<LanguagePropertiesType>>();
+
+   static
+   {
+      for (String name : new String[] { "sh", "bash", "ksh", "zsh", "dash", "ash", "mksh" })
+      {
+         INTERPRETERS.put(name, LanguagePropertiesType.BASH);
+      }
+      INTERPRETERS.put("csh", LanguagePropertiesType.CSHELL);
+      INTERPRETERS.put("tcsh", LanguagePropertiesType.CSHELL);
+      INTERPRETERS.put("python", LanguagePropertiesType.PYTHON);
+      INTERPRETERS.put("pypy", LanguagePropertiesType.PYTHON);
+      INTERPRETERS.put("perl", LanguagePropertiesType.PERL);
+      INTERPRETERS.put("ruby", LanguagePropertiesType.RUBY);
+      INTERPRETERS.put("php", LanguagePropertiesType.PHP);
+      INTERPRETERS.put("rscript", LanguagePropertiesType.R);
+      INTERPRETERS.put("node", LanguagePropertiesType.JAVASCRIPT);
+      INTERPRETERS.put("nodejs", LanguagePropertiesType.JAVASCRIPT);
+      INTERPRETERS.put("scala", LanguagePropertiesType.SCALA);
+      INTERPRETERS.put("make", LanguagePropertiesType.MAKEFILE);
+      INTERPRETERS.put("gmake", LanguagePropertiesType.MAKEFILE);
+
+      for (String name : new String[] { "sh", "bash", "ksh", "zsh", "shell-script" })
+      {
+         MODE_NAMES.put(name, LanguagePropertiesType.BASH);
+      }
+      MODE_NAMES.put("csh", LanguagePropertiesType.CSHELL);
+      MODE_NAMES.put("tcsh", LanguagePropertiesType.CSHELL);
+      MODE_NAMES.put("python", LanguagePropertiesType.PYTHON);
+      MODE_NAMES.put("perl", LanguagePropertiesType.PERL);
+      MODE_NAMES.put("cperl", LanguagePropertiesType.PERL);
+      MODE_NAMES.put("ruby", LanguagePropertiesType.RUBY);
+      MODE_NAMES.put("php", LanguagePropertiesType.PHP);
+      MODE_NAMES.put("r", LanguagePropertiesType.R);
+      MODE_NAMES.put("javascript", LanguagePropertiesType.JAVASCRIPT);
+      MODE_NAMES.put("js", LanguagePropertiesType.JAVASCRIPT);
+      MODE_NAMES.put("scala", LanguagePropertiesType.SCALA);
+      MODE_NAMES.put("make", LanguagePropertiesType.MAKEFILE);
+      MODE_NAMES.put("makefile", LanguagePropertiesType.MAKEFILE);
+      MODE_NAMES.put("c", LanguagePropertiesType.C_CPP);
+      MODE_NAMES.put("cpp", LanguagePropertiesType.C_CPP);
+      MODE_NAMES.put("c++", LanguagePropertiesType.C_CPP);
+      MODE_NAMES.put("java", LanguagePropertiesType.JAVA);
+      MODE_NAMES.put("cs", LanguagePropertiesType.CSHARP);
+      MODE_NAMES.put("csharp", LanguagePropertiesType.CSHARP);
+      MODE_NAMES.put("go", LanguagePropertiesType.GO);
+      MODE_NAMES.put("sql", LanguagePropertiesType.SQL);
+      MODE_NAMES.put("fortran", LanguagePropertiesType.FORTRAN);
+      MODE_NAMES.put("f90", LanguagePropertiesType.FORTRAN);
+      MODE_NAMES.put("ada", LanguagePropertiesType.ADA);
+      MODE_NAMES.put("pascal", LanguagePropertiesType.PASCAL);
+      MODE_NAMES.put("vhdl", LanguagePropertiesType.VHDL);
+      MODE_NAMES.put("verilog", LanguagePropertiesType.VERILOG);
+      MODE_NAMES.put("matlab", LanguagePropertiesType.MATLAB);
+      MODE_NAMES.put("html", LanguagePropertiesType.HTML);
+      MODE_NAMES.put("xml", LanguagePropertiesType.XML);
+      MODE_NAMES.put("css", LanguagePropertiesType.CSS);
+      MODE_NAMES.put("asm", LanguagePropertiesType.ASSEMBLY);
+      MODE_NAMES.put("dosbatch", LanguagePropertiesType.DOS_BATCH);
+      MODE_NAMES.put("vb", LanguagePropertiesType.VB);
+   }
+
+   /**
+    * Checks whether a file extension is shared with languages other than the
+    * one it is mapped to
+    *
+    * @param fileExt
+    *           The lower case file extension, with its leading '.'
+    * @return True if the extension is ambiguous, false otherwise
+    */
+   public static boolean IsAmbiguousExt(String fileExt)
+   {
+      return AMBIGUOUS_FILE_EXTS.contains(fileExt);
+   }
+
+   /**
+    * Detects the language of a file from its first bytes
+    *
+    * @param fileName
+    *           Name of the file, which may be a file in an archive or of a git
+    *           revision
+    * @return The language of the file, or null if it could not be detected
+    */
+   public static LanguagePropertiesType Detect(String fileName)
+   {
+      return DetectedLangs.computeIfAbsent(fileName, name -> {
+         LanguagePropertiesType langType = DetectFromHead(ReadHead(name));
+         if (langType != null)
+         {
+            logger.debug("Detected " + langType + " from the contents of " + name);
+         }
+         return Optional.ofNullable(langType);
+      }).orElse(null);
+   }
+
+   /**
+    * Reads the first bytes of a file
+    *
+    * @param fileName
+    *           Name of the file
+    * @return The first bytes of the file, one character per byte, or null if
+    *         the file could not be read or is binary
+    */
+   private static String ReadHead(String fileName)
+   {
+      byte[] head;
+      try (InputStream inStream = FileUtils.OpenSourceFile(fileName))
+      {
+         head = inStream.readNBytes(Constants.LANG_DETECT_HEAD_SIZE);
+      }
+      catch (IOException e)
+      {
+         logger.debug(e);
+         return null;
+      }
+
+      for (byte b : head)
+      {
+         if (b == 0)
+         {
+            return null;
+         }
+      }
+
+      // Skip a UTF-8 byte order mark
+      int start = 0;
+      if (head.length >= 3 && head[0] == (byte) 0xEF && head[1] == (byte) 0xBB && head[2] == (byte) 0xBF)
+      {
+         start = 3;
+      }
+      return new String(head, start, head.length - start, StandardCharsets.ISO_8859_1);
+   }
+
+   /**
+    * Detects the language of a file from its first bytes
+    *
+    * @param head
+    *           The first bytes of the file, or null
+    * @return The language of the file, or null if it could not be detected
+    */
+   private static LanguagePropertiesType DetectFromHead(String head)
+   {
+      if (head == null || head.isEmpty())
+      {
+         return null;
+      }
+
+      String[] lines = head.split("\r?\n|\r", MODELINE_LINES + 1);
+
+      // A shebang line names the interpreter, possibly run through env
+      Matcher shebang = SHEBANG_PATTERN.matcher(lines[0]);
+      if (shebang.find())
+      {
+         String interpreter = FileUtils.GetFileName(shebang.group(1));
+         if (interpreter.equals("env"))
+         {
+            interpreter = "";
+            for (String arg : shebang.group(2).trim().split("\\s+"))
+            {
+               if (!arg.startsWith("-") && !arg.contains("="))
+               {
+                  interpreter = FileUtils.GetFileName(arg);
+                  break;
+               }
+            }
+         }
+         interpreter = INTERPRETER_VERSION_PATTERN.matcher(interpreter.toLowerCase()).replaceFirst("");
+         LanguagePropertiesType langType = INTERPRETERS.get(interpreter);
+         if (langType != null)
+         {
+            return langType;
+         }
+      }
+
+      // A modeline names the file type
+      for (int i = 0; i < lines.length && i < MODELINE_LINES; i++)
+      {
+         LanguagePropertiesType langType = DetectFromModeline(lines[i]);
+         if (langType != null)
+         {
+            return langType;
+         }
+      }
+
+      // A signature opens the file
+      String start = head.stripLeading().toLowerCase();
+      if (start.startsWith("<?php"))
+      {
+         return LanguagePropertiesType.PHP;
+      }
+      if (start.startsWith("<!doctype html") || start.startsWith("<html"))
+      {
+         return LanguagePropertiesType.HTML;
+      }
+      if (start.startsWith("<?xml"))
+      {
+         return LanguagePropertiesType.XML;
+      }
+
+      return null;
+   }
+
+   /**
+    * Detects the language named by a vim or emacs modeline
+    *
+    * @param line
+    *           A line of the file
+    * @return The language named by the modeline, or null if the line holds no
+    *         modeline naming a known language
+    */
+   private static LanguagePropertiesType DetectFromModeline(String line)
+   {
+      Matcher vim = VIM_MODELINE_PATTERN.matcher(line);
+      if (vim.find())
+      {
+         return MODE_NAMES.get(vim.group(1).toLowerCase());
+      }
+
+      Matcher emacs = EMACS_MODELINE_PATTERN.matcher(line);
+      if (emacs.find())
+      {
+         // Either "-*- mode -*-" or "-*- var: value; ... -*-"
+         String vars = emacs.group(1).trim();
+         if (vars.indexOf(':') < 0)
+         {
+            return MODE_NAMES.get(vars.toLowerCase());
+         }
+         for (String var : vars.split(";"))
+         {
+            int sep = var.indexOf(':');
+            if (sep >= 0 && var.substring(0, sep).trim().equalsIgnoreCase("mode"))
+            {
+               return MODE_NAMES.get(var.substring(sep + 1).trim().toLowerCase());
+            }
+         }
+      }
+
+      return null;
+   }
+}
@@ -0,0 +1,64 @@
+package ucc.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MemoryBudget class limits the total amount of intermediate text that several
+ * SpillableTextBuffer objects may keep in memory at the same time. A buffer
+ * that cannot reserve room for more text spills it to its file instead. The
+ * budget can be shared by the counting threads.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class MemoryBudget
+{
+   /** Number of characters that can still be reserved */
+   private AtomicLong Available;
+
+   /**
+    * Constructor to instantiate a budget of the given size
+    *
+    * @param maxChars
+    *           Total number of characters that may be reserved at once
+    */
+   public MemoryBudget(long maxChars)
+   {
+      Available = new AtomicLong(maxChars);
+   }
+
+   /**
+    * Reserves room for a number of characters if the budget allows it
+    *
+    * @param numChars
+    *           Number of characters to reserve
+    * @return True if the characters were reserved, false if the budget is
+    *         exhausted
+    */
+   public boolean TryReserve(long numChars)
+   {
+      long available;
+      do
+      {
+         available = Available.get();
+         if (available < numChars)
+         {
+            return false;
+         }
+      }
+      while (!Available.compareAndSet(available, available - numChars));
+
+      return true;
+   }
+
+   /**
+    * Gives back room for a number of previously reserved characters
+    *
+    * @param numChars
+    *           Number of characters to give back
+    */
+   public void Release(long numChars)
+   {
+      Available.addAndGet(numChars);
+   }
+}
@@ -0,0 +1,144 @@
+package ucc.utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * ParallelRunner class runs a task for each item of a list, spread over a
+ * pool of worker threads. Each worker takes the next item not yet taken, so
+ * long items do not hold up the others. Workers are numbered so that each one
+ * can use its own objects, such as its own set of code counters.
+ *
+ * <p>
+ * No item is ever left out silently. If the task fails for an item, the other
+ * workers finish their current item and take no more, and the failure is
+ * thrown to the caller, as it would be when running the items one after
+ * another on the calling thread.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class ParallelRunner
+{
+   /** Instantiate the Log4j logger for this class */
+   private static final Logger logger = LogManager.getLogger(ParallelRunner.class);
+
+   /**
+    * ItemTask interface is the task run for each item
+    */
+   public interface ItemTask
+   {
+      /**
+       * Runs the task for an item
+       *
+       * @param worker
+       *           Number of the worker running the task, from 0 to the number
+       *           of workers - 1. Worker 0 runs the items when they are not
+       *           run in parallel.
+       * @param item
+       *           Index of the item
+       */
+      void Run(int worker, int item);
+   }
+
+   /**
+    * Runs a task for each item, in parallel if more than one worker is asked
+    * for. Returns once the task has run for every item.
+    *
+    * @param taskName
+    *           Name of the task, used to name the threads and in messages
+    * @param numItems
+    *           Number of items
+    * @param numWorkers
+    *           Number of workers, at most one per item is started
+    * @param task
+    *           Task to run for each item
+    * @throws RuntimeException
+    *            The exception thrown by the task for an item, or an
+    *            IllegalStateException if waiting for the workers was
+    *            interrupted. Some items were then not run.
+    */
+   public static void Run(String taskName, int numItems, int numWorkers, ItemTask task)
+   {
+      numWorkers = Math.min(numWorkers, numItems);
+
+      if (numWorkers <= 1)
+      {
+         for (int i = 0; i < numItems; i++)
+         {
+            task.Run(0, i);
+         }
+         return;
+      }
+
+      final AtomicInteger nextIdx = new AtomicInteger(0);
+      ExecutorService executor = Executors.newFixedThreadPool(numWorkers, runnable -> {
+         Thread thread = new Thread(runnable, taskName);
+         thread.setDaemon(true);
+         return thread;
+      });
+
+      try
+      {
+         ArrayList<Future<Void>> results = new ArrayList<Future<Void>>(numWorkers);
+         for (int w = 0; w < numWorkers; w++)
+         {
+            final int worker = w;
+            results.add(executor.submit(() -> {
+               try
+               {
+                  int i;
+                  while ((i = nextIdx.getAndIncrement()) < numItems)
+                  {
+                     task.Run(worker, i);
+                  }
+               }
+               catch (RuntimeException | Error e)
+               {
+                  // Stop the other workers from taking more items
+                  nextIdx.set(numItems);
+                  throw e;
+               }
+               return null;
+            }));
+         }
+
+         for (Future<Void> result : results)
+         {
+            result.get();
+         }
+      }
+      catch (InterruptedException e)
+      {
+         nextIdx.set(numItems);
+         Thread.currentThread().interrupt();
+         logger.error("Interrupted while waiting for " + taskName + " threads to finish");
+         throw new IllegalStateException("Interrupted while waiting for " + taskName + " threads to finish", e);
+      }
+      catch (ExecutionException e)
+      {
+         logger.error("A " + taskName + " thread failed: " + e.getCause());
+         logger.debug(e);
+         if (e.getCause() instanceof RuntimeException)
+         {
+            throw (RuntimeException) e.getCause();
+         }
+         if (e.getCause() instanceof Error)
+         {
+            throw (Error) e.getCause();
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+}
@@ -0,0 +1,275 @@
+package ucc.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+
+import ucc.datatypes.Constants;
+
+/**
+ * SpillableTextBuffer class holds intermediate text produced by one counting
+ * step and consumed by the next one. The text is kept in memory until it grows
+ * beyond a given number of characters, after which it is written to a
+ * temporary file and read back from there. Buffers may also share a
+ * MemoryBudget, in which case a buffer spills as soon as the shared budget is
+ * used up.
+ *
+ * <p>
+ * Text can be appended after the buffer was closed, the spill file is then
+ * reopened in append mode. Spilled text is written and read with the UCC
+ * character set, so the text read back is always the text written.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+public class SpillableTextBuffer extends Writer
+{
+   /** Name of the file the text is spilled to */
+   private String FileName;
+
+   /** Maximum number of characters kept in memory */
+   private int MaxInMemoryChars;
+
+   /** Budget shared with other buffers, null if there is none */
+   private MemoryBudget Budget;
+
+   /** Text held in memory, null once the text has been spilled */
+   private StringBuilder Text;
+
+   /** Writer of the spill file, null while the text is in memory */
+   private Writer FileWriter;
+
+   /**
+    * Constructor to instantiate an empty buffer
+    *
+    * @param fileName
+    *           Name of the file the text is spilled to
+    * @param maxInMemoryChars
+    *           Maximum number of characters kept in memory. Zero writes all
+    *           text to the file.
+    * @throws IOException
+    *            If the spill file could not be created
+    */
+   public SpillableTextBuffer(String fileName, int maxInMemoryChars) throws IOException
+   {
+      this(fileName, maxInMemoryChars, null);
+   }
+
+   /**
+    * Constructor to instantiate an empty buffer whose text in memory counts
+    * against a shared budget
+    *
+    * @param fileName
+    *           Name of the file the text is spilled to
+    * @param maxInMemoryChars
+    *           Maximum number of characters kept in memory. Zero writes all
+    *           text to the file.
+    * @param budget
+    *           Budget shared with other buffers, or null for none
+    * @throws IOException
+    *            If the spill file could not be created
+    */
+   public SpillableTextBuffer(String fileName, int maxInMemoryChars, MemoryBudget budget) throws IOException
+   {
+      FileName = fileName;
+      MaxInMemoryChars = maxInMemoryChars;
+      Budget = budget;
+      Text = new StringBuilder();
+
+      if (MaxInMemoryChars <= 0)
+      {
+         Spill();
+      }
+   }
+
+   /**
+    * Returns the name of the file the text is spilled to
+    *
+    * @return Name of the spill file
+    */
+   public String GetFileName()
+   {
+      return FileName;
+   }
+
+   /**
+    * Returns whether the text has been written to the spill file
+    *
+    * @return True if the text is in the spill file, false if it is in memory
+    */
+   public boolean IsSpilled()
+   {
+      return Text == null;
+   }
+
+   @Override
+   public void write(char[] cbuf, int off, int len) throws IOException
+   {
+      if (Text != null && !Reserve(len))
+      {
+         Spill();
+      }
+
+      if (Text != null)
+      {
+         Text.append(cbuf, off, len);
+      }
+      else
+      {
+         if (FileWriter == null)
+         {
+            OpenFileWriter(true);
+         }
+         FileWriter.write(cbuf, off, len);
+      }
+   }
+
+   @Override
+   public void write(String str, int off, int len) throws IOException
+   {
+      if (Text != null && !Reserve(len))
+      {
+         Spill();
+      }
+
+      if (Text != null)
+      {
+         Text.append(str, off, off + len);
+      }
+      else
+      {
+         if (FileWriter == null)
+         {
+            OpenFileWriter(true);
+         }
+         FileWriter.write(str, off, len);
+      }
+   }
+
+   @Override
+   public void flush() throws IOException
+   {
+      if (FileWriter != null)
+      {
+         FileWriter.flush();
+      }
+   }
+
+   /**
+    * Closes the spill file, if any. The buffered text remains readable and more
+    * text may still be appended.
+    */
+   @Override
+   public void close() throws IOException
+   {
+      if (FileWriter != null)
+      {
+         FileWriter.close();
+         FileWriter = null;
+      }
+      else if (Text != null)
+      {
+         Text.trimToSize();
+      }
+   }
+
+   /**
+    * Opens a reader over the buffered text
+    *
+    * @return A reader positioned at the start of the text
+    * @throws IOException
+    *            If the spill file could not be opened
+    */
+   public Reader OpenReader() throws IOException
+   {
+      if (Text != null)
+      {
+         return new StringReader(Text.toString());
+      }
+
+      flush();
+      return new InputStreamReader(new FileInputStream(FileName), Constants.CHARSET_NAME);
+   }
+
+   /**
+    * Releases the buffered text and deletes the spill file, if any
+    */
+   public void Delete()
+   {
+      try
+      {
+         close();
+      }
+      catch (IOException e)
+      {
+         // The file is deleted below anyway
+      }
+
+      if (Text == null)
+      {
+         FileUtils.DeleteFile(FileName);
+      }
+      else if (Budget != null)
+      {
+         Budget.Release(Text.length());
+      }
+      Text = new StringBuilder();
+   }
+
+   /**
+    * Reserves room in memory for more text
+    *
+    * @param len
+    *           Number of characters to add
+    * @return True if the text can stay in memory, false if it has to be spilled
+    */
+   private boolean Reserve(int len)
+   {
+      if (Text.length() + len > MaxInMemoryChars)
+      {
+         return false;
+      }
+
+      return Budget == null || Budget.TryReserve(len);
+   }
+
+   /**
+    * Moves the text held in memory to the spill file. Further text is written
+    * directly to the file.
+    *
+    * @throws IOException
+    *            If the spill file could not be written
+    */
+   private void Spill() throws IOException
+   {
+      OpenFileWriter(false);
+      FileWriter.append(Text);
+
+      if (Budget != null)
+      {
+         Budget.Release(Text.length());
+      }
+      Text = null;
+   }
+
+   /**
+    * Opens the writer of the spill file
+    *
+    * @param append
+    *           True to append to the file, false to overwrite it
+    * @throws IOException
+    *            If the spill file could not be opened
+    */
+   private void OpenFileWriter(boolean append) throws IOException
+   {
+      FileWriter = new BufferedWriter(
+               new OutputStreamWriter(new FileOutputStream(new File(FileName), append), Constants.CHARSET_NAME));
+   }
+}
@@ -0,0 +1,35 @@
+using System;
+
+namespace Fixtures
+{
+   // Nested loops and methods
+   public class Loops
+   {
+      public int Sum(int[] values)
+      {
+         int total = 0;
+         for (int i = 0; i < values.Length; i++)
+         {
+            foreach (int v in values)
+            {
+               if (v > i || v < 0)
+               {
+                  total += v;
+               }
+            }
+         }
+         return total;
+      }
+
+      public int Count(int n)
+      {
+         int c = 0;
+         while (n > 0)
+         {
+            c += (n % 2 == 0) ? 1 : 2;
+            n--;
+         }
+         return c;
+      }
+   }
+}
@@ -0,0 +1,31 @@
+package fixtures
+
+// Nested loops and methods
+object Loops {
+  def sum(values: Array[Int]): Int = {
+    var total = 0
+    for (i <- values.indices) {
+      for (j <- 0 until i) {
+        if (values(j) > 0 && values(i) > 0) {
+          total += values(j)
+        } else {
+          total -= 1
+        }
+      }
+    }
+    total
+  }
+
+  def count(start: Int): Int = {
+    var n = start
+    var c = 0
+    while (n > 0) {
+      n match {
+        case 0 => c += 1
+        case _ => c += 2
+      }
+      n -= 1
+    }
+    c
+  }
+}
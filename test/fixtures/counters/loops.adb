@@ -0,0 +1,30 @@
+-- Nested loops and functions
+with Ada.Text_IO; use Ada.Text_IO;
+
+procedure Loops is
+   Total : Integer := 0;
+
+   function Count (N : Integer) return Integer is
+      C : Integer := 0;
+      M : Integer := N;
+   begin
+      while M > 0 loop
+         if M mod 2 = 0 then
+            C := C + 1;
+         end if;
+         M := M - 1;
+      end loop;
+      return C;
+   end Count;
+begin
+   for I in 1 .. 10 loop
+      for J in 1 .. I loop
+         if I > 2 and then J > 1 then
+            Total := Total + J;
+         else
+            Total := Total - 1;
+         end if;
+      end loop;
+   end loop;
+   Put_Line (Integer'Image (Total + Count (10)));
+end Loops;
@@ -0,0 +1,41 @@
+// Nested loops and functions for the complexity counters
+#include <vector>
+#define LIMIT 10
+
+int sum(const std::vector<int>& values)
+{
+   int total = 0;
+   for (int i = 0; i < LIMIT; i++)
+   {
+      for (int j = 0; j < i; j++)
+      {
+         if (values[j] > 0 && values[i] > 0)
+         {
+            total += values[j] * 2;
+         }
+         else
+         {
+            while (total > 100) total /= 2;
+         }
+      }
+   }
+   return total;
+}
+
+/* A second function
+   with a block comment */
+int count(int n)
+{
+   int c = 0;
+   do
+   {
+      switch (n % 3)
+      {
+         case 0: c++; break;
+         case 1: c += 2; break;
+         default: c--;
+      }
+      n--;
+   } while (n > 0);
+   return c;
+}
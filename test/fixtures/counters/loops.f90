@@ -0,0 +1,27 @@
+! Nested loops and functions
+program loops
+   implicit none
+   integer :: i, j, total
+   total = 0
+   do i = 1, 10
+      do j = 1, i
+         if (i > 2 .and. j > 1) then
+            total = total + j
+         else
+            total = total - 1
+         end if
+      end do
+   end do
+   print *, total, count(10)
+contains
+   integer function count(n)
+      integer, intent(in) :: n
+      integer :: m
+      count = 0
+      m = n
+      do while (m > 0)
+         if (mod(m, 2) == 0) count = count + 1
+         m = m - 1
+      end do
+   end function count
+end program loops
@@ -0,0 +1,33 @@
+package fixtures
+
+import "fmt"
+
+// Sum adds values in nested loops
+func Sum(values []int) int {
+	total := 0
+	for i := 0; i < len(values); i++ {
+		for _, v := range values {
+			if v > i && v%2 == 0 {
+				total += v
+			} else if v < 0 {
+				total -= v
+			}
+		}
+	}
+	return total
+}
+
+func Count(n int) int {
+	c := 0
+	for n > 0 {
+		switch n % 3 {
+		case 0:
+			c++
+		default:
+			c--
+		}
+		n--
+	}
+	fmt.Println(c)
+	return c
+}
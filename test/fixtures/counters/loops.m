@@ -0,0 +1,23 @@
+% Nested loops and functions
+function result = total(values)
+   result = 0;
+   for i = 1:numel(values)
+      for j = 1:i
+         if values(j) > 0 && values(i) > 0
+            result = result + values(j);
+         else
+            result = result - 1;
+         end
+      end
+   end
+end
+
+function c = count(n)
+   c = 0;
+   while n > 0
+      if mod(n, 2) == 0
+         c = c + 1;
+      end
+      n = n - 1;
+   end
+end
@@ -0,0 +1,29 @@
+program Loops;
+{ Nested loops and functions }
+var
+   i, j, total: integer;
+
+function Count(n: integer): integer;
+var
+   c: integer;
+begin
+   c := 0;
+   while n > 0 do
+   begin
+      if n mod 2 = 0 then
+         c := c + 1;
+      n := n - 1;
+   end;
+   Count := c;
+end;
+
+begin
+   total := 0;
+   for i := 1 to 10 do
+      for j := 1 to i do
+         if (i > 2) and (j > 1) then
+            total := total + j
+         else
+            total := total - 1;
+   writeln(total, Count(10));
+end.
@@ -0,0 +1,31 @@
+#!/usr/bin/perl
+use strict;
+use warnings;
+
+# Nested loops and subroutines
+sub sum {
+    my @values = @_;
+    my $total = 0;
+    foreach my $i (0 .. $#values) {
+        for (my $j = 0; $j < $i; $j++) {
+            if ($values[$j] > 0 && $values[$i] > 0) {
+                $total += $values[$j];
+            } elsif ($values[$j] < 0) {
+                $total -= 1;
+            }
+        }
+    }
+    return $total;
+}
+
+sub count {
+    my ($n) = @_;
+    my $c = 0;
+    while ($n > 0) {
+        $c++ unless $n % 2;
+        $n--;
+    }
+    return $c;
+}
+
+print sum(1, 2, 3), count(10), "\n";
@@ -0,0 +1,31 @@
+#!/usr/bin/env python3
+"""Nested loops and functions for the complexity counters"""
+
+
+def total(values):
+    result = 0
+    for i in range(len(values)):
+        for j in range(i):
+            if values[j] > 0 and values[i] > 0:
+                result += values[j]
+            elif values[j] < 0:
+                while result > 100:
+                    result //= 2
+    return result
+
+
+class Counter:
+    def __init__(self, n):
+        self.n = n
+
+    def count(self):
+        c = 0
+        n = self.n
+        while n > 0:
+            if n % 2 == 0:
+                c += 1
+            n -= 1
+        return c
+
+
+print(total([1, 2, 3]), Counter(10).count())
@@ -0,0 +1,25 @@
+# Nested loops and methods
+def total(values)
+  result = 0
+  values.each_with_index do |v, i|
+    (0...i).each do |j|
+      if values[j] > 0 && v > 0
+        result += values[j]
+      elsif values[j] < 0
+        result -= 1
+      end
+    end
+  end
+  result
+end
+
+def count(n)
+  c = 0
+  while n > 0
+    c += 1 unless n.odd?
+    n -= 1
+  end
+  c
+end
+
+puts total([1, 2, 3]), count(10)
@@ -0,0 +1,30 @@
+#!/bin/bash
+# Nested loops and functions
+total() {
+   local result=0
+   for i in 1 2 3; do
+      for j in $(seq 1 $i); do
+         if [ $j -gt 1 ] && [ $i -gt 1 ]; then
+            result=$((result + j))
+         else
+            result=$((result - 1))
+         fi
+      done
+   done
+   echo $result
+}
+
+count() {
+   local n=$1 c=0
+   while [ $n -gt 0 ]; do
+      case $((n % 2)) in
+         0) c=$((c + 1)) ;;
+         *) ;;
+      esac
+      n=$((n - 1))
+   done
+   echo $c
+}
+
+total
+count 10
@@ -0,0 +1,19 @@
+// Counter with nested conditions
+module counter(input clk, input rst, output reg [7:0] count);
+   integer i;
+   always @(posedge clk)
+   begin
+      if (rst)
+         count <= 0;
+      else
+      begin
+         for (i = 0; i < 4; i = i + 1)
+         begin
+            if (count[i] == 1'b1)
+               count <= count + 1;
+            else
+               count <= count - 1;
+         end
+      end
+   end
+endmodule
@@ -0,0 +1,27 @@
+-- Counter with nested conditions
+library ieee;
+use ieee.std_logic_1164.all;
+
+entity counter is
+   port (clk, rst : in std_logic; count : out integer);
+end counter;
+
+architecture rtl of counter is
+   signal value : integer := 0;
+begin
+   process (clk)
+   begin
+      if rising_edge(clk) then
+         if rst = '1' then
+            value <= 0;
+         else
+            for i in 0 to 3 loop
+               if value > i then
+                  value <= value + 1;
+               end if;
+            end loop;
+         end if;
+      end if;
+   end process;
+   count <= value;
+end rtl;
@@ -0,0 +1,305 @@
+package ucc.counters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ucc.datatypes.CmplxDataType;
+import ucc.datatypes.UCCFile;
+import ucc.langprops.*;
+
+/**
+ * Counts the complexity keywords of random lines with the keyword scanner of
+ * every code counter, and checks that the counts are the same as those of the
+ * CountCmplx* methods run one after another, as CountComplexity does when the
+ * scanner can not be used.
+ *
+ * <p>
+ * Lines are built from the keywords of the counter's language, the halves of
+ * its keywords holding a space or a '.' wildcard, and filler words and
+ * symbols, joined directly or by a space. This way keywords are found inside
+ * other keywords and next to word characters. Keywords holding a space or a
+ * '.' are also put in lines with another keyword or filler in place of the
+ * space or '.', such as "else->if", so that they are joined from their halves
+ * once the keyword between them is replaced.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+class ComplexityKeywordScannerTest
+{
+   /** Number of random lines counted per language */
+   private static final int NUM_LINES = 4000;
+
+   /** Maximum number of parts in a random line */
+   private static final int MAX_PARTS = 16;
+
+   /** One in this many parts is a keyword split around another part */
+   private static final int SPLIT_KEYWORD_RATE = 4;
+
+   /** Seed of the random lines, fixed so that failures can be reproduced */
+   private static final long SEED = 20261017L;
+
+   /** Words and symbols that are not keywords of most languages */
+   private static final List<String> FILLERS = Arrays.asList("x", "y1", "_z", "42", "3.5", "a.b", "(", ")", "[",
+            "]", "{", "}", ";", ",", ".", "'", "\"", "\\", "$", "@", "#", "\t");
+
+   @Test
+   void ScannerCountsMatchCountCmplxMethods()
+   {
+      Random random = new Random(SEED);
+      int numScanned = 0;
+
+      for (CodeCounter cntr : CreateCodeCounters())
+      {
+         ArrayList<String> parts = GetLineParts(cntr);
+         ArrayList<String> splitKeywords = GetSplitKeywords(cntr);
+         for (int n = 0; n < NUM_LINES; n++)
+         {
+            String line = BuildLine(parts, splitKeywords, random);
+
+            UCCFile scanned = NewFile(cntr);
+            if (!cntr.CmplxScanner.CountKeywords(scanned, line))
+            {
+               continue;
+            }
+            numScanned++;
+
+            UCCFile expected = NewFile(cntr);
+            String rest = line;
+            rest = cntr.CountCmplxPntr(expected.CmplxPntrCnts, rest);
+            rest = cntr.CountCmplxTrig(expected.CmplxTrigCnts, rest);
+            rest = cntr.CountCmplxLog(expected.CmplxLogCnts, rest);
+            rest = cntr.CountCmplxMath(expected.CmplxMathCnts, rest);
+            rest = cntr.CountCmplxCond(expected.CmplxCondCnts, rest);
+            rest = cntr.CountCmplxLogic(expected.CmplxLogicCnts, rest);
+            rest = cntr.CountCmplxCalc(expected.CmplxCalcCnts, rest);
+            rest = cntr.CountCmplxAssign(expected.CmplxAssignCnts, rest);
+
+            AssertSameCounts(cntr, line, GetCountLists(expected), GetCountLists(scanned));
+         }
+      }
+
+      assertTrue(numScanned > 0, "The scanner did not count any line");
+   }
+
+   /**
+    * Creates one code counter of each supported language
+    *
+    * @return The counters
+    */
+   private static ArrayList<CodeCounter> CreateCodeCounters()
+   {
+      ArrayList<CodeCounter> cntrs = new ArrayList<CodeCounter>();
+      cntrs.add(new ADACounter(new ADALanguageProperties()));
+      cntrs.add(new ASPCounter(new ASPLanguageProperties()));
+      cntrs.add(new AssemblyCounter(new AssemblyLanguageProperties()));
+      cntrs.add(new BashCounter(new BashLanguageProperties()));
+      cntrs.add(new CCPPCounter(new CCPPLanguageProperties()));
+      cntrs.add(new CSharpCounter(new CSharpLanguageProperties()));
+      cntrs.add(new CShellCounter(new CShellLanguageProperties()));
+      cntrs.add(new ColdFusionCounter(new ColdFusionLanguageProperties()));
+      cntrs.add(new ColdFusionScriptCounter(new ColdFusionScriptLanguageProperties()));
+      cntrs.add(new CSSCounter(new CSSLanguageProperties()));
+      cntrs.add(new DOSBatchCounter(new DOSBatchLanguageProperties()));
+      cntrs.add(new FortranCounter(new FortranLanguageProperties()));
+      cntrs.add(new HTMLCounter(new HTMLLanguageProperties()));
+      cntrs.add(new IDLCounter(new IDLLanguageProperties()));
+      cntrs.add(new JavaCounter(new JavaLanguageProperties()));
+      cntrs.add(new JavaScriptCounter(new JavaScriptLanguageProperties()));
+      cntrs.add(new JSPCounter(new JSPLanguageProperties()));
+      cntrs.add(new MakefileCounter(new MakefileLanguageProperties()));
+      cntrs.add(new MatlabCounter(new MatlabLanguageProperties()));
+      cntrs.add(new NextMidasCounter(new NextMidasLanguageProperties()));
+      cntrs.add(new PascalCounter(new PascalLanguageProperties()));
+      cntrs.add(new PerlCounter(new PerlLanguageProperties()));
+      cntrs.add(new PHPCounter(new PHPLanguageProperties()));
+      cntrs.add(new PythonCounter(new PythonLanguageProperties()));
+      cntrs.add(new RubyCounter(new RubyLanguageProperties()));
+      cntrs.add(new ScalaCounter(new ScalaLanguageProperties()));
+      cntrs.add(new SQLCounter(new SQLLanguageProperties()));
+      cntrs.add(new VBCounter(new VBLanguageProperties()));
+      cntrs.add(new VBScriptCounter(new VBScriptLanguageProperties()));
+      cntrs.add(new VerilogCounter(new VerilogLanguageProperties()));
+      cntrs.add(new VHDLCounter(new VHDLLanguageProperties()));
+      cntrs.add(new XmidasCounter(new XmidasLanguageProperties()));
+      cntrs.add(new XMLCounter(new XMLLanguageProperties()));
+      cntrs.add(new RCounter(new RLanguageProperties()));
+      cntrs.add(new GoCounter(new GoLanguageProperties()));
+      return cntrs;
+   }
+
+   /**
+    * Lists the parts random lines are built from for a counter: its complexity
+    * keywords, the halves of its keywords holding a space or a '.', and the
+    * filler words and symbols
+    *
+    * @param cntr
+    *           The code counter
+    * @return The parts
+    */
+   private static ArrayList<String> GetLineParts(CodeCounter cntr)
+   {
+      ArrayList<String> parts = new ArrayList<String>(FILLERS);
+      for (String keyword : GetKeywords(cntr))
+      {
+         parts.add(keyword);
+         for (String half : keyword.split("[ .]"))
+         {
+            if (!half.isEmpty())
+            {
+               parts.add(half);
+            }
+         }
+      }
+      return parts;
+   }
+
+   /**
+    * Lists the complexity keywords of a counter holding a word character and a
+    * space or a '.', which are split around another part in random lines
+    *
+    * @param cntr
+    *           The code counter
+    * @return The keywords
+    */
+   private static ArrayList<String> GetSplitKeywords(CodeCounter cntr)
+   {
+      ArrayList<String> splitKeywords = new ArrayList<String>();
+      for (String keyword : GetKeywords(cntr))
+      {
+         if (keyword.matches(".*\\w.*") && keyword.matches(".*[ .].*"))
+         {
+            splitKeywords.add(keyword);
+         }
+      }
+      return splitKeywords;
+   }
+
+   /**
+    * Lists the complexity keywords of a counter counted by the scanner
+    *
+    * @param cntr
+    *           The code counter
+    * @return The keywords, in the order the CountCmplx* methods count them
+    */
+   private static ArrayList<String> GetKeywords(CodeCounter cntr)
+   {
+      ArrayList<String> keywords = new ArrayList<String>();
+      for (ArrayList<String> list : Arrays.asList(cntr.PntrKeywords, cntr.TrigKeywords, cntr.LogKeywords,
+               cntr.MathKeywords, cntr.CondKeywords, cntr.LogicKeywords, cntr.CalcKeywords, cntr.AssignKeywords))
+      {
+         keywords.addAll(list);
+      }
+      return keywords;
+   }
+
+   /**
+    * Builds a random line
+    *
+    * @param parts
+    *           Parts the line is built from
+    * @param splitKeywords
+    *           Keywords split around another part
+    * @param random
+    *           Source of random numbers
+    * @return The line
+    */
+   private static String BuildLine(ArrayList<String> parts, ArrayList<String> splitKeywords, Random random)
+   {
+      StringBuilder line = new StringBuilder();
+      int numParts = 1 + random.nextInt(MAX_PARTS);
+      for (int p = 0; p < numParts; p++)
+      {
+         if (!splitKeywords.isEmpty() && random.nextInt(SPLIT_KEYWORD_RATE) == 0)
+         {
+            // Put another part in place of each space or '.' of the keyword
+            String keyword = splitKeywords.get(random.nextInt(splitKeywords.size()));
+            for (char c : keyword.toCharArray())
+            {
+               if (c == ' ' || c == '.')
+               {
+                  line.append(parts.get(random.nextInt(parts.size())));
+               }
+               else
+               {
+                  line.append(c);
+               }
+            }
+         }
+         else
+         {
+            line.append(parts.get(random.nextInt(parts.size())));
+         }
+
+         // Join the parts directly or with a space
+         if (random.nextBoolean())
+         {
+            line.append(' ');
+         }
+      }
+      return line.toString();
+   }
+
+   /**
+    * Creates a file with the complexity keywords of a counter, none counted
+    * yet
+    *
+    * @param cntr
+    *           The code counter
+    * @return The file
+    */
+   private static UCCFile NewFile(CodeCounter cntr)
+   {
+      UCCFile file = new UCCFile();
+      cntr.InitAllCmplxKeywords(file);
+      return file;
+   }
+
+   /**
+    * Returns the complexity count lists of a file
+    *
+    * @param file
+    *           The file
+    * @return The count lists, in the order the CountCmplx* methods count them
+    */
+   private static List<ArrayList<CmplxDataType>> GetCountLists(UCCFile file)
+   {
+      return Arrays.asList(file.CmplxPntrCnts, file.CmplxTrigCnts, file.CmplxLogCnts, file.CmplxMathCnts,
+               file.CmplxCondCnts, file.CmplxLogicCnts, file.CmplxCalcCnts, file.CmplxAssignCnts);
+   }
+
+   /**
+    * Checks that two sets of count lists hold the same keywords and counts
+    *
+    * @param cntr
+    *           The code counter the line was counted with
+    * @param line
+    *           The counted line
+    * @param expected
+    *           Count lists of the CountCmplx* methods
+    * @param actual
+    *           Count lists of the scanner
+    */
+   private static void AssertSameCounts(CodeCounter cntr, String line, List<ArrayList<CmplxDataType>> expected,
+            List<ArrayList<CmplxDataType>> actual)
+   {
+      for (int l = 0; l < expected.size(); l++)
+      {
+         assertEquals(expected.get(l).size(), actual.get(l).size());
+         for (int i = 0; i < expected.get(l).size(); i++)
+         {
+            CmplxDataType cnt = expected.get(l).get(i);
+            assertEquals(cnt.Keyword, actual.get(l).get(i).Keyword);
+            assertEquals(cnt.Count, actual.get(l).get(i).Count, () -> cntr.getClass().getSimpleName()
+                     + " counted \"" + cnt.Keyword + "\" differently in line: " + line);
+         }
+      }
+   }
+}
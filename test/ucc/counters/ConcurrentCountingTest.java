@@ -0,0 +1,271 @@
+package ucc.counters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import ucc.cache.UCCFileSerializer;
+import ucc.datatypes.Constants;
+import ucc.datatypes.DataTypes.LanguagePropertiesType;
+import ucc.datatypes.UCCFile;
+import ucc.langprops.*;
+
+/**
+ * Counts the same files on several threads at once, each thread with its own
+ * set of code counters as -threads does, and checks that every result matches
+ * the result of counting the files one after another. Counters that keep the
+ * state of the file being counted in shared (static) fields give different
+ * results when their files are counted concurrently.
+ *
+ * <p>
+ * The files counted are some of the Java sources of UCC itself and a fixture
+ * file for each of the other languages whose counters keep loop level or
+ * cyclomatic complexity state.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+class ConcurrentCountingTest
+{
+   /** Number of threads counting at once */
+   private static final int NUM_THREADS = 8;
+
+   /** Number of times each thread counts every file */
+   private static final int NUM_ROUNDS = 10;
+
+   /** Directory of the fixture files of the other languages */
+   private static final Path FIXTURES_DIR = Paths.get("test", "fixtures", "counters");
+
+   /** Directories of the Java sources of UCC that are counted */
+   private static final Path[] SOURCES_DIRS = { Paths.get("src", "ucc", "datatypes") };
+
+   /** Language properties, shared by all counter sets as in ProcessController */
+   private final HashMap<LanguagePropertiesType, LanguageProperties> LangProps =
+            new HashMap<LanguagePropertiesType, LanguageProperties>();
+
+   @Test
+   void CountsOnSeveralThreadsMatchSerialCounts() throws Exception
+   {
+      CreateLanguageProperties();
+      ArrayList<String> fileNames = GetFileNames();
+
+      // Count every file on this thread first
+      HashMap<LanguagePropertiesType, CodeCounter> serialCntrs = CreateCodeCounters();
+      ArrayList<byte[]> expected = new ArrayList<byte[]>();
+      for (String fileName : fileNames)
+      {
+         UCCFile cntrResult = NewFile(fileName);
+         expected.add(Count(serialCntrs, cntrResult));
+         assertTrue(cntrResult.IsCounted && cntrResult.NumLSLOC > 0, "Nothing counted in " + fileName);
+      }
+
+      // Counters sort the shared language property lists when they are
+      // created, so all sets are created before any thread starts
+      ArrayList<HashMap<LanguagePropertiesType, CodeCounter>> threadCntrs =
+               new ArrayList<HashMap<LanguagePropertiesType, CodeCounter>>();
+      for (int t = 0; t < NUM_THREADS; t++)
+      {
+         threadCntrs.add(CreateCodeCounters());
+      }
+
+      // All threads count the same file at the same time, several times over
+      ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+      try
+      {
+         for (int i = 0; i < fileNames.size(); i++)
+         {
+            final String fileName = fileNames.get(i);
+            final byte[] expectedCounts = expected.get(i);
+            final CyclicBarrier start = new CyclicBarrier(NUM_THREADS);
+            ArrayList<Future<Void>> results = new ArrayList<Future<Void>>();
+
+            for (int t = 0; t < NUM_THREADS; t++)
+            {
+               final HashMap<LanguagePropertiesType, CodeCounter> cntrs = threadCntrs.get(t);
+               results.add(executor.submit(() -> {
+                  try
+                  {
+                     for (int round = 0; round < NUM_ROUNDS; round++)
+                     {
+                        start.await();
+                        byte[] actual = Count(cntrs, NewFile(fileName));
+                        assertArrayEquals(expectedCounts, actual, "Different counts for " + fileName);
+                     }
+                  }
+                  catch (AssertionError | Exception e)
+                  {
+                     // Release the other threads waiting for this one
+                     start.reset();
+                     throw e;
+                  }
+                  return null;
+               }));
+            }
+
+            for (Future<Void> result : results)
+            {
+               result.get();
+            }
+         }
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Creates the properties of the languages of the counted files
+    */
+   private void CreateLanguageProperties()
+   {
+      LangProps.put(LanguagePropertiesType.ADA, new ADALanguageProperties());
+      LangProps.put(LanguagePropertiesType.BASH, new BashLanguageProperties());
+      LangProps.put(LanguagePropertiesType.C_CPP, new CCPPLanguageProperties());
+      LangProps.put(LanguagePropertiesType.CSHARP, new CSharpLanguageProperties());
+      LangProps.put(LanguagePropertiesType.FORTRAN, new FortranLanguageProperties());
+      LangProps.put(LanguagePropertiesType.GO, new GoLanguageProperties());
+      LangProps.put(LanguagePropertiesType.JAVA, new JavaLanguageProperties());
+      LangProps.put(LanguagePropertiesType.MATLAB, new MatlabLanguageProperties());
+      LangProps.put(LanguagePropertiesType.PASCAL, new PascalLanguageProperties());
+      LangProps.put(LanguagePropertiesType.PERL, new PerlLanguageProperties());
+      LangProps.put(LanguagePropertiesType.PYTHON, new PythonLanguageProperties());
+      LangProps.put(LanguagePropertiesType.R, new RLanguageProperties());
+      LangProps.put(LanguagePropertiesType.RUBY, new RubyLanguageProperties());
+      LangProps.put(LanguagePropertiesType.SCALA, new ScalaLanguageProperties());
+      LangProps.put(LanguagePropertiesType.VERILOG, new VerilogLanguageProperties());
+      LangProps.put(LanguagePropertiesType.VHDL, new VHDLLanguageProperties());
+   }
+
+   /**
+    * Creates a set of code counters for the languages of the counted files
+    *
+    * @return The counters, by language
+    */
+   private HashMap<LanguagePropertiesType, CodeCounter> CreateCodeCounters()
+   {
+      HashMap<LanguagePropertiesType, CodeCounter> cntrs = new HashMap<LanguagePropertiesType, CodeCounter>();
+      cntrs.put(LanguagePropertiesType.ADA, new ADACounter(LangProps.get(LanguagePropertiesType.ADA)));
+      cntrs.put(LanguagePropertiesType.BASH, new BashCounter(LangProps.get(LanguagePropertiesType.BASH)));
+      cntrs.put(LanguagePropertiesType.C_CPP, new CCPPCounter(LangProps.get(LanguagePropertiesType.C_CPP)));
+      cntrs.put(LanguagePropertiesType.CSHARP, new CSharpCounter(LangProps.get(LanguagePropertiesType.CSHARP)));
+      cntrs.put(LanguagePropertiesType.FORTRAN, new FortranCounter(LangProps.get(LanguagePropertiesType.FORTRAN)));
+      cntrs.put(LanguagePropertiesType.GO, new GoCounter(LangProps.get(LanguagePropertiesType.GO)));
+      cntrs.put(LanguagePropertiesType.JAVA, new JavaCounter(LangProps.get(LanguagePropertiesType.JAVA)));
+      cntrs.put(LanguagePropertiesType.MATLAB, new MatlabCounter(LangProps.get(LanguagePropertiesType.MATLAB)));
+      cntrs.put(LanguagePropertiesType.PASCAL, new PascalCounter(LangProps.get(LanguagePropertiesType.PASCAL)));
+      cntrs.put(LanguagePropertiesType.PERL, new PerlCounter(LangProps.get(LanguagePropertiesType.PERL)));
+      cntrs.put(LanguagePropertiesType.PYTHON, new PythonCounter(LangProps.get(LanguagePropertiesType.PYTHON)));
+      cntrs.put(LanguagePropertiesType.R, new RCounter(LangProps.get(LanguagePropertiesType.R)));
+      cntrs.put(LanguagePropertiesType.RUBY, new RubyCounter(LangProps.get(LanguagePropertiesType.RUBY)));
+      cntrs.put(LanguagePropertiesType.SCALA, new ScalaCounter(LangProps.get(LanguagePropertiesType.SCALA)));
+      cntrs.put(LanguagePropertiesType.VERILOG, new VerilogCounter(LangProps.get(LanguagePropertiesType.VERILOG)));
+      cntrs.put(LanguagePropertiesType.VHDL, new VHDLCounter(LangProps.get(LanguagePropertiesType.VHDL)));
+      return cntrs;
+   }
+
+   /**
+    * Lists the counted files: the fixture files and some Java sources of UCC
+    *
+    * @return Names of the files
+    * @throws IOException
+    *            If a directory could not be listed
+    */
+   private static ArrayList<String> GetFileNames() throws IOException
+   {
+      ArrayList<String> fileNames = new ArrayList<String>();
+      ArrayList<Path> dirs = new ArrayList<Path>();
+      dirs.add(FIXTURES_DIR);
+      dirs.addAll(Arrays.asList(SOURCES_DIRS));
+      for (Path dir : dirs)
+      {
+         try (Stream<Path> paths = Files.walk(dir))
+         {
+            fileNames.addAll(paths.filter(Files::isRegularFile).map(Path::toString).sorted()
+                     .collect(Collectors.toList()));
+         }
+      }
+      return fileNames;
+   }
+
+   /**
+    * Creates the counter results of a file, mapped to its language by its
+    * extension
+    *
+    * @param fileName
+    *           Name of the file
+    * @return The counter results, not counted yet
+    */
+   private UCCFile NewFile(String fileName)
+   {
+      UCCFile cntrResult = new UCCFile();
+      cntrResult.FileName = fileName;
+      cntrResult.Idx = 0;
+      cntrResult.Baseline = Constants.BASELINE_A;
+
+      String fileExt = fileName.substring(fileName.lastIndexOf('.'));
+      for (HashMap.Entry<LanguagePropertiesType, LanguageProperties> entry : LangProps.entrySet())
+      {
+         for (String ext : entry.getValue().GetLangFileExts())
+         {
+            if (ext.equalsIgnoreCase(fileExt))
+            {
+               cntrResult.LangProperty = entry.getKey();
+            }
+         }
+      }
+      assertTrue(cntrResult.LangProperty != null, "No language for " + fileName);
+      return cntrResult;
+   }
+
+   /**
+    * Counts a file, and the embedded code files found in it, the way
+    * ProcessController does
+    *
+    * @param cntrs
+    *           Set of code counters to use
+    * @param cntrResult
+    *           Counter results of the file
+    * @return The counting results of the file and of its embedded code files
+    * @throws IOException
+    *            If the results could not be written
+    */
+   private static byte[] Count(HashMap<LanguagePropertiesType, CodeCounter> cntrs, UCCFile cntrResult)
+            throws IOException
+   {
+      ArrayList<UCCFile> fileResults = new ArrayList<UCCFile>();
+      fileResults.add(cntrResult);
+      for (int i = 0; i < fileResults.size(); i++)
+      {
+         cntrs.get(fileResults.get(i).LangProperty).CountSLOC(fileResults, i);
+      }
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes))
+      {
+         for (UCCFile fileResult : fileResults)
+         {
+            UCCFileSerializer.WriteCounts(out, fileResult);
+            UCCFileSerializer.WriteLslocLines(out, fileResult);
+         }
+      }
+      return bytes.toByteArray();
+   }
+}
@@ -0,0 +1,159 @@
+package ucc.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Computes the bounded Levenshtein distance of random and edge case line pairs
+ * and checks that it is the distance of StringUtils.getLevenshteinDistance
+ * when that is at most the maximum distance, and -1 otherwise.
+ *
+ * <p>
+ * Every pair is compared with maximum distances just below, at and just above
+ * its distance, as well as zero and a random one. Lines are built from a small
+ * alphabet so that they share many characters, and hold characters outside
+ * ASCII as well. Their lengths range past the longest line compared with the
+ * bit-parallel algorithm, so that the banded algorithm is tested too.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+class BoundedEditDistanceTest
+{
+   /** Number of random line pairs compared */
+   private static final int NUM_PAIRS = 20000;
+
+   /** Maximum length of a random line */
+   private static final int MAX_LENGTH = 150;
+
+   /** Seed of the random lines, fixed so that failures can be reproduced */
+   private static final long SEED = 20261017L;
+
+   /** Characters random lines are built from */
+   private static final String ALPHABET = "abcab \t;(){}=A\u00e9\u4e2d";
+
+   @Test
+   void DistanceMatchesLevenshteinDistance()
+   {
+      Random random = new Random(SEED);
+
+      for (int n = 0; n < NUM_PAIRS; n++)
+      {
+         String line = RandomLine(random, random.nextInt(MAX_LENGTH + 1));
+         String other;
+         if (random.nextBoolean())
+         {
+            // Close to the line, so that most distances are small
+            other = Mutate(line, random, random.nextInt(8));
+         }
+         else
+         {
+            other = RandomLine(random, random.nextInt(MAX_LENGTH + 1));
+         }
+
+         AssertSameDistance(line, other, random);
+      }
+   }
+
+   @Test
+   void DistanceOfEdgeCasesMatchesLevenshteinDistance()
+   {
+      Random random = new Random(SEED);
+      String[] lines = { "", "a", "ab", "ba", "abc", RandomLine(random, 63), RandomLine(random, 64),
+               RandomLine(random, 65), RandomLine(random, 200), StringUtils.repeat('a', 64),
+               StringUtils.repeat('a', 65), StringUtils.repeat('b', 64), "\u00e9", "\u4e2d\u4e2d" };
+
+      for (String line : lines)
+      {
+         for (String other : lines)
+         {
+            AssertSameDistance(line, other, random);
+            AssertSameDistance(line, Mutate(line, random, 1), random);
+            AssertSameDistance(line, Mutate(line, random, 3), random);
+         }
+      }
+   }
+
+   /**
+    * Checks the bounded distance of a pair of lines against the Levenshtein
+    * distance for several maximum distances
+    *
+    * @param line
+    *           The line compared to the other line
+    * @param other
+    *           The other line
+    * @param random
+    *           Source of random numbers
+    */
+   private static void AssertSameDistance(String line, String other, Random random)
+   {
+      int distance = StringUtils.getLevenshteinDistance(line, other);
+      BoundedEditDistance bounded = new BoundedEditDistance(line);
+      int[] otherProfile = BoundedEditDistance.ComputeProfile(other);
+
+      int[] maxDistances = { 0, distance - 1, distance, distance + 1, random.nextInt(MAX_LENGTH) };
+      for (int maxDistance : maxDistances)
+      {
+         int expected = distance <= maxDistance ? distance : -1;
+         assertEquals(expected, bounded.GetDistance(other, otherProfile, maxDistance),
+                  () -> "Distance of \"" + line + "\" and \"" + other + "\" at most " + maxDistance);
+      }
+   }
+
+   /**
+    * Builds a random line
+    *
+    * @param random
+    *           Source of random numbers
+    * @param length
+    *           Length of the line
+    * @return The line
+    */
+   private static String RandomLine(Random random, int length)
+   {
+      StringBuilder line = new StringBuilder();
+      for (int i = 0; i < length; i++)
+      {
+         line.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      return line.toString();
+   }
+
+   /**
+    * Applies random edits to a line
+    *
+    * @param line
+    *           The line
+    * @param random
+    *           Source of random numbers
+    * @param numEdits
+    *           Number of characters inserted, deleted or substituted
+    * @return The edited line
+    */
+   private static String Mutate(String line, Random random, int numEdits)
+   {
+      StringBuilder edited = new StringBuilder(line);
+      for (int e = 0; e < numEdits; e++)
+      {
+         char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+         int edit = edited.length() == 0 ? 0 : random.nextInt(3);
+         if (edit == 0)
+         {
+            edited.insert(random.nextInt(edited.length() + 1), c);
+         }
+         else if (edit == 1)
+         {
+            edited.deleteCharAt(random.nextInt(edited.length()));
+         }
+         else
+         {
+            edited.setCharAt(random.nextInt(edited.length()), c);
+         }
+      }
+      return edited.toString();
+   }
+}
@@ -0,0 +1,281 @@
+package ucc.diff;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import ucc.main.RuntimeParameters.DiffAlgorithm;
+
+/**
+ * Aligns random and edge case sequences of lines with both algorithms of
+ * LineAligner, and checks that the alignments are valid and as long as a
+ * longest common subsequence computed by dynamic programming.
+ *
+ * <p>
+ * Myers' algorithm must always find a longest common subsequence. Patience
+ * diff may give up a few matches for a better structure, so its alignments are
+ * only required to be that long when no line is repeated within a sequence,
+ * where the unique lines alone make up a longest common subsequence.
+ *
+ * <p>
+ * Random sequences are drawn from alphabets of a few lines, so that lines are
+ * repeated many times and the middle snake has many paths to choose from, up
+ * to alphabets of many lines, so that the sequences have long gaps.
+ *
+ * @author Integrity Applications Incorporated
+ *
+ */
+class LineAlignerTest
+{
+   /** Number of random sequence pairs aligned */
+   private static final int NUM_PAIRS = 5000;
+
+   /** Maximum length of a random sequence */
+   private static final int MAX_LENGTH = 80;
+
+   /** Sizes of the alphabets random sequences are drawn from */
+   private static final int[] ALPHABET_SIZES = { 1, 2, 3, 5, 10, 50 };
+
+   /** Seed of the random sequences, fixed so that failures can be reproduced */
+   private static final long SEED = 20261017L;
+
+   @Test
+   void MyersAlignmentIsLongestCommonSubsequence()
+   {
+      Random random = new Random(SEED);
+
+      for (int n = 0; n < NUM_PAIRS; n++)
+      {
+         int alphabetSize = ALPHABET_SIZES[random.nextInt(ALPHABET_SIZES.length)];
+         int[] linesA = RandomLines(random, random.nextInt(MAX_LENGTH + 1), alphabetSize);
+         int[] linesB = random.nextBoolean() ? Mutate(linesA, random, alphabetSize)
+                  : RandomLines(random, random.nextInt(MAX_LENGTH + 1), alphabetSize);
+
+         int[] matchesA = LineAligner.Align(linesA, linesB, DiffAlgorithm.MYERS);
+         assertEquals(GetLcsLength(linesA, linesB), CountMatches(linesA, linesB, matchesA),
+                  () -> "Myers alignment of " + Arrays.toString(linesA) + " and " + Arrays.toString(linesB));
+      }
+   }
+
+   @Test
+   void PatienceAlignmentIsValid()
+   {
+      Random random = new Random(SEED);
+
+      for (int n = 0; n < NUM_PAIRS; n++)
+      {
+         int alphabetSize = ALPHABET_SIZES[random.nextInt(ALPHABET_SIZES.length)];
+         int[] linesA = RandomLines(random, random.nextInt(MAX_LENGTH + 1), alphabetSize);
+         int[] linesB = random.nextBoolean() ? Mutate(linesA, random, alphabetSize)
+                  : RandomLines(random, random.nextInt(MAX_LENGTH + 1), alphabetSize);
+
+         int[] matchesA = LineAligner.Align(linesA, linesB, DiffAlgorithm.PATIENCE);
+         assertTrue(CountMatches(linesA, linesB, matchesA) <= GetLcsLength(linesA, linesB));
+      }
+   }
+
+   @Test
+   void PatienceAlignmentOfUniqueLinesIsLongestCommonSubsequence()
+   {
+      Random random = new Random(SEED);
+
+      for (int n = 0; n < NUM_PAIRS; n++)
+      {
+         int[] linesA = RandomUniqueLines(random, random.nextInt(MAX_LENGTH + 1));
+         int[] linesB = RandomUniqueLines(random, random.nextInt(MAX_LENGTH + 1));
+
+         int[] matchesA = LineAligner.Align(linesA, linesB, DiffAlgorithm.PATIENCE);
+         assertEquals(GetLcsLength(linesA, linesB), CountMatches(linesA, linesB, matchesA),
+                  () -> "Patience alignment of " + Arrays.toString(linesA) + " and " + Arrays.toString(linesB));
+      }
+   }
+
+   @Test
+   void AlignmentOfEdgeCases()
+   {
+      int[] empty = {};
+      int[] lines = { 1, 2, 3, 1, 2, 3, 4 };
+      int[] disjointLines = { 5, 6, 7, 5, 6 };
+      int[] sameLine = { 1, 1, 1, 1 };
+      int[] moreOfSameLine = { 1, 1, 1, 1, 1, 1 };
+
+      for (DiffAlgorithm algorithm : new DiffAlgorithm[] { DiffAlgorithm.MYERS, DiffAlgorithm.PATIENCE })
+      {
+         // Empty sequences
+         assertArrayEquals(empty, LineAligner.Align(empty, empty, algorithm));
+         assertArrayEquals(empty, LineAligner.Align(empty, lines, algorithm));
+         assertArrayEquals(new int[] { -1, -1, -1, -1, -1, -1, -1 }, LineAligner.Align(lines, empty, algorithm));
+
+         // All lines equal
+         assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6 }, LineAligner.Align(lines, lines.clone(), algorithm));
+         assertArrayEquals(new int[] { 0, 1, 2, 3 }, LineAligner.Align(sameLine, sameLine.clone(), algorithm));
+
+         // No lines in common
+         assertArrayEquals(new int[] { -1, -1, -1, -1, -1, -1, -1 },
+                  LineAligner.Align(lines, disjointLines, algorithm));
+         assertArrayEquals(new int[] { -1, -1, -1, -1, -1 }, LineAligner.Align(disjointLines, lines, algorithm));
+
+         // One line repeated a different number of times
+         assertEquals(4, CountMatches(sameLine, moreOfSameLine,
+                  LineAligner.Align(sameLine, moreOfSameLine, algorithm)));
+         assertEquals(4, CountMatches(moreOfSameLine, sameLine,
+                  LineAligner.Align(moreOfSameLine, sameLine, algorithm)));
+      }
+   }
+
+   /**
+    * Checks that an alignment pairs equal lines in increasing order, and
+    * counts its matches
+    *
+    * @param linesA
+    *           Lines of sequence A
+    * @param linesB
+    *           Lines of sequence B
+    * @param matchesA
+    *           The alignment, for each line of A the index of its line of B or
+    *           -1
+    * @return Number of aligned lines
+    */
+   private static int CountMatches(int[] linesA, int[] linesB, int[] matchesA)
+   {
+      assertEquals(linesA.length, matchesA.length);
+
+      int numMatches = 0;
+      int prevB = -1;
+      for (int i = 0; i < linesA.length; i++)
+      {
+         int j = matchesA[i];
+         if (j >= 0)
+         {
+            assertTrue(j > prevB && j < linesB.length, "Aligned indexes are not increasing");
+            assertEquals(linesA[i], linesB[j], "Aligned lines are not equal");
+            prevB = j;
+            numMatches++;
+         }
+         else
+         {
+            assertEquals(-1, j);
+         }
+      }
+      return numMatches;
+   }
+
+   /**
+    * Computes the length of a longest common subsequence of two sequences of
+    * lines by dynamic programming
+    *
+    * @param linesA
+    *           Lines of sequence A
+    * @param linesB
+    *           Lines of sequence B
+    * @return The length
+    */
+   private static int GetLcsLength(int[] linesA, int[] linesB)
+   {
+      int[][] lengths = new int[linesA.length + 1][linesB.length + 1];
+      for (int i = 1; i <= linesA.length; i++)
+      {
+         for (int j = 1; j <= linesB.length; j++)
+         {
+            if (linesA[i - 1] == linesB[j - 1])
+            {
+               lengths[i][j] = lengths[i - 1][j - 1] + 1;
+            }
+            else
+            {
+               lengths[i][j] = Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+            }
+         }
+      }
+      return lengths[linesA.length][linesB.length];
+   }
+
+   /**
+    * Builds a random sequence of lines
+    *
+    * @param random
+    *           Source of random numbers
+    * @param length
+    *           Length of the sequence
+    * @param alphabetSize
+    *           Number of different lines
+    * @return The sequence
+    */
+   private static int[] RandomLines(Random random, int length, int alphabetSize)
+   {
+      int[] lines = new int[length];
+      for (int i = 0; i < length; i++)
+      {
+         lines[i] = random.nextInt(alphabetSize);
+      }
+      return lines;
+   }
+
+   /**
+    * Builds a random sequence of lines, none of them repeated, drawn from twice
+    * as many lines as its length so that two sequences share about half their
+    * lines
+    *
+    * @param random
+    *           Source of random numbers
+    * @param length
+    *           Length of the sequence
+    * @return The sequence
+    */
+   private static int[] RandomUniqueLines(Random random, int length)
+   {
+      int[] alphabet = new int[2 * MAX_LENGTH];
+      for (int i = 0; i < alphabet.length; i++)
+      {
+         alphabet[i] = i;
+      }
+
+      // Partial Fisher-Yates shuffle of the first length lines
+      for (int i = 0; i < length; i++)
+      {
+         int j = i + random.nextInt(alphabet.length - i);
+         int line = alphabet[i];
+         alphabet[i] = alphabet[j];
+         alphabet[j] = line;
+      }
+      return Arrays.copyOf(alphabet, length);
+   }
+
+   /**
+    * Inserts, deletes and replaces random lines of a sequence
+    *
+    * @param lines
+    *           The sequence
+    * @param random
+    *           Source of random numbers
+    * @param alphabetSize
+    *           Number of different lines
+    * @return The edited sequence
+    */
+   private static int[] Mutate(int[] lines, Random random, int alphabetSize)
+   {
+      int[] edited = new int[2 * lines.length + 1];
+      int length = 0;
+      for (int line : lines)
+      {
+         int edit = random.nextInt(6);
+         if (edit == 0)
+         {
+            // Delete the line
+            continue;
+         }
+         if (edit == 1)
+         {
+            // Insert a line before it
+            edited[length++] = random.nextInt(alphabetSize);
+         }
+         edited[length++] = edit == 2 ? random.nextInt(alphabetSize) : line;
+      }
+      return Arrays.copyOf(edited, length);
+   }
+}